@@ -0,0 +1,287 @@
+package com.jvnyor.cryptographychallenge.archive;
+
+import com.jvnyor.cryptographychallenge.tenant.TenantResolver;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.LongConsumer;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * An immutable, memory-mapped file of archived transactions sorted by id.
+ * <p>
+ * Transactions are grouped into blocks that are deflated and checksummed one by one. A sparse index with the first
+ * id, offset, length and CRC-32 of every block sits at the end of the file, followed by a fixed-size footer. A
+ * lookup binary-searches the index, kept on the heap, and inflates a single block.
+ */
+public class ArchiveSegment {
+
+    private static final int MAGIC = 0x54584152;
+
+    private static final int VERSION = 2;
+
+    /**
+     * Segments written before tenancy, whose transactions all belong to the default tenant.
+     */
+    private static final int VERSION_WITHOUT_TENANT = 1;
+
+    private static final int HEADER_SIZE = Integer.BYTES * 2;
+
+    private static final int INDEX_ENTRY_SIZE = Long.BYTES * 2 + Integer.BYTES * 2;
+
+    private static final int FOOTER_SIZE = Integer.BYTES * 2 + Long.BYTES * 3;
+
+    private final Path path;
+
+    private final ByteBuffer buffer;
+
+    private final int version;
+
+    private final long minId;
+
+    private final long maxId;
+
+    private final long[] blockFirstIds;
+
+    private final long[] blockOffsets;
+
+    private final int[] blockLengths;
+
+    private final int[] blockChecksums;
+
+    private ArchiveSegment(Path path, ByteBuffer buffer, int version, long minId, long maxId, long[] blockFirstIds, long[] blockOffsets, int[] blockLengths, int[] blockChecksums) {
+        this.path = path;
+        this.buffer = buffer;
+        this.version = version;
+        this.minId = minId;
+        this.maxId = maxId;
+        this.blockFirstIds = blockFirstIds;
+        this.blockOffsets = blockOffsets;
+        this.blockLengths = blockLengths;
+        this.blockChecksums = blockChecksums;
+    }
+
+    /**
+     * Writes the transactions, which must be sorted by id, to a new segment file. The file is written under a
+     * temporary name, forced to disk and then moved into place, so a segment is either complete or absent.
+     */
+    public static ArchiveSegment write(Path path, List<ArchivedTransaction> transactions, int blockSize) {
+        if (transactions.isEmpty()) {
+            throw new IllegalArgumentException("An archive segment needs at least one transaction");
+        }
+        var temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+        try (var channel = FileChannel.open(temporaryPath, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            var blockCount = (transactions.size() + blockSize - 1) / blockSize;
+            var index = ByteBuffer.allocate(blockCount * INDEX_ENTRY_SIZE);
+            channel.write(ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).flip());
+            for (int from = 0; from < transactions.size(); from += blockSize) {
+                var block = transactions.subList(from, Math.min(from + blockSize, transactions.size()));
+                var compressed = deflate(encode(block));
+                var crc = new CRC32();
+                crc.update(compressed);
+                index.putLong(block.get(0).id()).putLong(channel.position()).putInt(compressed.length).putInt((int) crc.getValue());
+                channel.write(ByteBuffer.wrap(compressed));
+            }
+            var indexOffset = channel.position();
+            channel.write(index.flip());
+            channel.write(ByteBuffer.allocate(FOOTER_SIZE)
+                    .putInt(blockCount)
+                    .putLong(transactions.get(0).id())
+                    .putLong(transactions.get(transactions.size() - 1).id())
+                    .putLong(indexOffset)
+                    .putInt(MAGIC)
+                    .flip());
+            channel.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write archive segment " + path, e);
+        }
+        try {
+            Files.move(temporaryPath, path, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to publish archive segment " + path, e);
+        }
+        return open(path);
+    }
+
+    public static ArchiveSegment open(Path path) {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            var version = buffer.getInt(Integer.BYTES);
+            if (buffer.getInt(0) != MAGIC || version < VERSION_WITHOUT_TENANT || version > VERSION || buffer.getInt(buffer.limit() - Integer.BYTES) != MAGIC) {
+                throw new IllegalStateException("Not an archive segment: " + path);
+            }
+            var footer = buffer.limit() - FOOTER_SIZE;
+            var blockCount = buffer.getInt(footer);
+            var minId = buffer.getLong(footer + Integer.BYTES);
+            var maxId = buffer.getLong(footer + Integer.BYTES + Long.BYTES);
+            var indexOffset = (int) buffer.getLong(footer + Integer.BYTES + Long.BYTES * 2);
+            var blockFirstIds = new long[blockCount];
+            var blockOffsets = new long[blockCount];
+            var blockLengths = new int[blockCount];
+            var blockChecksums = new int[blockCount];
+            for (int block = 0; block < blockCount; block++) {
+                var entry = indexOffset + block * INDEX_ENTRY_SIZE;
+                blockFirstIds[block] = buffer.getLong(entry);
+                blockOffsets[block] = buffer.getLong(entry + Long.BYTES);
+                blockLengths[block] = buffer.getInt(entry + Long.BYTES * 2);
+                blockChecksums[block] = buffer.getInt(entry + Long.BYTES * 2 + Integer.BYTES);
+            }
+            return new ArchiveSegment(path, buffer, version, minId, maxId, blockFirstIds, blockOffsets, blockLengths, blockChecksums);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open archive segment " + path, e);
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public boolean mayContain(long id) {
+        return id >= minId && id <= maxId;
+    }
+
+    public Optional<ArchivedTransaction> find(long id) {
+        if (!mayContain(id)) {
+            return Optional.empty();
+        }
+        var position = Arrays.binarySearch(blockFirstIds, id);
+        var block = position >= 0 ? position : -position - 2;
+        if (block < 0) {
+            return Optional.empty();
+        }
+        try (var input = new DataInputStream(new ByteArrayInputStream(inflate(block)))) {
+            var count = input.readInt();
+            for (int record = 0; record < count; record++) {
+                var transaction = decode(input, version);
+                if (transaction.id() >= id) {
+                    return transaction.id() == id ? Optional.of(transaction) : Optional.empty();
+                }
+            }
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Corrupted archive segment " + path, e);
+        }
+    }
+
+    /**
+     * Passes every id in the segment to the consumer in ascending order, inflating each block once.
+     */
+    public void forEachId(LongConsumer consumer) {
+        for (int block = 0; block < blockFirstIds.length; block++) {
+            try (var input = new DataInputStream(new ByteArrayInputStream(inflate(block)))) {
+                var count = input.readInt();
+                for (int record = 0; record < count; record++) {
+                    consumer.accept(decode(input, version).id());
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Corrupted archive segment " + path, e);
+            }
+        }
+    }
+
+    private byte[] inflate(int block) throws IOException {
+        var compressed = buffer.slice((int) blockOffsets[block], blockLengths[block]);
+        var crc = new CRC32();
+        crc.update(compressed.duplicate());
+        if ((int) crc.getValue() != blockChecksums[block]) {
+            throw new IOException("Checksum mismatch in block " + block);
+        }
+        var inflater = new Inflater();
+        try (var output = new ByteArrayOutputStream(blockLengths[block] * 2)) {
+            inflater.setInput(compressed);
+            var chunk = new byte[8192];
+            while (!inflater.finished()) {
+                var inflated = inflater.inflate(chunk);
+                if (inflated == 0 && inflater.needsInput()) {
+                    throw new IOException("Truncated block " + block);
+                }
+                output.write(chunk, 0, inflated);
+            }
+            return output.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IOException("Malformed block " + block, e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static byte[] encode(List<ArchivedTransaction> block) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        try (var output = new DataOutputStream(bytes)) {
+            output.writeInt(block.size());
+            for (ArchivedTransaction transaction : block) {
+                output.writeLong(transaction.id());
+                output.writeDouble(transaction.value());
+                output.writeLong(transaction.createdAt().getEpochSecond());
+                output.writeInt(transaction.createdAt().getNano());
+                output.writeUTF(transaction.userDocumentHash());
+                output.writeUTF(transaction.userDocumentSuffix());
+                output.writeUTF(transaction.creditCardTokenLastFour());
+                output.writeUTF(transaction.tenantId());
+                writeCiphertext(output, transaction.userDocument());
+                writeCiphertext(output, transaction.creditCardToken());
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static ArchivedTransaction decode(DataInputStream input, int version) throws IOException {
+        var id = input.readLong();
+        var value = input.readDouble();
+        var createdAt = Instant.ofEpochSecond(input.readLong(), input.readInt());
+        var userDocumentHash = input.readUTF();
+        var userDocumentSuffix = input.readUTF();
+        var creditCardTokenLastFour = input.readUTF();
+        var tenantId = version == VERSION_WITHOUT_TENANT ? TenantResolver.DEFAULT_TENANT : input.readUTF();
+        var userDocument = readCiphertext(input);
+        var creditCardToken = readCiphertext(input);
+        return new ArchivedTransaction(id, tenantId, userDocument, userDocumentHash, userDocumentSuffix, creditCardToken, creditCardTokenLastFour, value, createdAt);
+    }
+
+    private static void writeCiphertext(DataOutputStream output, String ciphertext) throws IOException {
+        var bytes = Base64.getDecoder().decode(ciphertext);
+        output.writeShort(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readCiphertext(DataInputStream input) throws IOException {
+        var bytes = new byte[input.readUnsignedShort()];
+        input.readFully(bytes);
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+
+    private static byte[] deflate(byte[] bytes) {
+        var deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (var output = new ByteArrayOutputStream(bytes.length)) {
+            deflater.setInput(bytes);
+            deflater.finish();
+            var chunk = new byte[8192];
+            while (!deflater.finished()) {
+                output.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return output.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deflater.end();
+        }
+    }
+}
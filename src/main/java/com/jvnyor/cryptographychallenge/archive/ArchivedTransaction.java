@@ -0,0 +1,21 @@
+package com.jvnyor.cryptographychallenge.archive;
+
+import java.time.Instant;
+
+/**
+ * A transaction as stored in the archive. Ciphertexts are kept as stored in the database, including the vault's
+ * credit card token ciphertext, so archived transactions can be read without the database. Both are encrypted with
+ * the key of the tenant.
+ */
+public record ArchivedTransaction(
+        long id,
+        String tenantId,
+        String userDocument,
+        String userDocumentHash,
+        String userDocumentSuffix,
+        String creditCardToken,
+        String creditCardTokenLastFour,
+        double value,
+        Instant createdAt
+) {
+}
@@ -0,0 +1,98 @@
+package com.jvnyor.cryptographychallenge.archive;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Cold tier for transactions moved out of the database: an append-only directory of immutable
+ * {@link ArchiveSegment} files. Segments are named by creation time and searched newest first, and their id ranges
+ * may overlap, since each move archives whatever became old enough.
+ */
+public class TransactionArchive {
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Logger log = LoggerFactory.getLogger(TransactionArchive.class);
+
+    private final Path directory;
+
+    private final int blockSize;
+
+    private final List<ArchiveSegment> segments = new CopyOnWriteArrayList<>();
+
+    public TransactionArchive(Path directory, int blockSize) {
+        this.directory = directory;
+        this.blockSize = blockSize;
+        if (directory != null) {
+            try {
+                Files.createDirectories(directory);
+                try (Stream<Path> files = Files.list(directory)) {
+                    files.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                            .sorted(Comparator.reverseOrder())
+                            .map(ArchiveSegment::open)
+                            .forEach(segments::add);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to open transaction archive " + directory, e);
+            }
+            log.info("Opened transaction archive {} with {} segments", directory, segments.size());
+        }
+    }
+
+    /**
+     * An archive without segments, for when archiving is disabled.
+     */
+    public static TransactionArchive empty() {
+        return new TransactionArchive(null, 1);
+    }
+
+    /**
+     * Writes the transactions to a new segment. Appending a transaction that is already archived is harmless, both
+     * copies hold the same data.
+     */
+    public synchronized void append(List<ArchivedTransaction> transactions) {
+        if (directory == null) {
+            throw new IllegalStateException("Transaction archive is disabled");
+        }
+        if (transactions.isEmpty()) {
+            return;
+        }
+        var sorted = transactions.stream()
+                .sorted(Comparator.comparingLong(ArchivedTransaction::id))
+                .toList();
+        var name = "segment-%020d-%020d%s".formatted(System.currentTimeMillis(), sorted.get(0).id(), SEGMENT_SUFFIX);
+        segments.add(0, ArchiveSegment.write(directory.resolve(name), sorted, blockSize));
+        log.info("Archived {} transactions to {}", sorted.size(), name);
+    }
+
+    public Optional<ArchivedTransaction> find(long id) {
+        for (ArchiveSegment segment : segments) {
+            if (segment.mayContain(id)) {
+                var transaction = segment.find(id);
+                if (transaction.isPresent()) {
+                    return transaction;
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    public void forEachId(LongConsumer consumer) {
+        segments.forEach(segment -> segment.forEachId(consumer));
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+}
@@ -0,0 +1,114 @@
+package com.jvnyor.cryptographychallenge.archive;
+
+import com.jvnyor.cryptographychallenge.datasource.ShardTemplate;
+import com.jvnyor.cryptographychallenge.entities.Transaction;
+import com.jvnyor.cryptographychallenge.repositories.TransactionRepository;
+import com.jvnyor.cryptographychallenge.services.TransactionAggregateService;
+import com.jvnyor.cryptographychallenge.util.CacheConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Moves transactions older than {@code app.archive.age} from the database into the {@link TransactionArchive},
+ * one batch per transaction. A batch is archived before its rows are deleted, so a failed delete only leaves a
+ * duplicate behind. Archived transactions stay readable but can no longer be updated or deleted; they stay counted
+ * in the user summaries, which keep their value bounds.
+ */
+@Component
+@ConditionalOnProperty(name = "app.archive.enabled", havingValue = "true")
+public class TransactionArchiver {
+
+    private final Logger log = LoggerFactory.getLogger(TransactionArchiver.class);
+
+    @Value("${app.archive.age}")
+    private Duration age;
+
+    @Value("${app.archive.batch-size}")
+    private int batchSize;
+
+    private final TransactionRepository transactionRepository;
+
+    private final TransactionArchive transactionArchive;
+
+    private final TransactionAggregateService transactionAggregateService;
+
+    private final ShardTemplate shardTemplate;
+
+    private final CacheManager cacheManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public TransactionArchiver(TransactionRepository transactionRepository, TransactionArchive transactionArchive, TransactionAggregateService transactionAggregateService, ShardTemplate shardTemplate, CacheManager cacheManager, PlatformTransactionManager transactionManager) {
+        this.transactionRepository = transactionRepository;
+        this.transactionArchive = transactionArchive;
+        this.transactionAggregateService = transactionAggregateService;
+        this.shardTemplate = shardTemplate;
+        this.cacheManager = cacheManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(initialDelayString = "${app.archive.move-interval}", fixedDelayString = "${app.archive.move-interval}")
+    public void archive() {
+        var cutoff = Instant.now().minus(age);
+        long start = System.nanoTime();
+        var archived = IntStream.range(0, shardTemplate.getShardCount())
+                .map(shard -> archiveShard(shard, cutoff))
+                .sum();
+        if (archived > 0) {
+            Optional.ofNullable(cacheManager.getCache(CacheConstants.GET_TRANSACTIONS)).ifPresent(Cache::clear);
+            log.info("Archived {} transactions created before {} in {} ms", archived, cutoff, Duration.ofNanos(System.nanoTime() - start).toMillis());
+        }
+    }
+
+    private int archiveShard(int shard, Instant cutoff) {
+        int archived = 0;
+        int batch;
+        do {
+            batch = shardTemplate.inShard(shard, false, () -> transactionTemplate.execute(status -> archiveBatch(cutoff)));
+            archived += batch;
+        } while (batch == batchSize);
+        return archived;
+    }
+
+    private int archiveBatch(Instant cutoff) {
+        var transactions = transactionRepository.findArchivable(cutoff, Limit.of(batchSize));
+        if (transactions.isEmpty()) {
+            return 0;
+        }
+        transactionArchive.append(transactions.stream().map(TransactionArchiver::toArchivedTransaction).toList());
+        transactions.stream()
+                .collect(Collectors.groupingBy(Transaction::getUserDocumentHash, Collectors.summarizingDouble(Transaction::getValue)))
+                .forEach((userDocumentHash, values) -> transactionAggregateService.addArchivedBounds(userDocumentHash, values.getMin(), values.getMax()));
+        transactionRepository.deleteAllByIdInBatch(transactions.stream().map(Transaction::getId).toList());
+        return transactions.size();
+    }
+
+    private static ArchivedTransaction toArchivedTransaction(Transaction transaction) {
+        return new ArchivedTransaction(
+                transaction.getId(),
+                transaction.getTenantId(),
+                transaction.getUserDocument(),
+                transaction.getUserDocumentHash(),
+                transaction.getUserDocumentSuffix(),
+                transaction.getCardToken().getToken(),
+                transaction.getCreditCardTokenLastFour(),
+                transaction.getValue(),
+                transaction.getCreatedAt()
+        );
+    }
+}
@@ -0,0 +1,21 @@
+package com.jvnyor.cryptographychallenge.audit;
+
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Who is accessing data: the client address and request line of the current HTTP request, or {@code system} and
+ * the thread name outside of one. Captured on the request thread, so it can be handed to worker threads.
+ */
+public record AuditContext(String actor, String request) {
+
+    private static final String SYSTEM_ACTOR = "system";
+
+    public static AuditContext current() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            var request = attributes.getRequest();
+            return new AuditContext(request.getRemoteAddr(), request.getMethod() + " " + request.getRequestURI());
+        }
+        return new AuditContext(SYSTEM_ACTOR, Thread.currentThread().getName());
+    }
+}
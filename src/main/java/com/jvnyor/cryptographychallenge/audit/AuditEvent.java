@@ -0,0 +1,18 @@
+package com.jvnyor.cryptographychallenge.audit;
+
+import java.time.Instant;
+
+/**
+ * One access to decrypted transaction data: when, which transaction of which tenant and fields, by whom and through
+ * which request.
+ */
+public record AuditEvent(
+        Instant timestamp,
+        long transactionId,
+        String tenantId,
+        String fields,
+        String actor,
+        String request,
+        String thread
+) {
+}
@@ -0,0 +1,140 @@
+package com.jvnyor.cryptographychallenge.audit;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends audit events as JSON lines to files in a directory, one {@link FileChannel} write per batch. A new file
+ * is started once the current one would grow past the maximum size; files are never rewritten. Used by a single
+ * writer thread only.
+ */
+class AuditFileWriter implements Closeable {
+
+    private static final String FILE_PREFIX = "audit-";
+
+    private static final String FILE_SUFFIX = ".log";
+
+    private final Path directory;
+
+    private final long maxFileSize;
+
+    private final boolean fsync;
+
+    private final StringBuilder line = new StringBuilder(256);
+
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+
+    private FileChannel channel;
+
+    private long fileSize;
+
+    private int fileSequence;
+
+    private long files;
+
+    AuditFileWriter(Path directory, long maxFileSize, boolean fsync) throws IOException {
+        this.directory = directory;
+        this.maxFileSize = maxFileSize;
+        this.fsync = fsync;
+        Files.createDirectories(directory);
+    }
+
+    void write(List<AuditEvent> events) throws IOException {
+        buffer.clear();
+        for (AuditEvent event : events) {
+            var bytes = encode(event);
+            var pending = fileSize + buffer.position();
+            if (channel == null || (pending > 0 && pending + bytes.length > maxFileSize)) {
+                flushBuffer();
+                rotate();
+            }
+            if (buffer.remaining() < bytes.length) {
+                flushBuffer();
+                if (buffer.capacity() < bytes.length) {
+                    buffer = ByteBuffer.allocateDirect(bytes.length);
+                }
+            }
+            buffer.put(bytes);
+        }
+        flushBuffer();
+        if (fsync && channel != null) {
+            channel.force(false);
+        }
+    }
+
+    long getFiles() {
+        return files;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.force(true);
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            fileSize += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void rotate() throws IOException {
+        close();
+        var name = "%s%d-%04d%s".formatted(FILE_PREFIX, System.currentTimeMillis(), fileSequence++ % 10_000, FILE_SUFFIX);
+        channel = FileChannel.open(directory.resolve(name), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        fileSize = 0;
+        files++;
+    }
+
+    private byte[] encode(AuditEvent event) {
+        line.setLength(0);
+        line.append("{\"timestamp\":\"").append(event.timestamp())
+                .append("\",\"transactionId\":").append(event.transactionId())
+                .append(",\"tenantId\":");
+        appendString(event.tenantId());
+        line.append(",\"fields\":");
+        appendString(event.fields());
+        line.append(",\"actor\":");
+        appendString(event.actor());
+        line.append(",\"request\":");
+        appendString(event.request());
+        line.append(",\"thread\":");
+        appendString(event.thread());
+        line.append("}\n");
+        return line.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void appendString(String value) {
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            var character = value.charAt(i);
+            switch (character) {
+                case '"' -> line.append("\\\"");
+                case '\\' -> line.append("\\\\");
+                case '\n' -> line.append("\\n");
+                case '\r' -> line.append("\\r");
+                case '\t' -> line.append("\\t");
+                default -> {
+                    if (character < 0x20) {
+                        line.append("\\u%04x".formatted((int) character));
+                    } else {
+                        line.append(character);
+                    }
+                }
+            }
+        }
+        line.append('"');
+    }
+}
@@ -0,0 +1,171 @@
+package com.jvnyor.cryptographychallenge.audit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Audit trail of access to decrypted transaction data.
+ * <p>
+ * Recording an event only puts it into a lock-free {@link MpmcRingBuffer}; a background thread drains the buffer
+ * in batches into rotating append-only files. Callers never wait for audit I/O: when the buffer is full the
+ * {@link OverflowPolicy} decides which event is dropped, and drops are counted. Once closing starts, new events are
+ * rejected and counted as dropped; closing waits for the records already under way, then drains what is left before
+ * returning.
+ */
+public class AuditLog implements Closeable {
+
+    private static final int DROP_OLDEST_ATTEMPTS = 8;
+
+    private final Logger log = LoggerFactory.getLogger(AuditLog.class);
+
+    private final MpmcRingBuffer<AuditEvent> buffer;
+
+    private final int batchSize;
+
+    private final Duration idleWait;
+
+    private final OverflowPolicy overflowPolicy;
+
+    private final AuditFileWriter fileWriter;
+
+    private final Thread writerThread;
+
+    private final AtomicLong recorded = new AtomicLong();
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final AtomicLong written = new AtomicLong();
+
+    private final AtomicLong failed = new AtomicLong();
+
+    private final AtomicInteger recording = new AtomicInteger();
+
+    private volatile boolean accepting;
+
+    private volatile boolean running;
+
+    public AuditLog(Path directory, int bufferSize, int batchSize, long maxFileSize, Duration idleWait, OverflowPolicy overflowPolicy, boolean fsync) {
+        this.buffer = new MpmcRingBuffer<>(bufferSize);
+        this.batchSize = batchSize;
+        this.idleWait = idleWait;
+        this.overflowPolicy = overflowPolicy;
+        try {
+            this.fileWriter = directory == null ? null : new AuditFileWriter(directory, maxFileSize, fsync);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to open audit directory " + directory, e);
+        }
+        this.writerThread = new Thread(this::drain, "audit-writer");
+        this.writerThread.setDaemon(true);
+    }
+
+    /**
+     * An audit log that records nothing, for when auditing is disabled.
+     */
+    public static AuditLog disabled() {
+        return new AuditLog(null, 2, 1, Long.MAX_VALUE, Duration.ZERO, OverflowPolicy.DROP_NEWEST, false);
+    }
+
+    public void start() {
+        if (fileWriter != null) {
+            running = true;
+            accepting = true;
+            writerThread.start();
+        }
+    }
+
+    public void recordDecryption(long transactionId, String tenantId, String fields, AuditContext context) {
+        if (fileWriter == null) {
+            return;
+        }
+        recording.incrementAndGet();
+        try {
+            recorded.incrementAndGet();
+            if (!accepting) {
+                dropped.incrementAndGet();
+                return;
+            }
+            offer(new AuditEvent(Instant.now(), transactionId, tenantId, fields, context.actor(), context.request(), Thread.currentThread().getName()));
+        } finally {
+            recording.decrementAndGet();
+        }
+    }
+
+    private void offer(AuditEvent event) {
+        if (buffer.offer(event)) {
+            return;
+        }
+        if (overflowPolicy == OverflowPolicy.DROP_OLDEST) {
+            for (int attempt = 0; attempt < DROP_OLDEST_ATTEMPTS; attempt++) {
+                if (buffer.poll() != null) {
+                    dropped.incrementAndGet();
+                }
+                if (buffer.offer(event)) {
+                    return;
+                }
+            }
+        }
+        dropped.incrementAndGet();
+    }
+
+    public AuditStatistics getStatistics() {
+        return new AuditStatistics(recorded.get(), dropped.get(), written.get(), failed.get(),
+                fileWriter == null ? 0 : fileWriter.getFiles());
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!running) {
+            return;
+        }
+        accepting = false;
+        while (recording.get() > 0) {
+            Thread.onSpinWait();
+        }
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        var statistics = getStatistics();
+        log.info("Audit log closed: {} events recorded, {} written, {} dropped, {} failed", statistics.recorded(),
+                statistics.written(), statistics.dropped(), statistics.failed());
+    }
+
+    private void drain() {
+        var batch = new ArrayList<AuditEvent>(batchSize);
+        try {
+            while (running || !buffer.isEmpty()) {
+                if (buffer.drainTo(batch, batchSize) == 0) {
+                    LockSupport.parkNanos(idleWait.toNanos());
+                    continue;
+                }
+                try {
+                    fileWriter.write(batch);
+                    written.addAndGet(batch.size());
+                } catch (IOException e) {
+                    failed.addAndGet(batch.size());
+                    log.error("Failed to write {} audit events", batch.size(), e);
+                }
+                batch.clear();
+            }
+        } finally {
+            try {
+                fileWriter.close();
+            } catch (IOException e) {
+                log.error("Failed to close audit file", e);
+            }
+        }
+    }
+}
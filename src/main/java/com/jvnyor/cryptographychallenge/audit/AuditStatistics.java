@@ -0,0 +1,10 @@
+package com.jvnyor.cryptographychallenge.audit;
+
+public record AuditStatistics(
+        long recorded,
+        long dropped,
+        long written,
+        long failed,
+        long files
+) {
+}
@@ -0,0 +1,100 @@
+package com.jvnyor.cryptographychallenge.audit;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free multi-producer, multi-consumer queue after Dmitry Vyukov's design.
+ * <p>
+ * Every slot carries a sequence number telling whether it is ready to be written or read for a given lap, so
+ * producers and consumers only contend on their own position counter. {@link #offer} and {@link #poll} never
+ * block: they fail when the buffer is full or empty.
+ */
+public class MpmcRingBuffer<E> {
+
+    private final int mask;
+
+    private final AtomicReferenceArray<E> elements;
+
+    private final AtomicLongArray sequences;
+
+    private final AtomicLong enqueuePosition = new AtomicLong();
+
+    private final AtomicLong dequeuePosition = new AtomicLong();
+
+    public MpmcRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two, got " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.elements = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int slot = 0; slot < capacity; slot++) {
+            sequences.set(slot, slot);
+        }
+    }
+
+    public boolean offer(E element) {
+        var position = enqueuePosition.get();
+        while (true) {
+            var slot = (int) (position & mask);
+            var difference = sequences.get(slot) - position;
+            if (difference == 0) {
+                if (enqueuePosition.compareAndSet(position, position + 1)) {
+                    elements.lazySet(slot, element);
+                    sequences.set(slot, position + 1);
+                    return true;
+                }
+                position = enqueuePosition.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = enqueuePosition.get();
+            }
+        }
+    }
+
+    public E poll() {
+        var position = dequeuePosition.get();
+        while (true) {
+            var slot = (int) (position & mask);
+            var difference = sequences.get(slot) - (position + 1);
+            if (difference == 0) {
+                if (dequeuePosition.compareAndSet(position, position + 1)) {
+                    var element = elements.get(slot);
+                    elements.lazySet(slot, null);
+                    sequences.set(slot, position + mask + 1);
+                    return element;
+                }
+                position = dequeuePosition.get();
+            } else if (difference < 0) {
+                return null;
+            } else {
+                position = dequeuePosition.get();
+            }
+        }
+    }
+
+    /**
+     * Moves up to {@code maxElements} elements into the list and returns how many were moved.
+     */
+    public int drainTo(List<? super E> target, int maxElements) {
+        var drained = 0;
+        E element;
+        while (drained < maxElements && (element = poll()) != null) {
+            target.add(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    public boolean isEmpty() {
+        return dequeuePosition.get() >= enqueuePosition.get();
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,17 @@
+package com.jvnyor.cryptographychallenge.audit;
+
+/**
+ * What {@link AuditLog} does with an event when its buffer is full. Neither policy blocks the caller.
+ */
+public enum OverflowPolicy {
+
+    /**
+     * Discards the event being recorded.
+     */
+    DROP_NEWEST,
+
+    /**
+     * Discards the oldest buffered event to make room for the new one.
+     */
+    DROP_OLDEST
+}
@@ -0,0 +1,79 @@
+package com.jvnyor.cryptographychallenge.cache.hibernate;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local, bounded second-level cache for Hibernate backed by Caffeine.
+ * <p>
+ * Entity and query result regions are limited by size and expire after write, so entries written by another
+ * node age out even when an invalidation is missed. The update timestamps region is never bounded: losing a
+ * timestamp would let stale query results through. Query results are kept apart per shard by
+ * {@link ShardScopedStorageAccess}.
+ */
+public class CaffeineRegionFactory extends RegionFactoryTemplate {
+
+    private final long maximumSize;
+
+    private final Duration expireAfterWrite;
+
+    private final Map<String, Cache<Object, Object>> caches = new ConcurrentHashMap<>();
+
+    public CaffeineRegionFactory(long maximumSize, Duration expireAfterWrite) {
+        this.maximumSize = maximumSize;
+        this.expireAfterWrite = expireAfterWrite;
+    }
+
+    public List<RegionStatistics> getStatistics() {
+        return caches.entrySet().stream()
+                .map(region -> RegionStatistics.of(region.getKey(), region.getValue()))
+                .sorted(Comparator.comparing(RegionStatistics::regionName))
+                .toList();
+    }
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(DomainDataRegionConfig regionConfig, DomainDataRegionBuildingContext buildingContext) {
+        return new CaffeineStorageAccess(caches.computeIfAbsent(regionConfig.getRegionName(), regionName -> boundedCache()));
+    }
+
+    @Override
+    protected StorageAccess createQueryResultsRegionStorageAccess(String regionName, SessionFactoryImplementor sessionFactory) {
+        return new ShardScopedStorageAccess(new CaffeineStorageAccess(caches.computeIfAbsent(regionName, name -> boundedCache())));
+    }
+
+    @Override
+    protected StorageAccess createTimestampsRegionStorageAccess(String regionName, SessionFactoryImplementor sessionFactory) {
+        return new CaffeineStorageAccess(caches.computeIfAbsent(regionName, name -> Caffeine.newBuilder().recordStats().build()));
+    }
+
+    @Override
+    protected void prepareForUse(SessionFactoryOptions settings, Map<String, Object> configValues) {
+    }
+
+    @Override
+    protected void releaseFromUse() {
+        caches.values().forEach(Cache::invalidateAll);
+        caches.clear();
+    }
+
+    private Cache<Object, Object> boundedCache() {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+}
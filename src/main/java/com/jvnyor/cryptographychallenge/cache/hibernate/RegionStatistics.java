@@ -0,0 +1,18 @@
+package com.jvnyor.cryptographychallenge.cache.hibernate;
+
+import com.github.benmanes.caffeine.cache.Cache;
+
+public record RegionStatistics(
+        String regionName,
+        long size,
+        long hitCount,
+        long missCount,
+        double hitRate,
+        long evictionCount
+) {
+
+    static RegionStatistics of(String regionName, Cache<Object, Object> cache) {
+        var stats = cache.stats();
+        return new RegionStatistics(regionName, cache.estimatedSize(), stats.hitCount(), stats.missCount(), stats.hitRate(), stats.evictionCount());
+    }
+}
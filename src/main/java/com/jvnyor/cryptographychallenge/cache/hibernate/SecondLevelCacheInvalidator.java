@@ -0,0 +1,53 @@
+package com.jvnyor.cryptographychallenge.cache.hibernate;
+
+import com.jvnyor.cryptographychallenge.cache.invalidation.CacheInvalidation;
+import com.jvnyor.cryptographychallenge.cache.invalidation.CacheInvalidationBus;
+import com.jvnyor.cryptographychallenge.entities.Transaction;
+import com.jvnyor.cryptographychallenge.util.CacheConstants;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Applies transaction invalidations received from other nodes to the local second-level cache. An evicted
+ * transaction is dropped from the entity region, and a cleared listing cache, which every write clears, drops
+ * the cached query results.
+ */
+@Component
+@ConditionalOnProperty(name = "app.cache.hibernate.enabled", havingValue = "true")
+public class SecondLevelCacheInvalidator {
+
+    private final Cache cache;
+
+    public SecondLevelCacheInvalidator(EntityManagerFactory entityManagerFactory, ObjectProvider<CacheInvalidationBus> cacheInvalidationBus) {
+        this.cache = entityManagerFactory.getCache().unwrap(Cache.class);
+        cacheInvalidationBus.ifAvailable(bus -> bus.subscribe(this::apply));
+    }
+
+    void apply(CacheInvalidation invalidation) {
+        switch (invalidation.cacheName()) {
+            case CacheConstants.GET_TRANSACTION -> {
+                if (invalidation.isClear()) {
+                    cache.evictEntityData(Transaction.class);
+                } else {
+                    parseId(invalidation.key()).ifPresent(id -> cache.evictEntityData(Transaction.class, id));
+                }
+            }
+            case CacheConstants.GET_TRANSACTIONS -> cache.evictQueryRegions();
+            default -> {
+            }
+        }
+    }
+
+    private static Optional<Long> parseId(String key) {
+        try {
+            return Optional.of(Long.parseLong(key.substring(key.indexOf('[') + 1, key.length() - 1)));
+        } catch (RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.jvnyor.cryptographychallenge.cache.hibernate;
+
+import com.jvnyor.cryptographychallenge.datasource.ShardContext;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+/**
+ * Keys query results by the shard bound to the current thread as well. Hibernate builds a query cache key from the
+ * SQL and its parameters only, so without the shard the same query would return the results read from whichever
+ * shard ran it first. Entity regions need no scoping since ids are unique across shards, and the update timestamps
+ * are kept per table, so a write on any shard invalidates the results of all of them.
+ */
+public class ShardScopedStorageAccess implements StorageAccess {
+
+    private final StorageAccess delegate;
+
+    public ShardScopedStorageAccess(StorageAccess delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+        return delegate.getFromCache(scoped(key), session);
+    }
+
+    @Override
+    public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+        delegate.putIntoCache(scoped(key), value, session);
+    }
+
+    @Override
+    public boolean contains(Object key) {
+        return delegate.contains(scoped(key));
+    }
+
+    @Override
+    public void evictData() {
+        delegate.evictData();
+    }
+
+    @Override
+    public void evictData(Object key) {
+        delegate.evictData(scoped(key));
+    }
+
+    @Override
+    public void release() {
+        delegate.release();
+    }
+
+    private static Object scoped(Object key) {
+        var shard = ShardContext.get();
+        return shard == null ? key : new ShardKey(shard, key);
+    }
+
+    private record ShardKey(int shard, Object key) {
+    }
+}
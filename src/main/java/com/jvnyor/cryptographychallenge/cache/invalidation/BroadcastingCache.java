@@ -0,0 +1,101 @@
+package com.jvnyor.cryptographychallenge.cache.invalidation;
+
+import org.springframework.cache.Cache;
+import org.springframework.lang.NonNull;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Publishes local evictions on the {@link CacheInvalidationBus}. Inside a transaction the invalidation is only
+ * published after commit, so other nodes cannot reload the old row between the remote eviction and the commit.
+ * Keys are sent as their string form, which is what the application key generator produces.
+ */
+public class BroadcastingCache implements Cache {
+
+    private final Cache delegate;
+
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    public BroadcastingCache(Cache delegate, CacheInvalidationBus cacheInvalidationBus) {
+        this.delegate = delegate;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+    }
+
+    @NonNull
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @NonNull
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(@NonNull Object key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public <T> T get(@NonNull Object key, Class<T> type) {
+        return delegate.get(key, type);
+    }
+
+    @Override
+    public <T> T get(@NonNull Object key, @NonNull Callable<T> valueLoader) {
+        return delegate.get(key, valueLoader);
+    }
+
+    @Override
+    public void put(@NonNull Object key, Object value) {
+        delegate.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(@NonNull Object key, Object value) {
+        return delegate.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(@NonNull Object key) {
+        delegate.evict(key);
+        publishAfterCommit(new CacheInvalidation(getName(), key.toString()));
+    }
+
+    @Override
+    public boolean evictIfPresent(@NonNull Object key) {
+        boolean evicted = delegate.evictIfPresent(key);
+        publishAfterCommit(new CacheInvalidation(getName(), key.toString()));
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        publishAfterCommit(CacheInvalidation.clear(getName()));
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean invalidated = delegate.invalidate();
+        publishAfterCommit(CacheInvalidation.clear(getName()));
+        return invalidated;
+    }
+
+    private void publishAfterCommit(CacheInvalidation invalidation) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cacheInvalidationBus.publish(invalidation);
+                }
+            });
+        } else {
+            cacheInvalidationBus.publish(invalidation);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.jvnyor.cryptographychallenge.cache.invalidation;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.lang.NonNull;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Wraps the local {@link CacheManager} so every eviction and clear is also published on the
+ * {@link CacheInvalidationBus}, and invalidations received from other nodes are applied to the local caches.
+ */
+public class BroadcastingCacheManager implements CacheManager {
+
+    private final CacheManager delegate;
+
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    private final ConcurrentMap<String, Cache> caches = new ConcurrentHashMap<>();
+
+    public BroadcastingCacheManager(CacheManager delegate, CacheInvalidationBus cacheInvalidationBus) {
+        this.delegate = delegate;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        cacheInvalidationBus.subscribe(this::applyRemoteInvalidation);
+    }
+
+    @Override
+    public Cache getCache(@NonNull String name) {
+        return caches.computeIfAbsent(name, cacheName -> Optional.ofNullable(delegate.getCache(cacheName))
+                .map(cache -> new BroadcastingCache(cache, cacheInvalidationBus))
+                .orElse(null));
+    }
+
+    @NonNull
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    private void applyRemoteInvalidation(CacheInvalidation invalidation) {
+        Optional.ofNullable(delegate.getCache(invalidation.cacheName()))
+                .ifPresent(cache -> {
+                    if (invalidation.isClear()) {
+                        cache.clear();
+                    } else {
+                        cache.evict(invalidation.key());
+                    }
+                });
+    }
+}
@@ -0,0 +1,15 @@
+package com.jvnyor.cryptographychallenge.cache.invalidation;
+
+/**
+ * A single cache invalidation; a {@code null} key clears the whole cache.
+ */
+public record CacheInvalidation(String cacheName, String key) {
+
+    public static CacheInvalidation clear(String cacheName) {
+        return new CacheInvalidation(cacheName, null);
+    }
+
+    public boolean isClear() {
+        return key == null;
+    }
+}
@@ -0,0 +1,210 @@
+package com.jvnyor.cryptographychallenge.cache.invalidation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts local cache invalidations to the other nodes of the cluster and applies theirs locally.
+ * <p>
+ * Invalidations are coalesced until the next flush: repeated keys are sent once and a clear of a cache swallows
+ * every pending key of that cache. Each flush packs the pending invalidations into as few payloads as the
+ * configured payload size allows.
+ */
+public class CacheInvalidationBus implements AutoCloseable {
+
+    private final Logger log = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final CacheInvalidationTransport transport;
+
+    private final Duration flushInterval;
+
+    private final int maxPayloadBytes;
+
+    private final List<Consumer<CacheInvalidation>> listeners = new CopyOnWriteArrayList<>();
+
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        var thread = new Thread(runnable, "cache-invalidation-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong publishedInvalidations = new AtomicLong();
+
+    private final AtomicLong sentInvalidations = new AtomicLong();
+
+    private final AtomicLong sentPayloads = new AtomicLong();
+
+    private final AtomicLong receivedInvalidations = new AtomicLong();
+
+    private Map<String, Set<String>> pending = new LinkedHashMap<>();
+
+    public CacheInvalidationBus(CacheInvalidationTransport transport, Duration flushInterval, int maxPayloadBytes) {
+        this.transport = transport;
+        this.flushInterval = flushInterval;
+        this.maxPayloadBytes = maxPayloadBytes;
+    }
+
+    public void start() {
+        transport.subscribe(this::receive);
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+        log.info("Cache invalidation bus started on node {}", nodeId);
+    }
+
+    public void subscribe(Consumer<CacheInvalidation> listener) {
+        listeners.add(listener);
+    }
+
+    public void publish(CacheInvalidation invalidation) {
+        publishedInvalidations.incrementAndGet();
+        synchronized (this) {
+            if (invalidation.isClear()) {
+                pending.put(invalidation.cacheName(), null);
+                return;
+            }
+            if (pending.containsKey(invalidation.cacheName()) && pending.get(invalidation.cacheName()) == null) {
+                return;
+            }
+            pending.computeIfAbsent(invalidation.cacheName(), cacheName -> new LinkedHashSet<>()).add(invalidation.key());
+        }
+    }
+
+    public void flush() {
+        Map<String, Set<String>> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new LinkedHashMap<>();
+        }
+        var invalidations = new ArrayList<CacheInvalidation>();
+        batch.forEach((cacheName, keys) -> {
+            if (keys == null) {
+                invalidations.add(CacheInvalidation.clear(cacheName));
+            } else {
+                keys.forEach(key -> invalidations.add(new CacheInvalidation(cacheName, key)));
+            }
+        });
+        encode(invalidations).forEach(payload -> {
+            transport.send(payload);
+            sentPayloads.incrementAndGet();
+        });
+        sentInvalidations.addAndGet(invalidations.size());
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush cache invalidations", e);
+        }
+    }
+
+    private void receive(byte[] payload) {
+        try (var input = new DataInputStream(new ByteArrayInputStream(payload))) {
+            if (nodeId.equals(input.readUTF())) {
+                return;
+            }
+            int count = input.readInt();
+            for (int i = 0; i < count; i++) {
+                var cacheName = input.readUTF();
+                var invalidation = input.readBoolean()
+                        ? new CacheInvalidation(cacheName, input.readUTF())
+                        : CacheInvalidation.clear(cacheName);
+                receivedInvalidations.incrementAndGet();
+                listeners.forEach(listener -> listener.accept(invalidation));
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Discarding malformed cache invalidation payload", e);
+        }
+    }
+
+    private List<byte[]> encode(List<CacheInvalidation> invalidations) {
+        var payloads = new ArrayList<byte[]>();
+        var entries = new ByteArrayOutputStream();
+        int count = 0;
+        for (CacheInvalidation invalidation : invalidations) {
+            var entry = encodeEntry(invalidation);
+            if (count > 0 && headerSize() + entries.size() + entry.length > maxPayloadBytes) {
+                payloads.add(encodePayload(count, entries.toByteArray()));
+                entries.reset();
+                count = 0;
+            }
+            entries.writeBytes(entry);
+            count++;
+        }
+        if (count > 0) {
+            payloads.add(encodePayload(count, entries.toByteArray()));
+        }
+        return payloads;
+    }
+
+    private int headerSize() {
+        return 2 + nodeId.length() + Integer.BYTES;
+    }
+
+    private byte[] encodePayload(int count, byte[] entries) {
+        var payload = new ByteArrayOutputStream(headerSize() + entries.length);
+        try (var output = new DataOutputStream(payload)) {
+            output.writeUTF(nodeId);
+            output.writeInt(count);
+            output.write(entries);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return payload.toByteArray();
+    }
+
+    private static byte[] encodeEntry(CacheInvalidation invalidation) {
+        var entry = new ByteArrayOutputStream();
+        try (var output = new DataOutputStream(entry)) {
+            output.writeUTF(invalidation.cacheName());
+            output.writeBoolean(!invalidation.isClear());
+            if (!invalidation.isClear()) {
+                output.writeUTF(invalidation.key());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return entry.toByteArray();
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public long getPublishedInvalidations() {
+        return publishedInvalidations.get();
+    }
+
+    public long getSentInvalidations() {
+        return sentInvalidations.get();
+    }
+
+    public long getSentPayloads() {
+        return sentPayloads.get();
+    }
+
+    public long getReceivedInvalidations() {
+        return receivedInvalidations.get();
+    }
+
+    @Override
+    public void close() {
+        flusher.shutdown();
+        flushQuietly();
+        transport.close();
+    }
+}
@@ -0,0 +1,17 @@
+package com.jvnyor.cryptographychallenge.cache.invalidation;
+
+import java.util.function.Consumer;
+
+/**
+ * Moves encoded invalidation batches between nodes. Implementations only need best-effort delivery to every
+ * subscribed node; {@link CacheInvalidationBus} takes care of encoding, batching and ignoring its own messages.
+ */
+public interface CacheInvalidationTransport extends AutoCloseable {
+
+    void send(byte[] payload);
+
+    void subscribe(Consumer<byte[]> receiver);
+
+    @Override
+    void close();
+}
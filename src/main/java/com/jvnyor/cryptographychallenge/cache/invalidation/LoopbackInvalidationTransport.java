@@ -0,0 +1,44 @@
+package com.jvnyor.cryptographychallenge.cache.invalidation;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.Consumer;
+
+/**
+ * Delivers payloads to every transport on the same channel inside this JVM, so several application contexts can
+ * act as cluster nodes in tests without any network access.
+ */
+public class LoopbackInvalidationTransport implements CacheInvalidationTransport {
+
+    private static final Map<String, Set<LoopbackInvalidationTransport>> CHANNELS = new ConcurrentHashMap<>();
+
+    private final String channel;
+
+    private final Set<Consumer<byte[]>> receivers = new CopyOnWriteArraySet<>();
+
+    public LoopbackInvalidationTransport(String channel) {
+        this.channel = channel;
+        CHANNELS.computeIfAbsent(channel, name -> new CopyOnWriteArraySet<>()).add(this);
+    }
+
+    @Override
+    public void send(byte[] payload) {
+        CHANNELS.getOrDefault(channel, Set.of())
+                .forEach(transport -> transport.receivers.forEach(receiver -> receiver.accept(payload)));
+    }
+
+    @Override
+    public void subscribe(Consumer<byte[]> receiver) {
+        receivers.add(receiver);
+    }
+
+    @Override
+    public void close() {
+        CHANNELS.computeIfPresent(channel, (name, transports) -> {
+            transports.remove(this);
+            return transports.isEmpty() ? null : transports;
+        });
+    }
+}
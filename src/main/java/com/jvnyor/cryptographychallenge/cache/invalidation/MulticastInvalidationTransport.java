@@ -0,0 +1,94 @@
+package com.jvnyor.cryptographychallenge.cache.invalidation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.*;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.Consumer;
+
+/**
+ * Sends payloads as UDP datagrams to a multicast group joined by every node of the cluster. Delivery is best
+ * effort; a lost datagram leaves a stale entry only until it is evicted or overwritten locally.
+ */
+public class MulticastInvalidationTransport implements CacheInvalidationTransport {
+
+    public static final int MAX_DATAGRAM_SIZE = 65_507;
+
+    private final Logger log = LoggerFactory.getLogger(MulticastInvalidationTransport.class);
+
+    private final InetSocketAddress group;
+
+    private final MulticastSocket socket;
+
+    private final Set<Consumer<byte[]>> receivers = new CopyOnWriteArraySet<>();
+
+    private final Thread receiverThread;
+
+    public MulticastInvalidationTransport(String groupAddress, int port, String networkInterfaceName, int timeToLive) {
+        try {
+            this.group = new InetSocketAddress(InetAddress.getByName(groupAddress), port);
+            this.socket = new MulticastSocket(port);
+            this.socket.setTimeToLive(timeToLive);
+            var networkInterface = networkInterfaceName == null || networkInterfaceName.isBlank()
+                    ? null
+                    : NetworkInterface.getByName(networkInterfaceName);
+            if (networkInterface != null) {
+                this.socket.setNetworkInterface(networkInterface);
+            }
+            this.socket.joinGroup(group, networkInterface);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to join multicast group " + groupAddress + ":" + port, e);
+        }
+        this.receiverThread = new Thread(this::receive, "cache-invalidation-multicast");
+        this.receiverThread.setDaemon(true);
+        this.receiverThread.start();
+    }
+
+    @Override
+    public void send(byte[] payload) {
+        try {
+            socket.send(new DatagramPacket(payload, payload.length, group));
+        } catch (IOException e) {
+            log.warn("Failed to send cache invalidation datagram", e);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<byte[]> receiver) {
+        receivers.add(receiver);
+    }
+
+    private void receive() {
+        var buffer = new byte[MAX_DATAGRAM_SIZE];
+        while (!socket.isClosed()) {
+            var packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                socket.receive(packet);
+            } catch (IOException e) {
+                if (!socket.isClosed()) {
+                    log.warn("Failed to receive cache invalidation datagram", e);
+                }
+                continue;
+            }
+            var payload = Arrays.copyOfRange(packet.getData(), packet.getOffset(), packet.getOffset() + packet.getLength());
+            receivers.forEach(receiver -> receiver.accept(payload));
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            socket.leaveGroup(group, socket.getNetworkInterface());
+        } catch (IOException e) {
+            log.debug("Failed to leave multicast group", e);
+        } finally {
+            socket.close();
+            receiverThread.interrupt();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.jvnyor.cryptographychallenge.cache.refresh;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts accesses per cache key, with the invocation that loads it. When a cache tracks more keys than allowed,
+ * every count is halved and the keys that drop to zero are forgotten, so the counts follow recent popularity and
+ * the memory stays bounded.
+ */
+public class AccessTracker {
+
+    private final Set<String> cacheNames;
+
+    private final int maxTrackedKeys;
+
+    private final ConcurrentMap<String, ConcurrentMap<Object, TrackedKey>> caches = new ConcurrentHashMap<>();
+
+    public AccessTracker(Set<String> cacheNames, int maxTrackedKeys) {
+        this.cacheNames = Set.copyOf(cacheNames);
+        this.maxTrackedKeys = maxTrackedKeys;
+    }
+
+    public boolean isTracked(String cacheName) {
+        return cacheNames.contains(cacheName);
+    }
+
+    public void record(String cacheName, Object key, CacheInvocation invocation) {
+        if (!isTracked(cacheName)) {
+            return;
+        }
+        var keys = caches.computeIfAbsent(cacheName, name -> new ConcurrentHashMap<>());
+        keys.computeIfAbsent(key, k -> new TrackedKey(k, invocation)).count.incrementAndGet();
+        if (keys.size() > maxTrackedKeys) {
+            age(keys);
+        }
+    }
+
+    public Optional<CacheInvocation> find(String cacheName, Object key) {
+        return Optional.ofNullable(caches.get(cacheName))
+                .map(keys -> keys.get(key))
+                .map(TrackedKey::invocation);
+    }
+
+    public void remove(String cacheName, Object key) {
+        Optional.ofNullable(caches.get(cacheName)).ifPresent(keys -> keys.remove(key));
+    }
+
+    /**
+     * The most accessed keys of the cache, most accessed first.
+     */
+    public List<TrackedKey> topKeys(String cacheName, int limit) {
+        return Optional.ofNullable(caches.get(cacheName)).stream()
+                .flatMap(keys -> keys.values().stream())
+                .sorted(Comparator.comparingLong(TrackedKey::count).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    private void age(ConcurrentMap<Object, TrackedKey> keys) {
+        synchronized (keys) {
+            while (keys.size() > maxTrackedKeys) {
+                keys.values().removeIf(trackedKey -> trackedKey.count.updateAndGet(count -> count / 2) == 0);
+            }
+        }
+    }
+
+    public static final class TrackedKey {
+
+        private final Object key;
+
+        private final CacheInvocation invocation;
+
+        private final AtomicLong count = new AtomicLong();
+
+        private TrackedKey(Object key, CacheInvocation invocation) {
+            this.key = key;
+            this.invocation = invocation;
+        }
+
+        public Object key() {
+            return key;
+        }
+
+        public CacheInvocation invocation() {
+            return invocation;
+        }
+
+        public long count() {
+            return count.get();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.jvnyor.cryptographychallenge.cache.refresh;
+
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.lang.NonNull;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Records every lookup of a {@code @Cacheable} method in the {@link AccessTracker}. The key generator is the one
+ * place that sees both the key and the invocation producing it, which cannot be rebuilt from the key alone.
+ */
+public class AccessTrackingKeyGenerator implements KeyGenerator {
+
+    private static final String[] NO_CACHES = {};
+
+    private final KeyGenerator delegate;
+
+    private final AccessTracker accessTracker;
+
+    private final ConcurrentMap<Method, String[]> cacheNames = new ConcurrentHashMap<>();
+
+    public AccessTrackingKeyGenerator(KeyGenerator delegate, AccessTracker accessTracker) {
+        this.delegate = delegate;
+        this.accessTracker = accessTracker;
+    }
+
+    @NonNull
+    @Override
+    public Object generate(@NonNull Object target, @NonNull Method method, @NonNull Object... params) {
+        var key = delegate.generate(target, method, params);
+        var names = cacheNames.computeIfAbsent(method, m -> cacheNamesOf(target, m));
+        if (names.length > 0) {
+            var invocation = new CacheInvocation(target, method, params.clone());
+            for (var name : names) {
+                accessTracker.record(name, key, invocation);
+            }
+        }
+        return key;
+    }
+
+    private String[] cacheNamesOf(Object target, Method method) {
+        var specificMethod = AopUtils.getMostSpecificMethod(method, AopProxyUtils.ultimateTargetClass(target));
+        return Optional.ofNullable(AnnotatedElementUtils.findMergedAnnotation(specificMethod, Cacheable.class))
+                .map(cacheable -> Arrays.stream(cacheable.cacheNames())
+                        .filter(accessTracker::isTracked)
+                        .toArray(String[]::new))
+                .orElse(NO_CACHES);
+    }
+}
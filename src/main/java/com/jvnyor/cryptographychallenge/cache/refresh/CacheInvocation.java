@@ -0,0 +1,17 @@
+package com.jvnyor.cryptographychallenge.cache.refresh;
+
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+
+/**
+ * A call of a {@code @Cacheable} method on the bean behind its proxy, kept so the entry it produced can be loaded
+ * again without going through the cache.
+ */
+public record CacheInvocation(Object target, Method method, Object[] args) {
+
+    public Object invoke() {
+        ReflectionUtils.makeAccessible(method);
+        return ReflectionUtils.invokeMethod(method, target, args);
+    }
+}
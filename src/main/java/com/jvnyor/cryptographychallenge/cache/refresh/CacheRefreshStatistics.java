@@ -0,0 +1,4 @@
+package com.jvnyor.cryptographychallenge.cache.refresh;
+
+public record CacheRefreshStatistics(long refreshed, long warmed, long failed, long rejected, int pending) {
+}
@@ -0,0 +1,192 @@
+package com.jvnyor.cryptographychallenge.cache.refresh;
+
+import com.jvnyor.cryptographychallenge.cache.singleflight.CacheEventListener;
+import com.jvnyor.cryptographychallenge.cache.singleflight.SingleFlightCache;
+import com.jvnyor.cryptographychallenge.cache.singleflight.SingleFlightCacheManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the tracked caches warm in the background.
+ * <p>
+ * Refresh-ahead: a hit on an entry older than {@code refreshAfterWrite} reloads it on the loader pool while the
+ * current value keeps being served, so popular entries are replaced before they expire instead of missing.
+ * <p>
+ * Warming: an invalidation schedules, after the commit and a short delay that lets a burst of writes settle, a
+ * reload of the {@code topK} most accessed keys of that cache that are no longer cached.
+ * <p>
+ * The loader pool and its queue are bounded; work that does not fit is dropped, since the next hit or
+ * invalidation asks for it again. Reloads run in a read-only transaction and go through
+ * {@link SingleFlightCache#refresh}, so they never race a load of the same key or overwrite a newer invalidation.
+ */
+public class CacheRefresher implements CacheEventListener, Closeable {
+
+    private final Logger log = LoggerFactory.getLogger(CacheRefresher.class);
+
+    private final SingleFlightCacheManager cacheManager;
+
+    private final AccessTracker accessTracker;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Duration refreshAfterWrite;
+
+    private final int topK;
+
+    private final Duration warmDelay;
+
+    private final ThreadPoolExecutor loader;
+
+    private final ScheduledExecutorService warmer;
+
+    private final Set<PendingLoad> pending = ConcurrentHashMap.newKeySet();
+
+    private final Set<String> pendingWarms = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder refreshed = new LongAdder();
+
+    private final LongAdder warmed = new LongAdder();
+
+    private final LongAdder failed = new LongAdder();
+
+    private final LongAdder rejected = new LongAdder();
+
+    public CacheRefresher(SingleFlightCacheManager cacheManager, AccessTracker accessTracker, PlatformTransactionManager transactionManager, Duration refreshAfterWrite, int threads, int queueCapacity, int topK, Duration warmDelay) {
+        this.cacheManager = cacheManager;
+        this.accessTracker = accessTracker;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.refreshAfterWrite = refreshAfterWrite;
+        this.topK = topK;
+        this.warmDelay = warmDelay;
+        this.loader = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), daemonThreads("cache-refresh-"));
+        this.warmer = Executors.newSingleThreadScheduledExecutor(daemonThreads("cache-warmer-"));
+    }
+
+    public void start() {
+        cacheManager.setListener(this);
+    }
+
+    @Override
+    public void onHit(SingleFlightCache cache, Object key) {
+        if (accessTracker.isTracked(cache.getName()) && isDueForRefresh(cache, key)) {
+            submit(cache, key, refreshed);
+        }
+    }
+
+    @Override
+    public void onInvalidation(SingleFlightCache cache, Object key) {
+        if (!accessTracker.isTracked(cache.getName())) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    scheduleWarm(cache);
+                }
+            });
+        } else {
+            scheduleWarm(cache);
+        }
+    }
+
+    public CacheRefreshStatistics getStatistics() {
+        return new CacheRefreshStatistics(refreshed.sum(), warmed.sum(), failed.sum(), rejected.sum(), pending.size());
+    }
+
+    @Override
+    public void close() {
+        cacheManager.setListener(CacheEventListener.NONE);
+        warmer.shutdownNow();
+        loader.shutdownNow();
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean isDueForRefresh(SingleFlightCache cache, Object key) {
+        if (!(cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache)) {
+            return false;
+        }
+        return ((com.github.benmanes.caffeine.cache.Cache<Object, Object>) nativeCache).policy().expireAfterWrite()
+                .flatMap(expiration -> expiration.ageOf(key))
+                .filter(age -> age.compareTo(refreshAfterWrite) >= 0)
+                .isPresent();
+    }
+
+    private void scheduleWarm(SingleFlightCache cache) {
+        if (!pendingWarms.add(cache.getName())) {
+            return;
+        }
+        try {
+            warmer.schedule(() -> warm(cache), warmDelay.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            pendingWarms.remove(cache.getName());
+        }
+    }
+
+    private void warm(SingleFlightCache cache) {
+        pendingWarms.remove(cache.getName());
+        for (var trackedKey : accessTracker.topKeys(cache.getName(), topK)) {
+            if (!cache.isCached(trackedKey.key())) {
+                submit(cache, trackedKey.key(), warmed);
+            }
+        }
+    }
+
+    private void submit(SingleFlightCache cache, Object key, LongAdder counter) {
+        var invocation = accessTracker.find(cache.getName(), key);
+        var pendingLoad = new PendingLoad(cache.getName(), key);
+        if (invocation.isEmpty() || !pending.add(pendingLoad)) {
+            return;
+        }
+        try {
+            loader.execute(() -> {
+                try {
+                    if (cache.refresh(key, () -> transactionTemplate.execute(status -> invocation.get().invoke()))) {
+                        counter.increment();
+                    }
+                } catch (RuntimeException e) {
+                    failed.increment();
+                    accessTracker.remove(cache.getName(), key);
+                    log.debug("Could not reload key {} of cache {}", key, cache.getName(), e);
+                } finally {
+                    pending.remove(pendingLoad);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(pendingLoad);
+            rejected.increment();
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        var counter = new AtomicInteger();
+        return runnable -> {
+            var thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private record PendingLoad(String cacheName, Object key) {
+    }
+}
@@ -0,0 +1,23 @@
+package com.jvnyor.cryptographychallenge.cache.response;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a handler whose response body comes from a service-level cache, so its serialized JSON can be reused for
+ * as long as the same cached instance is returned. See {@link ResponseBodyCachingConverter}.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CachedResponseBody {
+
+    /**
+     * Request parameters that select a body the service does not cache. When any of them has a value, the body is
+     * a new instance on every request and is written without keeping its bytes.
+     */
+    String[] bypassParameters() default {};
+}
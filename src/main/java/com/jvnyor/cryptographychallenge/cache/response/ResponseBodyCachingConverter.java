@@ -0,0 +1,160 @@
+package com.jvnyor.cryptographychallenge.cache.response;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.lang.NonNull;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * JSON converter that keeps the serialized, and optionally gzipped, bytes of response bodies returned by handlers
+ * annotated with {@link CachedResponseBody}.
+ * <p>
+ * Bodies are keyed by identity with weak keys. A service cache hit returns the very instance that was rendered
+ * before, so its bytes are written without going through Jackson. Evicting or replacing the entry in the data
+ * cache yields a new instance on the next read, which invalidates the bytes together with the data, including
+ * evictions received from other nodes. Rendered bytes are released once their instance is collected.
+ */
+public class ResponseBodyCachingConverter extends MappingJackson2HttpMessageConverter {
+
+    private static final String GZIP = "gzip";
+
+    private final Cache<Object, RenderedBody> bodies;
+
+    private final int gzipMinSize;
+
+    public ResponseBodyCachingConverter(ObjectMapper objectMapper, long maximumSize, int gzipMinSize) {
+        super(objectMapper);
+        this.bodies = Caffeine.newBuilder()
+                .weakKeys()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        this.gzipMinSize = gzipMinSize;
+    }
+
+    public CacheStats getStatistics() {
+        return bodies.stats();
+    }
+
+    @Override
+    protected void writeInternal(@NonNull Object object, Type type, @NonNull HttpOutputMessage outputMessage) throws IOException {
+        var request = currentRequest().filter(current -> isCachedResponseBody(current, object));
+        if (request.isEmpty()) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+        RenderedBody body;
+        try {
+            body = bodies.get(object, key -> render(key, type, outputMessage.getHeaders()));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        var gzip = body.gzipped() != null && acceptsGzip(request.get());
+        var bytes = gzip ? body.gzipped() : body.plain();
+        var headers = outputMessage.getHeaders();
+        if (body.gzipped() != null) {
+            headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, GZIP);
+        }
+        headers.setContentLength(bytes.length);
+        outputMessage.getBody().write(bytes);
+    }
+
+    private RenderedBody render(Object object, Type type, HttpHeaders headers) {
+        try {
+            var buffer = new BufferedOutputMessage(headers.getContentType());
+            super.writeInternal(object, type, buffer);
+            var plain = buffer.body.toByteArray();
+            return new RenderedBody(plain, plain.length >= gzipMinSize ? gzip(plain) : null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        var compressed = new ByteArrayOutputStream(bytes.length / 4);
+        try (var output = new GZIPOutputStream(compressed)) {
+            output.write(bytes);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * Only bodies of the handler's declared type are cached, so error bodies rendered for the same request by an
+     * exception handler are not. Requests carrying one of the handler's bypass parameters are not cached either.
+     */
+    private static boolean isCachedResponseBody(HttpServletRequest request, Object object) {
+        if (!(request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handlerMethod)) {
+            return false;
+        }
+        var cachedResponseBody = handlerMethod.getMethodAnnotation(CachedResponseBody.class);
+        if (cachedResponseBody == null || Arrays.stream(cachedResponseBody.bypassParameters())
+                .anyMatch(parameter -> StringUtils.hasText(request.getParameter(parameter)))) {
+            return false;
+        }
+        var bodyType = ResolvableType.forMethodReturnType(handlerMethod.getMethod());
+        var declared = (bodyType.hasGenerics() ? bodyType.getGeneric(0) : bodyType).resolve(Object.class);
+        return declared.isInstance(object);
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        var acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains(GZIP);
+    }
+
+    private static Optional<HttpServletRequest> currentRequest() {
+        return Optional.ofNullable(RequestContextHolder.getRequestAttributes())
+                .filter(ServletRequestAttributes.class::isInstance)
+                .map(attributes -> ((ServletRequestAttributes) attributes).getRequest());
+    }
+
+    private record RenderedBody(byte[] plain, byte[] gzipped) {
+    }
+
+    private static final class BufferedOutputMessage implements HttpOutputMessage {
+
+        private final HttpHeaders headers = new HttpHeaders();
+
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream(1024);
+
+        private BufferedOutputMessage(MediaType contentType) {
+            headers.setContentType(contentType);
+        }
+
+        @NonNull
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @NonNull
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
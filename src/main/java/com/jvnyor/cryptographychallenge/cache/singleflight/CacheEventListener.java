@@ -0,0 +1,17 @@
+package com.jvnyor.cryptographychallenge.cache.singleflight;
+
+/**
+ * Notified by {@link SingleFlightCache} of hits and invalidations. A {@code null} key means the whole cache was
+ * cleared. Called on the caller's thread, so implementations must return quickly.
+ */
+public interface CacheEventListener {
+
+    CacheEventListener NONE = new CacheEventListener() {
+    };
+
+    default void onHit(SingleFlightCache cache, Object key) {
+    }
+
+    default void onInvalidation(SingleFlightCache cache, Object key) {
+    }
+}
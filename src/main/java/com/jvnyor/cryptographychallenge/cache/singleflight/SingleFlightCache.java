@@ -0,0 +1,299 @@
+package com.jvnyor.cryptographychallenge.cache.singleflight;
+
+import org.springframework.cache.Cache;
+import org.springframework.lang.NonNull;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Coalesces concurrent misses of the same key into a single load. The first caller of
+ * {@link #get(Object, Callable)} runs the loader, later callers for that key wait for its result or exception
+ * instead of loading again. Used by {@code @Cacheable(sync = true)}.
+ * <p>
+ * Unlike a compute on the underlying map, no lock is held while loading. An eviction or clear during a load
+ * detaches it: its callers still get the result, but it is not cached, and the next caller starts a fresh load.
+ * {@link #refresh} reloads a key through the same mechanism while the current value keeps being served, and
+ * {@link #getAll} loads the misses of several keys with a single call.
+ */
+public class SingleFlightCache implements Cache {
+
+    /**
+     * Result of a batch load that did not find its key. Callers waiting on it load the key themselves.
+     */
+    private static final Object ABSENT = new Object();
+
+    private final Cache delegate;
+
+    private final ConcurrentMap<Object, Flight> flights = new ConcurrentHashMap<>();
+
+    private final LongAdder loads = new LongAdder();
+
+    private final LongAdder coalesced = new LongAdder();
+
+    private volatile CacheEventListener listener = CacheEventListener.NONE;
+
+    public SingleFlightCache(Cache delegate) {
+        this.delegate = delegate;
+    }
+
+    public void setListener(CacheEventListener listener) {
+        this.listener = listener;
+    }
+
+    @NonNull
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @NonNull
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(@NonNull Object key) {
+        return hit(key, delegate.get(key));
+    }
+
+    @Override
+    public <T> T get(@NonNull Object key, Class<T> type) {
+        return hit(key, delegate.get(key, type));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(@NonNull Object key, @NonNull Callable<T> valueLoader) {
+        var cached = get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        var flight = new Flight();
+        var existing = flights.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            var value = existing.await(key, valueLoader);
+            return value == ABSENT ? get(key, valueLoader) : (T) value;
+        }
+        try {
+            cached = delegate.get(key);
+            if (cached != null) {
+                flight.result.complete(cached.get());
+                return (T) cached.get();
+            }
+            return load(key, valueLoader, flight);
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    /**
+     * Looks up several ids and loads the ones that are not cached with a single call of the loader, which returns
+     * the values it found by id. The missing keys are claimed like single misses before the loader runs, so an
+     * eviction during the load detaches them: their values are returned but not cached. Keys another caller is
+     * already loading are awaited once the claimed ones are loaded, so two batches never wait on each other. Ids
+     * that were not found, or whose awaited load failed, are left out of the result.
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> Map<K, V> getAll(Collection<K> ids, Function<K, Object> keyOf, Function<List<K>, Map<K, V>> loader) {
+        var values = new HashMap<K, V>(ids.size());
+        var claimed = new LinkedHashMap<K, Flight>();
+        var awaited = new LinkedHashMap<K, Flight>();
+        for (var id : ids) {
+            var key = keyOf.apply(id);
+            var cached = get(key);
+            if (cached != null) {
+                values.put(id, (V) cached.get());
+                continue;
+            }
+            var flight = new Flight();
+            var existing = flights.putIfAbsent(key, flight);
+            if (existing == null) {
+                claimed.put(id, flight);
+            } else {
+                coalesced.increment();
+                awaited.put(id, existing);
+            }
+        }
+        if (!claimed.isEmpty()) {
+            try {
+                values.putAll(loadAll(claimed, keyOf, loader));
+            } finally {
+                claimed.forEach((id, flight) -> flights.remove(keyOf.apply(id), flight));
+            }
+        }
+        awaited.forEach((id, flight) -> {
+            try {
+                var value = flight.result.join();
+                if (value != ABSENT) {
+                    values.put(id, (V) value);
+                }
+            } catch (CompletionException e) {
+                // The caller that loaded the key got the failure
+            }
+        });
+        return values;
+    }
+
+    /**
+     * Reloads the key and replaces its value, unless a load of the key is already in flight. The current value is
+     * served until the new one is in place.
+     *
+     * @return whether a load was started
+     */
+    public boolean refresh(Object key, Callable<?> valueLoader) {
+        var flight = new Flight();
+        if (flights.putIfAbsent(key, flight) != null) {
+            return false;
+        }
+        try {
+            load(key, valueLoader, flight);
+            return true;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    public boolean isCached(Object key) {
+        return delegate.get(key) != null;
+    }
+
+    @Override
+    public void put(@NonNull Object key, Object value) {
+        delegate.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(@NonNull Object key, Object value) {
+        return delegate.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(@NonNull Object key) {
+        detach(key);
+        delegate.evict(key);
+        listener.onInvalidation(this, key);
+    }
+
+    @Override
+    public boolean evictIfPresent(@NonNull Object key) {
+        detach(key);
+        var evicted = delegate.evictIfPresent(key);
+        listener.onInvalidation(this, key);
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        detachAll();
+        delegate.clear();
+        listener.onInvalidation(this, null);
+    }
+
+    @Override
+    public boolean invalidate() {
+        detachAll();
+        var invalidated = delegate.invalidate();
+        listener.onInvalidation(this, null);
+        return invalidated;
+    }
+
+    public SingleFlightStatistics getStatistics() {
+        return SingleFlightStatistics.of(getName(), loads.sum(), coalesced.sum(), flights.size());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T load(Object key, Callable<T> valueLoader, Flight flight) {
+        loads.increment();
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Throwable e) {
+            flight.result.completeExceptionally(e);
+            throw failure(key, valueLoader, e);
+        }
+        store(key, value, flight);
+        flight.result.complete(value);
+        return value;
+    }
+
+    private <K, V> Map<K, V> loadAll(Map<K, Flight> claimed, Function<K, Object> keyOf, Function<List<K>, Map<K, V>> loader) {
+        loads.add(claimed.size());
+        Map<K, V> loaded;
+        try {
+            loaded = loader.apply(List.copyOf(claimed.keySet()));
+        } catch (RuntimeException | Error e) {
+            claimed.values().forEach(flight -> flight.result.completeExceptionally(e));
+            throw e;
+        }
+        claimed.forEach((id, flight) -> {
+            var value = loaded.get(id);
+            if (value != null) {
+                store(keyOf.apply(id), value, flight);
+            }
+            flight.result.complete(value != null ? value : ABSENT);
+        });
+        return loaded;
+    }
+
+    private void store(Object key, Object value, Flight flight) {
+        if (!flight.detached) {
+            delegate.put(key, value);
+            if (flight.detached) {
+                delegate.evict(key);
+            }
+        }
+    }
+
+    private <V> V hit(Object key, V value) {
+        if (value != null) {
+            listener.onHit(this, key);
+        }
+        return value;
+    }
+
+    private void detach(Object key) {
+        var flight = flights.remove(key);
+        if (flight != null) {
+            flight.detached = true;
+        }
+    }
+
+    private void detachAll() {
+        flights.keySet().forEach(this::detach);
+    }
+
+    private static RuntimeException failure(Object key, Callable<?> valueLoader, Throwable cause) {
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new ValueRetrievalException(key, valueLoader, cause);
+    }
+
+    private static final class Flight {
+
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        private volatile boolean detached;
+
+        private Object await(Object key, Callable<?> valueLoader) {
+            try {
+                return result.join();
+            } catch (CompletionException e) {
+                throw failure(key, valueLoader, e.getCause());
+            }
+        }
+    }
+}
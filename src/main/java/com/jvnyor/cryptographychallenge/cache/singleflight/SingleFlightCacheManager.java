@@ -0,0 +1,60 @@
+package com.jvnyor.cryptographychallenge.cache.singleflight;
+
+import org.springframework.cache.CacheManager;
+import org.springframework.lang.NonNull;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Wraps every cache of the delegate in a {@link SingleFlightCache}.
+ */
+public class SingleFlightCacheManager implements CacheManager {
+
+    private final CacheManager delegate;
+
+    private final ConcurrentMap<String, SingleFlightCache> caches = new ConcurrentHashMap<>();
+
+    private volatile CacheEventListener listener = CacheEventListener.NONE;
+
+    public SingleFlightCacheManager(CacheManager delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public SingleFlightCache getCache(@NonNull String name) {
+        return caches.computeIfAbsent(name, cacheName -> Optional.ofNullable(delegate.getCache(cacheName))
+                .map(cache -> {
+                    var singleFlightCache = new SingleFlightCache(cache);
+                    singleFlightCache.setListener(listener);
+                    return singleFlightCache;
+                })
+                .orElse(null));
+    }
+
+    /**
+     * Sets the listener of every cache, including the ones created later.
+     */
+    public void setListener(CacheEventListener listener) {
+        this.listener = listener;
+        caches.values().forEach(cache -> cache.setListener(listener));
+    }
+
+    @NonNull
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    public List<SingleFlightStatistics> getStatistics() {
+        return getCacheNames().stream()
+                .map(this::getCache)
+                .filter(Objects::nonNull)
+                .map(SingleFlightCache::getStatistics)
+                .toList();
+    }
+}
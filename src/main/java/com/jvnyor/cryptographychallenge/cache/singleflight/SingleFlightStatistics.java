@@ -0,0 +1,15 @@
+package com.jvnyor.cryptographychallenge.cache.singleflight;
+
+public record SingleFlightStatistics(
+        String cacheName,
+        long loads,
+        long coalesced,
+        int inFlight,
+        double coalescingRate
+) {
+
+    static SingleFlightStatistics of(String cacheName, long loads, long coalesced, int inFlight) {
+        var misses = loads + coalesced;
+        return new SingleFlightStatistics(cacheName, loads, coalesced, inFlight, misses == 0 ? 0 : (double) coalesced / misses);
+    }
+}
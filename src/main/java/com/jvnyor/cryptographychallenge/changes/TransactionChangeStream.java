@@ -0,0 +1,149 @@
+package com.jvnyor.cryptographychallenge.changes;
+
+import com.jvnyor.cryptographychallenge.dtos.TransactionChangesResponseDTO;
+import com.jvnyor.cryptographychallenge.services.TransactionService;
+import com.jvnyor.cryptographychallenge.services.exceptions.ChangeCursorExpiredException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Pushes the transaction change log to Server-Sent Events subscribers. Each event carries one change, named
+ * after its type, with the change sequence as event id, so a client reconnecting with {@code Last-Event-ID}
+ * resumes right after the last change it received.
+ * <p>
+ * Every subscriber has a checkpoint. A {@link #poll()} reads the changes after each distinct checkpoint once and
+ * sends them to every subscriber at that checkpoint, so subscribers that are caught up share a single read and a
+ * single decryption of each changed transaction. Polls run outside of any request, so only transactions of the
+ * {@value com.jvnyor.cryptographychallenge.tenant.TenantResolver#DEFAULT_TENANT} tenant are sent with their state.
+ * <p>
+ * Subscribers whose checkpoint fell behind the change log retention get an {@code expired} event carrying the
+ * sequence to resume from after resynchronizing, and their stream is completed.
+ */
+public class TransactionChangeStream implements Closeable {
+
+    private final Logger log = LoggerFactory.getLogger(TransactionChangeStream.class);
+
+    private final TransactionService transactionService;
+
+    private final Duration timeout;
+
+    private final int batchSize;
+
+    private final Duration heartbeatInterval;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private long lastHeartbeat = System.nanoTime();
+
+    public TransactionChangeStream(TransactionService transactionService, Duration timeout, int batchSize, Duration heartbeatInterval) {
+        this.transactionService = transactionService;
+        this.timeout = timeout;
+        this.batchSize = batchSize;
+        this.heartbeatInterval = heartbeatInterval;
+    }
+
+    /**
+     * Subscribes to the changes after the given sequence.
+     */
+    public SseEmitter subscribe(long since) {
+        var subscriber = new Subscriber(new SseEmitter(timeout.toMillis()), since);
+        subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onTimeout(subscriber.emitter::complete);
+        subscriber.emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return subscriber.emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    public synchronized void poll() {
+        var subscribersByCheckpoint = subscribers.stream()
+                .collect(Collectors.groupingBy(subscriber -> subscriber.checkpoint));
+        subscribersByCheckpoint.forEach((checkpoint, group) -> {
+            try {
+                sendChanges(checkpoint, new ArrayList<>(group));
+            } catch (ChangeCursorExpiredException e) {
+                var expired = SseEmitter.event()
+                        .name("expired")
+                        .data(Long.toString(e.getPrunedThrough()))
+                        .build();
+                group.forEach(subscriber -> {
+                    subscribers.remove(subscriber);
+                    if (send(subscriber, expired)) {
+                        subscriber.emitter.complete();
+                    }
+                });
+            } catch (RuntimeException e) {
+                log.warn("Could not read changes since {}", checkpoint, e);
+            }
+        });
+        if (System.nanoTime() - lastHeartbeat >= heartbeatInterval.toNanos()) {
+            lastHeartbeat = System.nanoTime();
+            var heartbeat = SseEmitter.event().comment("heartbeat").build();
+            subscribers.forEach(subscriber -> send(subscriber, heartbeat));
+        }
+    }
+
+    @Override
+    public void close() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    private void sendChanges(long checkpoint, List<Subscriber> group) {
+        TransactionChangesResponseDTO changes;
+        do {
+            changes = transactionService.getChanges(checkpoint, batchSize);
+            for (var change : changes.changes()) {
+                var event = SseEmitter.event()
+                        .id(Long.toString(change.sequence()))
+                        .name(change.type().name().toLowerCase(Locale.ROOT))
+                        .data(change, MediaType.APPLICATION_JSON)
+                        .build();
+                group.removeIf(subscriber -> !send(subscriber, event));
+            }
+            checkpoint = changes.checkpoint();
+            for (var subscriber : group) {
+                subscriber.checkpoint = checkpoint;
+            }
+        } while (changes.hasMore() && !group.isEmpty());
+    }
+
+    private boolean send(Subscriber subscriber, Set<ResponseBodyEmitter.DataWithMediaType> event) {
+        try {
+            subscriber.emitter.send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        private volatile long checkpoint;
+
+        private Subscriber(SseEmitter emitter, long checkpoint) {
+            this.emitter = emitter;
+            this.checkpoint = checkpoint;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.jvnyor.cryptographychallenge.config;
+
+import com.jvnyor.cryptographychallenge.archive.TransactionArchive;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+@Configuration
+public class ArchiveConfig {
+
+    @Value("${app.archive.enabled}")
+    private boolean enabled;
+
+    @Value("${app.archive.directory}")
+    private Path directory;
+
+    @Value("${app.archive.block-size}")
+    private int blockSize;
+
+    @Bean
+    public TransactionArchive transactionArchive() {
+        return enabled ? new TransactionArchive(directory, blockSize) : TransactionArchive.empty();
+    }
+}
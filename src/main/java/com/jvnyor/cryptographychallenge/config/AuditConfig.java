@@ -0,0 +1,46 @@
+package com.jvnyor.cryptographychallenge.config;
+
+import com.jvnyor.cryptographychallenge.audit.AuditLog;
+import com.jvnyor.cryptographychallenge.audit.OverflowPolicy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Configuration
+public class AuditConfig {
+
+    @Value("${app.audit.enabled}")
+    private boolean enabled;
+
+    @Value("${app.audit.directory}")
+    private Path directory;
+
+    @Value("${app.audit.buffer-size}")
+    private int bufferSize;
+
+    @Value("${app.audit.batch-size}")
+    private int batchSize;
+
+    @Value("${app.audit.max-file-size}")
+    private DataSize maxFileSize;
+
+    @Value("${app.audit.idle-wait}")
+    private Duration idleWait;
+
+    @Value("${app.audit.overflow-policy}")
+    private OverflowPolicy overflowPolicy;
+
+    @Value("${app.audit.fsync}")
+    private boolean fsync;
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public AuditLog auditLog() {
+        return enabled
+                ? new AuditLog(directory, bufferSize, batchSize, maxFileSize.toBytes(), idleWait, overflowPolicy, fsync)
+                : AuditLog.disabled();
+    }
+}
@@ -1,15 +1,27 @@
 package com.jvnyor.cryptographychallenge.config;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jvnyor.cryptographychallenge.cache.invalidation.BroadcastingCacheManager;
+import com.jvnyor.cryptographychallenge.cache.refresh.AccessTracker;
+import com.jvnyor.cryptographychallenge.cache.refresh.AccessTrackingKeyGenerator;
+import com.jvnyor.cryptographychallenge.cache.invalidation.CacheInvalidationBus;
+import com.jvnyor.cryptographychallenge.cache.singleflight.SingleFlightCacheManager;
+import com.jvnyor.cryptographychallenge.tenant.TenantResolver;
 import com.jvnyor.cryptographychallenge.util.CacheConstants;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.cache.interceptor.KeyGenerator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Locale;
+import java.util.Optional;
 
 @Configuration
 @EnableCaching
@@ -17,16 +29,84 @@ public class CacheConfig {
 
     public static final String KEY_GENERATOR = "keyGenerator";
 
+    public static final String TENANT_KEY_GENERATOR = "tenantKeyGenerator";
+
+    @Value("${app.cache.transactions.maximum-size}")
+    private long transactionsMaximumSize;
+
+    @Value("${app.cache.transactions.expire-after-write}")
+    private Duration transactionsExpireAfterWrite;
+
+    @Value("${app.cache.card-token.maximum-size}")
+    private long cardTokenMaximumSize;
+
+    @Value("${app.cache.card-token.expire-after-write}")
+    private Duration cardTokenExpireAfterWrite;
+
+    @Bean
+    @Primary
+    public CacheManager cacheManager(ObjectProvider<CacheInvalidationBus> cacheInvalidationBus) {
+        return Optional.ofNullable(cacheInvalidationBus.getIfAvailable())
+                .<CacheManager>map(bus -> new BroadcastingCacheManager(singleFlightCacheManager(), bus))
+                .orElseGet(this::singleFlightCacheManager);
+    }
+
+    /**
+     * The local caches with concurrent misses coalesced. Exposed on its own for its statistics; everything else
+     * uses the primary {@link #cacheManager}, which adds cross-node invalidation on top when enabled.
+     */
     @Bean
-    public CacheManager cacheManager() {
-        return new ConcurrentMapCacheManager(
+    public SingleFlightCacheManager singleFlightCacheManager() {
+        var cacheManager = new CaffeineCacheManager(
                 CacheConstants.GET_TRANSACTION,
                 CacheConstants.GET_TRANSACTIONS
         );
+        cacheManager.registerCustomCache(CacheConstants.GET_TRANSACTION, transactionsCache());
+        cacheManager.registerCustomCache(CacheConstants.GET_TRANSACTIONS, transactionsCache());
+        cacheManager.registerCustomCache(CacheConstants.CARD_TOKEN, Caffeine.newBuilder()
+                .maximumSize(cardTokenMaximumSize)
+                .expireAfterWrite(cardTokenExpireAfterWrite)
+                .build());
+        return new SingleFlightCacheManager(cacheManager);
     }
 
+    /**
+     * Records accesses for background refresh and warming when an {@link AccessTracker} is configured.
+     */
     @Bean(KEY_GENERATOR)
-    public KeyGenerator keyGenerator() {
-        return (target, method, params) -> Arrays.toString(params).toUpperCase(Locale.ROOT);
+    public KeyGenerator keyGenerator(ObjectProvider<AccessTracker> accessTracker) {
+        KeyGenerator keyGenerator = (target, method, params) -> cacheKey(params);
+        return Optional.ofNullable(accessTracker.getIfAvailable())
+                .<KeyGenerator>map(tracker -> new AccessTrackingKeyGenerator(keyGenerator, tracker))
+                .orElse(keyGenerator);
+    }
+
+    /**
+     * Keys entries by the tenant of the current request as well, for caches of data that only its own tenant may read.
+     */
+    @Bean(TENANT_KEY_GENERATOR)
+    public KeyGenerator tenantKeyGenerator(ObjectProvider<AccessTracker> accessTracker, TenantResolver tenantResolver) {
+        KeyGenerator keyGenerator = (target, method, params) -> tenantCacheKey(tenantResolver.currentTenant(), params);
+        return Optional.ofNullable(accessTracker.getIfAvailable())
+                .<KeyGenerator>map(tracker -> new AccessTrackingKeyGenerator(keyGenerator, tracker))
+                .orElse(keyGenerator);
+    }
+
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> transactionsCache() {
+        return Caffeine.newBuilder()
+                .maximumSize(transactionsMaximumSize)
+                .expireAfterWrite(transactionsExpireAfterWrite)
+                .build();
+    }
+
+    public static String cacheKey(Object... params) {
+        return Arrays.toString(params).toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Tenant ids are case-sensitive, so the tenant is kept out of the upper-cased part of the key.
+     */
+    public static String tenantCacheKey(String tenantId, Object... params) {
+        return tenantId + ":" + cacheKey(params);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,63 @@
+package com.jvnyor.cryptographychallenge.config;
+
+import com.jvnyor.cryptographychallenge.cache.invalidation.CacheInvalidationBus;
+import com.jvnyor.cryptographychallenge.cache.invalidation.CacheInvalidationTransport;
+import com.jvnyor.cryptographychallenge.cache.invalidation.LoopbackInvalidationTransport;
+import com.jvnyor.cryptographychallenge.cache.invalidation.MulticastInvalidationTransport;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Enables cross-node cache invalidation when {@code app.cache.invalidation.transport} is {@code loopback} or
+ * {@code multicast}. A {@link CacheInvalidationTransport} bean, if defined, is used instead of the built-in ones.
+ */
+@Configuration
+public class CacheInvalidationConfig {
+
+    @Value("${app.cache.invalidation.transport}")
+    private String transport;
+
+    @Value("${app.cache.invalidation.flush-interval}")
+    private Duration flushInterval;
+
+    @Value("${app.cache.invalidation.max-payload-bytes}")
+    private int maxPayloadBytes;
+
+    @Value("${app.cache.invalidation.loopback.channel}")
+    private String loopbackChannel;
+
+    @Value("${app.cache.invalidation.multicast.group}")
+    private String multicastGroup;
+
+    @Value("${app.cache.invalidation.multicast.port}")
+    private int multicastPort;
+
+    @Value("${app.cache.invalidation.multicast.network-interface}")
+    private String multicastNetworkInterface;
+
+    @Value("${app.cache.invalidation.multicast.time-to-live}")
+    private int multicastTimeToLive;
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnExpression("'${app.cache.invalidation.transport}' != 'none'")
+    public CacheInvalidationBus cacheInvalidationBus(ObjectProvider<CacheInvalidationTransport> cacheInvalidationTransport) {
+        return new CacheInvalidationBus(
+                cacheInvalidationTransport.getIfAvailable(this::createTransport),
+                flushInterval,
+                Math.min(maxPayloadBytes, MulticastInvalidationTransport.MAX_DATAGRAM_SIZE)
+        );
+    }
+
+    private CacheInvalidationTransport createTransport() {
+        return switch (transport) {
+            case "loopback" -> new LoopbackInvalidationTransport(loopbackChannel);
+            case "multicast" -> new MulticastInvalidationTransport(multicastGroup, multicastPort, multicastNetworkInterface, multicastTimeToLive);
+            default -> throw new IllegalStateException("Unknown cache invalidation transport: " + transport);
+        };
+    }
+}
@@ -0,0 +1,52 @@
+package com.jvnyor.cryptographychallenge.config;
+
+import com.jvnyor.cryptographychallenge.cache.refresh.AccessTracker;
+import com.jvnyor.cryptographychallenge.cache.refresh.CacheRefresher;
+import com.jvnyor.cryptographychallenge.cache.singleflight.SingleFlightCacheManager;
+import com.jvnyor.cryptographychallenge.util.CacheConstants;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Refreshes and warms the transaction caches in the background when {@code app.cache.refresh.enabled} is
+ * {@code true}. Accesses are tracked by the key generator of {@link CacheConfig}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.cache.refresh.enabled", havingValue = "true")
+public class CacheRefreshConfig {
+
+    @Value("${app.cache.refresh.refresh-after-write}")
+    private Duration refreshAfterWrite;
+
+    @Value("${app.cache.refresh.threads}")
+    private int threads;
+
+    @Value("${app.cache.refresh.queue-capacity}")
+    private int queueCapacity;
+
+    @Value("${app.cache.refresh.top-k}")
+    private int topK;
+
+    @Value("${app.cache.refresh.tracked-keys}")
+    private int trackedKeys;
+
+    @Value("${app.cache.refresh.warm-delay}")
+    private Duration warmDelay;
+
+    @Bean
+    public AccessTracker accessTracker() {
+        return new AccessTracker(Set.of(CacheConstants.GET_TRANSACTION, CacheConstants.GET_TRANSACTIONS), trackedKeys);
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public CacheRefresher cacheRefresher(SingleFlightCacheManager singleFlightCacheManager, PlatformTransactionManager transactionManager) {
+        return new CacheRefresher(singleFlightCacheManager, accessTracker(), transactionManager,
+                refreshAfterWrite, threads, queueCapacity, topK, warmDelay);
+    }
+}
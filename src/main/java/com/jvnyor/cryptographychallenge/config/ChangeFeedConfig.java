@@ -0,0 +1,74 @@
+package com.jvnyor.cryptographychallenge.config;
+
+import com.jvnyor.cryptographychallenge.changes.TransactionChangeStream;
+import com.jvnyor.cryptographychallenge.services.TransactionChangeService;
+import com.jvnyor.cryptographychallenge.services.TransactionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Creates the change sequence counter of every shard before the first write, polls the change log for the
+ * subscribers of the change stream, and every {@code app.changes.prune-interval} removes the changes older than
+ * {@code app.changes.retention}.
+ */
+@Configuration
+public class ChangeFeedConfig {
+
+    private final Logger log = LoggerFactory.getLogger(ChangeFeedConfig.class);
+
+    @Value("${app.changes.retention}")
+    private Duration retention;
+
+    @Value("${app.changes.stream.timeout}")
+    private Duration timeout;
+
+    @Value("${app.changes.stream.batch-size}")
+    private int batchSize;
+
+    @Value("${app.changes.stream.heartbeat-interval}")
+    private Duration heartbeatInterval;
+
+    private final ObjectProvider<TransactionService> transactionService;
+
+    private final ObjectProvider<TransactionChangeService> transactionChangeService;
+
+    public ChangeFeedConfig(ObjectProvider<TransactionService> transactionService, ObjectProvider<TransactionChangeService> transactionChangeService) {
+        this.transactionService = transactionService;
+        this.transactionChangeService = transactionChangeService;
+    }
+
+    @Bean(destroyMethod = "close")
+    public TransactionChangeStream transactionChangeStream() {
+        return new TransactionChangeStream(transactionService.getObject(), timeout, batchSize, heartbeatInterval);
+    }
+
+    @Bean
+    public ApplicationRunner changeSequenceInitializer() {
+        return args -> transactionChangeService.getObject().initializeSequences();
+    }
+
+    @Scheduled(initialDelayString = "${app.changes.prune-interval}", fixedDelayString = "${app.changes.prune-interval}")
+    public void pruneTransactionChanges() {
+        var pruned = transactionChangeService.getObject().pruneChangesBefore(Instant.now().minus(retention));
+        if (pruned > 0) {
+            log.info("Pruned {} transaction changes older than {}", pruned, retention);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.changes.stream.poll-interval}")
+    public void pollTransactionChanges() {
+        var stream = transactionChangeStream();
+        if (stream.getSubscriberCount() > 0) {
+            stream.poll();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.jvnyor.cryptographychallenge.config;
+
+import com.jvnyor.cryptographychallenge.limiter.ConcurrencyLimitInterceptor;
+import com.jvnyor.cryptographychallenge.limiter.ConcurrencyLimitProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Puts adaptive concurrency limits in front of the transaction endpoints when {@code app.limiter.enabled} is
+ * {@code true}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.limiter.enabled", havingValue = "true")
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+public class ConcurrencyLimitConfig implements WebMvcConfigurer {
+
+    private final ConcurrencyLimitProperties properties;
+
+    public ConcurrencyLimitConfig(ConcurrencyLimitProperties properties) {
+        this.properties = properties;
+    }
+
+    @Bean
+    public ConcurrencyLimitInterceptor concurrencyLimitInterceptor() {
+        return new ConcurrencyLimitInterceptor(
+                properties.read().toLimiter("read"),
+                properties.write().toLimiter("write"),
+                properties.retryAfter());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // A change stream holds its request open for as long as the client stays subscribed
+        registry.addInterceptor(concurrencyLimitInterceptor())
+                .addPathPatterns("/v1/transactions", "/v1/transactions/**")
+                .excludePathPatterns("/v1/transactions/changes/stream");
+    }
+}
@@ -1,9 +1,11 @@
 package com.jvnyor.cryptographychallenge.config;
 
+import com.jvnyor.cryptographychallenge.util.KeyedHasher;
 import org.jasypt.util.text.AES256TextEncryptor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
 
 @Configuration
 public class EncryptorConfig {
@@ -11,10 +13,28 @@ public class EncryptorConfig {
     @Value("${jasypt.encryptor.password}")
     private String password;
 
+    @Value("${app.hash-key}")
+    private String hashKey;
+
     @Bean
     public AES256TextEncryptor textEncryptor() {
         AES256TextEncryptor textEncryptor = new AES256TextEncryptor();
         textEncryptor.setPassword(password);
         return textEncryptor;
     }
+
+    /**
+     * The hash key must be a secret of its own: hashes are stored next to the ciphertext, so sharing the encryption
+     * password would let one leaked secret both decrypt the columns and confirm guesses against their hashes.
+     */
+    @Bean
+    public KeyedHasher keyedHasher() {
+        if (!StringUtils.hasText(hashKey)) {
+            throw new IllegalStateException("app.hash-key is not set; provide it through APP_HASH_KEY");
+        }
+        if (hashKey.equals(password)) {
+            throw new IllegalStateException("app.hash-key must differ from jasypt.encryptor.password");
+        }
+        return new KeyedHasher(hashKey);
+    }
 }
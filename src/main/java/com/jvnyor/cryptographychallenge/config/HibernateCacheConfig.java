@@ -0,0 +1,41 @@
+package com.jvnyor.cryptographychallenge.config;
+
+import com.jvnyor.cryptographychallenge.cache.hibernate.CaffeineRegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Enables the Hibernate second-level entity and query cache on a {@link CaffeineRegionFactory} when
+ * {@code app.cache.hibernate.enabled} is {@code true}. Cached entries hold entity state as stored, so
+ * transactions are cached as ciphertext.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.cache.hibernate.enabled", havingValue = "true")
+public class HibernateCacheConfig {
+
+    @Value("${app.cache.hibernate.maximum-size}")
+    private long maximumSize;
+
+    @Value("${app.cache.hibernate.expire-after-write}")
+    private Duration expireAfterWrite;
+
+    @Bean
+    public CaffeineRegionFactory caffeineRegionFactory() {
+        return new CaffeineRegionFactory(maximumSize, expireAfterWrite);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CaffeineRegionFactory caffeineRegionFactory) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, caffeineRegionFactory);
+        };
+    }
+}
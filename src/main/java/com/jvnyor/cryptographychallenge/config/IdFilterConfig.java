@@ -0,0 +1,86 @@
+package com.jvnyor.cryptographychallenge.config;
+
+import com.jvnyor.cryptographychallenge.archive.TransactionArchive;
+import com.jvnyor.cryptographychallenge.datasource.ShardTemplate;
+import com.jvnyor.cryptographychallenge.idfilter.TransactionIdFilter;
+import com.jvnyor.cryptographychallenge.repositories.TransactionStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.List;
+import java.util.function.LongConsumer;
+
+/**
+ * Builds the {@link TransactionIdFilter} from every shard and the archive before the application reports ready,
+ * and rebuilds it once deletions have made it stale.
+ */
+@Configuration
+public class IdFilterConfig {
+
+    @Value("${app.id-filter.enabled}")
+    private boolean enabled;
+
+    @Value("${app.id-filter.expected-insertions}")
+    private long expectedInsertions;
+
+    @Value("${app.id-filter.false-positive-probability}")
+    private double falsePositiveProbability;
+
+    @Value("${app.id-filter.stale-ratio}")
+    private double staleRatio;
+
+    @Value("${app.id-filter.page-size}")
+    private int pageSize;
+
+    private final ObjectProvider<TransactionStore> transactionStore;
+
+    private final ObjectProvider<ShardTemplate> shardTemplate;
+
+    private final ObjectProvider<TransactionArchive> transactionArchive;
+
+    public IdFilterConfig(ObjectProvider<TransactionStore> transactionStore, ObjectProvider<ShardTemplate> shardTemplate, ObjectProvider<TransactionArchive> transactionArchive) {
+        this.transactionStore = transactionStore;
+        this.shardTemplate = shardTemplate;
+        this.transactionArchive = transactionArchive;
+    }
+
+    @Bean
+    public TransactionIdFilter transactionIdFilter() {
+        return enabled
+                ? new TransactionIdFilter(expectedInsertions, falsePositiveProbability, staleRatio)
+                : TransactionIdFilter.disabled();
+    }
+
+    @Bean
+    public ApplicationRunner transactionIdFilterLoader() {
+        return args -> rebuildTransactionIdFilter();
+    }
+
+    @Scheduled(initialDelayString = "${app.id-filter.check-interval}", fixedDelayString = "${app.id-filter.check-interval}")
+    public void rebuildTransactionIdFilter() {
+        var filter = transactionIdFilter();
+        if (filter.needsRebuild()) {
+            filter.rebuild(this::forEachId);
+        }
+    }
+
+    private void forEachId(LongConsumer consumer) {
+        var store = transactionStore.getObject();
+        shardTemplate.getObject().forEachShard(true, () -> {
+            var after = Long.MIN_VALUE;
+            List<Long> ids;
+            do {
+                ids = store.findIdsAfter(after, Limit.of(pageSize));
+                ids.forEach(consumer::accept);
+                after = ids.isEmpty() ? after : ids.get(ids.size() - 1);
+            } while (ids.size() == pageSize);
+            return after;
+        });
+        transactionArchive.getObject().forEachId(consumer);
+    }
+}
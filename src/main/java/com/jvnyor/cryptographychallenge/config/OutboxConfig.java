@@ -0,0 +1,82 @@
+package com.jvnyor.cryptographychallenge.config;
+
+import com.jvnyor.cryptographychallenge.datasource.ShardTemplate;
+import com.jvnyor.cryptographychallenge.outbox.FileOutboxSink;
+import com.jvnyor.cryptographychallenge.outbox.InMemoryOutboxSink;
+import com.jvnyor.cryptographychallenge.outbox.OutboxRelay;
+import com.jvnyor.cryptographychallenge.outbox.OutboxSink;
+import com.jvnyor.cryptographychallenge.repositories.OutboxEventRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Relays the transaction outbox to the configured {@link OutboxSink} every {@code app.outbox.poll-interval} when
+ * {@code app.outbox.enabled} is {@code true}. {@code app.outbox.sink} selects the {@code memory} or {@code file}
+ * sink; with any other value an {@link OutboxSink} bean has to be provided.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.outbox.enabled", havingValue = "true")
+public class OutboxConfig {
+
+    @Value("${app.outbox.batch-size}")
+    private int batchSize;
+
+    @Value("${app.outbox.retention}")
+    private Duration retention;
+
+    @Value("${app.outbox.memory.capacity}")
+    private int memoryCapacity;
+
+    @Value("${app.outbox.file.path}")
+    private Path filePath;
+
+    @Value("${app.outbox.file.fsync}")
+    private boolean fileFsync;
+
+    private final ObjectProvider<OutboxSink> outboxSink;
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final ShardTemplate shardTemplate;
+
+    private final PlatformTransactionManager transactionManager;
+
+    public OutboxConfig(ObjectProvider<OutboxSink> outboxSink, OutboxEventRepository outboxEventRepository, ShardTemplate shardTemplate, PlatformTransactionManager transactionManager) {
+        this.outboxSink = outboxSink;
+        this.outboxEventRepository = outboxEventRepository;
+        this.shardTemplate = shardTemplate;
+        this.transactionManager = transactionManager;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.outbox.sink", havingValue = "memory")
+    public InMemoryOutboxSink inMemoryOutboxSink() {
+        return new InMemoryOutboxSink(memoryCapacity);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "app.outbox.sink", havingValue = "file")
+    public FileOutboxSink fileOutboxSink() throws IOException {
+        return new FileOutboxSink(filePath, fileFsync);
+    }
+
+    @Bean
+    public OutboxRelay outboxRelay() {
+        return new OutboxRelay(outboxEventRepository, outboxSink.getObject(), shardTemplate, transactionManager, Clock.systemUTC(), batchSize, retention);
+    }
+
+    @Scheduled(initialDelayString = "${app.outbox.poll-interval}", fixedDelayString = "${app.outbox.poll-interval}")
+    public void relayOutbox() {
+        outboxRelay().relay();
+    }
+}
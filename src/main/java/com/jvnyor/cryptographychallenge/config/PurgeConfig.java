@@ -0,0 +1,61 @@
+package com.jvnyor.cryptographychallenge.config;
+
+import com.jvnyor.cryptographychallenge.datasource.ShardTemplate;
+import com.jvnyor.cryptographychallenge.purge.PurgeWindow;
+import com.jvnyor.cryptographychallenge.purge.TransactionPurger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.LocalTime;
+import java.time.ZoneId;
+
+/**
+ * Purges soft-deleted transactions every {@code app.purge.batch-interval} during the daily
+ * {@code app.purge.window-start} to {@code app.purge.window-end} window when {@code app.purge.enabled} is
+ * {@code true}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.purge.enabled", havingValue = "true")
+public class PurgeConfig {
+
+    @Value("${app.purge.window-start}")
+    private LocalTime windowStart;
+
+    @Value("${app.purge.window-end}")
+    private LocalTime windowEnd;
+
+    @Value("${app.purge.zone}")
+    private ZoneId zone;
+
+    @Value("${app.purge.batch-size}")
+    private int batchSize;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ShardTemplate shardTemplate;
+
+    private final PlatformTransactionManager transactionManager;
+
+    public PurgeConfig(JdbcTemplate jdbcTemplate, ShardTemplate shardTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardTemplate = shardTemplate;
+        this.transactionManager = transactionManager;
+    }
+
+    @Bean
+    public TransactionPurger transactionPurger() {
+        return new TransactionPurger(jdbcTemplate, shardTemplate, transactionManager,
+                new PurgeWindow(windowStart, windowEnd), Clock.system(zone), batchSize);
+    }
+
+    @Scheduled(initialDelayString = "${app.purge.batch-interval}", fixedDelayString = "${app.purge.batch-interval}")
+    public void purgeDeletedTransactions() {
+        transactionPurger().purge();
+    }
+}
@@ -0,0 +1,44 @@
+package com.jvnyor.cryptographychallenge.config;
+
+import com.jvnyor.cryptographychallenge.datasource.ReadYourWrites;
+import com.jvnyor.cryptographychallenge.datasource.ReplicaRoutingDataSource;
+import com.jvnyor.cryptographychallenge.datasource.ReplicaRoutingProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.routing.enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicaRoutingProperties.class)
+public class ReplicaRoutingConfig {
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties dataSourceProperties, ReplicaRoutingProperties replicaRoutingProperties) {
+        var primary = dataSourceProperties.initializeDataSourceBuilder().build();
+        var replicas = replicaRoutingProperties.replicas().stream()
+                .map(replica -> (DataSource) DataSourceBuilder.create()
+                        .driverClassName(dataSourceProperties.getDriverClassName())
+                        .url(replica.url())
+                        .username(replica.username())
+                        .password(replica.password())
+                        .build())
+                .toList();
+        var routingDataSource = new ReplicaRoutingDataSource(
+                primary,
+                replicas,
+                replicaRoutingProperties.balancing(),
+                replicaRoutingProperties.replicaLagTolerance(),
+                new ReadYourWrites(replicaRoutingProperties.readYourWritesCookie(), replicaRoutingProperties.replicaLagTolerance()),
+                Clock.systemUTC()
+        );
+        routingDataSource.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
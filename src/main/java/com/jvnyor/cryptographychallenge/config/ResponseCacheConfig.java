@@ -0,0 +1,28 @@
+package com.jvnyor.cryptographychallenge.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jvnyor.cryptographychallenge.cache.response.ResponseBodyCachingConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Replaces the default JSON converter with a {@link ResponseBodyCachingConverter} when
+ * {@code app.cache.response.enabled} is {@code true}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.cache.response.enabled", havingValue = "true")
+public class ResponseCacheConfig {
+
+    @Value("${app.cache.response.maximum-size}")
+    private long maximumSize;
+
+    @Value("${app.cache.response.gzip-min-size}")
+    private int gzipMinSize;
+
+    @Bean
+    public ResponseBodyCachingConverter responseBodyCachingConverter(ObjectMapper objectMapper) {
+        return new ResponseBodyCachingConverter(objectMapper, maximumSize, gzipMinSize);
+    }
+}
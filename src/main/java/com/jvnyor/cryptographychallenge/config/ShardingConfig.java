@@ -0,0 +1,58 @@
+package com.jvnyor.cryptographychallenge.config;
+
+import com.jvnyor.cryptographychallenge.datasource.ShardRoutingDataSource;
+import com.jvnyor.cryptographychallenge.datasource.ShardSchemaInitializer;
+import com.jvnyor.cryptographychallenge.datasource.ShardTemplate;
+import com.jvnyor.cryptographychallenge.datasource.ShardingProperties;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+
+/**
+ * Spreads transactions over the databases listed in {@code app.datasource.sharding.shards} when
+ * {@code app.datasource.sharding.enabled} is set. Cannot be combined with replica routing.
+ */
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    @Bean
+    public ShardTemplate shardTemplate(ShardingProperties shardingProperties, PlatformTransactionManager transactionManager) {
+        return shardingProperties.enabled()
+                ? new ShardTemplate(shardingProperties.shards().size(), transactionManager)
+                : ShardTemplate.single();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.datasource.sharding.enabled", havingValue = "true")
+    public DataSource dataSource(DataSourceProperties dataSourceProperties, ShardingProperties shardingProperties) {
+        if (shardingProperties.shards().isEmpty()) {
+            throw new IllegalStateException("Sharding is enabled but no shards are configured");
+        }
+        var shards = shardingProperties.shards().stream()
+                .map(shard -> (DataSource) DataSourceBuilder.create()
+                        .driverClassName(dataSourceProperties.getDriverClassName())
+                        .url(shard.url())
+                        .username(shard.username())
+                        .password(shard.password())
+                        .build())
+                .toList();
+        var routingDataSource = new ShardRoutingDataSource(shards);
+        routingDataSource.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.datasource.sharding.enabled", havingValue = "true")
+    public ShardSchemaInitializer shardSchemaInitializer(EntityManagerFactory entityManagerFactory, DataSource dataSource, ShardingProperties shardingProperties) {
+        return new ShardSchemaInitializer(entityManagerFactory, dataSource, shardingProperties.shards().size(), shardingProperties.initializeSchema());
+    }
+}
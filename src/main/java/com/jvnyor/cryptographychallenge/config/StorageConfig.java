@@ -0,0 +1,40 @@
+package com.jvnyor.cryptographychallenge.config;
+
+import com.jvnyor.cryptographychallenge.storage.LogStructuredTransactionStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.nio.file.Path;
+
+/**
+ * Replaces the JPA transaction repository with the embedded {@link LogStructuredTransactionStore} when
+ * {@code app.storage.engine} is {@code log}. Card tokens and user summaries stay in the database.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.storage.engine", havingValue = "log")
+public class StorageConfig {
+
+    @Value("${app.storage.log.path}")
+    private Path path;
+
+    @Value("${app.storage.log.fsync}")
+    private boolean fsync;
+
+    @Value("${app.storage.log.compaction-garbage-ratio}")
+    private double compactionGarbageRatio;
+
+    @Bean(destroyMethod = "close")
+    @Primary
+    public LogStructuredTransactionStore logStructuredTransactionStore() {
+        return new LogStructuredTransactionStore(path, fsync, compactionGarbageRatio);
+    }
+
+    @Scheduled(initialDelayString = "${app.storage.log.compaction-interval}", fixedDelayString = "${app.storage.log.compaction-interval}")
+    public void compactTransactionLog() {
+        logStructuredTransactionStore().compactIfNeeded();
+    }
+}
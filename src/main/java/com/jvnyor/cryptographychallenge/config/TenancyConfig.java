@@ -0,0 +1,33 @@
+package com.jvnyor.cryptographychallenge.config;
+
+import com.jvnyor.cryptographychallenge.tenant.TenancyProperties;
+import com.jvnyor.cryptographychallenge.tenant.TenantEncryptors;
+import com.jvnyor.cryptographychallenge.tenant.TenantResolver;
+import org.jasypt.util.text.AES256TextEncryptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(TenancyProperties.class)
+public class TenancyConfig {
+
+    @Value("${jasypt.encryptor.password}")
+    private String password;
+
+    @Bean
+    public TenantResolver tenantResolver(TenancyProperties tenancyProperties) {
+        return new TenantResolver(tenancyProperties.header(), tenancyProperties.tenants());
+    }
+
+    @Bean
+    public TenantEncryptors tenantEncryptors(AES256TextEncryptor textEncryptor, TenancyProperties tenancyProperties) {
+        return new TenantEncryptors(
+                textEncryptor,
+                password,
+                tenancyProperties.keyDerivationIterations(),
+                tenancyProperties.keyCache().maximumSize(),
+                tenancyProperties.keyCache().expireAfterAccess());
+    }
+}
@@ -0,0 +1,63 @@
+package com.jvnyor.cryptographychallenge.controllers;
+
+import com.jvnyor.cryptographychallenge.cache.hibernate.CaffeineRegionFactory;
+import com.jvnyor.cryptographychallenge.cache.hibernate.RegionStatistics;
+import com.jvnyor.cryptographychallenge.cache.refresh.CacheRefreshStatistics;
+import com.jvnyor.cryptographychallenge.cache.refresh.CacheRefresher;
+import com.jvnyor.cryptographychallenge.cache.singleflight.SingleFlightCacheManager;
+import com.jvnyor.cryptographychallenge.cache.singleflight.SingleFlightStatistics;
+import com.jvnyor.cryptographychallenge.tenant.TenantEncryptors;
+import com.jvnyor.cryptographychallenge.tenant.TenantKeyStatistics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/v1/cache")
+public class CacheStatisticsController {
+
+    private final ObjectProvider<CaffeineRegionFactory> caffeineRegionFactory;
+
+    private final ObjectProvider<SingleFlightCacheManager> singleFlightCacheManager;
+
+    private final ObjectProvider<CacheRefresher> cacheRefresher;
+
+    private final TenantEncryptors tenantEncryptors;
+
+    public CacheStatisticsController(ObjectProvider<CaffeineRegionFactory> caffeineRegionFactory, ObjectProvider<SingleFlightCacheManager> singleFlightCacheManager, ObjectProvider<CacheRefresher> cacheRefresher, TenantEncryptors tenantEncryptors) {
+        this.caffeineRegionFactory = caffeineRegionFactory;
+        this.singleFlightCacheManager = singleFlightCacheManager;
+        this.cacheRefresher = cacheRefresher;
+        this.tenantEncryptors = tenantEncryptors;
+    }
+
+    @GetMapping("/regions")
+    public ResponseEntity<List<RegionStatistics>> getRegionStatistics() {
+        return ResponseEntity.ok(caffeineRegionFactory.stream()
+                .flatMap(regionFactory -> regionFactory.getStatistics().stream())
+                .toList());
+    }
+
+    @GetMapping("/single-flight")
+    public ResponseEntity<List<SingleFlightStatistics>> getSingleFlightStatistics() {
+        return ResponseEntity.ok(Optional.ofNullable(singleFlightCacheManager.getIfAvailable())
+                .map(SingleFlightCacheManager::getStatistics)
+                .orElseGet(List::of));
+    }
+
+    @GetMapping("/refresh")
+    public ResponseEntity<CacheRefreshStatistics> getRefreshStatistics() {
+        return ResponseEntity.of(Optional.ofNullable(cacheRefresher.getIfAvailable())
+                .map(CacheRefresher::getStatistics));
+    }
+
+    @GetMapping("/tenant-keys")
+    public ResponseEntity<TenantKeyStatistics> getTenantKeyStatistics() {
+        return ResponseEntity.ok(tenantEncryptors.getStatistics());
+    }
+}
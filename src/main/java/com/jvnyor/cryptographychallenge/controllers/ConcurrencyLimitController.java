@@ -0,0 +1,29 @@
+package com.jvnyor.cryptographychallenge.controllers;
+
+import com.jvnyor.cryptographychallenge.limiter.ConcurrencyLimitInterceptor;
+import com.jvnyor.cryptographychallenge.limiter.LimiterStatistics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/v1/limiter")
+public class ConcurrencyLimitController {
+
+    private final ObjectProvider<ConcurrencyLimitInterceptor> concurrencyLimitInterceptor;
+
+    public ConcurrencyLimitController(ObjectProvider<ConcurrencyLimitInterceptor> concurrencyLimitInterceptor) {
+        this.concurrencyLimitInterceptor = concurrencyLimitInterceptor;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<LimiterStatistics>> getLimiterStatistics() {
+        return ResponseEntity.ok(concurrencyLimitInterceptor.stream()
+                .flatMap(interceptor -> interceptor.getStatistics().stream())
+                .toList());
+    }
+}
@@ -0,0 +1,28 @@
+package com.jvnyor.cryptographychallenge.controllers;
+
+import com.jvnyor.cryptographychallenge.outbox.OutboxRelay;
+import com.jvnyor.cryptographychallenge.outbox.OutboxStatistics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/v1/outbox")
+public class OutboxController {
+
+    private final ObjectProvider<OutboxRelay> outboxRelay;
+
+    public OutboxController(ObjectProvider<OutboxRelay> outboxRelay) {
+        this.outboxRelay = outboxRelay;
+    }
+
+    @GetMapping
+    public ResponseEntity<OutboxStatistics> getOutboxStatistics() {
+        return ResponseEntity.of(Optional.ofNullable(outboxRelay.getIfAvailable())
+                .map(OutboxRelay::getStatistics));
+    }
+}
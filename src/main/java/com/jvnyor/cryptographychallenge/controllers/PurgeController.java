@@ -0,0 +1,28 @@
+package com.jvnyor.cryptographychallenge.controllers;
+
+import com.jvnyor.cryptographychallenge.purge.PurgeStatistics;
+import com.jvnyor.cryptographychallenge.purge.TransactionPurger;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/v1/purge")
+public class PurgeController {
+
+    private final ObjectProvider<TransactionPurger> transactionPurger;
+
+    public PurgeController(ObjectProvider<TransactionPurger> transactionPurger) {
+        this.transactionPurger = transactionPurger;
+    }
+
+    @GetMapping
+    public ResponseEntity<PurgeStatistics> getPurgeStatistics() {
+        return ResponseEntity.of(Optional.ofNullable(transactionPurger.getIfAvailable())
+                .map(TransactionPurger::getStatistics));
+    }
+}
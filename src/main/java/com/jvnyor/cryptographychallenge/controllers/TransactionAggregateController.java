@@ -0,0 +1,29 @@
+package com.jvnyor.cryptographychallenge.controllers;
+
+import com.jvnyor.cryptographychallenge.dtos.UserAggregateRequestDTO;
+import com.jvnyor.cryptographychallenge.dtos.UserAggregateResponseDTO;
+import com.jvnyor.cryptographychallenge.services.TransactionAggregateService;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@Validated
+@RestController
+@RequestMapping("/v1/transactions/aggregates")
+public class TransactionAggregateController {
+
+    private final TransactionAggregateService transactionAggregateService;
+
+    public TransactionAggregateController(TransactionAggregateService transactionAggregateService) {
+        this.transactionAggregateService = transactionAggregateService;
+    }
+
+    @PostMapping
+    public ResponseEntity<UserAggregateResponseDTO> getUserAggregate(@RequestBody @Valid UserAggregateRequestDTO userAggregateRequestDTO) {
+        return ResponseEntity.ok(transactionAggregateService.getUserAggregate(userAggregateRequestDTO));
+    }
+}
@@ -1,17 +1,33 @@
 package com.jvnyor.cryptographychallenge.controllers;
 
+import com.jvnyor.cryptographychallenge.cache.response.CachedResponseBody;
+import com.jvnyor.cryptographychallenge.changes.TransactionChangeStream;
+import com.jvnyor.cryptographychallenge.dtos.MaskedTransactionResponseDTO;
+import com.jvnyor.cryptographychallenge.dtos.TransactionBatchResponseDTO;
+import com.jvnyor.cryptographychallenge.dtos.TransactionChangesResponseDTO;
+import com.jvnyor.cryptographychallenge.dtos.TransactionFilterDTO;
+import com.jvnyor.cryptographychallenge.dtos.TransactionIdsRequestDTO;
 import com.jvnyor.cryptographychallenge.dtos.TransactionRequestDTO;
 import com.jvnyor.cryptographychallenge.dtos.TransactionResponseDTO;
 import com.jvnyor.cryptographychallenge.services.TransactionService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.util.List;
+
 @Validated
 @RestController
 @RequestMapping("/v1/transactions")
@@ -19,8 +35,11 @@ public class TransactionController {
 
     private final TransactionService transactionService;
 
-    public TransactionController(TransactionService transactionService) {
+    private final TransactionChangeStream transactionChangeStream;
+
+    public TransactionController(TransactionService transactionService, TransactionChangeStream transactionChangeStream) {
         this.transactionService = transactionService;
+        this.transactionChangeStream = transactionChangeStream;
     }
 
     @PostMapping
@@ -46,13 +65,45 @@ public class TransactionController {
         return ResponseEntity.noContent().build();
     }
 
+    @CachedResponseBody
     @GetMapping("/{id}")
     public ResponseEntity<TransactionResponseDTO> getTransaction(@PathVariable Long id) {
         return ResponseEntity.ok(transactionService.getTransaction(id));
     }
 
+    @CachedResponseBody(bypassParameters = {"minValue", "maxValue", "createdFrom", "createdTo"})
     @GetMapping
-    public ResponseEntity<Page<TransactionResponseDTO>> getTransactions(@ParameterObject Pageable pageable) {
-        return ResponseEntity.ok(transactionService.getTransactions(pageable));
+    public ResponseEntity<Page<TransactionResponseDTO>> getTransactions(@ParameterObject Pageable pageable, @ParameterObject @Valid TransactionFilterDTO filter) {
+        return ResponseEntity.ok(filter.isEmpty()
+                ? transactionService.getTransactions(pageable)
+                : transactionService.getTransactions(filter, pageable));
+    }
+
+    @GetMapping(params = "view=masked")
+    public ResponseEntity<Page<MaskedTransactionResponseDTO>> getMaskedTransactions(@ParameterObject Pageable pageable) {
+        return ResponseEntity.ok(transactionService.getMaskedTransactions(pageable));
+    }
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<TransactionBatchResponseDTO> getTransactionsByIds(@RequestParam @NotEmpty @Size(max = TransactionIdsRequestDTO.MAX_QUERY_IDS) List<Long> ids) {
+        return ResponseEntity.ok(transactionService.getTransactionsByIds(ids));
+    }
+
+    @PostMapping("/lookup")
+    public ResponseEntity<TransactionBatchResponseDTO> lookupTransactions(@RequestBody @Valid TransactionIdsRequestDTO transactionIdsRequestDTO) {
+        return ResponseEntity.ok(transactionService.getTransactionsByIds(transactionIdsRequestDTO.ids()));
+    }
+
+    @GetMapping("/changes")
+    public ResponseEntity<TransactionChangesResponseDTO> getChanges(@RequestParam(defaultValue = "0") @PositiveOrZero long since, @RequestParam(defaultValue = "100") @Positive @Max(TransactionChangesResponseDTO.MAX_CHANGES) int limit) {
+        return ResponseEntity.ok(transactionService.getChanges(since, limit));
+    }
+
+    /**
+     * Streams the changes after {@code Last-Event-ID} when a client reconnects, otherwise after {@code since}.
+     */
+    @GetMapping(path = "/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestHeader(name = "Last-Event-ID", required = false) @PositiveOrZero Long lastEventId, @RequestParam(defaultValue = "0") @PositiveOrZero long since) {
+        return transactionChangeStream.subscribe(lastEventId != null ? lastEventId : since);
     }
 }
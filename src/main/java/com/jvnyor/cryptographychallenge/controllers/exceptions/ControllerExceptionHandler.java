@@ -1,10 +1,15 @@
 package com.jvnyor.cryptographychallenge.controllers.exceptions;
 
 import com.jvnyor.cryptographychallenge.controllers.exceptions.dtos.ErrorResponseDTO;
+import com.jvnyor.cryptographychallenge.limiter.ConcurrencyLimitExceededException;
+import com.jvnyor.cryptographychallenge.services.exceptions.ChangeCursorExpiredException;
 import com.jvnyor.cryptographychallenge.services.exceptions.TransactionDeletionException;
 import com.jvnyor.cryptographychallenge.services.exceptions.TransactionNotFoundException;
+import com.jvnyor.cryptographychallenge.tenant.InvalidTenantException;
+import com.jvnyor.cryptographychallenge.tenant.UnknownTenantException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -67,7 +72,53 @@ public class ControllerExceptionHandler {
                 );
     }
 
-    @ExceptionHandler({MethodArgumentTypeMismatchException.class, ConstraintViolationException.class, HttpMessageNotReadableException.class})
+    @ExceptionHandler(ConcurrencyLimitExceededException.class)
+    private ResponseEntity<Object> handleConcurrencyLimitExceededException(ConcurrencyLimitExceededException exception, HttpServletRequest request) {
+
+        final var serviceUnavailable = HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity
+                .status(serviceUnavailable)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, exception.getRetryAfter().toSeconds())))
+                .body(new ErrorResponseDTO(
+                        exception.getMessage(),
+                        request.getRequestURI(),
+                        exception.getClass().getSimpleName(),
+                        serviceUnavailable.value(),
+                        LocalDateTime.now())
+                );
+    }
+
+    @ExceptionHandler(ChangeCursorExpiredException.class)
+    private ResponseEntity<Object> handleChangeCursorExpiredException(ChangeCursorExpiredException exception, HttpServletRequest request) {
+
+        final var gone = HttpStatus.GONE;
+        return ResponseEntity
+                .status(gone)
+                .body(new ErrorResponseDTO(
+                        exception.getMessage(),
+                        request.getRequestURI(),
+                        exception.getClass().getSimpleName(),
+                        gone.value(),
+                        LocalDateTime.now())
+                );
+    }
+
+    @ExceptionHandler(UnknownTenantException.class)
+    private ResponseEntity<Object> handleUnknownTenantException(UnknownTenantException exception, HttpServletRequest request) {
+
+        final var forbidden = HttpStatus.FORBIDDEN;
+        return ResponseEntity
+                .status(forbidden)
+                .body(new ErrorResponseDTO(
+                        exception.getMessage(),
+                        request.getRequestURI(),
+                        exception.getClass().getSimpleName(),
+                        forbidden.value(),
+                        LocalDateTime.now())
+                );
+    }
+
+    @ExceptionHandler({MethodArgumentTypeMismatchException.class, ConstraintViolationException.class, HttpMessageNotReadableException.class, InvalidTenantException.class})
     private ResponseEntity<Object> handleValidationExceptions(Exception exception, HttpServletRequest request) {
 
         return ResponseEntity
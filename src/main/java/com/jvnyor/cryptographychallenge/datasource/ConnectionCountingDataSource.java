@@ -0,0 +1,58 @@
+package com.jvnyor.cryptographychallenge.datasource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.lang.NonNull;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tracks how many connections obtained from the target data source are currently open.
+ */
+public class ConnectionCountingDataSource extends DelegatingDataSource {
+
+    private final AtomicInteger activeConnections = new AtomicInteger();
+
+    public ConnectionCountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @NonNull
+    @Override
+    public Connection getConnection() throws SQLException {
+        return track(super.getConnection());
+    }
+
+    @NonNull
+    @Override
+    public Connection getConnection(@NonNull String username, @NonNull String password) throws SQLException {
+        return track(super.getConnection(username, password));
+    }
+
+    public int getActiveConnections() {
+        return activeConnections.get();
+    }
+
+    private Connection track(Connection connection) {
+        activeConnections.incrementAndGet();
+        var closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && closed.compareAndSet(false, true)) {
+                        activeConnections.decrementAndGet();
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
@@ -0,0 +1,68 @@
+package com.jvnyor.cryptographychallenge.datasource;
+
+import jakarta.servlet.http.Cookie;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.util.WebUtils;
+
+import java.time.Duration;
+import java.util.OptionalLong;
+
+/**
+ * Remembers when the client of the current HTTP request last committed a write, in a cookie holding the commit time
+ * in epoch milliseconds. The cookie lives as long as the replication lag tolerance, so it is only sent back while
+ * the client's reads still have to go to the primary. Work done outside of a request has no writer to follow.
+ */
+public class ReadYourWrites {
+
+    private static final String LAST_WRITE_ATTRIBUTE = ReadYourWrites.class.getName() + ".lastWrite";
+
+    private final String cookieName;
+
+    private final Duration lagTolerance;
+
+    public ReadYourWrites(String cookieName, Duration lagTolerance) {
+        this.cookieName = cookieName;
+        this.lagTolerance = lagTolerance;
+    }
+
+    /**
+     * The last write of the current client, committed during this request or carried in its cookie.
+     */
+    public OptionalLong lastWriteMillis() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return OptionalLong.empty();
+        }
+        var request = attributes.getRequest();
+        if (request.getAttribute(LAST_WRITE_ATTRIBUTE) instanceof Long lastWrite) {
+            return OptionalLong.of(lastWrite);
+        }
+        var cookie = WebUtils.getCookie(request, cookieName);
+        if (cookie == null) {
+            return OptionalLong.empty();
+        }
+        try {
+            return OptionalLong.of(Long.parseLong(cookie.getValue()));
+        } catch (NumberFormatException e) {
+            return OptionalLong.empty();
+        }
+    }
+
+    /**
+     * Records a write of the current client committed at the given time.
+     */
+    public void recordWrite(long commitMillis) {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return;
+        }
+        attributes.getRequest().setAttribute(LAST_WRITE_ATTRIBUTE, commitMillis);
+        var response = attributes.getResponse();
+        if (response != null && !response.isCommitted()) {
+            var cookie = new Cookie(cookieName, Long.toString(commitMillis));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, lagTolerance.toSeconds() + 1));
+            response.addCookie(cookie);
+        }
+    }
+}
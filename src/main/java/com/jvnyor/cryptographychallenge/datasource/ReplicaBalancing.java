@@ -0,0 +1,6 @@
+package com.jvnyor.cryptographychallenge.datasource;
+
+public enum ReplicaBalancing {
+    ROUND_ROBIN,
+    LEAST_CONNECTIONS
+}
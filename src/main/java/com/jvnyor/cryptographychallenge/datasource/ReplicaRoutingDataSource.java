@@ -0,0 +1,124 @@
+package com.jvnyor.cryptographychallenge.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.lang.NonNull;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Sends read-only transactions to one of the replicas and everything else to the primary.
+ * <p>
+ * A client's reads stay on the primary for {@code replicaLagTolerance} after a write transaction of that client
+ * commits, tracked per client by {@link ReadYourWrites}, so a client never misses its own write because of
+ * replication lag while other clients keep reading from the replicas. If a replica cannot hand out a connection the
+ * read falls back to the primary. Must be wrapped in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, because the read-only flag of a
+ * transaction is only known after the transaction manager asked for the connection.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final DataSource primary;
+
+    private final List<ConnectionCountingDataSource> replicas;
+
+    private final ReplicaBalancing balancing;
+
+    private final Duration replicaLagTolerance;
+
+    private final Clock clock;
+
+    private final ReadYourWrites readYourWrites;
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, ReplicaBalancing balancing, Duration replicaLagTolerance, ReadYourWrites readYourWrites, Clock clock) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(ConnectionCountingDataSource::new).toList();
+        this.balancing = balancing;
+        this.replicaLagTolerance = replicaLagTolerance;
+        this.readYourWrites = readYourWrites;
+        this.clock = clock;
+        Map<Object, Object> targetDataSources = new HashMap<>();
+        targetDataSources.put(PRIMARY, primary);
+        IntStream.range(0, this.replicas.size()).forEach(index -> targetDataSources.put(index, this.replicas.get(index)));
+        setTargetDataSources(targetDataSources);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            recordWriteOnCommit();
+            return PRIMARY;
+        }
+        if (replicas.isEmpty() || isWithinLagTolerance(readYourWrites.lastWriteMillis())) {
+            return PRIMARY;
+        }
+        return switch (balancing) {
+            case ROUND_ROBIN -> Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+            case LEAST_CONNECTIONS -> IntStream.range(0, replicas.size()).boxed()
+                    .min(Comparator.comparingInt(index -> replicas.get(index).getActiveConnections()))
+                    .orElseThrow();
+        };
+    }
+
+    @NonNull
+    @Override
+    public Connection getConnection() throws SQLException {
+        var target = determineTargetDataSource();
+        try {
+            return target.getConnection();
+        } catch (SQLException e) {
+            if (target == primary) {
+                throw e;
+            }
+            log.warn("Replica unavailable, routing read to primary", e);
+            return primary.getConnection();
+        }
+    }
+
+    public int getActiveConnections(int replica) {
+        return replicas.get(replica).getActiveConnections();
+    }
+
+    /**
+     * Connections taken outside a transaction are not tracked: there is no commit to wait for.
+     */
+    private void recordWriteOnCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    readYourWrites.recordWrite(clock.millis());
+                }
+            });
+        }
+    }
+
+    /**
+     * Times ahead of this node's clock, from another node's skewed clock, count as recent as well.
+     */
+    private boolean isWithinLagTolerance(OptionalLong lastWriteMillis) {
+        return lastWriteMillis.isPresent()
+                && Math.abs(clock.millis() - lastWriteMillis.getAsLong()) < replicaLagTolerance.toMillis();
+    }
+}
@@ -0,0 +1,25 @@
+package com.jvnyor.cryptographychallenge.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Replica routing settings. {@code replicaLagTolerance} is the replication lag the application tolerates: for that
+ * long after a client's write commits, that client's read-only transactions stay on the primary so it reads its own
+ * writes. The commit time is handed to the client in the {@code readYourWritesCookie} cookie.
+ */
+@ConfigurationProperties("app.datasource.routing")
+public record ReplicaRoutingProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("round-robin") ReplicaBalancing balancing,
+        @DefaultValue("1s") Duration replicaLagTolerance,
+        @DefaultValue("last-write") String readYourWritesCookie,
+        @DefaultValue List<Replica> replicas
+) {
+
+    public record Replica(String url, String username, String password) {
+    }
+}
@@ -0,0 +1,29 @@
+package com.jvnyor.cryptographychallenge.datasource;
+
+/**
+ * Holds the shard the current thread's transaction runs against. Managed by {@link ShardTemplate}.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT_SHARD = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static Integer get() {
+        return CURRENT_SHARD.get();
+    }
+
+    /**
+     * Binds the given shard, or unbinds when {@code null}, and returns the previously bound shard.
+     */
+    public static Integer set(Integer shard) {
+        var previous = CURRENT_SHARD.get();
+        if (shard == null) {
+            CURRENT_SHARD.remove();
+        } else {
+            CURRENT_SHARD.set(shard);
+        }
+        return previous;
+    }
+}
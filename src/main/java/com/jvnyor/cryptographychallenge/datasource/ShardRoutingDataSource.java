@@ -0,0 +1,30 @@
+package com.jvnyor.cryptographychallenge.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Routes connections to the shard bound in {@link ShardContext}. Connections taken outside a shard, such as
+ * Hibernate's schema management and metadata lookups at startup, go to shard 0. Must be wrapped in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} so the shard can be bound after the
+ * transaction began.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    public ShardRoutingDataSource(List<DataSource> shards) {
+        Map<Object, Object> targetDataSources = new HashMap<>();
+        IntStream.range(0, shards.size()).forEach(shard -> targetDataSources.put(shard, shards.get(shard)));
+        setTargetDataSources(targetDataSources);
+        setDefaultTargetDataSource(shards.get(0));
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.get();
+    }
+}
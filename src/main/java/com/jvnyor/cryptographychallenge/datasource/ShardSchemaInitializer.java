@@ -0,0 +1,66 @@
+package com.jvnyor.cryptographychallenge.datasource;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.IdentityGenerator;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.stream.IntStream;
+
+/**
+ * Prepares every shard once the persistence unit is up: creates the schema on shards other than shard 0 when
+ * asked to, and makes each identity column of shard {@code n} hand out ids congruent to {@code n} modulo the
+ * shard count, continuing after the highest id already stored.
+ */
+public class ShardSchemaInitializer implements SmartInitializingSingleton {
+
+    private final Logger log = LoggerFactory.getLogger(ShardSchemaInitializer.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final DataSource dataSource;
+
+    private final int shardCount;
+
+    private final boolean initializeSchema;
+
+    public ShardSchemaInitializer(EntityManagerFactory entityManagerFactory, DataSource dataSource, int shardCount, boolean initializeSchema) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.dataSource = dataSource;
+        this.shardCount = shardCount;
+        this.initializeSchema = initializeSchema;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        var sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        var jdbcTemplate = new JdbcTemplate(dataSource);
+        IntStream.range(0, shardCount).forEach(shard -> {
+            var previous = ShardContext.set(shard);
+            try {
+                if (initializeSchema && shard > 0) {
+                    log.info("Creating schema on shard {}", shard);
+                    sessionFactory.getSchemaManager().exportMappedObjects(false);
+                }
+                sessionFactory.getMappingMetamodel().forEachEntityDescriptor(entity -> {
+                    if (entity.getGenerator() instanceof IdentityGenerator && entity instanceof AbstractEntityPersister persister) {
+                        var table = persister.getTableName();
+                        var column = persister.getIdentifierColumnNames()[0];
+                        var maxId = jdbcTemplate.queryForObject("select coalesce(max(" + column + "), 0) from " + table, Long.class);
+                        var nextId = maxId + shardCount - Math.floorMod(maxId - shard, (long) shardCount);
+                        jdbcTemplate.execute("alter table " + table + " alter column " + column + " restart with " + nextId);
+                        jdbcTemplate.execute("alter table " + table + " alter column " + column + " set increment by " + shardCount);
+                        log.debug("Shard {} hands out {} ids from {} in steps of {}", shard, table, nextId, shardCount);
+                    }
+                });
+            } finally {
+                ShardContext.set(previous);
+            }
+        });
+    }
+}
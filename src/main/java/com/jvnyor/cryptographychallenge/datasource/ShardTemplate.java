@@ -0,0 +1,198 @@
+package com.jvnyor.cryptographychallenge.datasource;
+
+import com.jvnyor.cryptographychallenge.util.SortUtils;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Places data on shards and runs work against them.
+ * <p>
+ * A transaction lives on the shard picked by the keyed hash of its user document, and ids are handed out by each
+ * shard in steps of the shard count starting at the shard number, so {@code id % shardCount} finds the shard
+ * of any transaction or card token without a lookup. Listings are read from every shard, each in its own
+ * read-only transaction, and merged. With a single shard everything runs in the caller's transaction.
+ */
+public class ShardTemplate {
+
+    private static final String ID_PROPERTY = "id";
+
+    private final int shardCount;
+
+    private final PlatformTransactionManager transactionManager;
+
+    public ShardTemplate(int shardCount, PlatformTransactionManager transactionManager) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.shardCount = shardCount;
+        this.transactionManager = transactionManager;
+    }
+
+    public static ShardTemplate single() {
+        return new ShardTemplate(1, null);
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public int shardForKey(String keyHash) {
+        return (int) Long.remainderUnsigned(Long.parseUnsignedLong(keyHash.substring(0, 15), 16), shardCount);
+    }
+
+    public int shardForId(long id) {
+        return (int) Math.floorMod(id, (long) shardCount);
+    }
+
+    /**
+     * Binds the current transaction to the shard of the given key hash, used to place new rows.
+     */
+    public void bindToKey(String keyHash) {
+        if (shardCount > 1) {
+            bind(shardForKey(keyHash));
+        }
+    }
+
+    /**
+     * Binds the current transaction to the shard that handed out the given id.
+     */
+    public void bindToId(long id) {
+        if (shardCount > 1) {
+            bind(shardForId(id));
+        }
+    }
+
+    /**
+     * Runs the action in a new transaction on the given shard.
+     */
+    public <T> T inShard(int shard, boolean readOnly, Supplier<T> action) {
+        if (shardCount == 1) {
+            return action.get();
+        }
+        var transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transactionTemplate.setReadOnly(readOnly);
+        var previous = ShardContext.set(shard);
+        try {
+            return transactionTemplate.execute(status -> action.get());
+        } finally {
+            ShardContext.set(previous);
+        }
+    }
+
+    public <T> List<T> forEachShard(boolean readOnly, Supplier<T> action) {
+        return IntStream.range(0, shardCount)
+                .mapToObj(shard -> inShard(shard, readOnly, action))
+                .toList();
+    }
+
+    /**
+     * Reads the first {@code offset + size} rows of every shard in the requested order and merges them. The
+     * cost of a page grows with its offset, so deep pages are better served by narrower queries.
+     */
+    public <T> Page<T> scatterGather(Pageable pageable, Function<Pageable, Page<T>> query) {
+        if (shardCount == 1) {
+            return query.apply(pageable);
+        }
+        var sort = withIdTieBreak(pageable.getSort());
+        var shardPageable = pageable.isPaged()
+                ? PageRequest.of(0, Math.toIntExact(pageable.getOffset() + pageable.getPageSize()), sort)
+                : Pageable.unpaged(sort);
+        var shardPages = forEachShard(true, () -> query.apply(shardPageable));
+        var total = shardPages.stream().mapToLong(Page::getTotalElements).sum();
+        var merged = merge(shardPages.stream().map(Page::getContent).toList(), SortUtils.<T>comparatorFor(sort));
+        var from = (int) Math.min(pageable.isPaged() ? pageable.getOffset() : 0, merged.size());
+        var to = pageable.isPaged() ? Math.min(from + pageable.getPageSize(), merged.size()) : merged.size();
+        return new PageImpl<>(merged.subList(from, to), pageable, total);
+    }
+
+    /**
+     * Maps items read from several shards, running the mapper for each item in a read-only transaction on its
+     * shard so lazy references resolve there. The original order is kept.
+     */
+    public <E, R> List<R> mapByShard(List<E> items, ToLongFunction<E> idOf, Function<E, R> mapper) {
+        if (shardCount == 1) {
+            return items.stream().map(mapper).toList();
+        }
+        var results = new ArrayList<R>(items.size());
+        items.forEach(item -> results.add(null));
+        IntStream.range(0, shardCount).forEach(shard -> {
+            var indexes = IntStream.range(0, items.size())
+                    .filter(index -> shardForId(idOf.applyAsLong(items.get(index))) == shard)
+                    .toArray();
+            if (indexes.length > 0) {
+                inShard(shard, true, () -> {
+                    for (int index : indexes) {
+                        results.set(index, mapper.apply(items.get(index)));
+                    }
+                    return null;
+                });
+            }
+        });
+        return results;
+    }
+
+    public <E, R> Page<R> mapByShard(Page<E> page, ToLongFunction<E> idOf, Function<E, R> mapper) {
+        return new PageImpl<>(mapByShard(page.getContent(), idOf, mapper), page.getPageable(), page.getTotalElements());
+    }
+
+    private void bind(int shard) {
+        var current = ShardContext.get();
+        if (current != null) {
+            if (current != shard) {
+                throw new IllegalStateException("Transaction is bound to shard " + current + " and cannot access shard " + shard);
+            }
+            return;
+        }
+        ShardContext.set(shard);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    ShardContext.set(null);
+                }
+            });
+        }
+    }
+
+    private static Sort withIdTieBreak(Sort sort) {
+        return sort.getOrderFor(ID_PROPERTY) == null ? sort.and(Sort.by(ID_PROPERTY)) : sort;
+    }
+
+    private static <T> List<T> merge(List<List<T>> sortedLists, Comparator<T> comparator) {
+        record Head<T>(T item, Iterator<T> rest) {
+        }
+        var heads = new PriorityQueue<Head<T>>(Math.max(1, sortedLists.size()), Comparator.comparing(Head::item, comparator));
+        sortedLists.stream()
+                .map(List::iterator)
+                .filter(Iterator::hasNext)
+                .forEach(iterator -> heads.add(new Head<>(iterator.next(), iterator)));
+        var merged = new ArrayList<T>(sortedLists.stream().mapToInt(List::size).sum());
+        while (!heads.isEmpty()) {
+            var head = heads.poll();
+            merged.add(head.item());
+            if (head.rest().hasNext()) {
+                heads.add(new Head<>(head.rest().next(), head.rest()));
+            }
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,22 @@
+package com.jvnyor.cryptographychallenge.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+/**
+ * Sharding settings. The number of shards is part of every transaction and card token id, so it cannot change once
+ * data was written. {@code initializeSchema} creates the schema on every shard besides shard 0, which Hibernate
+ * manages itself, and is meant for embedded databases.
+ */
+@ConfigurationProperties("app.datasource.sharding")
+public record ShardingProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("false") boolean initializeSchema,
+        @DefaultValue List<Shard> shards
+) {
+
+    public record Shard(String url, String username, String password) {
+    }
+}
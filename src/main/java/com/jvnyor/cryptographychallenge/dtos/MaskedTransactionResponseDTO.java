@@ -0,0 +1,15 @@
+package com.jvnyor.cryptographychallenge.dtos;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+public record MaskedTransactionResponseDTO(
+        long id,
+        String userDocument,
+        String creditCardToken,
+        double value
+) implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 3196052870263410447L;
+}
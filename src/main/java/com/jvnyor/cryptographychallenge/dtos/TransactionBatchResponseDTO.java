@@ -0,0 +1,14 @@
+package com.jvnyor.cryptographychallenge.dtos;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+public record TransactionBatchResponseDTO(
+        List<TransactionResponseDTO> transactions,
+        List<Long> missingIds
+) implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 7604043923164736208L;
+}
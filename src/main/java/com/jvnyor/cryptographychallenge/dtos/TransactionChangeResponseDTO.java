@@ -0,0 +1,23 @@
+package com.jvnyor.cryptographychallenge.dtos;
+
+import com.jvnyor.cryptographychallenge.entities.ChangeType;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * A change of the feed with the current state of the transaction, which is {@code null} for a tombstone and for
+ * a transaction deleted since; its tombstone follows later in the feed.
+ */
+public record TransactionChangeResponseDTO(
+        long sequence,
+        long transactionId,
+        ChangeType type,
+        Instant changedAt,
+        TransactionResponseDTO transaction
+) implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 3307785384862391846L;
+}
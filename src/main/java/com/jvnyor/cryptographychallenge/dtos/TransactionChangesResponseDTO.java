@@ -0,0 +1,21 @@
+package com.jvnyor.cryptographychallenge.dtos;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * @param checkpoint the sequence to ask for changes since next time
+ * @param hasMore    whether more changes are already available after the checkpoint
+ */
+public record TransactionChangesResponseDTO(
+        List<TransactionChangeResponseDTO> changes,
+        long checkpoint,
+        boolean hasMore
+) implements Serializable {
+
+    public static final int MAX_CHANGES = 1000;
+
+    @Serial
+    private static final long serialVersionUID = -6012389957467830412L;
+}
@@ -0,0 +1,49 @@
+package com.jvnyor.cryptographychallenge.dtos;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.jvnyor.cryptographychallenge.entities.Transaction;
+import jakarta.validation.constraints.AssertTrue;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Range filters of a transaction listing. Every bound is optional; {@code value} bounds are inclusive and the
+ * {@code createdAt} range is half-open, from {@code createdFrom} inclusive to {@code createdTo} exclusive, so
+ * consecutive windows never overlap.
+ */
+public record TransactionFilterDTO(
+        Double minValue,
+        Double maxValue,
+        Instant createdFrom,
+        Instant createdTo
+) implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 5528236001948437611L;
+
+    @JsonIgnore
+    public boolean isEmpty() {
+        return minValue == null && maxValue == null && createdFrom == null && createdTo == null;
+    }
+
+    @JsonIgnore
+    @AssertTrue(message = "minValue must not be greater than maxValue")
+    public boolean isValueRangeValid() {
+        return minValue == null || maxValue == null || minValue <= maxValue;
+    }
+
+    @JsonIgnore
+    @AssertTrue(message = "createdFrom must be before createdTo")
+    public boolean isCreatedAtRangeValid() {
+        return createdFrom == null || createdTo == null || createdFrom.isBefore(createdTo);
+    }
+
+    public boolean matches(Transaction transaction) {
+        return (minValue == null || transaction.getValue() >= minValue)
+                && (maxValue == null || transaction.getValue() <= maxValue)
+                && (createdFrom == null || !transaction.getCreatedAt().isBefore(createdFrom))
+                && (createdTo == null || transaction.getCreatedAt().isBefore(createdTo));
+    }
+}
@@ -0,0 +1,23 @@
+package com.jvnyor.cryptographychallenge.dtos;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+public record TransactionIdsRequestDTO(
+        @NotEmpty(message = "must not be empty or null")
+        @Size(max = TransactionIdsRequestDTO.MAX_IDS)
+        List<@NotNull Long> ids
+) implements Serializable {
+
+    public static final int MAX_IDS = 5000;
+
+    public static final int MAX_QUERY_IDS = 200;
+
+    @Serial
+    private static final long serialVersionUID = -2117316466226418353L;
+}
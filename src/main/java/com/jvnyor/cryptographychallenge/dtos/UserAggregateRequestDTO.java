@@ -0,0 +1,25 @@
+package com.jvnyor.cryptographychallenge.dtos;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotBlank;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDate;
+
+public record UserAggregateRequestDTO(
+        @NotBlank(message = "must not be blank or null") String userDocument,
+        LocalDate from,
+        LocalDate to
+) implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = -3371563338931208413L;
+
+    @JsonIgnore
+    @AssertTrue(message = "from must not be after to")
+    public boolean isDateRangeValid() {
+        return from == null || to == null || !from.isAfter(to);
+    }
+}
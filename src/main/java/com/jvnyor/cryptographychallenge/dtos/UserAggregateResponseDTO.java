@@ -0,0 +1,28 @@
+package com.jvnyor.cryptographychallenge.dtos;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.List;
+
+public record UserAggregateResponseDTO(
+        long transactionCount,
+        double totalValue,
+        Double minValue,
+        Double maxValue,
+        List<DailyAggregate> daily
+) implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 2482315913300271245L;
+
+    public record DailyAggregate(
+            LocalDate day,
+            long transactionCount,
+            double totalValue
+    ) implements Serializable {
+
+        @Serial
+        private static final long serialVersionUID = -6045498744870938214L;
+    }
+}
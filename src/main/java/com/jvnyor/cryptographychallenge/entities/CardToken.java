@@ -0,0 +1,65 @@
+package com.jvnyor.cryptographychallenge.entities;
+
+import com.jvnyor.cryptographychallenge.entities.converters.CiphertextConverter;
+import com.jvnyor.cryptographychallenge.tenant.TenantResolver;
+import com.jvnyor.cryptographychallenge.util.KeyedHasher;
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+
+/**
+ * A credit card token held once per tenant, encrypted with the key of that tenant.
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"tenantId", "tokenHash"}))
+public class CardToken implements Serializable {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, updatable = false, length = TenantResolver.MAX_TENANT_ID_LENGTH)
+    private String tenantId;
+
+    @Column(nullable = false, length = KeyedHasher.HASH_LENGTH)
+    private String tokenHash;
+
+    @Convert(converter = CiphertextConverter.class)
+    @Column(nullable = false, length = CiphertextConverter.MAX_LENGTH)
+    private String token;
+
+    public CardToken() {
+    }
+
+    public CardToken(Long id, String tenantId, String tokenHash, String token) {
+        this.id = id;
+        this.tenantId = tenantId;
+        this.tokenHash = tokenHash;
+        this.token = token;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    public String getTokenHash() {
+        return tokenHash;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    @Override
+    public String toString() {
+        return "CardToken{" +
+                "id=" + id +
+                ", tenantId='" + tenantId + '\'' +
+                ", tokenHash='" + tokenHash + '\'' +
+                '}';
+    }
+}
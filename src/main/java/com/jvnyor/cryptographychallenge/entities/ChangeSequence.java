@@ -0,0 +1,49 @@
+package com.jvnyor.cryptographychallenge.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.io.Serializable;
+
+/**
+ * The single-row counter the change log sequences are drawn from. Incrementing it locks the row until the
+ * transaction ends, so sequences become visible in the order they were handed out. {@code prunedThrough} is the
+ * highest sequence removed from the change log by retention.
+ */
+@Entity
+@Table
+public class ChangeSequence implements Serializable {
+
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private long value;
+
+    @Column(nullable = false)
+    private long prunedThrough;
+
+    public ChangeSequence() {
+    }
+
+    public ChangeSequence(long value) {
+        this.id = ID;
+        this.value = value;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public long getValue() {
+        return value;
+    }
+
+    public long getPrunedThrough() {
+        return prunedThrough;
+    }
+}
@@ -0,0 +1,7 @@
+package com.jvnyor.cryptographychallenge.entities;
+
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
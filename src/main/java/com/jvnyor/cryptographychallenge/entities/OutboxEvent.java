@@ -0,0 +1,61 @@
+package com.jvnyor.cryptographychallenge.entities;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * A transaction event waiting to be published to other services. Written in the same database transaction as the
+ * change it describes and keyed by the sequence of that change, so consumers can drop the duplicates of an
+ * at-least-once delivery. {@code sentAt} stays {@code null} until the relay has handed the event to the sink.
+ */
+@Entity
+@Table(indexes = @Index(columnList = "sentAt, sequence"))
+public class OutboxEvent implements Serializable {
+
+    @Id
+    private Long sequence;
+
+    @Column(nullable = false, updatable = false)
+    private long transactionId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false, length = 7)
+    private ChangeType type;
+
+    @Column(nullable = false, updatable = false)
+    private Instant occurredAt;
+
+    private Instant sentAt;
+
+    public OutboxEvent() {
+    }
+
+    public OutboxEvent(long sequence, long transactionId, ChangeType type, Instant occurredAt) {
+        this.sequence = sequence;
+        this.transactionId = transactionId;
+        this.type = type;
+        this.occurredAt = occurredAt;
+    }
+
+    public Long getSequence() {
+        return sequence;
+    }
+
+    public long getTransactionId() {
+        return transactionId;
+    }
+
+    public ChangeType getType() {
+        return type;
+    }
+
+    public Instant getOccurredAt() {
+        return occurredAt;
+    }
+
+    public Instant getSentAt() {
+        return sentAt;
+    }
+}
@@ -1,33 +1,80 @@
 package com.jvnyor.cryptographychallenge.entities;
 
+import com.jvnyor.cryptographychallenge.entities.converters.CiphertextConverter;
+import com.jvnyor.cryptographychallenge.tenant.TenantResolver;
+import com.jvnyor.cryptographychallenge.util.KeyedHasher;
+import com.jvnyor.cryptographychallenge.util.MaskUtils;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.SQLDelete;
+import org.hibernate.annotations.SQLRestriction;
 
 import java.io.Serializable;
+import java.time.Instant;
 
+/**
+ * A card transaction. Deleting one only marks it {@code deleted}, with a single update by primary key, and every
+ * query and lookup by id skips marked rows; they are removed later by the
+ * {@link com.jvnyor.cryptographychallenge.purge.TransactionPurger}.
+ */
 @Entity
-@Table
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@SQLDelete(sql = "update \"transaction\" set \"deleted\" = true where \"id\" = ?")
+@SQLRestriction("\"deleted\" = false")
+@Table(indexes = {
+        @Index(columnList = "deleted"),
+        @Index(columnList = "userDocumentHash"),
+        @Index(name = Transaction.CREATED_AT_VALUE_INDEX, columnList = "createdAt, value"),
+        @Index(name = Transaction.VALUE_CREATED_AT_INDEX, columnList = "value, createdAt")
+})
 public class Transaction implements Serializable {
 
+    public static final String CREATED_AT_VALUE_INDEX = "idx_transaction_created_at_value";
+
+    public static final String VALUE_CREATED_AT_INDEX = "idx_transaction_value_created_at";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false)
+    @Column(nullable = false, updatable = false, length = TenantResolver.MAX_TENANT_ID_LENGTH)
+    private String tenantId;
+
+    @Convert(converter = CiphertextConverter.class)
+    @Column(nullable = false, length = CiphertextConverter.MAX_LENGTH)
     private String userDocument;
 
-    @Column(nullable = false)
-    private String creditCardToken;
+    @Column(nullable = false, length = KeyedHasher.HASH_LENGTH)
+    private String userDocumentHash;
+
+    @Column(nullable = false, length = MaskUtils.VISIBLE_CHARACTERS)
+    private String userDocumentSuffix;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(nullable = false)
+    private CardToken cardToken;
+
+    @Column(nullable = false, length = MaskUtils.VISIBLE_CHARACTERS)
+    private String creditCardTokenLastFour;
 
     @Column(nullable = false)
     private double value;
 
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Column(nullable = false)
+    private boolean deleted;
+
     public Transaction() {
     }
 
-    public Transaction(Long id, String userDocument, String creditCardToken, double value) {
+    public Transaction(Long id, String userDocument, CardToken cardToken, double value) {
         this.id = id;
         this.userDocument = userDocument;
-        this.creditCardToken = creditCardToken;
+        this.cardToken = cardToken;
         this.value = value;
     }
 
@@ -35,6 +82,18 @@ public class Transaction implements Serializable {
         return id;
     }
 
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    public void setTenantId(String tenantId) {
+        this.tenantId = tenantId;
+    }
+
     public String getUserDocument() {
         return userDocument;
     }
@@ -43,12 +102,36 @@ public class Transaction implements Serializable {
         this.userDocument = userDocument;
     }
 
-    public String getCreditCardToken() {
-        return creditCardToken;
+    public String getUserDocumentHash() {
+        return userDocumentHash;
     }
 
-    public void setCreditCardToken(String creditCardToken) {
-        this.creditCardToken = creditCardToken;
+    public void setUserDocumentHash(String userDocumentHash) {
+        this.userDocumentHash = userDocumentHash;
+    }
+
+    public String getUserDocumentSuffix() {
+        return userDocumentSuffix;
+    }
+
+    public void setUserDocumentSuffix(String userDocumentSuffix) {
+        this.userDocumentSuffix = userDocumentSuffix;
+    }
+
+    public CardToken getCardToken() {
+        return cardToken;
+    }
+
+    public void setCardToken(CardToken cardToken) {
+        this.cardToken = cardToken;
+    }
+
+    public String getCreditCardTokenLastFour() {
+        return creditCardTokenLastFour;
+    }
+
+    public void setCreditCardTokenLastFour(String creditCardTokenLastFour) {
+        this.creditCardTokenLastFour = creditCardTokenLastFour;
     }
 
     public double getValue() {
@@ -59,13 +142,30 @@ public class Transaction implements Serializable {
         this.value = value;
     }
 
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @PrePersist
+    void onCreate() {
+        if (createdAt == null) {
+            createdAt = Instant.now();
+        }
+    }
+
     @Override
     public String toString() {
         return "User{" +
                 "id=" + id +
+                ", tenantId='" + tenantId + '\'' +
                 ", userDocument='" + userDocument + '\'' +
-                ", creditCardToken='" + creditCardToken + '\'' +
+                ", cardTokenId=" + (cardToken == null ? null : cardToken.getId()) +
                 ", value='" + value + '\'' +
+                ", createdAt=" + createdAt +
                 '}';
     }
 }
@@ -0,0 +1,54 @@
+package com.jvnyor.cryptographychallenge.entities;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * One entry of the transaction change log. Entries are only appended; a {@link ChangeType#DELETED} entry is the
+ * tombstone of a removed transaction.
+ */
+@Entity
+@Table
+public class TransactionChange implements Serializable {
+
+    @Id
+    private Long sequence;
+
+    @Column(nullable = false, updatable = false)
+    private long transactionId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false, length = 7)
+    private ChangeType type;
+
+    @Column(nullable = false, updatable = false)
+    private Instant changedAt;
+
+    public TransactionChange() {
+    }
+
+    public TransactionChange(long sequence, long transactionId, ChangeType type, Instant changedAt) {
+        this.sequence = sequence;
+        this.transactionId = transactionId;
+        this.type = type;
+        this.changedAt = changedAt;
+    }
+
+    public Long getSequence() {
+        return sequence;
+    }
+
+    public long getTransactionId() {
+        return transactionId;
+    }
+
+    public ChangeType getType() {
+        return type;
+    }
+
+    public Instant getChangedAt() {
+        return changedAt;
+    }
+}
@@ -0,0 +1,43 @@
+package com.jvnyor.cryptographychallenge.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+
+import java.io.Serializable;
+
+@Entity
+@Table
+public class UserDailySummary implements Serializable {
+
+    @EmbeddedId
+    private UserDailySummaryId id;
+
+    @Column(nullable = false)
+    private long transactionCount;
+
+    @Column(nullable = false)
+    private double totalValue;
+
+    public UserDailySummary() {
+    }
+
+    public UserDailySummary(UserDailySummaryId id, long transactionCount, double totalValue) {
+        this.id = id;
+        this.transactionCount = transactionCount;
+        this.totalValue = totalValue;
+    }
+
+    public UserDailySummaryId getId() {
+        return id;
+    }
+
+    public long getTransactionCount() {
+        return transactionCount;
+    }
+
+    public double getTotalValue() {
+        return totalValue;
+    }
+}
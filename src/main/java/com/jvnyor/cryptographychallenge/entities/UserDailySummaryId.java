@@ -0,0 +1,46 @@
+package com.jvnyor.cryptographychallenge.entities;
+
+import com.jvnyor.cryptographychallenge.util.KeyedHasher;
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+@Embeddable
+public class UserDailySummaryId implements Serializable {
+
+    @Column(length = KeyedHasher.HASH_LENGTH)
+    private String userDocumentHash;
+
+    private LocalDate day;
+
+    public UserDailySummaryId() {
+    }
+
+    public UserDailySummaryId(String userDocumentHash, LocalDate day) {
+        this.userDocumentHash = userDocumentHash;
+        this.day = day;
+    }
+
+    public String getUserDocumentHash() {
+        return userDocumentHash;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof UserDailySummaryId that)) return false;
+        return Objects.equals(userDocumentHash, that.userDocumentHash) && Objects.equals(day, that.day);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userDocumentHash, day);
+    }
+}
@@ -0,0 +1,79 @@
+package com.jvnyor.cryptographychallenge.entities;
+
+import com.jvnyor.cryptographychallenge.util.KeyedHasher;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.io.Serializable;
+
+@Entity
+@Table
+public class UserSummary implements Serializable {
+
+    @Id
+    @Column(length = KeyedHasher.HASH_LENGTH)
+    private String userDocumentHash;
+
+    @Column(nullable = false)
+    private long transactionCount;
+
+    @Column(nullable = false)
+    private double totalValue;
+
+    @Column(nullable = false)
+    private double minValue;
+
+    @Column(nullable = false)
+    private double maxValue;
+
+    /**
+     * Lowest value among the transactions moved to the archive, which can no longer be removed.
+     */
+    private Double archivedMinValue;
+
+    /**
+     * Highest value among the transactions moved to the archive, which can no longer be removed.
+     */
+    private Double archivedMaxValue;
+
+    public UserSummary() {
+    }
+
+    public UserSummary(String userDocumentHash, long transactionCount, double totalValue, double minValue, double maxValue) {
+        this.userDocumentHash = userDocumentHash;
+        this.transactionCount = transactionCount;
+        this.totalValue = totalValue;
+        this.minValue = minValue;
+        this.maxValue = maxValue;
+    }
+
+    public String getUserDocumentHash() {
+        return userDocumentHash;
+    }
+
+    public long getTransactionCount() {
+        return transactionCount;
+    }
+
+    public double getTotalValue() {
+        return totalValue;
+    }
+
+    public double getMinValue() {
+        return minValue;
+    }
+
+    public double getMaxValue() {
+        return maxValue;
+    }
+
+    public Double getArchivedMinValue() {
+        return archivedMinValue;
+    }
+
+    public Double getArchivedMaxValue() {
+        return archivedMaxValue;
+    }
+}
@@ -0,0 +1,77 @@
+package com.jvnyor.cryptographychallenge.idfilter;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A Bloom filter of {@code long} keys backed by an {@link AtomicLongArray}, so keys can be added and looked up
+ * concurrently without locking. Answers {@code false} only for keys that were never added.
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray words;
+
+    private final long bitCount;
+
+    private final int hashCount;
+
+    public BloomFilter(long expectedInsertions, double falsePositiveProbability) {
+        if (expectedInsertions < 1) {
+            throw new IllegalArgumentException("Expected insertions must be positive");
+        }
+        if (falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+            throw new IllegalArgumentException("False positive probability must be between 0 and 1");
+        }
+        var bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+        this.words = new AtomicLongArray(Math.toIntExact((bits + Long.SIZE - 1) / Long.SIZE));
+        this.bitCount = (long) words.length() * Long.SIZE;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+    }
+
+    public void put(long key) {
+        var hash = mix(key);
+        var first = (int) hash;
+        var second = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            var bit = Integer.toUnsignedLong(first + i * second) % bitCount;
+            var mask = 1L << bit;
+            var word = (int) (bit >>> 6);
+            var current = words.get(word);
+            while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                current = words.get(word);
+            }
+        }
+    }
+
+    public boolean mightContain(long key) {
+        var hash = mix(key);
+        var first = (int) hash;
+        var second = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            var bit = Integer.toUnsignedLong(first + i * second) % bitCount;
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getBitCount() {
+        return bitCount;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    /**
+     * The MurmurHash3 finalizer, which spreads sequential ids over all 64 bits.
+     */
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+}
@@ -0,0 +1,145 @@
+package com.jvnyor.cryptographychallenge.idfilter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Negative lookup filter over the ids of existing transactions, live or archived. An id it has never seen is
+ * rejected without touching storage; a positive answer still has to be checked against storage.
+ * <p>
+ * Bloom filters cannot forget, so deletions are only counted and the filter is rebuilt from storage once they pass
+ * the stale ratio, or once insertions outgrow its capacity. Ids added while a rebuild scans storage go to both
+ * filters, and insertions and deletions made during the scan still count towards the next rebuild. Until the first
+ * build completes every id passes. Only this instance's writes reach the filter, so it
+ * must stay disabled when several instances write to the same storage.
+ */
+public class TransactionIdFilter {
+
+    private final Logger log = LoggerFactory.getLogger(TransactionIdFilter.class);
+
+    private final boolean enabled;
+
+    private final long expectedInsertions;
+
+    private final double falsePositiveProbability;
+
+    private final double staleRatio;
+
+    private final AtomicLong size = new AtomicLong();
+
+    private final AtomicLong removed = new AtomicLong();
+
+    private volatile BloomFilter current;
+
+    private volatile BloomFilter building;
+
+    private long capacity;
+
+    public TransactionIdFilter(long expectedInsertions, double falsePositiveProbability, double staleRatio) {
+        this(true, expectedInsertions, falsePositiveProbability, staleRatio);
+    }
+
+    private TransactionIdFilter(boolean enabled, long expectedInsertions, double falsePositiveProbability, double staleRatio) {
+        this.enabled = enabled;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.staleRatio = staleRatio;
+    }
+
+    /**
+     * A filter that is never built and lets every id through, for when filtering is disabled.
+     */
+    public static TransactionIdFilter disabled() {
+        return new TransactionIdFilter(false, 1, 0.5, 1);
+    }
+
+    public boolean mightContain(long id) {
+        var filter = current;
+        return filter == null || filter.mightContain(id);
+    }
+
+    /**
+     * Records a new id. Inside a transaction the id is recorded again after commit, so a rebuild whose scan
+     * started before the commit cannot lose it.
+     */
+    public void add(long id) {
+        if (!enabled) {
+            return;
+        }
+        put(id);
+        size.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    put(id);
+                }
+            });
+        }
+    }
+
+    public void remove(long id) {
+        if (enabled) {
+            removed.incrementAndGet();
+        }
+    }
+
+    public boolean needsRebuild() {
+        if (!enabled) {
+            return false;
+        }
+        synchronized (this) {
+            return current == null || removed.get() > size.get() * staleRatio || size.get() > capacity;
+        }
+    }
+
+    /**
+     * Replaces the filter with one holding every id fed by the source. Sized for twice the ids added so far, and at
+     * least for the expected insertions.
+     */
+    public synchronized void rebuild(Consumer<LongConsumer> idSource) {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        var nextCapacity = Math.max(expectedInsertions, size.get() * 2);
+        var next = new BloomFilter(nextCapacity, falsePositiveProbability);
+        var count = new AtomicLong();
+        var sizeBefore = size.get();
+        var removedBefore = removed.get();
+        building = next;
+        try {
+            idSource.accept(id -> {
+                next.put(id);
+                count.incrementAndGet();
+            });
+            current = next;
+            capacity = nextCapacity;
+            // Deltas rather than resets, so changes counted while the scan ran are kept
+            size.addAndGet(count.get() - sizeBefore);
+            removed.addAndGet(-removedBefore);
+        } finally {
+            building = null;
+        }
+        log.info("Built transaction id filter with {} ids in {} ms ({} bits, {} hashes)", count.get(),
+                Duration.ofNanos(System.nanoTime() - start).toMillis(), next.getBitCount(), next.getHashCount());
+    }
+
+    private void put(long id) {
+        var pending = building;
+        var filter = current;
+        if (filter != null) {
+            filter.put(id);
+        }
+        if (pending != null) {
+            pending.put(id);
+        }
+    }
+}
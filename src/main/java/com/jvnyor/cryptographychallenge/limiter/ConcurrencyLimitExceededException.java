@@ -0,0 +1,25 @@
+package com.jvnyor.cryptographychallenge.limiter;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a request is shed by a concurrency limiter. It carries no stack trace, rejections are expected
+ * under overload and have to stay cheap.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+    private final transient Duration retryAfter;
+
+    public ConcurrencyLimitExceededException(String limiter, Duration retryAfter) {
+        super("Concurrency limit of " + limiter + " requests exceeded, retry later", null, false, false);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,66 @@
+package com.jvnyor.cryptographychallenge.limiter;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.NonNull;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Admits transaction requests through separate {@link GradientLimiter}s for reads and writes, so a burst of writes
+ * cannot starve cheap reads. {@code POST /lookup} only reads and counts as a read. Requests over the limit fail
+ * with {@link ConcurrencyLimitExceededException}.
+ */
+public class ConcurrencyLimitInterceptor implements HandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".permit";
+
+    private static final String LOOKUP_PATH = "/lookup";
+
+    private final GradientLimiter readLimiter;
+
+    private final GradientLimiter writeLimiter;
+
+    private final Duration retryAfter;
+
+    public ConcurrencyLimitInterceptor(GradientLimiter readLimiter, GradientLimiter writeLimiter, Duration retryAfter) {
+        this.readLimiter = readLimiter;
+        this.writeLimiter = writeLimiter;
+        this.retryAfter = retryAfter;
+    }
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull Object handler) {
+        var limiter = isRead(request) ? readLimiter : writeLimiter;
+        if (!limiter.tryAcquire()) {
+            throw new ConcurrencyLimitExceededException(limiter.getStatistics().name(), retryAfter);
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, new Permit(limiter, System.nanoTime()));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull Object handler, Exception exception) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) instanceof Permit permit) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            var failed = exception != null || response.getStatus() >= HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+            permit.limiter().release(System.nanoTime() - permit.startNanos(), failed);
+        }
+    }
+
+    public List<LimiterStatistics> getStatistics() {
+        return List.of(readLimiter.getStatistics(), writeLimiter.getStatistics());
+    }
+
+    private static boolean isRead(HttpServletRequest request) {
+        return HttpMethod.GET.matches(request.getMethod())
+                || HttpMethod.HEAD.matches(request.getMethod())
+                || request.getRequestURI().endsWith(LOOKUP_PATH);
+    }
+
+    private record Permit(GradientLimiter limiter, long startNanos) {
+    }
+}
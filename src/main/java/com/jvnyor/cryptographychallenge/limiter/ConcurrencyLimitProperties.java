@@ -0,0 +1,27 @@
+package com.jvnyor.cryptographychallenge.limiter;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties("app.limiter")
+public record ConcurrencyLimitProperties(
+        boolean enabled,
+        Duration retryAfter,
+        Limit read,
+        Limit write
+) {
+
+    public record Limit(
+            int initialLimit,
+            int minLimit,
+            int maxLimit,
+            double backoffRatio,
+            double rttTolerance
+    ) {
+
+        public GradientLimiter toLimiter(String name) {
+            return new GradientLimiter(name, initialLimit, minLimit, maxLimit, backoffRatio, rttTolerance);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.jvnyor.cryptographychallenge.limiter;
+
+/**
+ * Concurrency limit adjusted by the gradient between a baseline and the observed latency.
+ * <p>
+ * The baseline approximates the no-load latency. It drops at once to any faster sample and is otherwise a moving
+ * average of requests that ran alone: admitted with nothing in flight and completed before anything else was
+ * admitted. Samples taken under load never raise it, so it follows a service that genuinely got slower without being
+ * dragged up by the queueing it is meant to detect. Until the first such sample, and whenever load has not let one
+ * happen for {@link #PROBE_INTERVAL} times the limit, the limiter probes: it admits nothing until the requests in
+ * flight drain and then lets a single request run alone.
+ * <p>
+ * Every other completed request moves the limit towards {@code limit * gradient + sqrt(limit)}, where the gradient
+ * is {@code rttTolerance * baseline / latency} clamped to {@code [0.5, 1]}: latency within tolerance of the baseline
+ * lets the limit grow by its square root, queueing beyond it shrinks the limit in proportion. A failed request
+ * multiplies the limit by the backoff ratio. The limit only grows while at least half of it is in use, and requests
+ * over the limit are rejected immediately instead of queueing behind saturated CPU.
+ */
+public class GradientLimiter {
+
+    /**
+     * Weight of each sample in the moving limit, so a single outlier cannot halve it.
+     */
+    private static final double SMOOTHING = 0.2;
+
+    /**
+     * Weight of each no-load sample in the baseline.
+     */
+    private static final double BASELINE_SMOOTHING = 0.1;
+
+    /**
+     * Samples without one that ran alone, per unit of limit, before the limiter probes for a fresh baseline. Kept
+     * large because every probe sheds requests while the ones in flight drain.
+     */
+    private static final int PROBE_INTERVAL = 100;
+
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final String name;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double backoffRatio;
+
+    private final double rttTolerance;
+
+    private double limit;
+
+    private double baselineNanos = Double.NaN;
+
+    private boolean probing = true;
+
+    private long soloAdmission = -1;
+
+    private long samplesSinceSolo;
+
+    private int inFlight;
+
+    private long accepted;
+
+    private long rejected;
+
+    private long dropped;
+
+    public GradientLimiter(String name, int initialLimit, int minLimit, int maxLimit, double backoffRatio, double rttTolerance) {
+        if (minLimit < 1 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits of " + name + " must satisfy 1 <= min <= initial <= max");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Backoff ratio of " + name + " must be between 0 and 1");
+        }
+        if (rttTolerance < 1) {
+            throw new IllegalArgumentException("RTT tolerance of " + name + " must be at least 1");
+        }
+        this.name = name;
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.rttTolerance = rttTolerance;
+    }
+
+    /**
+     * Takes a slot if one is free. Every successful call must be followed by exactly one {@link #release}.
+     */
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (probing ? 1 : (int) limit)) {
+            rejected++;
+            return false;
+        }
+        if (inFlight++ == 0) {
+            soloAdmission = accepted;
+        }
+        accepted++;
+        return true;
+    }
+
+    public synchronized void release(long latencyNanos, boolean failed) {
+        var inFlightAtCompletion = inFlight--;
+        var ranAlone = inFlightAtCompletion == 1 && soloAdmission == accepted - 1;
+        if (ranAlone) {
+            probing = false;
+            samplesSinceSolo = 0;
+        } else if (++samplesSinceSolo >= PROBE_INTERVAL * limit) {
+            probing = true;
+        }
+        if (failed) {
+            dropped++;
+            limit = Math.max(minLimit, limit * backoffRatio);
+            return;
+        }
+        var latency = Math.max(1, latencyNanos);
+        if (Double.isNaN(baselineNanos)) {
+            if (!ranAlone) {
+                return;
+            }
+            baselineNanos = latency;
+        } else if (latency < baselineNanos) {
+            baselineNanos = latency;
+        } else if (ranAlone) {
+            baselineNanos += (latency - baselineNanos) * BASELINE_SMOOTHING;
+        }
+
+        var gradient = Math.max(MIN_GRADIENT, Math.min(1, rttTolerance * baselineNanos / latency));
+        var target = limit * gradient + Math.sqrt(limit);
+        var next = limit * (1 - SMOOTHING) + target * SMOOTHING;
+        if (next < limit) {
+            dropped++;
+        } else if (inFlightAtCompletion * 2 < limit) {
+            return;
+        }
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+
+    public synchronized LimiterStatistics getStatistics() {
+        var baselineMillis = Double.isNaN(baselineNanos) ? 0 : baselineNanos / 1_000_000;
+        return new LimiterStatistics(name, (int) limit, inFlight, accepted, rejected, dropped, baselineMillis);
+    }
+}
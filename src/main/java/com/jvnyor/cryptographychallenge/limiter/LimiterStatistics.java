@@ -0,0 +1,12 @@
+package com.jvnyor.cryptographychallenge.limiter;
+
+public record LimiterStatistics(
+        String name,
+        int limit,
+        int inFlight,
+        long accepted,
+        long rejected,
+        long dropped,
+        double baselineMillis
+) {
+}
@@ -0,0 +1,60 @@
+package com.jvnyor.cryptographychallenge.outbox;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends published events as JSON lines to a file, one write per batch, for local runs where no broker is
+ * available. With {@code fsync} a batch only counts as delivered once it is on disk.
+ */
+public class FileOutboxSink implements OutboxSink, Closeable {
+
+    private final FileChannel channel;
+
+    private final boolean fsync;
+
+    public FileOutboxSink(Path file, boolean fsync) throws IOException {
+        var directory = file.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.fsync = fsync;
+    }
+
+    @Override
+    public synchronized void publish(List<TransactionEvent> events) {
+        var lines = new StringBuilder(events.size() * 96);
+        for (var event : events) {
+            lines.append("{\"sequence\":").append(event.sequence())
+                    .append(",\"transactionId\":").append(event.transactionId())
+                    .append(",\"type\":\"").append(event.type())
+                    .append("\",\"occurredAt\":\"").append(event.occurredAt())
+                    .append("\"}\n");
+        }
+        var buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,32 @@
+package com.jvnyor.cryptographychallenge.outbox;
+
+import java.util.ArrayDeque;
+import java.util.List;
+
+/**
+ * Keeps the most recent published events in memory, for local runs and tests.
+ */
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final int capacity;
+
+    private final ArrayDeque<TransactionEvent> events = new ArrayDeque<>();
+
+    public InMemoryOutboxSink(int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public synchronized void publish(List<TransactionEvent> events) {
+        for (var event : events) {
+            if (this.events.size() == capacity) {
+                this.events.removeFirst();
+            }
+            this.events.addLast(event);
+        }
+    }
+
+    public synchronized List<TransactionEvent> getEvents() {
+        return List.copyOf(events);
+    }
+}
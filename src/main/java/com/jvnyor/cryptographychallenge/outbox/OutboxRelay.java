@@ -0,0 +1,122 @@
+package com.jvnyor.cryptographychallenge.outbox;
+
+import com.jvnyor.cryptographychallenge.datasource.ShardTemplate;
+import com.jvnyor.cryptographychallenge.entities.OutboxEvent;
+import com.jvnyor.cryptographychallenge.repositories.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Publishes the unsent {@link OutboxEvent}s of every shard to the {@link OutboxSink}. Each batch of
+ * {@code batchSize} events is read, published and marked as sent in one database transaction, and a shard is
+ * drained batch by batch until a batch comes back short. Events are marked only after the sink accepted them, so a
+ * failure or crash in between publishes them again: delivery is at least once, in sequence order per shard.
+ * <p>
+ * Sent events are kept for {@code retention} and then deleted. Relays on several instances do not coordinate; they
+ * may publish the same event twice, which consumers already have to tolerate.
+ */
+public class OutboxRelay {
+
+    private final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final OutboxSink sink;
+
+    private final ShardTemplate shardTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Clock clock;
+
+    private final int batchSize;
+
+    private final Duration retention;
+
+    private final AtomicLong published = new AtomicLong();
+
+    private final AtomicLong batches = new AtomicLong();
+
+    private final AtomicLong failed = new AtomicLong();
+
+    private final AtomicLong lastBatchMillis = new AtomicLong();
+
+    private final AtomicReference<Instant> lastPublishedAt = new AtomicReference<>();
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, OutboxSink sink, ShardTemplate shardTemplate, PlatformTransactionManager transactionManager, Clock clock, int batchSize, Duration retention) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.sink = sink;
+        this.shardTemplate = shardTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+        this.batchSize = batchSize;
+        this.retention = retention;
+    }
+
+    /**
+     * Publishes the unsent events of every shard and deletes the sent ones past retention.
+     *
+     * @return the number of events published
+     */
+    public synchronized int relay() {
+        int relayed = 0;
+        for (int shard = 0; shard < shardTemplate.getShardCount(); shard++) {
+            try {
+                int relayedBatch;
+                do {
+                    long start = System.nanoTime();
+                    relayedBatch = shardTemplate.inShard(shard, false, () -> Objects.requireNonNull(
+                            transactionTemplate.execute(status -> relayBatch())));
+                    if (relayedBatch > 0) {
+                        relayed += relayedBatch;
+                        published.addAndGet(relayedBatch);
+                        batches.incrementAndGet();
+                        lastBatchMillis.set(Duration.ofNanos(System.nanoTime() - start).toMillis());
+                        lastPublishedAt.set(clock.instant());
+                        log.debug("Relayed {} outbox events in {} ms", relayedBatch, lastBatchMillis.get());
+                    }
+                } while (relayedBatch == batchSize);
+                shardTemplate.inShard(shard, false, () -> transactionTemplate.execute(status ->
+                        outboxEventRepository.deleteSentBefore(clock.instant().minus(retention))));
+            } catch (RuntimeException e) {
+                failed.incrementAndGet();
+                log.warn("Failed to relay outbox events of shard {}", shard, e);
+            }
+        }
+        return relayed;
+    }
+
+    public OutboxStatistics getStatistics() {
+        var pending = shardTemplate.forEachShard(true, outboxEventRepository::countUnsent).stream()
+                .mapToLong(Long::longValue)
+                .sum();
+        var oldest = shardTemplate.forEachShard(true, outboxEventRepository::findOldestUnsent).stream()
+                .flatMap(Optional::stream)
+                .min(Instant::compareTo);
+        var lagMillis = oldest.map(occurredAt -> Math.max(0, Duration.between(occurredAt, clock.instant()).toMillis())).orElse(0L);
+        return new OutboxStatistics(published.get(), batches.get(), failed.get(), pending, lagMillis, lastBatchMillis.get(), lastPublishedAt.get());
+    }
+
+    private int relayBatch() {
+        var events = outboxEventRepository.findUnsent(Limit.of(batchSize));
+        if (events.isEmpty()) {
+            return 0;
+        }
+        sink.publish(events.stream()
+                .map(event -> new TransactionEvent(event.getSequence(), event.getTransactionId(), event.getType(), event.getOccurredAt()))
+                .toList());
+        outboxEventRepository.markSent(events.stream().map(OutboxEvent::getSequence).toList(), clock.instant());
+        return events.size();
+    }
+}
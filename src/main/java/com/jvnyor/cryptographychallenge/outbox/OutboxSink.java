@@ -0,0 +1,16 @@
+package com.jvnyor.cryptographychallenge.outbox;
+
+import java.util.List;
+
+/**
+ * Destination of the events relayed from the outbox, such as a message broker. Register a bean of this type and set
+ * {@code app.outbox.sink} to a value other than {@code memory} or {@code file} to plug in another destination.
+ */
+public interface OutboxSink {
+
+    /**
+     * Delivers a batch of events in sequence order. Returning normally means every event was delivered; throwing
+     * leaves the whole batch in the outbox to be delivered again, so an event may be received more than once.
+     */
+    void publish(List<TransactionEvent> events);
+}
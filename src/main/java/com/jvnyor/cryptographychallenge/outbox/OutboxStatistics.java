@@ -0,0 +1,14 @@
+package com.jvnyor.cryptographychallenge.outbox;
+
+import java.time.Instant;
+
+public record OutboxStatistics(
+        long published,
+        long batches,
+        long failed,
+        long pending,
+        long lagMillis,
+        long lastBatchMillis,
+        Instant lastPublishedAt
+) {
+}
@@ -0,0 +1,17 @@
+package com.jvnyor.cryptographychallenge.outbox;
+
+import com.jvnyor.cryptographychallenge.entities.ChangeType;
+
+import java.time.Instant;
+
+/**
+ * What other services are told about a transaction write. The sequence is the one of the change log entry, unique
+ * across shards, and identifies the event when it is delivered more than once.
+ */
+public record TransactionEvent(
+        long sequence,
+        long transactionId,
+        ChangeType type,
+        Instant occurredAt
+) {
+}
@@ -0,0 +1,14 @@
+package com.jvnyor.cryptographychallenge.purge;
+
+import java.time.Instant;
+
+public record PurgeStatistics(
+        long purged,
+        long batches,
+        long failed,
+        long skippedOutsideWindow,
+        long pending,
+        long lastBatchMillis,
+        Instant lastPurgedAt
+) {
+}
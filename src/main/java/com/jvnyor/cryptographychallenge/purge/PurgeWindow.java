@@ -0,0 +1,19 @@
+package com.jvnyor.cryptographychallenge.purge;
+
+import java.time.LocalTime;
+
+/**
+ * Daily time window, from {@code start} inclusive to {@code end} exclusive. A window whose end is before its start
+ * spans midnight, and one whose start and end are equal is always open.
+ */
+public record PurgeWindow(LocalTime start, LocalTime end) {
+
+    public boolean contains(LocalTime time) {
+        if (start.equals(end)) {
+            return true;
+        }
+        return start.isBefore(end)
+                ? !time.isBefore(start) && time.isBefore(end)
+                : !time.isBefore(start) || time.isBefore(end);
+    }
+}
@@ -0,0 +1,110 @@
+package com.jvnyor.cryptographychallenge.purge;
+
+import com.jvnyor.cryptographychallenge.datasource.ShardTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+/**
+ * Physically removes soft-deleted transactions. Deleting a transaction only sets its {@code deleted} flag, so that
+ * deletes stay a single update by primary key; the tombstones are removed here in batches of {@code batchSize} per
+ * shard, one batch per call, and only while the {@link PurgeWindow} is open. The call interval therefore bounds the
+ * purge rate.
+ * <p>
+ * Runs plain SQL rather than JPA: tombstones are invisible to every JPA query on transactions, and were already
+ * evicted from the second-level cache when they were deleted, so there is nothing for Hibernate to invalidate.
+ */
+public class TransactionPurger {
+
+    private static final String PURGE_SQL = """
+            delete from "transaction" where "id" in (
+                select "id" from "transaction" where "deleted" = true order by "id" fetch first ? rows only)""";
+
+    private static final String COUNT_SQL = """
+            select count(*) from "transaction" where "deleted" = true""";
+
+    private final Logger log = LoggerFactory.getLogger(TransactionPurger.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ShardTemplate shardTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final PurgeWindow window;
+
+    private final Clock clock;
+
+    private final int batchSize;
+
+    private final AtomicLong purged = new AtomicLong();
+
+    private final AtomicLong batches = new AtomicLong();
+
+    private final AtomicLong failed = new AtomicLong();
+
+    private final AtomicLong skippedOutsideWindow = new AtomicLong();
+
+    private final AtomicLong lastBatchMillis = new AtomicLong();
+
+    private final AtomicReference<Instant> lastPurgedAt = new AtomicReference<>();
+
+    public TransactionPurger(JdbcTemplate jdbcTemplate, ShardTemplate shardTemplate, PlatformTransactionManager transactionManager, PurgeWindow window, Clock clock, int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardTemplate = shardTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.window = window;
+        this.clock = clock;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Purges one batch of tombstones on every shard if the window is open.
+     *
+     * @return the number of transactions removed
+     */
+    public int purge() {
+        if (!window.contains(LocalTime.now(clock))) {
+            skippedOutsideWindow.incrementAndGet();
+            return 0;
+        }
+        long start = System.nanoTime();
+        try {
+            var removed = IntStream.range(0, shardTemplate.getShardCount())
+                    .map(shard -> shardTemplate.inShard(shard, false, () -> Objects.requireNonNull(
+                            transactionTemplate.execute(status -> jdbcTemplate.update(PURGE_SQL, batchSize)))))
+                    .sum();
+            if (removed > 0) {
+                purged.addAndGet(removed);
+                batches.incrementAndGet();
+                lastBatchMillis.set(Duration.ofNanos(System.nanoTime() - start).toMillis());
+                lastPurgedAt.set(clock.instant());
+                log.debug("Purged {} deleted transactions in {} ms", removed, lastBatchMillis.get());
+            }
+            return removed;
+        } catch (DataAccessException e) {
+            failed.incrementAndGet();
+            log.warn("Failed to purge deleted transactions", e);
+            return 0;
+        }
+    }
+
+    public PurgeStatistics getStatistics() {
+        var pending = shardTemplate.forEachShard(true, () -> jdbcTemplate.queryForObject(COUNT_SQL, Long.class)).stream()
+                .mapToLong(Long::longValue)
+                .sum();
+        return new PurgeStatistics(purged.get(), batches.get(), failed.get(), skippedOutsideWindow.get(), pending, lastBatchMillis.get(), lastPurgedAt.get());
+    }
+}
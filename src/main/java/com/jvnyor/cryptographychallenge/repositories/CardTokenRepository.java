@@ -0,0 +1,13 @@
+package com.jvnyor.cryptographychallenge.repositories;
+
+import com.jvnyor.cryptographychallenge.entities.CardToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface CardTokenRepository extends JpaRepository<CardToken, Long> {
+
+    Optional<CardToken> findByTenantIdAndTokenHash(String tenantId, String tokenHash);
+}
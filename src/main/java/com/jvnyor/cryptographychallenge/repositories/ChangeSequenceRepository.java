@@ -0,0 +1,31 @@
+package com.jvnyor.cryptographychallenge.repositories;
+
+import com.jvnyor.cryptographychallenge.entities.ChangeSequence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ChangeSequenceRepository extends JpaRepository<ChangeSequence, Integer> {
+
+    @Modifying(flushAutomatically = true)
+    @Query("update ChangeSequence s set s.value = s.value + 1 where s.id = 1")
+    int increment();
+
+    @Modifying
+    @Query("update ChangeSequence s set s.value = ?1 where s.id = 1 and s.value < ?1")
+    int advanceTo(long value);
+
+    @Query("select s.value from ChangeSequence s where s.id = 1")
+    Optional<Long> findValue();
+
+    @Modifying
+    @Query("update ChangeSequence s set s.prunedThrough = ?1 where s.id = 1 and s.prunedThrough < ?1")
+    int advancePrunedThrough(long sequence);
+
+    @Query("select s.prunedThrough from ChangeSequence s where s.id = 1")
+    Optional<Long> findPrunedThrough();
+}
@@ -0,0 +1,34 @@
+package com.jvnyor.cryptographychallenge.repositories;
+
+import com.jvnyor.cryptographychallenge.entities.OutboxEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    @Query("select e from OutboxEvent e where e.sentAt is null order by e.sequence")
+    List<OutboxEvent> findUnsent(Limit limit);
+
+    @Query("select count(e) from OutboxEvent e where e.sentAt is null")
+    long countUnsent();
+
+    @Query("select min(e.occurredAt) from OutboxEvent e where e.sentAt is null")
+    Optional<Instant> findOldestUnsent();
+
+    @Modifying
+    @Query("update OutboxEvent e set e.sentAt = ?2 where e.sequence in ?1")
+    int markSent(Collection<Long> sequences, Instant sentAt);
+
+    @Modifying
+    @Query("delete from OutboxEvent e where e.sentAt < ?1")
+    int deleteSentBefore(Instant sentBefore);
+}
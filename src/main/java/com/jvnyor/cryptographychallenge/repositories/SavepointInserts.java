@@ -0,0 +1,33 @@
+package com.jvnyor.cryptographychallenge.repositories;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Inserts a row unless its key is taken, without failing the surrounding transaction. The insert runs behind a
+ * savepoint on the transaction's connection and through plain JDBC, so a duplicate key only rolls back the insert
+ * and Hibernate never sees the failure.
+ */
+final class SavepointInserts {
+
+    private SavepointInserts() {
+    }
+
+    /**
+     * @return {@code false} if a row with the same key already exists, committed by a concurrent transaction
+     */
+    static boolean insertIfAbsent(JdbcTemplate jdbcTemplate, String sql, Object... args) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            var savepoint = connection.setSavepoint();
+            try {
+                jdbcTemplate.update(sql, args);
+                connection.releaseSavepoint(savepoint);
+                return true;
+            } catch (DuplicateKeyException e) {
+                connection.rollback(savepoint);
+                return false;
+            }
+        }));
+    }
+}
@@ -0,0 +1,26 @@
+package com.jvnyor.cryptographychallenge.repositories;
+
+import com.jvnyor.cryptographychallenge.entities.TransactionChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TransactionChangeRepository extends JpaRepository<TransactionChange, Long> {
+
+    @Query("select c from TransactionChange c where c.sequence > ?1 and c.sequence <= ?2 order by c.sequence")
+    List<TransactionChange> findChanges(long after, long upTo, Limit limit);
+
+    @Query("select max(c.sequence) from TransactionChange c where c.changedAt < ?1")
+    Optional<Long> findLastSequenceBefore(Instant changedBefore);
+
+    @Modifying
+    @Query("delete from TransactionChange c where c.sequence <= ?1")
+    int deleteThrough(long sequence);
+}
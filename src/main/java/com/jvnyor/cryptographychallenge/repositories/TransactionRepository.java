@@ -1,17 +1,80 @@
 package com.jvnyor.cryptographychallenge.repositories;
 
+import com.jvnyor.cryptographychallenge.dtos.TransactionFilterDTO;
 import com.jvnyor.cryptographychallenge.entities.Transaction;
+import com.jvnyor.cryptographychallenge.repositories.projections.MaskedTransactionView;
+import com.jvnyor.cryptographychallenge.repositories.projections.ValueBounds;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, JpaSpecificationExecutor<Transaction>, TransactionStore {
+
+    @Override
+    <S extends Transaction> S save(S transaction);
+
+    @Override
+    Optional<Transaction> findById(Long id);
+
+    @Override
+    List<Transaction> findAllById(Iterable<Long> ids);
+
+    @Override
+    Page<Transaction> findAll(Pageable pageable);
+
+    @Override
+    default Page<Transaction> findAllMatching(TransactionFilterDTO filter, Pageable pageable) {
+        return findAll(TransactionSpecifications.matching(filter), pageable);
+    }
 
+    /**
+     * Resolves through {@link #findById(Long)} so the check is answered by the second-level cache when possible.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    default boolean existsById(Long id) {
+        return findById(id).isPresent();
+    }
+
+    /**
+     * Removes the entity rather than running a bulk delete, which would evict the whole second-level cache region.
+     * The removal only marks the row as deleted; {@link com.jvnyor.cryptographychallenge.purge.TransactionPurger} drops it later.
+     */
+    @Override
     @Transactional
-    @Modifying
-    @Query("delete from Transaction t where t.id = ?1")
-    int deleteByID(long id);
+    default int deleteByID(long id) {
+        return findById(id).map(transaction -> {
+            delete(transaction);
+            return 1;
+        }).orElse(0);
+    }
+
+    @Override
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    Page<MaskedTransactionView> findAllMaskedBy(Pageable pageable);
+
+    @Override
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    @Query("select new com.jvnyor.cryptographychallenge.repositories.projections.ValueBounds(min(t.value), max(t.value)) from Transaction t where t.userDocumentHash = ?1")
+    ValueBounds findValueBounds(String userDocumentHash);
+
+    @Override
+    @Query("select t.id from Transaction t where t.id > ?1 order by t.id")
+    List<Long> findIdsAfter(long id, Limit limit);
+
+    @Query("select t from Transaction t join fetch t.cardToken where t.createdAt < ?1 order by t.id")
+    List<Transaction> findArchivable(Instant createdBefore, Limit limit);
 }
@@ -0,0 +1,47 @@
+package com.jvnyor.cryptographychallenge.repositories;
+
+import com.jvnyor.cryptographychallenge.dtos.TransactionFilterDTO;
+import com.jvnyor.cryptographychallenge.entities.Transaction;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Instant;
+
+/**
+ * Range predicates on the columns covered by the composite {@code (createdAt, value)} and
+ * {@code (value, createdAt)} indexes of {@link Transaction}. Only plain comparisons on the bare columns are used,
+ * so the database can seek on whichever of the two ranges is more selective and check the other one inside the
+ * same index.
+ */
+public final class TransactionSpecifications {
+
+    private static final String VALUE = "value";
+
+    private static final String CREATED_AT = "createdAt";
+
+    private TransactionSpecifications() {
+    }
+
+    public static Specification<Transaction> matching(TransactionFilterDTO filter) {
+        return Specification.allOf(
+                valueAtLeast(filter.minValue()),
+                valueAtMost(filter.maxValue()),
+                createdFrom(filter.createdFrom()),
+                createdBefore(filter.createdTo()));
+    }
+
+    public static Specification<Transaction> valueAtLeast(Double value) {
+        return value == null ? null : (root, query, builder) -> builder.greaterThanOrEqualTo(root.get(VALUE), value);
+    }
+
+    public static Specification<Transaction> valueAtMost(Double value) {
+        return value == null ? null : (root, query, builder) -> builder.lessThanOrEqualTo(root.get(VALUE), value);
+    }
+
+    public static Specification<Transaction> createdFrom(Instant instant) {
+        return instant == null ? null : (root, query, builder) -> builder.greaterThanOrEqualTo(root.get(CREATED_AT), instant);
+    }
+
+    public static Specification<Transaction> createdBefore(Instant instant) {
+        return instant == null ? null : (root, query, builder) -> builder.lessThan(root.get(CREATED_AT), instant);
+    }
+}
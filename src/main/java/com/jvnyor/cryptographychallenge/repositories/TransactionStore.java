@@ -0,0 +1,42 @@
+package com.jvnyor.cryptographychallenge.repositories;
+
+import com.jvnyor.cryptographychallenge.dtos.TransactionFilterDTO;
+import com.jvnyor.cryptographychallenge.entities.Transaction;
+import com.jvnyor.cryptographychallenge.repositories.projections.MaskedTransactionView;
+import com.jvnyor.cryptographychallenge.repositories.projections.ValueBounds;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Storage contract for transactions. Implemented by {@link TransactionRepository} on JPA, and by the log-structured
+ * engine when {@code app.storage.engine} is {@code log}.
+ */
+public interface TransactionStore {
+
+    <S extends Transaction> S save(S transaction);
+
+    Optional<Transaction> findById(Long id);
+
+    List<Transaction> findAllById(Iterable<Long> ids);
+
+    Page<Transaction> findAll(Pageable pageable);
+
+    Page<Transaction> findAllMatching(TransactionFilterDTO filter, Pageable pageable);
+
+    boolean existsById(Long id);
+
+    int deleteByID(long id);
+
+    Page<MaskedTransactionView> findAllMaskedBy(Pageable pageable);
+
+    ValueBounds findValueBounds(String userDocumentHash);
+
+    /**
+     * Ids greater than the given one in ascending order, for walking every id page by page.
+     */
+    List<Long> findIdsAfter(long id, Limit limit);
+}
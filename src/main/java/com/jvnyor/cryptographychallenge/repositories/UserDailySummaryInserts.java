@@ -0,0 +1,13 @@
+package com.jvnyor.cryptographychallenge.repositories;
+
+import java.time.LocalDate;
+
+public interface UserDailySummaryInserts {
+
+    /**
+     * Creates the bucket of a user's first transaction of the day.
+     *
+     * @return {@code false} if a concurrent transaction created the bucket first
+     */
+    boolean insertIfAbsent(String userDocumentHash, LocalDate day, double value);
+}
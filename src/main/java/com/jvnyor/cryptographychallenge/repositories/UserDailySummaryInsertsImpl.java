@@ -0,0 +1,23 @@
+package com.jvnyor.cryptographychallenge.repositories;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+
+class UserDailySummaryInsertsImpl implements UserDailySummaryInserts {
+
+    private static final String INSERT_SQL = """
+            insert into "user_daily_summary" ("user_document_hash", "day", "transaction_count", "total_value")
+            values (?, ?, 1, ?)""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    UserDailySummaryInsertsImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public boolean insertIfAbsent(String userDocumentHash, LocalDate day, double value) {
+        return SavepointInserts.insertIfAbsent(jdbcTemplate, INSERT_SQL, userDocumentHash, day, value);
+    }
+}
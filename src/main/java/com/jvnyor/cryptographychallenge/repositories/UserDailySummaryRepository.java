@@ -0,0 +1,41 @@
+package com.jvnyor.cryptographychallenge.repositories;
+
+import com.jvnyor.cryptographychallenge.entities.UserDailySummary;
+import com.jvnyor.cryptographychallenge.entities.UserDailySummaryId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface UserDailySummaryRepository extends JpaRepository<UserDailySummary, UserDailySummaryId>, UserDailySummaryInserts {
+
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            update UserDailySummary s
+            set s.transactionCount = s.transactionCount + 1,
+                s.totalValue = s.totalValue + ?3
+            where s.id.userDocumentHash = ?1 and s.id.day = ?2""")
+    int addValue(String userDocumentHash, LocalDate day, double value);
+
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            update UserDailySummary s
+            set s.transactionCount = s.transactionCount - 1,
+                s.totalValue = s.totalValue - ?3
+            where s.id.userDocumentHash = ?1 and s.id.day = ?2""")
+    int subtractValue(String userDocumentHash, LocalDate day, double value);
+
+    @Modifying
+    @Query("delete from UserDailySummary s where s.id.userDocumentHash = ?1 and s.id.day = ?2 and s.transactionCount <= 0")
+    int deleteIfEmpty(String userDocumentHash, LocalDate day);
+
+    @Query("""
+            select s from UserDailySummary s
+            where s.id.userDocumentHash = ?1 and s.id.day between ?2 and ?3
+            order by s.id.day""")
+    List<UserDailySummary> findDays(String userDocumentHash, LocalDate from, LocalDate to);
+}
@@ -0,0 +1,11 @@
+package com.jvnyor.cryptographychallenge.repositories;
+
+public interface UserSummaryInserts {
+
+    /**
+     * Creates the summary of a user's first transaction.
+     *
+     * @return {@code false} if a concurrent transaction created the summary first
+     */
+    boolean insertIfAbsent(String userDocumentHash, double value);
+}
@@ -0,0 +1,21 @@
+package com.jvnyor.cryptographychallenge.repositories;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class UserSummaryInsertsImpl implements UserSummaryInserts {
+
+    private static final String INSERT_SQL = """
+            insert into "user_summary" ("user_document_hash", "transaction_count", "total_value", "min_value", "max_value")
+            values (?, 1, ?, ?, ?)""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    UserSummaryInsertsImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public boolean insertIfAbsent(String userDocumentHash, double value) {
+        return SavepointInserts.insertIfAbsent(jdbcTemplate, INSERT_SQL, userDocumentHash, value, value, value);
+    }
+}
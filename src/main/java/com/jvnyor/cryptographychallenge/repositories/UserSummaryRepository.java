@@ -0,0 +1,53 @@
+package com.jvnyor.cryptographychallenge.repositories;
+
+import com.jvnyor.cryptographychallenge.entities.UserSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserSummaryRepository extends JpaRepository<UserSummary, String>, UserSummaryInserts {
+
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            update UserSummary s
+            set s.transactionCount = s.transactionCount + 1,
+                s.totalValue = s.totalValue + ?2,
+                s.minValue = least(s.minValue, ?2),
+                s.maxValue = greatest(s.maxValue, ?2)
+            where s.userDocumentHash = ?1""")
+    int addValue(String userDocumentHash, double value);
+
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            update UserSummary s
+            set s.transactionCount = s.transactionCount - 1,
+                s.totalValue = s.totalValue - ?2
+            where s.userDocumentHash = ?1""")
+    int subtractValue(String userDocumentHash, double value);
+
+    /**
+     * Sets the bounds from those of the remaining stored transactions, widened by the bounds of archived ones. Bounds
+     * are kept when neither is known, which only happens for transactions archived before archived bounds were kept.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            update UserSummary s
+            set s.minValue = coalesce(least(coalesce(?2, s.archivedMinValue), coalesce(s.archivedMinValue, ?2)), s.minValue),
+                s.maxValue = coalesce(greatest(coalesce(?3, s.archivedMaxValue), coalesce(s.archivedMaxValue, ?3)), s.maxValue)
+            where s.userDocumentHash = ?1 and s.transactionCount > 0""")
+    int setBounds(String userDocumentHash, Double minValue, Double maxValue);
+
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            update UserSummary s
+            set s.archivedMinValue = least(coalesce(s.archivedMinValue, ?2), ?2),
+                s.archivedMaxValue = greatest(coalesce(s.archivedMaxValue, ?3), ?3)
+            where s.userDocumentHash = ?1""")
+    int addArchivedBounds(String userDocumentHash, double minValue, double maxValue);
+
+    @Modifying
+    @Query("delete from UserSummary s where s.userDocumentHash = ?1 and s.transactionCount <= 0")
+    int deleteIfEmpty(String userDocumentHash);
+}
@@ -0,0 +1,8 @@
+package com.jvnyor.cryptographychallenge.repositories.projections;
+
+public interface MaskedTransactionView {
+    Long getId();
+    String getUserDocumentSuffix();
+    String getCreditCardTokenLastFour();
+    double getValue();
+}
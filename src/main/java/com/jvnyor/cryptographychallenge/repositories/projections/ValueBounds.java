@@ -0,0 +1,4 @@
+package com.jvnyor.cryptographychallenge.repositories.projections;
+
+public record ValueBounds(Double minValue, Double maxValue) {
+}
@@ -0,0 +1,8 @@
+package com.jvnyor.cryptographychallenge.services;
+
+import com.jvnyor.cryptographychallenge.entities.CardToken;
+
+public interface CardTokenVaultService {
+    CardToken store(String tenantId, String creditCardToken);
+    String reveal(long cardTokenId);
+}
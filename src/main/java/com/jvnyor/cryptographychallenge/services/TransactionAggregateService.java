@@ -0,0 +1,13 @@
+package com.jvnyor.cryptographychallenge.services;
+
+import com.jvnyor.cryptographychallenge.dtos.UserAggregateRequestDTO;
+import com.jvnyor.cryptographychallenge.dtos.UserAggregateResponseDTO;
+
+import java.time.Instant;
+
+public interface TransactionAggregateService {
+    void addTransaction(String userDocumentHash, double value, Instant createdAt);
+    void removeTransaction(String userDocumentHash, double value, Instant createdAt);
+    void addArchivedBounds(String userDocumentHash, double minValue, double maxValue);
+    UserAggregateResponseDTO getUserAggregate(UserAggregateRequestDTO userAggregateRequestDTO);
+}
@@ -0,0 +1,14 @@
+package com.jvnyor.cryptographychallenge.services;
+
+import com.jvnyor.cryptographychallenge.entities.ChangeType;
+import com.jvnyor.cryptographychallenge.entities.TransactionChange;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface TransactionChangeService {
+    void initializeSequences();
+    void recordChange(long transactionId, ChangeType type);
+    List<TransactionChange> findChangesAfter(long sequence, int limit);
+    int pruneChangesBefore(Instant changedBefore);
+}
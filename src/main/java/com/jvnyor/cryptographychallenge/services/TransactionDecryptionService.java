@@ -0,0 +1,10 @@
+package com.jvnyor.cryptographychallenge.services;
+
+import com.jvnyor.cryptographychallenge.archive.ArchivedTransaction;
+import com.jvnyor.cryptographychallenge.dtos.TransactionResponseDTO;
+import com.jvnyor.cryptographychallenge.entities.Transaction;
+
+public interface TransactionDecryptionService {
+    TransactionResponseDTO decrypt(Transaction transaction);
+    TransactionResponseDTO decrypt(ArchivedTransaction transaction);
+}
@@ -1,14 +1,24 @@
 package com.jvnyor.cryptographychallenge.services;
 
+import com.jvnyor.cryptographychallenge.dtos.MaskedTransactionResponseDTO;
+import com.jvnyor.cryptographychallenge.dtos.TransactionBatchResponseDTO;
+import com.jvnyor.cryptographychallenge.dtos.TransactionChangesResponseDTO;
+import com.jvnyor.cryptographychallenge.dtos.TransactionFilterDTO;
 import com.jvnyor.cryptographychallenge.dtos.TransactionRequestDTO;
 import com.jvnyor.cryptographychallenge.dtos.TransactionResponseDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.List;
+
 public interface TransactionService {
     TransactionResponseDTO createTransaction(TransactionRequestDTO transactionRequestDTO);
     TransactionResponseDTO updateTransaction(long id, TransactionRequestDTO transactionRequestDTO);
     void deleteTransaction(long id);
     TransactionResponseDTO getTransaction(long id);
     Page<TransactionResponseDTO> getTransactions(Pageable pageable);
+    Page<TransactionResponseDTO> getTransactions(TransactionFilterDTO filter, Pageable pageable);
+    TransactionBatchResponseDTO getTransactionsByIds(List<Long> ids);
+    Page<MaskedTransactionResponseDTO> getMaskedTransactions(Pageable pageable);
+    TransactionChangesResponseDTO getChanges(long since, int limit);
 }
@@ -0,0 +1,10 @@
+package com.jvnyor.cryptographychallenge.services;
+
+import com.jvnyor.cryptographychallenge.dtos.TransactionRequestDTO;
+import com.jvnyor.cryptographychallenge.entities.Transaction;
+
+public interface TransactionWriteService {
+    Transaction create(TransactionRequestDTO transactionRequestDTO);
+    Transaction update(Transaction transaction, TransactionRequestDTO transactionRequestDTO);
+    void delete(Transaction transaction);
+}
@@ -0,0 +1,24 @@
+package com.jvnyor.cryptographychallenge.services.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * The change log no longer holds every change after the cursor, because retention removed changes up to
+ * {@code prunedThrough}. The consumer has to resynchronize from the listing and follow the feed from
+ * {@code prunedThrough} on.
+ */
+@ResponseStatus(HttpStatus.GONE)
+public class ChangeCursorExpiredException extends RuntimeException {
+
+    private final long prunedThrough;
+
+    public ChangeCursorExpiredException(long since, long prunedThrough) {
+        super("Change cursor " + since + " expired: changes up to " + prunedThrough + " were pruned", null, false, false);
+        this.prunedThrough = prunedThrough;
+    }
+
+    public long getPrunedThrough() {
+        return prunedThrough;
+    }
+}
@@ -6,6 +6,6 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
 public class TransactionDeletionException extends RuntimeException {
     public TransactionDeletionException(long id) {
-        super("Failed to delete transaction with id: " + id);
+        super("Failed to delete transaction with id: " + id, null, false, false);
     }
 }
\ No newline at end of file
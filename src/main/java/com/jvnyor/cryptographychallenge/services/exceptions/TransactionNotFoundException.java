@@ -3,9 +3,12 @@ package com.jvnyor.cryptographychallenge.services.exceptions;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
+/**
+ * A missing id is an expected outcome of a lookup, so the exception is created without a stack trace.
+ */
 @ResponseStatus(HttpStatus.NOT_FOUND)
 public class TransactionNotFoundException extends RuntimeException {
     public TransactionNotFoundException(long id) {
-        super("Transaction with id " + id + " not found");
+        super("Transaction with id " + id + " not found", null, false, false);
     }
 }
@@ -0,0 +1,63 @@
+package com.jvnyor.cryptographychallenge.services.impl;
+
+import com.jvnyor.cryptographychallenge.datasource.ShardTemplate;
+import com.jvnyor.cryptographychallenge.entities.CardToken;
+import com.jvnyor.cryptographychallenge.repositories.CardTokenRepository;
+import com.jvnyor.cryptographychallenge.services.CardTokenVaultService;
+import com.jvnyor.cryptographychallenge.tenant.TenantEncryptors;
+import com.jvnyor.cryptographychallenge.util.CacheConstants;
+import com.jvnyor.cryptographychallenge.util.KeyedHasher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import static com.jvnyor.cryptographychallenge.config.CacheConfig.KEY_GENERATOR;
+
+/**
+ * Holds each distinct credit card token once per tenant, encrypted with the tenant's key and looked up by its keyed
+ * hash. Vault entries are immutable, so decrypted tokens are cached in the bounded {@link CacheConstants#CARD_TOKEN}
+ * cache and never evicted by transaction writes. When sharded, each shard keeps its own vault next to the transactions referencing it.
+ */
+@Transactional
+@Service
+public class CardTokenVaultServiceImpl implements CardTokenVaultService {
+
+    private final Logger log = LoggerFactory.getLogger(CardTokenVaultServiceImpl.class);
+
+    private final CardTokenRepository cardTokenRepository;
+
+    private final TenantEncryptors tenantEncryptors;
+
+    private final KeyedHasher keyedHasher;
+
+    private final ShardTemplate shardTemplate;
+
+    public CardTokenVaultServiceImpl(CardTokenRepository cardTokenRepository, TenantEncryptors tenantEncryptors, KeyedHasher keyedHasher, ShardTemplate shardTemplate) {
+        this.cardTokenRepository = cardTokenRepository;
+        this.tenantEncryptors = tenantEncryptors;
+        this.keyedHasher = keyedHasher;
+        this.shardTemplate = shardTemplate;
+    }
+
+    @Override
+    public CardToken store(String tenantId, String creditCardToken) {
+        var tokenHash = keyedHasher.hash(creditCardToken);
+        return cardTokenRepository.findByTenantIdAndTokenHash(tenantId, tokenHash)
+                .orElseGet(() -> {
+                    log.debug("Storing new card token of tenant {} in vault", tenantId);
+                    return cardTokenRepository.save(new CardToken(null, tenantId, tokenHash, tenantEncryptors.forTenant(tenantId).encrypt(creditCardToken)));
+                });
+    }
+
+    @Cacheable(cacheNames = CacheConstants.CARD_TOKEN, keyGenerator = KEY_GENERATOR)
+    @Transactional(readOnly = true)
+    @Override
+    public String reveal(long cardTokenId) {
+        shardTemplate.bindToId(cardTokenId);
+        return cardTokenRepository.findById(cardTokenId)
+                .map(cardToken -> tenantEncryptors.forTenant(cardToken.getTenantId()).decrypt(cardToken.getToken()))
+                .orElseThrow(() -> new IllegalStateException("Card token with id " + cardTokenId + " not found in vault"));
+    }
+}
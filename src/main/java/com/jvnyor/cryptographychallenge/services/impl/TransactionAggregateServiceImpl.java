@@ -0,0 +1,163 @@
+package com.jvnyor.cryptographychallenge.services.impl;
+
+import com.jvnyor.cryptographychallenge.datasource.ShardTemplate;
+import com.jvnyor.cryptographychallenge.dtos.UserAggregateRequestDTO;
+import com.jvnyor.cryptographychallenge.dtos.UserAggregateResponseDTO;
+import com.jvnyor.cryptographychallenge.entities.UserDailySummary;
+import com.jvnyor.cryptographychallenge.entities.UserSummary;
+import com.jvnyor.cryptographychallenge.repositories.TransactionStore;
+import com.jvnyor.cryptographychallenge.repositories.UserDailySummaryRepository;
+import com.jvnyor.cryptographychallenge.repositories.UserSummaryRepository;
+import com.jvnyor.cryptographychallenge.services.TransactionAggregateService;
+import com.jvnyor.cryptographychallenge.util.KeyedHasher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Keeps per-user totals in {@link UserSummary} and per-day buckets in {@link UserDailySummary}, keyed by the
+ * keyed hash of the user document. Callers join the surrounding transaction, so summaries always match the
+ * {@code Transaction} table and aggregate reads never touch or decrypt transaction rows. When sharded, summaries
+ * live next to the transactions they count, and a user whose transactions moved to another document's shard on
+ * update has partial summaries on several shards, so reads combine the summaries of every shard.
+ * <p>
+ * A summary is created by the first transaction that finds none to increment. When concurrent first transactions
+ * race, the losing insert is undone on its own and the increment retried against the winner's row.
+ * <p>
+ * Archived transactions stay counted but leave the {@link TransactionStore}, so the summary keeps their bounds and
+ * widens the bounds recomputed from stored transactions with them when a bound value is removed.
+ */
+@Transactional
+@Service
+public class TransactionAggregateServiceImpl implements TransactionAggregateService {
+
+    private static final int DEFAULT_DAYS = 30;
+
+    private final Logger log = LoggerFactory.getLogger(TransactionAggregateServiceImpl.class);
+
+    private final UserSummaryRepository userSummaryRepository;
+
+    private final UserDailySummaryRepository userDailySummaryRepository;
+
+    private final KeyedHasher keyedHasher;
+
+    private final ShardTemplate shardTemplate;
+
+    private final TransactionStore transactionStore;
+
+    public TransactionAggregateServiceImpl(UserSummaryRepository userSummaryRepository, UserDailySummaryRepository userDailySummaryRepository, KeyedHasher keyedHasher, ShardTemplate shardTemplate, TransactionStore transactionStore) {
+        this.userSummaryRepository = userSummaryRepository;
+        this.userDailySummaryRepository = userDailySummaryRepository;
+        this.keyedHasher = keyedHasher;
+        this.shardTemplate = shardTemplate;
+        this.transactionStore = transactionStore;
+    }
+
+    @Override
+    public void addTransaction(String userDocumentHash, double value, Instant createdAt) {
+        if (userSummaryRepository.addValue(userDocumentHash, value) == 0
+                && !userSummaryRepository.insertIfAbsent(userDocumentHash, value)) {
+            userSummaryRepository.addValue(userDocumentHash, value);
+        }
+        var day = toDay(createdAt);
+        if (userDailySummaryRepository.addValue(userDocumentHash, day, value) == 0
+                && !userDailySummaryRepository.insertIfAbsent(userDocumentHash, day, value)) {
+            userDailySummaryRepository.addValue(userDocumentHash, day, value);
+        }
+    }
+
+    @Override
+    public void removeTransaction(String userDocumentHash, double value, Instant createdAt) {
+        if (userSummaryRepository.subtractValue(userDocumentHash, value) == 0) {
+            log.warn("No summary found for removed transaction, skipping aggregate update");
+            return;
+        }
+        if (userSummaryRepository.deleteIfEmpty(userDocumentHash) == 0) {
+            var bounds = transactionStore.findValueBounds(userDocumentHash);
+            userSummaryRepository.setBounds(userDocumentHash, bounds.minValue(), bounds.maxValue());
+        }
+        var day = toDay(createdAt);
+        userDailySummaryRepository.subtractValue(userDocumentHash, day, value);
+        userDailySummaryRepository.deleteIfEmpty(userDocumentHash, day);
+    }
+
+    @Override
+    public void addArchivedBounds(String userDocumentHash, double minValue, double maxValue) {
+        if (userSummaryRepository.addArchivedBounds(userDocumentHash, minValue, maxValue) == 0) {
+            log.warn("No summary found for archived transactions, skipping archived bounds");
+        }
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public UserAggregateResponseDTO getUserAggregate(UserAggregateRequestDTO userAggregateRequestDTO) {
+        log.info("Getting user aggregate");
+        var userDocumentHash = keyedHasher.hash(userAggregateRequestDTO.userDocument().trim());
+        var to = Optional.ofNullable(userAggregateRequestDTO.to())
+                .orElseGet(() -> LocalDate.now(ZoneOffset.UTC));
+        var from = Optional.ofNullable(userAggregateRequestDTO.from())
+                .orElseGet(() -> to.minusDays(DEFAULT_DAYS - 1L));
+        return shardTemplate.forEachShard(true, () -> getShardAggregate(userDocumentHash, from, to)).stream()
+                .reduce(TransactionAggregateServiceImpl::combine)
+                .orElseThrow();
+    }
+
+    private UserAggregateResponseDTO getShardAggregate(String userDocumentHash, LocalDate from, LocalDate to) {
+        var daily = userDailySummaryRepository.findDays(userDocumentHash, from, to).stream()
+                .map(summary -> new UserAggregateResponseDTO.DailyAggregate(
+                        summary.getId().getDay(),
+                        summary.getTransactionCount(),
+                        summary.getTotalValue()))
+                .toList();
+        return userSummaryRepository.findById(userDocumentHash)
+                .map(summary -> new UserAggregateResponseDTO(
+                        summary.getTransactionCount(),
+                        summary.getTotalValue(),
+                        summary.getMinValue(),
+                        summary.getMaxValue(),
+                        daily))
+                .orElseGet(() -> new UserAggregateResponseDTO(0, 0, null, null, daily));
+    }
+
+    private static UserAggregateResponseDTO combine(UserAggregateResponseDTO left, UserAggregateResponseDTO right) {
+        var daily = Stream.concat(left.daily().stream(), right.daily().stream())
+                .collect(Collectors.toMap(
+                        UserAggregateResponseDTO.DailyAggregate::day,
+                        Function.identity(),
+                        (first, second) -> new UserAggregateResponseDTO.DailyAggregate(
+                                first.day(),
+                                first.transactionCount() + second.transactionCount(),
+                                first.totalValue() + second.totalValue()),
+                        TreeMap::new))
+                .values();
+        return new UserAggregateResponseDTO(
+                left.transactionCount() + right.transactionCount(),
+                left.totalValue() + right.totalValue(),
+                combineBound(left.minValue(), right.minValue(), Math::min),
+                combineBound(left.maxValue(), right.maxValue(), Math::max),
+                List.copyOf(daily));
+    }
+
+    private static Double combineBound(Double left, Double right, BinaryOperator<Double> operator) {
+        if (left == null || right == null) {
+            return left == null ? right : left;
+        }
+        return operator.apply(left, right);
+    }
+
+    private static LocalDate toDay(Instant createdAt) {
+        return LocalDate.ofInstant(createdAt, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,127 @@
+package com.jvnyor.cryptographychallenge.services.impl;
+
+import com.jvnyor.cryptographychallenge.datasource.ShardTemplate;
+import com.jvnyor.cryptographychallenge.entities.ChangeSequence;
+import com.jvnyor.cryptographychallenge.entities.ChangeType;
+import com.jvnyor.cryptographychallenge.entities.OutboxEvent;
+import com.jvnyor.cryptographychallenge.entities.TransactionChange;
+import com.jvnyor.cryptographychallenge.repositories.ChangeSequenceRepository;
+import com.jvnyor.cryptographychallenge.repositories.OutboxEventRepository;
+import com.jvnyor.cryptographychallenge.repositories.TransactionChangeRepository;
+import com.jvnyor.cryptographychallenge.services.TransactionChangeService;
+import com.jvnyor.cryptographychallenge.services.exceptions.ChangeCursorExpiredException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Appends to the transaction change log in the caller's transaction, on the shard of the changed transaction, along
+ * with the {@link OutboxEvent} that the outbox relay publishes to other services when {@code app.outbox.enabled} is
+ * {@code true}. Without the relay nothing would publish or clean up outbox events, so none are written.
+ * Sequences are drawn from a counter row whose increment stays locked until the transaction ends, so on one shard
+ * they become visible in the order they were handed out and a reader never skips a change it has not seen yet.
+ * <p>
+ * With several shards, a sequence is {@code counter * shardCount + shard}, unique across shards. A shard that
+ * writes rarely would still hand out sequences below the ones other shards already published, so reads first
+ * advance every counter to the highest one and only return changes up to it: once the counters are advanced, no
+ * shard can commit a lower sequence.
+ * <p>
+ * Retention removes the oldest changes of every shard and records the highest removed sequence on its counter row.
+ * A read whose cursor lies below that sequence may have missed changes, so it fails with
+ * {@link ChangeCursorExpiredException}. The check runs after the changes are read, so a prune committed in between
+ * is noticed.
+ */
+@Transactional
+@Service
+public class TransactionChangeServiceImpl implements TransactionChangeService {
+
+    @Value("${app.outbox.enabled}")
+    private boolean outboxEnabled;
+
+    private final TransactionChangeRepository transactionChangeRepository;
+
+    private final ChangeSequenceRepository changeSequenceRepository;
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final ShardTemplate shardTemplate;
+
+    public TransactionChangeServiceImpl(TransactionChangeRepository transactionChangeRepository, ChangeSequenceRepository changeSequenceRepository, OutboxEventRepository outboxEventRepository, ShardTemplate shardTemplate) {
+        this.transactionChangeRepository = transactionChangeRepository;
+        this.changeSequenceRepository = changeSequenceRepository;
+        this.outboxEventRepository = outboxEventRepository;
+        this.shardTemplate = shardTemplate;
+    }
+
+    @Override
+    public void initializeSequences() {
+        shardTemplate.forEachShard(false, () -> changeSequenceRepository.findById(ChangeSequence.ID)
+                .orElseGet(() -> changeSequenceRepository.save(new ChangeSequence(0))));
+    }
+
+    @Override
+    public void recordChange(long transactionId, ChangeType type) {
+        long counter;
+        if (changeSequenceRepository.increment() == 0) {
+            counter = changeSequenceRepository.save(new ChangeSequence(1)).getValue();
+        } else {
+            counter = changeSequenceRepository.findValue().orElseThrow();
+        }
+        var sequence = counter * shardTemplate.getShardCount() + shardTemplate.shardForId(transactionId);
+        var changedAt = Instant.now();
+        transactionChangeRepository.save(new TransactionChange(sequence, transactionId, type, changedAt));
+        if (outboxEnabled) {
+            outboxEventRepository.save(new OutboxEvent(sequence, transactionId, type, changedAt));
+        }
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<TransactionChange> findChangesAfter(long sequence, int limit) {
+        var changes = readChangesAfter(sequence, limit);
+        var prunedThrough = shardTemplate.forEachShard(true, () -> changeSequenceRepository.findPrunedThrough().orElse(0L)).stream()
+                .mapToLong(Long::longValue)
+                .max()
+                .orElse(0);
+        if (sequence < prunedThrough) {
+            throw new ChangeCursorExpiredException(sequence, prunedThrough);
+        }
+        return changes;
+    }
+
+    @Override
+    public int pruneChangesBefore(Instant changedBefore) {
+        return shardTemplate.forEachShard(false, () -> transactionChangeRepository.findLastSequenceBefore(changedBefore)
+                        .map(last -> {
+                            changeSequenceRepository.advancePrunedThrough(last);
+                            return transactionChangeRepository.deleteThrough(last);
+                        })
+                        .orElse(0)).stream()
+                .mapToInt(Integer::intValue)
+                .sum();
+    }
+
+    private List<TransactionChange> readChangesAfter(long sequence, int limit) {
+        var shardCount = shardTemplate.getShardCount();
+        if (shardCount == 1) {
+            return transactionChangeRepository.findChanges(sequence, Long.MAX_VALUE, Limit.of(limit));
+        }
+        var highest = shardTemplate.forEachShard(true, () -> changeSequenceRepository.findValue().orElse(0L)).stream()
+                .mapToLong(Long::longValue)
+                .max()
+                .orElse(0);
+        shardTemplate.forEachShard(false, () -> changeSequenceRepository.advanceTo(highest));
+        var upTo = highest * shardCount + shardCount - 1;
+        return shardTemplate.forEachShard(true, () -> transactionChangeRepository.findChanges(sequence, upTo, Limit.of(limit))).stream()
+                .flatMap(Collection::stream)
+                .sorted(Comparator.comparingLong(TransactionChange::getSequence))
+                .limit(limit)
+                .toList();
+    }
+}
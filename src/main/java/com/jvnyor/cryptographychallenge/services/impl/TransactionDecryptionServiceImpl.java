@@ -0,0 +1,56 @@
+package com.jvnyor.cryptographychallenge.services.impl;
+
+import com.jvnyor.cryptographychallenge.archive.ArchivedTransaction;
+import com.jvnyor.cryptographychallenge.audit.AuditContext;
+import com.jvnyor.cryptographychallenge.audit.AuditLog;
+import com.jvnyor.cryptographychallenge.dtos.TransactionResponseDTO;
+import com.jvnyor.cryptographychallenge.entities.Transaction;
+import com.jvnyor.cryptographychallenge.services.CardTokenVaultService;
+import com.jvnyor.cryptographychallenge.services.TransactionDecryptionService;
+import com.jvnyor.cryptographychallenge.tenant.TenantEncryptors;
+import org.springframework.stereotype.Service;
+
+/**
+ * Decrypts live and archived transactions with their tenant's key, recording every decryption in the
+ * {@link AuditLog} with the context of the calling thread.
+ */
+@Service
+public class TransactionDecryptionServiceImpl implements TransactionDecryptionService {
+
+    private static final String DECRYPTED_FIELDS = "userDocument,creditCardToken";
+
+    private final TenantEncryptors tenantEncryptors;
+
+    private final CardTokenVaultService cardTokenVaultService;
+
+    private final AuditLog auditLog;
+
+    public TransactionDecryptionServiceImpl(TenantEncryptors tenantEncryptors, CardTokenVaultService cardTokenVaultService, AuditLog auditLog) {
+        this.tenantEncryptors = tenantEncryptors;
+        this.cardTokenVaultService = cardTokenVaultService;
+        this.auditLog = auditLog;
+    }
+
+    @Override
+    public TransactionResponseDTO decrypt(Transaction transaction) {
+        auditLog.recordDecryption(transaction.getId(), transaction.getTenantId(), DECRYPTED_FIELDS, AuditContext.current());
+        return new TransactionResponseDTO(
+                transaction.getId(),
+                tenantEncryptors.forTenant(transaction.getTenantId()).decrypt(transaction.getUserDocument()),
+                cardTokenVaultService.reveal(transaction.getCardToken().getId()),
+                transaction.getValue()
+        );
+    }
+
+    @Override
+    public TransactionResponseDTO decrypt(ArchivedTransaction transaction) {
+        auditLog.recordDecryption(transaction.id(), transaction.tenantId(), DECRYPTED_FIELDS, AuditContext.current());
+        var encryptor = tenantEncryptors.forTenant(transaction.tenantId());
+        return new TransactionResponseDTO(
+                transaction.id(),
+                encryptor.decrypt(transaction.userDocument()),
+                encryptor.decrypt(transaction.creditCardToken()),
+                transaction.value()
+        );
+    }
+}
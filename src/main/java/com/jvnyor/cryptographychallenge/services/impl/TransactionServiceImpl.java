@@ -1,113 +1,273 @@
 package com.jvnyor.cryptographychallenge.services.impl;
 
+import com.jvnyor.cryptographychallenge.archive.TransactionArchive;
+import com.jvnyor.cryptographychallenge.cache.singleflight.SingleFlightCache;
+import com.jvnyor.cryptographychallenge.cache.singleflight.SingleFlightCacheManager;
+import com.jvnyor.cryptographychallenge.datasource.ShardTemplate;
+import com.jvnyor.cryptographychallenge.dtos.MaskedTransactionResponseDTO;
+import com.jvnyor.cryptographychallenge.dtos.TransactionBatchResponseDTO;
+import com.jvnyor.cryptographychallenge.dtos.TransactionChangeResponseDTO;
+import com.jvnyor.cryptographychallenge.dtos.TransactionChangesResponseDTO;
+import com.jvnyor.cryptographychallenge.dtos.TransactionFilterDTO;
 import com.jvnyor.cryptographychallenge.dtos.TransactionRequestDTO;
 import com.jvnyor.cryptographychallenge.dtos.TransactionResponseDTO;
+import com.jvnyor.cryptographychallenge.entities.ChangeType;
 import com.jvnyor.cryptographychallenge.entities.Transaction;
-import com.jvnyor.cryptographychallenge.repositories.TransactionRepository;
+import com.jvnyor.cryptographychallenge.entities.TransactionChange;
+import com.jvnyor.cryptographychallenge.idfilter.TransactionIdFilter;
+import com.jvnyor.cryptographychallenge.repositories.TransactionStore;
+import com.jvnyor.cryptographychallenge.repositories.projections.MaskedTransactionView;
+import com.jvnyor.cryptographychallenge.services.TransactionChangeService;
+import com.jvnyor.cryptographychallenge.services.TransactionDecryptionService;
 import com.jvnyor.cryptographychallenge.services.TransactionService;
-import com.jvnyor.cryptographychallenge.services.exceptions.TransactionDeletionException;
+import com.jvnyor.cryptographychallenge.services.TransactionWriteService;
 import com.jvnyor.cryptographychallenge.services.exceptions.TransactionNotFoundException;
+import com.jvnyor.cryptographychallenge.tenant.TenantResolver;
 import com.jvnyor.cryptographychallenge.util.CacheConstants;
-import org.jasypt.util.text.AES256TextEncryptor;
+import com.jvnyor.cryptographychallenge.util.MaskUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Optional;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static com.jvnyor.cryptographychallenge.config.CacheConfig.KEY_GENERATOR;
+import static com.jvnyor.cryptographychallenge.config.CacheConfig.TENANT_KEY_GENERATOR;
+import static com.jvnyor.cryptographychallenge.config.CacheConfig.tenantCacheKey;
 
+/**
+ * Orchestrates transaction reads and writes: resolves ids through the id filter, shards, caches and archive, and
+ * leaves persisting writes to {@link TransactionWriteService} and decrypting to {@link TransactionDecryptionService}.
+ */
 @Transactional
 @Service
 public class TransactionServiceImpl implements TransactionService {
 
+    private static final int ID_CHUNK_SIZE = 500;
+
     private final Logger log = LoggerFactory.getLogger(TransactionServiceImpl.class);
 
-    private final TransactionRepository transactionRepository;
+    private final TransactionStore transactionStore;
+
+    private final TenantResolver tenantResolver;
+
+    private final SingleFlightCacheManager cacheManager;
+
+    private final ShardTemplate shardTemplate;
+
+    private final TransactionArchive transactionArchive;
 
-    private final AES256TextEncryptor textEncryptor;
+    private final TransactionIdFilter transactionIdFilter;
 
-    public TransactionServiceImpl(TransactionRepository transactionRepository, AES256TextEncryptor textEncryptor) {
-        this.transactionRepository = transactionRepository;
-        this.textEncryptor = textEncryptor;
+    private final TransactionChangeService transactionChangeService;
+
+    private final TransactionWriteService transactionWriteService;
+
+    private final TransactionDecryptionService transactionDecryptionService;
+
+    public TransactionServiceImpl(TransactionStore transactionStore, TenantResolver tenantResolver, SingleFlightCacheManager cacheManager, ShardTemplate shardTemplate, TransactionArchive transactionArchive, TransactionIdFilter transactionIdFilter, TransactionChangeService transactionChangeService, TransactionWriteService transactionWriteService, TransactionDecryptionService transactionDecryptionService) {
+        this.transactionStore = transactionStore;
+        this.tenantResolver = tenantResolver;
+        this.cacheManager = cacheManager;
+        this.shardTemplate = shardTemplate;
+        this.transactionArchive = transactionArchive;
+        this.transactionIdFilter = transactionIdFilter;
+        this.transactionChangeService = transactionChangeService;
+        this.transactionWriteService = transactionWriteService;
+        this.transactionDecryptionService = transactionDecryptionService;
     }
 
-    @CacheEvict(cacheNames = {CacheConstants.GET_TRANSACTION, CacheConstants.GET_TRANSACTIONS}, allEntries = true)
+    @CacheEvict(cacheNames = CacheConstants.GET_TRANSACTIONS, allEntries = true)
     @Override
     public TransactionResponseDTO createTransaction(TransactionRequestDTO transactionRequestDTO) {
-        log.info("Creating transaction");
-        Transaction transaction = transactionRepository.save(createOrUpdateEntityFromDTO(new Transaction(), transactionRequestDTO));
-        log.debug("Transaction created: {}", transaction);
-        return createDTOFromEntity(transaction);
+        log.debug("Creating transaction");
+        return transactionDecryptionService.decrypt(transactionWriteService.create(transactionRequestDTO));
     }
 
-    @CacheEvict(cacheNames = {CacheConstants.GET_TRANSACTION, CacheConstants.GET_TRANSACTIONS}, allEntries = true)
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConstants.GET_TRANSACTION, key = "T(com.jvnyor.cryptographychallenge.config.CacheConfig).tenantCacheKey(@tenantResolver.currentTenant(), #id)"),
+            @CacheEvict(cacheNames = CacheConstants.GET_TRANSACTIONS, allEntries = true)
+    })
     @Override
     public TransactionResponseDTO updateTransaction(long id, TransactionRequestDTO transactionRequestDTO) {
-        log.info("Updating transaction with id {}", id);
-        Transaction transaction = transactionRepository.save(createOrUpdateEntityFromDTO(findById(id), transactionRequestDTO));
-        log.debug("Transaction updated: {}", transaction);
-        return createDTOFromEntity(transaction);
+        log.debug("Updating transaction with id {}", id);
+        shardTemplate.bindToId(id);
+        return transactionDecryptionService.decrypt(transactionWriteService.update(findById(id), transactionRequestDTO));
     }
 
-    @CacheEvict(cacheNames = {CacheConstants.GET_TRANSACTION, CacheConstants.GET_TRANSACTIONS}, allEntries = true)
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConstants.GET_TRANSACTION, key = "T(com.jvnyor.cryptographychallenge.config.CacheConfig).tenantCacheKey(@tenantResolver.currentTenant(), #id)"),
+            @CacheEvict(cacheNames = CacheConstants.GET_TRANSACTIONS, allEntries = true)
+    })
     @Override
     public void deleteTransaction(long id) {
-        log.info("Deleting transaction with id {}", id);
-        int deleteByID = transactionRepository.deleteByID(existsById(id));
-        if (deleteByID == 0) {
-            log.error("Error occurred while deleting Transaction with id {}", id);
-            throw new TransactionDeletionException(id);
-        }
+        log.debug("Deleting transaction with id {}", id);
+        shardTemplate.bindToId(id);
+        transactionWriteService.delete(findById(id));
     }
 
-    @Cacheable(cacheNames = CacheConstants.GET_TRANSACTION, keyGenerator = KEY_GENERATOR)
+    /**
+     * A transaction of another tenant is reported as not found, and the cache is keyed by tenant, so an entry loaded
+     * for one tenant is never served to another.
+     */
+    @Cacheable(cacheNames = CacheConstants.GET_TRANSACTION, keyGenerator = TENANT_KEY_GENERATOR, sync = true)
     @Transactional(readOnly = true)
     @Override
     public TransactionResponseDTO getTransaction(long id) {
-        log.info("Getting transaction with id {}", id);
-        return createDTOFromEntity(findById(id));
+        log.debug("Getting transaction with id {}", id);
+        if (!transactionIdFilter.mightContain(id)) {
+            throw new TransactionNotFoundException(id);
+        }
+        shardTemplate.bindToId(id);
+        var tenantId = tenantResolver.currentTenant();
+        return transactionStore.findById(id)
+                .filter(transaction -> tenantId.equals(transaction.getTenantId()))
+                .map(transactionDecryptionService::decrypt)
+                .or(() -> transactionArchive.find(id)
+                        .filter(transaction -> tenantId.equals(transaction.tenantId()))
+                        .map(transactionDecryptionService::decrypt))
+                .orElseThrow(() -> new TransactionNotFoundException(id));
     }
 
     private Transaction findById(long id) {
-        return transactionRepository.findById(id)
+        if (!transactionIdFilter.mightContain(id)) {
+            throw new TransactionNotFoundException(id);
+        }
+        var tenantId = tenantResolver.currentTenant();
+        return transactionStore.findById(id)
+                .filter(transaction -> tenantId.equals(transaction.getTenantId()))
                 .orElseThrow(() -> new TransactionNotFoundException(id));
     }
 
-    private long existsById(long id) {
-        return Optional.of(id)
-                .filter(transactionRepository::existsById)
-                .orElseThrow(() -> new TransactionNotFoundException(id));
+    @Cacheable(cacheNames = CacheConstants.GET_TRANSACTIONS, keyGenerator = KEY_GENERATOR, sync = true)
+    @Transactional(readOnly = true)
+    @Override
+    public Page<TransactionResponseDTO> getTransactions(Pageable pageable) {
+        log.debug("Getting transactions");
+        return Optional.of(shardTemplate.scatterGather(pageable, transactionStore::findAll))
+                .filter(Page::hasContent)
+                .map(page -> shardTemplate.mapByShard(page, Transaction::getId, transactionDecryptionService::decrypt))
+                .orElse(Page.empty());
     }
 
-    @Cacheable(cacheNames = CacheConstants.GET_TRANSACTIONS, keyGenerator = KEY_GENERATOR)
+    /**
+     * Not cached: filtered windows rarely repeat, and every write would evict them anyway. Only the transactions
+     * of the requested page are decrypted.
+     */
     @Transactional(readOnly = true)
     @Override
-    public Page<TransactionResponseDTO> getTransactions(Pageable pageable) {
-        log.info("Getting transactions");
-        return Optional.of(transactionRepository.findAll(pageable))
+    public Page<TransactionResponseDTO> getTransactions(TransactionFilterDTO filter, Pageable pageable) {
+        log.debug("Getting transactions matching {}", filter);
+        return Optional.of(shardTemplate.scatterGather(pageable, shardPageable -> transactionStore.findAllMatching(filter, shardPageable)))
                 .filter(Page::hasContent)
-                .map(page -> page.map(this::createDTOFromEntity))
+                .map(page -> shardTemplate.mapByShard(page, Transaction::getId, transactionDecryptionService::decrypt))
                 .orElse(Page.empty());
     }
 
-    private Transaction createOrUpdateEntityFromDTO(Transaction transaction, TransactionRequestDTO transactionUpdateDTO) {
-        transaction.setUserDocument(textEncryptor.encrypt(transactionUpdateDTO.userDocument().trim()));
-        transaction.setCreditCardToken(textEncryptor.encrypt(transactionUpdateDTO.creditCardToken().trim()));
-        transaction.setValue(transactionUpdateDTO.value());
-        return transaction;
+    @Transactional(readOnly = true)
+    @Override
+    public Page<MaskedTransactionResponseDTO> getMaskedTransactions(Pageable pageable) {
+        log.debug("Getting masked transactions");
+        return shardTemplate.scatterGather(pageable, transactionStore::findAllMaskedBy)
+                .map(this::createMaskedDTOFromView);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public TransactionBatchResponseDTO getTransactionsByIds(List<Long> ids) {
+        log.debug("Getting {} transactions by id", ids.size());
+        var requestedIds = new LinkedHashSet<>(ids);
+        var knownIds = requestedIds.stream()
+                .filter(transactionIdFilter::mightContain)
+                .toList();
+        var tenantId = tenantResolver.currentTenant();
+        var transactionsById = new HashMap<>(getTransactionCache().getAll(knownIds, id -> tenantCacheKey(tenantId, id), notCachedIds -> findAllByIds(notCachedIds, tenantId).stream()
+                .collect(Collectors.toMap(TransactionResponseDTO::id, Function.identity()))));
+        log.debug("{} of {} transactions found in cache or storage", transactionsById.size(), requestedIds.size());
+        for (Long id : knownIds) {
+            if (!transactionsById.containsKey(id)) {
+                transactionArchive.find(id)
+                        .filter(transaction -> tenantId.equals(transaction.tenantId()))
+                        .map(transactionDecryptionService::decrypt)
+                        .ifPresent(transaction -> transactionsById.put(id, transaction));
+            }
+        }
+        var transactions = new ArrayList<TransactionResponseDTO>(transactionsById.size());
+        var missingIds = new ArrayList<Long>();
+        for (Long id : requestedIds) {
+            Optional.ofNullable(transactionsById.get(id))
+                    .ifPresentOrElse(transactions::add, () -> missingIds.add(id));
+        }
+        return new TransactionBatchResponseDTO(transactions, missingIds);
+    }
+
+    /**
+     * Changes after the given sequence with the current state of each changed transaction, resolved through the
+     * same cache as {@link #getTransactionsByIds}, so only the changed transactions are decrypted. Changes to
+     * transactions of other tenants carry no transaction, like deletions.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public TransactionChangesResponseDTO getChanges(long since, int limit) {
+        log.debug("Getting up to {} changes since {}", limit, since);
+        var changes = transactionChangeService.findChangesAfter(since, limit);
+        var changedIds = changes.stream()
+                .filter(change -> change.getType() != ChangeType.DELETED)
+                .map(TransactionChange::getTransactionId)
+                .distinct()
+                .toList();
+        var transactionsById = changedIds.isEmpty()
+                ? Map.<Long, TransactionResponseDTO>of()
+                : getTransactionsByIds(changedIds).transactions().stream()
+                .collect(Collectors.toMap(TransactionResponseDTO::id, transaction -> transaction));
+        var changeDTOs = changes.stream()
+                .map(change -> new TransactionChangeResponseDTO(
+                        change.getSequence(),
+                        change.getTransactionId(),
+                        change.getType(),
+                        change.getChangedAt(),
+                        change.getType() == ChangeType.DELETED ? null : transactionsById.get(change.getTransactionId())))
+                .toList();
+        var checkpoint = changes.isEmpty() ? since : changes.get(changes.size() - 1).getSequence();
+        return new TransactionChangesResponseDTO(changeDTOs, checkpoint, changes.size() == limit);
+    }
+
+    private List<TransactionResponseDTO> findAllByIds(List<Long> ids, String tenantId) {
+        return ids.stream()
+                .collect(Collectors.groupingBy(shardTemplate::shardForId))
+                .entrySet().stream()
+                .flatMap(shardIds -> shardTemplate.inShard(shardIds.getKey(), true, () -> findAllByIdsInShard(shardIds.getValue(), tenantId)).stream())
+                .toList();
+    }
+
+    private List<TransactionResponseDTO> findAllByIdsInShard(List<Long> ids, String tenantId) {
+        return IntStream.iterate(0, from -> from < ids.size(), from -> from + ID_CHUNK_SIZE)
+                .mapToObj(from -> ids.subList(from, Math.min(from + ID_CHUNK_SIZE, ids.size())))
+                .flatMap(chunk -> transactionStore.findAllById(chunk).stream())
+                .filter(transaction -> tenantId.equals(transaction.getTenantId()))
+                .map(transactionDecryptionService::decrypt)
+                .toList();
+    }
+
+    private SingleFlightCache getTransactionCache() {
+        return Objects.requireNonNull(cacheManager.getCache(CacheConstants.GET_TRANSACTION),
+                "Cache " + CacheConstants.GET_TRANSACTION + " is not configured");
     }
 
-    private TransactionResponseDTO createDTOFromEntity(Transaction transaction) {
-        return new TransactionResponseDTO(
+    private MaskedTransactionResponseDTO createMaskedDTOFromView(MaskedTransactionView transaction) {
+        return new MaskedTransactionResponseDTO(
                 transaction.getId(),
-                textEncryptor.decrypt(transaction.getUserDocument()),
-                textEncryptor.decrypt(transaction.getCreditCardToken()),
+                MaskUtils.mask(transaction.getUserDocumentSuffix()),
+                MaskUtils.mask(transaction.getCreditCardTokenLastFour()),
                 transaction.getValue()
         );
     }
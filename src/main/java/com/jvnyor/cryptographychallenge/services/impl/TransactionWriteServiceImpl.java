@@ -0,0 +1,112 @@
+package com.jvnyor.cryptographychallenge.services.impl;
+
+import com.jvnyor.cryptographychallenge.datasource.ShardTemplate;
+import com.jvnyor.cryptographychallenge.dtos.TransactionRequestDTO;
+import com.jvnyor.cryptographychallenge.entities.ChangeType;
+import com.jvnyor.cryptographychallenge.entities.Transaction;
+import com.jvnyor.cryptographychallenge.idfilter.TransactionIdFilter;
+import com.jvnyor.cryptographychallenge.repositories.TransactionStore;
+import com.jvnyor.cryptographychallenge.services.CardTokenVaultService;
+import com.jvnyor.cryptographychallenge.services.TransactionAggregateService;
+import com.jvnyor.cryptographychallenge.services.TransactionChangeService;
+import com.jvnyor.cryptographychallenge.services.TransactionWriteService;
+import com.jvnyor.cryptographychallenge.services.exceptions.TransactionDeletionException;
+import com.jvnyor.cryptographychallenge.tenant.TenantEncryptors;
+import com.jvnyor.cryptographychallenge.tenant.TenantResolver;
+import com.jvnyor.cryptographychallenge.util.KeyedHasher;
+import com.jvnyor.cryptographychallenge.util.MaskUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Persists transaction writes in the caller's transaction: encrypts and hashes the sensitive fields, keeps the id
+ * filter and the per-user aggregates in step, and appends each write to the change log.
+ */
+@Transactional
+@Service
+public class TransactionWriteServiceImpl implements TransactionWriteService {
+
+    private final Logger log = LoggerFactory.getLogger(TransactionWriteServiceImpl.class);
+
+    private final TransactionStore transactionStore;
+
+    private final TenantEncryptors tenantEncryptors;
+
+    private final TenantResolver tenantResolver;
+
+    private final KeyedHasher keyedHasher;
+
+    private final CardTokenVaultService cardTokenVaultService;
+
+    private final ShardTemplate shardTemplate;
+
+    private final TransactionIdFilter transactionIdFilter;
+
+    private final TransactionAggregateService transactionAggregateService;
+
+    private final TransactionChangeService transactionChangeService;
+
+    public TransactionWriteServiceImpl(TransactionStore transactionStore, TenantEncryptors tenantEncryptors, TenantResolver tenantResolver, KeyedHasher keyedHasher, CardTokenVaultService cardTokenVaultService, ShardTemplate shardTemplate, TransactionIdFilter transactionIdFilter, TransactionAggregateService transactionAggregateService, TransactionChangeService transactionChangeService) {
+        this.transactionStore = transactionStore;
+        this.tenantEncryptors = tenantEncryptors;
+        this.tenantResolver = tenantResolver;
+        this.keyedHasher = keyedHasher;
+        this.cardTokenVaultService = cardTokenVaultService;
+        this.shardTemplate = shardTemplate;
+        this.transactionIdFilter = transactionIdFilter;
+        this.transactionAggregateService = transactionAggregateService;
+        this.transactionChangeService = transactionChangeService;
+    }
+
+    @Override
+    public Transaction create(TransactionRequestDTO transactionRequestDTO) {
+        Transaction transaction = transactionStore.save(createOrUpdateEntityFromDTO(new Transaction(), transactionRequestDTO));
+        transactionIdFilter.add(transaction.getId());
+        transactionAggregateService.addTransaction(transaction.getUserDocumentHash(), transaction.getValue(), transaction.getCreatedAt());
+        transactionChangeService.recordChange(transaction.getId(), ChangeType.CREATED);
+        log.debug("Transaction created: {}", transaction);
+        return transaction;
+    }
+
+    @Override
+    public Transaction update(Transaction existingTransaction, TransactionRequestDTO transactionRequestDTO) {
+        String previousUserDocumentHash = existingTransaction.getUserDocumentHash();
+        double previousValue = existingTransaction.getValue();
+        Transaction transaction = transactionStore.save(createOrUpdateEntityFromDTO(existingTransaction, transactionRequestDTO));
+        transactionAggregateService.removeTransaction(previousUserDocumentHash, previousValue, transaction.getCreatedAt());
+        transactionAggregateService.addTransaction(transaction.getUserDocumentHash(), transaction.getValue(), transaction.getCreatedAt());
+        transactionChangeService.recordChange(transaction.getId(), ChangeType.UPDATED);
+        log.debug("Transaction updated: {}", transaction);
+        return transaction;
+    }
+
+    @Override
+    public void delete(Transaction transaction) {
+        int deleteByID = transactionStore.deleteByID(transaction.getId());
+        if (deleteByID == 0) {
+            log.error("Error occurred while deleting Transaction with id {}", transaction.getId());
+            throw new TransactionDeletionException(transaction.getId());
+        }
+        transactionIdFilter.remove(transaction.getId());
+        transactionAggregateService.removeTransaction(transaction.getUserDocumentHash(), transaction.getValue(), transaction.getCreatedAt());
+        transactionChangeService.recordChange(transaction.getId(), ChangeType.DELETED);
+    }
+
+    private Transaction createOrUpdateEntityFromDTO(Transaction transaction, TransactionRequestDTO transactionUpdateDTO) {
+        var userDocument = transactionUpdateDTO.userDocument().trim();
+        transaction.setUserDocumentHash(keyedHasher.hash(userDocument));
+        if (transaction.getId() == null) {
+            transaction.setTenantId(tenantResolver.currentTenant());
+            shardTemplate.bindToKey(transaction.getUserDocumentHash());
+        }
+        transaction.setUserDocument(tenantEncryptors.forTenant(transaction.getTenantId()).encrypt(userDocument));
+        transaction.setUserDocumentSuffix(MaskUtils.visibleSuffix(userDocument));
+        var creditCardToken = transactionUpdateDTO.creditCardToken().trim();
+        transaction.setCardToken(cardTokenVaultService.store(transaction.getTenantId(), creditCardToken));
+        transaction.setCreditCardTokenLastFour(MaskUtils.visibleSuffix(creditCardToken));
+        transaction.setValue(transactionUpdateDTO.value());
+        return transaction;
+    }
+}
@@ -0,0 +1,541 @@
+package com.jvnyor.cryptographychallenge.storage;
+
+import com.jvnyor.cryptographychallenge.dtos.TransactionFilterDTO;
+import com.jvnyor.cryptographychallenge.entities.CardToken;
+import com.jvnyor.cryptographychallenge.entities.Transaction;
+import com.jvnyor.cryptographychallenge.repositories.TransactionStore;
+import com.jvnyor.cryptographychallenge.repositories.projections.MaskedTransactionView;
+import com.jvnyor.cryptographychallenge.repositories.projections.ValueBounds;
+import com.jvnyor.cryptographychallenge.tenant.TenantResolver;
+import com.jvnyor.cryptographychallenge.util.SortUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+import java.util.zip.CRC32;
+
+/**
+ * Embedded, append-only transaction store for deployments without a database for transactions.
+ * <p>
+ * Every save or delete appends a record framed by its length and CRC-32 to a single log file, and an in-memory
+ * {@link LongLongHashMap} maps each live id to the offset of its latest record. On startup the log is replayed to
+ * rebuild the index, and a torn or corrupted tail left by a crash is truncated. Superseded records are dropped by
+ * {@link #compactIfNeeded()}, which rewrites the live records to a new file and swaps it in atomically.
+ * <p>
+ * Reads run concurrently under a read lock, while appends and compaction take the write lock. The store does not
+ * take part in Spring transactions: an append is visible and, with {@code fsync}, durable as soon as it returns.
+ */
+public class LogStructuredTransactionStore implements TransactionStore, Closeable {
+
+    private static final byte PUT = 1;
+
+    private static final byte DELETE = 2;
+
+    private static final int FRAME_HEADER_SIZE = Integer.BYTES * 2;
+
+    private static final int MAX_RECORD_SIZE = 64 * 1024;
+
+    private static final String ID_PROPERTY = "id";
+
+    private final Logger log = LoggerFactory.getLogger(LogStructuredTransactionStore.class);
+
+    private final Path path;
+
+    private final boolean fsync;
+
+    private final double compactionGarbageRatio;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Set<Long>> idsByUserDocumentHash = new HashMap<>();
+
+    private FileChannel channel;
+
+    private LongLongHashMap offsets;
+
+    private long fileSize;
+
+    private long liveBytes;
+
+    private long lastId;
+
+    public LogStructuredTransactionStore(Path path, boolean fsync, double compactionGarbageRatio) {
+        this.path = path;
+        this.fsync = fsync;
+        this.compactionGarbageRatio = compactionGarbageRatio;
+        try {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            replay();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open transaction log " + path, e);
+        }
+    }
+
+    @Override
+    public <S extends Transaction> S save(S transaction) {
+        lock.writeLock().lock();
+        try {
+            if (transaction.getId() == null) {
+                transaction.setId(++lastId);
+            }
+            if (transaction.getCreatedAt() == null) {
+                transaction.setCreatedAt(Instant.now());
+            }
+            var previous = read(transaction.getId());
+            var frame = frame(encodePut(transaction));
+            var offset = append(frame);
+            previous.ifPresent(this::forget);
+            offsets.put(transaction.getId(), offset);
+            idsByUserDocumentHash.computeIfAbsent(transaction.getUserDocumentHash(), hash -> new HashSet<>()).add(transaction.getId());
+            liveBytes += frame.length;
+            lastId = Math.max(lastId, transaction.getId());
+            return transaction;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Transaction> findById(Long id) {
+        lock.readLock().lock();
+        try {
+            return read(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Transaction> findAllById(Iterable<Long> ids) {
+        lock.readLock().lock();
+        try {
+            return StreamSupport.stream(ids.spliterator(), false)
+                    .map(this::read)
+                    .flatMap(Optional::stream)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Pages in id order straight from the index. Any other order reads and sorts every live transaction.
+     */
+    @Override
+    public Page<Transaction> findAll(Pageable pageable) {
+        lock.readLock().lock();
+        try {
+            var ids = offsets.sortedKeys();
+            var sort = pageable.getSort();
+            var idOrder = sort.getOrderFor(ID_PROPERTY);
+            List<Transaction> content;
+            if (sort.isUnsorted() || (idOrder != null && sort.stream().count() == 1)) {
+                var descending = idOrder != null && idOrder.isDescending();
+                content = slice(pageable, ids.length).mapToObj(index -> ids[(int) (descending ? ids.length - 1 - index : index)])
+                        .map(this::read)
+                        .flatMap(Optional::stream)
+                        .toList();
+            } else {
+                var all = LongStream.of(ids).mapToObj(this::read).flatMap(Optional::stream)
+                        .sorted(SortUtils.<Transaction>comparatorFor(sort.and(Sort.by(ID_PROPERTY))))
+                        .toList();
+                content = slice(pageable, all.size()).mapToObj(index -> all.get((int) index)).toList();
+            }
+            return new PageImpl<>(content, pageable, ids.length);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The log has no secondary index, so this reads every live transaction to apply the filter.
+     */
+    @Override
+    public Page<Transaction> findAllMatching(TransactionFilterDTO filter, Pageable pageable) {
+        lock.readLock().lock();
+        try {
+            var matching = LongStream.of(offsets.sortedKeys()).mapToObj(this::read).flatMap(Optional::stream)
+                    .filter(filter::matches)
+                    .sorted(SortUtils.<Transaction>comparatorFor(pageable.getSort().and(Sort.by(ID_PROPERTY))))
+                    .toList();
+            var content = slice(pageable, matching.size()).mapToObj(index -> matching.get((int) index)).toList();
+            return new PageImpl<>(content, pageable, matching.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        lock.readLock().lock();
+        try {
+            return offsets.containsKey(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int deleteByID(long id) {
+        lock.writeLock().lock();
+        try {
+            var previous = read(id);
+            if (previous.isEmpty()) {
+                return 0;
+            }
+            append(frame(encodeDelete(id)));
+            forget(previous.get());
+            offsets.remove(id);
+            return 1;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Page<MaskedTransactionView> findAllMaskedBy(Pageable pageable) {
+        return findAll(pageable).map(MaskedTransaction::new);
+    }
+
+    @Override
+    public ValueBounds findValueBounds(String userDocumentHash) {
+        lock.readLock().lock();
+        try {
+            var values = idsByUserDocumentHash.getOrDefault(userDocumentHash, Set.of()).stream()
+                    .map(this::read)
+                    .flatMap(Optional::stream)
+                    .mapToDouble(Transaction::getValue)
+                    .summaryStatistics();
+            return values.getCount() == 0
+                    ? new ValueBounds(null, null)
+                    : new ValueBounds(values.getMin(), values.getMax());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Long> findIdsAfter(long id, Limit limit) {
+        lock.readLock().lock();
+        try {
+            var ids = offsets.sortedKeys();
+            var position = Arrays.binarySearch(ids, id);
+            var from = position >= 0 ? position + 1 : -position - 1;
+            var to = limit.isUnlimited() ? ids.length : (int) Math.min(ids.length, (long) from + limit.max());
+            return Arrays.stream(ids, from, to).boxed().toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rewrites the log without superseded records once they make up more than the configured share of the file.
+     */
+    public void compactIfNeeded() {
+        lock.writeLock().lock();
+        try {
+            var garbageBytes = fileSize - liveBytes;
+            if (garbageBytes > 0 && garbageBytes >= fileSize * compactionGarbageRatio) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long getFileSize() {
+        lock.readLock().lock();
+        try {
+            return fileSize;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            channel.force(true);
+            channel.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void compact() {
+        long start = System.nanoTime();
+        var compactingPath = path.resolveSibling(path.getFileName() + ".compacting");
+        var compactedOffsets = new LongLongHashMap(offsets.size());
+        long position = 0;
+        try (var compacted = FileChannel.open(compactingPath, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (long id : offsets.sortedKeys()) {
+                var frame = readFrame(offsets.get(id, -1));
+                compacted.write(ByteBuffer.wrap(frame), position);
+                compactedOffsets.put(id, position);
+                position += frame.length;
+            }
+            if (!offsets.containsKey(lastId) && lastId > 0) {
+                var tombstone = frame(encodeDelete(lastId));
+                compacted.write(ByteBuffer.wrap(tombstone), position);
+                position += tombstone.length;
+            }
+            compacted.force(true);
+            channel.close();
+            Files.move(compactingPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to compact transaction log " + path, e);
+        }
+        log.info("Compacted transaction log from {} to {} bytes in {} ms", fileSize, position, (System.nanoTime() - start) / 1_000_000);
+        offsets = compactedOffsets;
+        fileSize = position;
+        liveBytes = position;
+    }
+
+    private void replay() throws IOException {
+        offsets = new LongLongHashMap(1024);
+        long start = System.nanoTime();
+        long position = 0;
+        var size = channel.size();
+        var input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel.position(0)), 1 << 16));
+        while (position < size) {
+            var payload = readFramePayload(input, size - position);
+            if (payload == null) {
+                log.warn("Truncating transaction log {} at {} of {} bytes after a torn or corrupted record", path, position, size);
+                channel.truncate(position);
+                break;
+            }
+            apply(payload, position, FRAME_HEADER_SIZE + payload.length);
+            position += FRAME_HEADER_SIZE + payload.length;
+        }
+        fileSize = position;
+        log.info("Replayed {} transactions from {} in {} ms", offsets.size(), path, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void apply(byte[] payload, long offset, int frameLength) throws IOException {
+        var input = new DataInputStream(new ByteArrayInputStream(payload));
+        var type = input.readByte();
+        var id = input.readLong();
+        lastId = Math.max(lastId, id);
+        var previousOffset = offsets.get(id, -1);
+        if (previousOffset >= 0) {
+            var previous = decodePut(readFrame(previousOffset), FRAME_HEADER_SIZE);
+            forget(previous);
+        }
+        if (type == PUT) {
+            var transaction = decodePut(payload, 0);
+            offsets.put(id, offset);
+            idsByUserDocumentHash.computeIfAbsent(transaction.getUserDocumentHash(), hash -> new HashSet<>()).add(id);
+            liveBytes += frameLength;
+        } else {
+            offsets.remove(id);
+        }
+    }
+
+    private byte[] readFramePayload(DataInputStream input, long remaining) throws IOException {
+        try {
+            if (remaining < FRAME_HEADER_SIZE) {
+                return null;
+            }
+            var length = input.readInt();
+            var checksum = input.readInt();
+            if (length <= 0 || length > MAX_RECORD_SIZE || length > remaining - FRAME_HEADER_SIZE) {
+                return null;
+            }
+            var payload = new byte[length];
+            input.readFully(payload);
+            return checksum(payload, 0, length) == checksum ? payload : null;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private void forget(Transaction transaction) {
+        liveBytes -= readFrame(offsets.get(transaction.getId(), -1)).length;
+        var ids = idsByUserDocumentHash.get(transaction.getUserDocumentHash());
+        if (ids != null) {
+            ids.remove(transaction.getId());
+            if (ids.isEmpty()) {
+                idsByUserDocumentHash.remove(transaction.getUserDocumentHash());
+            }
+        }
+    }
+
+    private long append(byte[] frame) {
+        try {
+            var offset = fileSize;
+            var buffer = ByteBuffer.wrap(frame);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, offset + buffer.position());
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+            fileSize += frame.length;
+            return offset;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to transaction log " + path, e);
+        }
+    }
+
+    private Optional<Transaction> read(long id) {
+        var offset = offsets.get(id, -1);
+        if (offset < 0) {
+            return Optional.empty();
+        }
+        return Optional.of(decodePut(readFrame(offset), FRAME_HEADER_SIZE));
+    }
+
+    private byte[] readFrame(long offset) {
+        try {
+            var header = ByteBuffer.allocate(FRAME_HEADER_SIZE);
+            readFully(header, offset);
+            var length = header.getInt(0);
+            var frame = ByteBuffer.allocate(FRAME_HEADER_SIZE + length).put(header.flip());
+            readFully(frame, offset + FRAME_HEADER_SIZE);
+            if (checksum(frame.array(), FRAME_HEADER_SIZE, length) != header.getInt(Integer.BYTES)) {
+                throw new IllegalStateException("Checksum mismatch in transaction log " + path + " at offset " + offset);
+            }
+            return frame.array();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read transaction log " + path, e);
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long offset) throws IOException {
+        var start = buffer.position();
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position() - start) < 0) {
+                throw new EOFException("Unexpected end of transaction log " + path);
+            }
+        }
+    }
+
+    private static byte[] frame(byte[] payload) {
+        return ByteBuffer.allocate(FRAME_HEADER_SIZE + payload.length)
+                .putInt(payload.length)
+                .putInt(checksum(payload, 0, payload.length))
+                .put(payload)
+                .array();
+    }
+
+    private static int checksum(byte[] bytes, int offset, int length) {
+        var crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+
+    private static byte[] encodePut(Transaction transaction) {
+        var bytes = new ByteArrayOutputStream(256);
+        try (var output = new DataOutputStream(bytes)) {
+            output.writeByte(PUT);
+            output.writeLong(transaction.getId());
+            output.writeDouble(transaction.getValue());
+            output.writeLong(transaction.getCreatedAt().getEpochSecond());
+            output.writeInt(transaction.getCreatedAt().getNano());
+            output.writeLong(transaction.getCardToken().getId());
+            output.writeUTF(transaction.getUserDocumentHash());
+            output.writeUTF(transaction.getUserDocumentSuffix());
+            output.writeUTF(transaction.getCreditCardTokenLastFour());
+            var userDocument = Base64.getDecoder().decode(transaction.getUserDocument());
+            output.writeShort(userDocument.length);
+            output.write(userDocument);
+            output.writeUTF(transaction.getTenantId());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] encodeDelete(long id) {
+        return ByteBuffer.allocate(Byte.BYTES + Long.BYTES).put(DELETE).putLong(id).array();
+    }
+
+    private static Transaction decodePut(byte[] bytes, int offset) {
+        try (var input = new DataInputStream(new ByteArrayInputStream(bytes, offset, bytes.length - offset))) {
+            input.readByte();
+            var id = input.readLong();
+            var value = input.readDouble();
+            var createdAt = Instant.ofEpochSecond(input.readLong(), input.readInt());
+            var cardTokenId = input.readLong();
+            var transaction = new Transaction(id, null, new CardToken(cardTokenId, null, null, null), value);
+            transaction.setCreatedAt(createdAt);
+            transaction.setUserDocumentHash(input.readUTF());
+            transaction.setUserDocumentSuffix(input.readUTF());
+            transaction.setCreditCardTokenLastFour(input.readUTF());
+            var userDocument = new byte[input.readUnsignedShort()];
+            input.readFully(userDocument);
+            transaction.setUserDocument(Base64.getEncoder().encodeToString(userDocument));
+            // Records written before tenancy end here and belong to the default tenant
+            transaction.setTenantId(input.available() > 0 ? input.readUTF() : TenantResolver.DEFAULT_TENANT);
+            return transaction;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static LongStream slice(Pageable pageable, long total) {
+        if (pageable.isUnpaged()) {
+            return LongStream.range(0, total);
+        }
+        return LongStream.range(Math.min(pageable.getOffset(), total), Math.min(pageable.getOffset() + pageable.getPageSize(), total));
+    }
+
+    private record MaskedTransaction(Transaction transaction) implements MaskedTransactionView {
+
+        @Override
+        public Long getId() {
+            return transaction.getId();
+        }
+
+        @Override
+        public String getUserDocumentSuffix() {
+            return transaction.getUserDocumentSuffix();
+        }
+
+        @Override
+        public String getCreditCardTokenLastFour() {
+            return transaction.getCreditCardTokenLastFour();
+        }
+
+        @Override
+        public double getValue() {
+            return transaction.getValue();
+        }
+    }
+}
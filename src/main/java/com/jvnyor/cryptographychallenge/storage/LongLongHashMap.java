@@ -0,0 +1,142 @@
+package com.jvnyor.cryptographychallenge.storage;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from positive {@code long} keys to {@code long} values, without boxing. Uses linear
+ * probing and backward-shift deletion, so lookups never wade through tombstones. Not thread-safe.
+ */
+public class LongLongHashMap {
+
+    private static final long EMPTY = 0;
+
+    private static final double MAX_LOAD_FACTOR = 0.6;
+
+    private long[] keys;
+
+    private long[] values;
+
+    private int size;
+
+    public LongLongHashMap(int expectedSize) {
+        var capacity = Integer.highestOneBit((int) Math.max(16, expectedSize / MAX_LOAD_FACTOR) - 1) << 1;
+        this.keys = new long[capacity];
+        this.values = new long[capacity];
+    }
+
+    public long get(long key, long missingValue) {
+        for (int slot = slot(key, keys.length); ; slot = next(slot)) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            if (keys[slot] == EMPTY) {
+                return missingValue;
+            }
+        }
+    }
+
+    public boolean containsKey(long key) {
+        for (int slot = slot(key, keys.length); ; slot = next(slot)) {
+            if (keys[slot] == key) {
+                return true;
+            }
+            if (keys[slot] == EMPTY) {
+                return false;
+            }
+        }
+    }
+
+    public void put(long key, long value) {
+        if (key <= EMPTY) {
+            throw new IllegalArgumentException("Keys must be positive: " + key);
+        }
+        if (size + 1 > keys.length * MAX_LOAD_FACTOR) {
+            resize(keys.length << 1);
+        }
+        for (int slot = slot(key, keys.length); ; slot = next(slot)) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            if (keys[slot] == EMPTY) {
+                keys[slot] = key;
+                values[slot] = value;
+                size++;
+                return;
+            }
+        }
+    }
+
+    public boolean remove(long key) {
+        for (int slot = slot(key, keys.length); ; slot = next(slot)) {
+            if (keys[slot] == EMPTY) {
+                return false;
+            }
+            if (keys[slot] == key) {
+                shiftBack(slot);
+                size--;
+                return true;
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the keys in ascending order.
+     */
+    public long[] sortedKeys() {
+        var sorted = new long[size];
+        int count = 0;
+        for (long key : keys) {
+            if (key != EMPTY) {
+                sorted[count++] = key;
+            }
+        }
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    private void shiftBack(int freed) {
+        for (int slot = next(freed); keys[slot] != EMPTY; slot = next(slot)) {
+            var home = slot(keys[slot], keys.length);
+            var between = freed <= slot ? freed < home && home <= slot : freed < home || home <= slot;
+            if (!between) {
+                keys[freed] = keys[slot];
+                values[freed] = values[slot];
+                freed = slot;
+            }
+        }
+        keys[freed] = EMPTY;
+        values[freed] = 0;
+    }
+
+    private void resize(int capacity) {
+        var oldKeys = keys;
+        var oldValues = values;
+        keys = new long[capacity];
+        values = new long[capacity];
+        for (int index = 0; index < oldKeys.length; index++) {
+            if (oldKeys[index] != EMPTY) {
+                for (int slot = slot(oldKeys[index], capacity); ; slot = next(slot)) {
+                    if (keys[slot] == EMPTY) {
+                        keys[slot] = oldKeys[index];
+                        values[slot] = oldValues[index];
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    private int next(int slot) {
+        return (slot + 1) & (keys.length - 1);
+    }
+
+    private static int slot(long key, int capacity) {
+        var hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & (capacity - 1);
+    }
+}
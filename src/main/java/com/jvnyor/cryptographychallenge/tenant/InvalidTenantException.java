@@ -0,0 +1,8 @@
+package com.jvnyor.cryptographychallenge.tenant;
+
+public class InvalidTenantException extends RuntimeException {
+
+    public InvalidTenantException(String header) {
+        super("Header " + header + " must be 1 to " + TenantResolver.MAX_TENANT_ID_LENGTH + " letters, digits, '-' or '_'", null, false, false);
+    }
+}
@@ -0,0 +1,28 @@
+package com.jvnyor.cryptographychallenge.tenant;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Multi-tenancy settings. Tenants are named by the {@code header} of each write; requests without it belong to the
+ * {@value TenantResolver#DEFAULT_TENANT} tenant. Only the default tenant and those listed in {@code tenants} are
+ * accepted, so the header cannot make a node derive keys for made-up tenants. Changing {@code keyDerivationIterations} changes every derived
+ * key, so it cannot change once tenants other than the default one have written data.
+ */
+@ConfigurationProperties("app.tenancy")
+public record TenancyProperties(
+        @DefaultValue("X-Tenant-Id") String header,
+        @DefaultValue("210000") int keyDerivationIterations,
+        @DefaultValue KeyCache keyCache,
+        @DefaultValue Set<String> tenants
+) {
+
+    public record KeyCache(
+            @DefaultValue("10000") long maximumSize,
+            @DefaultValue("1h") Duration expireAfterAccess
+    ) {
+    }
+}
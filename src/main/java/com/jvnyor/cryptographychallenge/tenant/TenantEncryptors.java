@@ -0,0 +1,79 @@
+package com.jvnyor.cryptographychallenge.tenant;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.jasypt.util.text.AES256TextEncryptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Hands out the encryptor of each tenant. The {@value TenantResolver#DEFAULT_TENANT} tenant uses the master
+ * encryptor; every other tenant gets its own key, derived from the master password and the tenant id with
+ * PBKDF2, so keys never need to be stored and every node derives the same ones.
+ * <p>
+ * Derivation is deliberately slow, so derived encryptors are kept, already initialized, in a bounded cache that
+ * expires tenants idle for longer than {@code expireAfterAccess}. Its admission policy weighs how often a tenant was
+ * requested, so a burst of cold tenants does not push out the hot ones, and concurrent misses on one tenant derive
+ * its key once.
+ */
+public class TenantEncryptors {
+
+    private static final String KEY_DERIVATION_ALGORITHM = "PBKDF2WithHmacSHA256";
+
+    private static final String SALT_PREFIX = "cryptography-challenge/tenant/";
+
+    private static final int KEY_LENGTH_BITS = 256;
+
+    private final Logger log = LoggerFactory.getLogger(TenantEncryptors.class);
+
+    private final AES256TextEncryptor masterEncryptor;
+
+    private final char[] masterPassword;
+
+    private final int keyDerivationIterations;
+
+    private final LoadingCache<String, AES256TextEncryptor> encryptors;
+
+    public TenantEncryptors(AES256TextEncryptor masterEncryptor, String masterPassword, int keyDerivationIterations, long maximumSize, Duration expireAfterAccess) {
+        this.masterEncryptor = masterEncryptor;
+        this.masterPassword = masterPassword.toCharArray();
+        this.keyDerivationIterations = keyDerivationIterations;
+        this.encryptors = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(expireAfterAccess)
+                .recordStats()
+                .build(this::derive);
+    }
+
+    public AES256TextEncryptor forTenant(String tenantId) {
+        return TenantResolver.DEFAULT_TENANT.equals(tenantId) ? masterEncryptor : encryptors.get(tenantId);
+    }
+
+    public TenantKeyStatistics getStatistics() {
+        return TenantKeyStatistics.of(encryptors);
+    }
+
+    private AES256TextEncryptor derive(String tenantId) {
+        log.debug("Deriving key of tenant {}", tenantId);
+        var keySpec = new PBEKeySpec(masterPassword, (SALT_PREFIX + tenantId).getBytes(StandardCharsets.UTF_8), keyDerivationIterations, KEY_LENGTH_BITS);
+        try {
+            var key = SecretKeyFactory.getInstance(KEY_DERIVATION_ALGORITHM).generateSecret(keySpec).getEncoded();
+            var encryptor = new AES256TextEncryptor();
+            encryptor.setPassword(Base64.getEncoder().encodeToString(key));
+            // Jasypt initializes its cipher on first use, which should happen here rather than on a request
+            encryptor.encrypt(tenantId);
+            return encryptor;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to derive the key of tenant " + tenantId, e);
+        } finally {
+            keySpec.clearPassword();
+        }
+    }
+}
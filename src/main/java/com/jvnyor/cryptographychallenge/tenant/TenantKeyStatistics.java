@@ -0,0 +1,19 @@
+package com.jvnyor.cryptographychallenge.tenant;
+
+import com.github.benmanes.caffeine.cache.Cache;
+
+public record TenantKeyStatistics(
+        long size,
+        long hitCount,
+        long missCount,
+        double hitRate,
+        long evictionCount,
+        double averageDerivationMillis
+) {
+
+    static TenantKeyStatistics of(Cache<?, ?> cache) {
+        var stats = cache.stats();
+        return new TenantKeyStatistics(cache.estimatedSize(), stats.hitCount(), stats.missCount(), stats.hitRate(), stats.evictionCount(),
+                stats.averageLoadPenalty() / 1_000_000.0);
+    }
+}
@@ -0,0 +1,51 @@
+package com.jvnyor.cryptographychallenge.tenant;
+
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Names the tenant of the current HTTP request from its tenant header. Requests without the header, and work done
+ * outside of a request, belong to the {@value #DEFAULT_TENANT} tenant, whose data is encrypted with the master key.
+ * Any other tenant must be registered; an unknown one is rejected here, before its key would be derived.
+ */
+public class TenantResolver {
+
+    public static final String DEFAULT_TENANT = "default";
+
+    public static final int MAX_TENANT_ID_LENGTH = 64;
+
+    private static final Pattern TENANT_ID = Pattern.compile("[A-Za-z0-9_-]{1," + MAX_TENANT_ID_LENGTH + "}");
+
+    private final String header;
+
+    private final Set<String> tenants;
+
+    public TenantResolver(String header, Set<String> tenants) {
+        this.header = header;
+        this.tenants = Set.copyOf(tenants);
+    }
+
+    /**
+     * @throws InvalidTenantException if the header is present but is not a valid tenant id
+     * @throws UnknownTenantException if the header names a tenant that is not registered
+     */
+    public String currentTenant() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            var tenantId = attributes.getRequest().getHeader(header);
+            if (StringUtils.hasText(tenantId)) {
+                if (!TENANT_ID.matcher(tenantId).matches()) {
+                    throw new InvalidTenantException(header);
+                }
+                if (!DEFAULT_TENANT.equals(tenantId) && !tenants.contains(tenantId)) {
+                    throw new UnknownTenantException(tenantId);
+                }
+                return tenantId;
+            }
+        }
+        return DEFAULT_TENANT;
+    }
+}
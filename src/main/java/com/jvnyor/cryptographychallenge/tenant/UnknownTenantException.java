@@ -0,0 +1,8 @@
+package com.jvnyor.cryptographychallenge.tenant;
+
+public class UnknownTenantException extends RuntimeException {
+
+    public UnknownTenantException(String tenantId) {
+        super("Tenant " + tenantId + " is not registered", null, false, false);
+    }
+}
@@ -7,4 +7,5 @@ public class CacheConstants {
 
     public static final String GET_TRANSACTION = "CacheGetTransaction";
     public static final String GET_TRANSACTIONS = "CacheGetTransactions";
+    public static final String CARD_TOKEN = "CacheCardToken";
 }
@@ -0,0 +1,37 @@
+package com.jvnyor.cryptographychallenge.util;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.HexFormat;
+
+/**
+ * Deterministic HMAC-SHA256 of sensitive values, used to group and look up encrypted columns
+ * without decrypting them. {@link Mac} is not thread-safe, so each thread keeps its own instance.
+ */
+public class KeyedHasher {
+
+    public static final int HASH_LENGTH = 64;
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final ThreadLocal<Mac> mac;
+
+    public KeyedHasher(String key) {
+        var secretKey = new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                var instance = Mac.getInstance(ALGORITHM);
+                instance.init(secretKey);
+                return instance;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Unable to initialize " + ALGORITHM, e);
+            }
+        });
+    }
+
+    public String hash(String value) {
+        return HexFormat.of().formatHex(mac.get().doFinal(value.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,23 @@
+package com.jvnyor.cryptographychallenge.util;
+
+public class MaskUtils {
+
+    private MaskUtils() {
+    }
+
+    public static final int VISIBLE_CHARACTERS = 4;
+
+    private static final String MASK = "****";
+
+    /**
+     * Returns the trailing characters that may be shown in masked views, never more than half of the value.
+     */
+    public static String visibleSuffix(String value) {
+        int visible = Math.min(VISIBLE_CHARACTERS, value.length() / 2);
+        return value.substring(value.length() - visible);
+    }
+
+    public static String mask(String visibleSuffix) {
+        return MASK + (visibleSuffix == null ? "" : visibleSuffix);
+    }
+}
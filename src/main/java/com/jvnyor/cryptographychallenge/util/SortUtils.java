@@ -0,0 +1,27 @@
+package com.jvnyor.cryptographychallenge.util;
+
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Sort;
+
+import java.util.Comparator;
+
+public class SortUtils {
+
+    private SortUtils() {
+    }
+
+    /**
+     * Returns a comparator ordering beans by the properties of the sort, with nulls first as the database does.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Comparator<T> comparatorFor(Sort sort) {
+        Comparator<T> comparator = (left, right) -> 0;
+        for (Sort.Order order : sort) {
+            Comparator<T> byProperty = Comparator.comparing(
+                    item -> (Comparable<Object>) new BeanWrapperImpl(item).getPropertyValue(order.getProperty()),
+                    Comparator.nullsFirst(Comparator.naturalOrder()));
+            comparator = comparator.thenComparing(order.isAscending() ? byProperty : byProperty.reversed());
+        }
+        return comparator;
+    }
+}
@@ -0,0 +1,160 @@
+package com.jvnyor.cryptographychallenge.warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jvnyor.cryptographychallenge.datasource.ShardTemplate;
+import com.jvnyor.cryptographychallenge.dtos.MaskedTransactionResponseDTO;
+import com.jvnyor.cryptographychallenge.dtos.TransactionBatchResponseDTO;
+import com.jvnyor.cryptographychallenge.dtos.TransactionRequestDTO;
+import com.jvnyor.cryptographychallenge.dtos.TransactionResponseDTO;
+import com.jvnyor.cryptographychallenge.dtos.UserAggregateRequestDTO;
+import com.jvnyor.cryptographychallenge.entities.Transaction;
+import com.jvnyor.cryptographychallenge.repositories.TransactionStore;
+import com.jvnyor.cryptographychallenge.services.TransactionAggregateService;
+import com.jvnyor.cryptographychallenge.services.TransactionService;
+import com.jvnyor.cryptographychallenge.util.KeyedHasher;
+import org.jasypt.util.text.AES256TextEncryptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PagedModel;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Runs the hot paths of the application with synthetic input before it reports ready, so class loading, JIT
+ * compilation, Hibernate query plans and Jackson serializers are in place before the first real request.
+ * Application runners complete before Spring Boot publishes {@code ReadinessState.ACCEPTING_TRAFFIC}.
+ * <p>
+ * Optionally loads the most recent transactions into the per-id cache as well. A failing phase is logged and
+ * skipped, warm-up never blocks startup.
+ */
+@Component
+@ConditionalOnProperty(name = "app.warm-up.enabled", havingValue = "true")
+public class WarmUpRunner implements ApplicationRunner {
+
+    private static final String SYNTHETIC_DOCUMENT = "00000000000";
+
+    private static final String SYNTHETIC_CARD = "0000000000000000";
+
+    private static final int SYNTHETIC_PAGE_SIZE = 20;
+
+    private final Logger log = LoggerFactory.getLogger(WarmUpRunner.class);
+
+    @Value("${app.warm-up.iterations}")
+    private int iterations;
+
+    @Value("${app.warm-up.prepopulate-cache}")
+    private int prepopulateCache;
+
+    private final AES256TextEncryptor textEncryptor;
+
+    private final KeyedHasher keyedHasher;
+
+    private final TransactionStore transactionStore;
+
+    private final TransactionService transactionService;
+
+    private final TransactionAggregateService transactionAggregateService;
+
+    private final ShardTemplate shardTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    public WarmUpRunner(AES256TextEncryptor textEncryptor, KeyedHasher keyedHasher, TransactionStore transactionStore, TransactionService transactionService, TransactionAggregateService transactionAggregateService, ShardTemplate shardTemplate, ObjectMapper objectMapper) {
+        this.textEncryptor = textEncryptor;
+        this.keyedHasher = keyedHasher;
+        this.transactionStore = transactionStore;
+        this.transactionService = transactionService;
+        this.transactionAggregateService = transactionAggregateService;
+        this.shardTemplate = shardTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        log.info("Warming up with {} iterations", iterations);
+        long start = System.nanoTime();
+        var crypto = timed("crypto", this::warmUpCrypto);
+        var repositories = timed("repositories", this::warmUpRepositories);
+        var serialization = timed("serialization", this::warmUpSerialization);
+        var cache = prepopulateCache > 0 ? timed("cache", this::prepopulateCache) : Duration.ZERO;
+        log.info("Warm-up finished in {} ms (crypto {} ms, repositories {} ms, serialization {} ms, cache {} ms)",
+                Duration.ofNanos(System.nanoTime() - start).toMillis(),
+                crypto.toMillis(), repositories.toMillis(), serialization.toMillis(), cache.toMillis());
+    }
+
+    private void warmUpCrypto() {
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            textEncryptor.decrypt(textEncryptor.encrypt(SYNTHETIC_DOCUMENT));
+            keyedHasher.hash(SYNTHETIC_CARD);
+        }
+    }
+
+    private void warmUpRepositories() {
+        var unknownHash = keyedHasher.hash(SYNTHETIC_DOCUMENT);
+        var byValue = PageRequest.of(0, SYNTHETIC_PAGE_SIZE, Sort.by(Sort.Direction.DESC, "value"));
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            shardTemplate.forEachShard(true, () -> {
+                transactionStore.findById(0L);
+                transactionStore.findAllById(List.of(0L));
+                transactionStore.existsById(0L);
+                transactionStore.findAll(PageRequest.of(0, SYNTHETIC_PAGE_SIZE));
+                transactionStore.findAll(byValue);
+                transactionStore.findAllMaskedBy(byValue);
+                return transactionStore.findValueBounds(unknownHash);
+            });
+            transactionAggregateService.getUserAggregate(new UserAggregateRequestDTO(SYNTHETIC_DOCUMENT, null, null));
+        }
+    }
+
+    private void warmUpSerialization() {
+        var transactions = IntStream.range(0, SYNTHETIC_PAGE_SIZE)
+                .mapToObj(index -> new TransactionResponseDTO(index, SYNTHETIC_DOCUMENT, SYNTHETIC_CARD, index))
+                .toList();
+        var maskedTransactions = transactions.stream()
+                .map(transaction -> new MaskedTransactionResponseDTO(transaction.id(), transaction.userDocument(), transaction.creditCardToken(), transaction.value()))
+                .toList();
+        var request = new TransactionRequestDTO(SYNTHETIC_DOCUMENT, SYNTHETIC_CARD, 1);
+        try {
+            for (int iteration = 0; iteration < iterations; iteration++) {
+                objectMapper.writeValueAsBytes(transactions.get(0));
+                objectMapper.writeValueAsBytes(new PagedModel<>(new PageImpl<>(transactions)));
+                objectMapper.writeValueAsBytes(new PagedModel<>(new PageImpl<>(maskedTransactions)));
+                objectMapper.writeValueAsBytes(new TransactionBatchResponseDTO(transactions, List.of(0L)));
+                objectMapper.readValue(objectMapper.writeValueAsBytes(request), TransactionRequestDTO.class);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to serialize synthetic transactions", e);
+        }
+    }
+
+    private void prepopulateCache() {
+        var recent = PageRequest.of(0, prepopulateCache, Sort.by(Sort.Direction.DESC, "createdAt"));
+        var ids = shardTemplate.scatterGather(recent, transactionStore::findAll).stream()
+                .map(Transaction::getId)
+                .toList();
+        var cached = transactionService.getTransactionsByIds(ids).transactions().size();
+        log.info("Prepopulated transaction cache with {} recent transactions", cached);
+    }
+
+    private Duration timed(String phase, Runnable warmUp) {
+        long start = System.nanoTime();
+        try {
+            warmUp.run();
+        } catch (RuntimeException e) {
+            log.warn("Warm-up phase {} failed, skipping it", phase, e);
+        }
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,5 @@
+-- Adds the bounds of archived transactions to "user_summary".
+-- Run once before starting a version whose archiver keeps them; summaries of transactions archived earlier keep their current bounds.
+ALTER TABLE "user_summary"
+    ADD COLUMN "archived_min_value" float(53),
+    ADD COLUMN "archived_max_value" float(53);
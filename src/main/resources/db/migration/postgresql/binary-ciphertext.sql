@@ -0,0 +1,12 @@
+-- Converts the Base64 text ciphertext columns of "transaction" to bytea in place.
+-- Run once, while the application is stopped, before starting a version that maps the columns with CiphertextConverter.
+-- PostgreSQL only: the default H2 database is in memory and Hibernate creates it with binary columns on every start.
+BEGIN;
+
+ALTER TABLE "transaction"
+    ALTER COLUMN "user_document" TYPE bytea USING decode("user_document", 'base64'),
+    ALTER COLUMN "credit_card_token" TYPE bytea USING decode("credit_card_token", 'base64');
+
+COMMIT;
+
+VACUUM FULL ANALYZE "transaction";
@@ -0,0 +1,4 @@
+-- Adds the highest sequence removed by change log retention to "change_sequence".
+-- Run once on every shard before starting a version that prunes the change log.
+ALTER TABLE "change_sequence"
+    ADD COLUMN "pruned_through" bigint NOT NULL DEFAULT 0;
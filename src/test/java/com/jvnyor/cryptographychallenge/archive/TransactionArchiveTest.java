@@ -0,0 +1,86 @@
+package com.jvnyor.cryptographychallenge.archive;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionArchiveTest {
+
+    private static final int BLOCK_SIZE = 4;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void givenArchivedTransactions_whenFind_thenEveryTransactionIsFoundAcrossBlocks() {
+        var archive = new TransactionArchive(directory, BLOCK_SIZE);
+        var transactions = LongStream.rangeClosed(1, 10).map(id -> id * 3).mapToObj(TransactionArchiveTest::archivedTransaction).toList();
+
+        var unsorted = new ArrayList<>(transactions);
+        Collections.reverse(unsorted);
+        archive.append(unsorted);
+
+        assertAll("Every archived transaction is found and gaps are not",
+                () -> transactions.forEach(transaction -> assertEquals(Optional.of(transaction), archive.find(transaction.id()))),
+                () -> assertEquals(Optional.empty(), archive.find(4)),
+                () -> assertEquals(Optional.empty(), archive.find(1)),
+                () -> assertEquals(Optional.empty(), archive.find(31))
+        );
+    }
+
+    @Test
+    void givenSegmentsOnDisk_whenArchiveIsReopened_thenTransactionsOfAllSegmentsAreFound() {
+        var archive = new TransactionArchive(directory, BLOCK_SIZE);
+        archive.append(List.of(archivedTransaction(1), archivedTransaction(2)));
+        archive.append(List.of(archivedTransaction(7)));
+
+        var reopened = new TransactionArchive(directory, BLOCK_SIZE);
+
+        assertAll("Segments are loaded from the directory",
+                () -> assertEquals(2, reopened.getSegmentCount()),
+                () -> assertEquals(Optional.of(archivedTransaction(2)), reopened.find(2)),
+                () -> assertEquals(Optional.of(archivedTransaction(7)), reopened.find(7))
+        );
+    }
+
+    @Test
+    void givenCorruptedBlock_whenFind_thenChecksumMismatchIsReported() throws IOException {
+        var segment = ArchiveSegment.write(directory.resolve("corrupted.seg"), List.of(archivedTransaction(1)), BLOCK_SIZE);
+        try (var channel = FileChannel.open(segment.getPath(), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0}), Integer.BYTES * 2 + 1);
+        }
+
+        var reopened = ArchiveSegment.open(segment.getPath());
+
+        assertThrows(UncheckedIOException.class, () -> reopened.find(1));
+    }
+
+    private static ArchivedTransaction archivedTransaction(long id) {
+        return new ArchivedTransaction(
+                id,
+                "merchant-" + id,
+                Base64.getEncoder().encodeToString(("document-" + id).getBytes()),
+                "a".repeat(64),
+                "8901",
+                Base64.getEncoder().encodeToString(("token-" + id).getBytes()),
+                "3456",
+                id * 10.0,
+                Instant.parse("2020-01-01T00:00:00.123456Z").plusSeconds(id)
+        );
+    }
+}
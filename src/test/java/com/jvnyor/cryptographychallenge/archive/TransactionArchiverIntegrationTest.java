@@ -0,0 +1,78 @@
+package com.jvnyor.cryptographychallenge.archive;
+
+import com.jvnyor.cryptographychallenge.dtos.TransactionRequestDTO;
+import com.jvnyor.cryptographychallenge.dtos.UserAggregateRequestDTO;
+import com.jvnyor.cryptographychallenge.dtos.UserAggregateResponseDTO;
+import com.jvnyor.cryptographychallenge.services.TransactionAggregateService;
+import com.jvnyor.cryptographychallenge.services.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "app.archive.enabled=true",
+        "app.archive.age=0s",
+        "spring.datasource.url=jdbc:h2:mem:archiver"
+})
+@DirtiesContext
+class TransactionArchiverIntegrationTest {
+
+    private static final String USER_DOCUMENT = "archived-user";
+
+    @TempDir
+    private static Path directory;
+
+    @Autowired
+    private TransactionArchiver transactionArchiver;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionAggregateService transactionAggregateService;
+
+    @DynamicPropertySource
+    static void archiveDirectory(DynamicPropertyRegistry registry) {
+        registry.add("app.archive.directory", directory::toString);
+    }
+
+    @Test
+    void givenArchivedBoundValues_whenStoredBoundTransactionsAreDeleted_thenBoundsIncludeArchivedValues() {
+        createTransaction(5);
+        createTransaction(50);
+        transactionArchiver.archive();
+        var twenty = createTransaction(20);
+        var thirty = createTransaction(30);
+
+        transactionService.deleteTransaction(thirty);
+        var afterStoredMaxDeleted = getAggregate();
+        transactionService.deleteTransaction(twenty);
+        var afterStoredDeleted = getAggregate();
+
+        assertAll("Archived transactions keep bounding the summary",
+                () -> assertEquals(3, afterStoredMaxDeleted.transactionCount()),
+                () -> assertEquals(5, afterStoredMaxDeleted.minValue()),
+                () -> assertEquals(50, afterStoredMaxDeleted.maxValue()),
+                () -> assertEquals(2, afterStoredDeleted.transactionCount()),
+                () -> assertEquals(55, afterStoredDeleted.totalValue()),
+                () -> assertEquals(5, afterStoredDeleted.minValue()),
+                () -> assertEquals(50, afterStoredDeleted.maxValue())
+        );
+    }
+
+    private long createTransaction(double value) {
+        return transactionService.createTransaction(new TransactionRequestDTO(USER_DOCUMENT, "4111111111" + (int) value, value)).id();
+    }
+
+    private UserAggregateResponseDTO getAggregate() {
+        return transactionAggregateService.getUserAggregate(new UserAggregateRequestDTO(USER_DOCUMENT, null, null));
+    }
+}
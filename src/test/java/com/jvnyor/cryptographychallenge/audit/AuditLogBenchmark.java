@@ -0,0 +1,62 @@
+package com.jvnyor.cryptographychallenge.audit;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Records decryption events from one caller into an {@link AuditLog} writing to a temporary directory, then reports
+ * what recording costs the caller per event and how many events per second the writer gets to disk, from the first
+ * record until closing has drained the buffer.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark -Dtest=AuditLogBenchmark}; {@code -Dbenchmark.events} and
+ * {@code -Dbenchmark.rounds} size the run. The buffer holds every event of a round, so nothing is dropped, and the
+ * fastest round is kept.
+ */
+@Tag("benchmark")
+class AuditLogBenchmark {
+
+    private static final int EVENTS = Integer.getInteger("benchmark.events", 1_000_000);
+
+    private static final int ROUNDS = Integer.getInteger("benchmark.rounds", 5);
+
+    private static final AuditContext CONTEXT = new AuditContext("127.0.0.1", "GET /v1/transactions/1");
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void givenRunningWriter_whenRecordingEvents_thenEveryEventIsWrittenWithoutDrops() throws IOException {
+        var recordNanos = Double.MAX_VALUE;
+        var writtenPerSecond = 0.0;
+        for (var round = 0; round < ROUNDS; round++) {
+            var auditLog = new AuditLog(directory.resolve("round-" + round), Integer.highestOneBit(EVENTS) << 1, 512,
+                    64L * 1024 * 1024, Duration.ofMillis(1), OverflowPolicy.DROP_NEWEST, false);
+            auditLog.start();
+            var start = System.nanoTime();
+            for (long id = 1; id <= EVENTS; id++) {
+                auditLog.recordDecryption(id, "merchant-a", "userDocument,creditCardToken", CONTEXT);
+            }
+            var recorded = System.nanoTime();
+            auditLog.close();
+            var closed = System.nanoTime();
+
+            var statistics = auditLog.getStatistics();
+            assertAll("Every event of round " + round + " is written",
+                    () -> assertEquals(EVENTS, statistics.written()),
+                    () -> assertEquals(0, statistics.dropped())
+            );
+            recordNanos = Math.min(recordNanos, (recorded - start) / (double) EVENTS);
+            writtenPerSecond = Math.max(writtenPerSecond, EVENTS / ((closed - start) / 1e9));
+        }
+
+        System.out.printf("record %.2f us per event on the caller, writer %.0f events/s%n", recordNanos / 1000, writtenPerSecond);
+    }
+}
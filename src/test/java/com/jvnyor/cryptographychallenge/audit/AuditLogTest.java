@@ -0,0 +1,142 @@
+package com.jvnyor.cryptographychallenge.audit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditLogTest {
+
+    private static final String TENANT_ID = "merchant-a";
+
+    private static final AuditContext CONTEXT = new AuditContext("127.0.0.1", "GET /v1/transactions/\"1\"");
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void givenRecordedDecryptions_whenClosed_thenEveryEventIsWrittenAsJsonLinesAcrossRotatedFiles() throws IOException {
+        var auditLog = new AuditLog(directory, 1024, 16, 1024, Duration.ofMillis(1), OverflowPolicy.DROP_NEWEST, true);
+        auditLog.start();
+        for (long id = 1; id <= 100; id++) {
+            auditLog.recordDecryption(id, TENANT_ID, "userDocument,creditCardToken", CONTEXT);
+        }
+
+        auditLog.close();
+
+        var lines = readLines();
+        var statistics = auditLog.getStatistics();
+        assertAll(
+                () -> assertEquals(100, lines.size()),
+                () -> assertTrue(lines.get(0).contains("\"transactionId\":1,\"tenantId\":\"merchant-a\",\"fields\":\"userDocument,creditCardToken\",\"actor\":\"127.0.0.1\"")),
+                () -> assertTrue(lines.get(0).contains("\"request\":\"GET /v1/transactions/\\\"1\\\"\"")),
+                () -> assertTrue(statistics.files() > 1),
+                () -> assertEquals(statistics.files(), listFiles().size()),
+                () -> assertTrue(listFiles().stream().allMatch(file -> size(file) <= 1024)),
+                () -> assertEquals(100, statistics.written()),
+                () -> assertEquals(0, statistics.dropped())
+        );
+    }
+
+    @Test
+    void givenFullBufferWithoutWriter_whenRecord_thenOverflowPolicyDecidesWhichEventsAreDropped() throws IOException {
+        var dropNewest = new AuditLog(directory.resolve("newest"), 4, 16, 1024, Duration.ofMillis(1), OverflowPolicy.DROP_NEWEST, false);
+        var dropOldest = new AuditLog(directory.resolve("oldest"), 4, 16, 1024, Duration.ofMillis(1), OverflowPolicy.DROP_OLDEST, false);
+        for (var auditLog : List.of(dropNewest, dropOldest)) {
+            auditLog.start();
+        }
+
+        for (long id = 1; id <= 1_000; id++) {
+            dropNewest.recordDecryption(id, TENANT_ID, "userDocument", CONTEXT);
+            dropOldest.recordDecryption(id, TENANT_ID, "userDocument", CONTEXT);
+        }
+        dropNewest.close();
+        dropOldest.close();
+
+        for (var statistics : List.of(dropNewest.getStatistics(), dropOldest.getStatistics())) {
+            assertAll(
+                    () -> assertEquals(1_000, statistics.recorded()),
+                    () -> assertEquals(statistics.recorded(), statistics.written() + statistics.dropped())
+            );
+        }
+    }
+
+    @Test
+    void givenRecordersStillRunning_whenClosed_thenEveryRecordedEventIsWrittenOrCountedAsDropped() throws Exception {
+        var auditLog = new AuditLog(directory, 1 << 16, 64, Long.MAX_VALUE, Duration.ofMillis(1), OverflowPolicy.DROP_NEWEST, false);
+        auditLog.start();
+        var recorders = Executors.newFixedThreadPool(4);
+        var started = new CountDownLatch(4);
+        try {
+            for (var recorder = 0; recorder < 4; recorder++) {
+                recorders.submit(() -> {
+                    started.countDown();
+                    for (long id = 1; id <= 20_000; id++) {
+                        auditLog.recordDecryption(id, TENANT_ID, "userDocument", CONTEXT);
+                    }
+                });
+            }
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+
+            auditLog.close();
+            var written = auditLog.getStatistics().written();
+            recorders.shutdown();
+            assertTrue(recorders.awaitTermination(10, TimeUnit.SECONDS));
+
+            var statistics = auditLog.getStatistics();
+            assertAll("Events recorded after close started are rejected, none are lost",
+                    () -> assertEquals(80_000, statistics.recorded()),
+                    () -> assertEquals(statistics.recorded(), statistics.written() + statistics.dropped()),
+                    () -> assertEquals(written, statistics.written()),
+                    () -> assertEquals(statistics.written(), readLines().size())
+            );
+        } finally {
+            recorders.shutdownNow();
+        }
+    }
+
+    @Test
+    void givenDisabledLog_whenRecord_thenNothingIsRecorded() throws IOException {
+        var auditLog = AuditLog.disabled();
+        auditLog.start();
+
+        auditLog.recordDecryption(1L, TENANT_ID, "userDocument", CONTEXT);
+        auditLog.close();
+
+        assertEquals(0, auditLog.getStatistics().recorded());
+    }
+
+    private List<String> readLines() throws IOException {
+        return listFiles().stream().sorted().flatMap(file -> {
+            try {
+                return Files.readAllLines(file).stream();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }).toList();
+    }
+
+    private List<Path> listFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.toList();
+        }
+    }
+
+    private static long size(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
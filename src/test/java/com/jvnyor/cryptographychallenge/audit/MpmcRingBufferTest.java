@@ -0,0 +1,83 @@
+package com.jvnyor.cryptographychallenge.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MpmcRingBufferTest {
+
+    @Test
+    void givenFullBuffer_whenOffer_thenElementIsRejectedUntilOneIsPolled() {
+        var buffer = new MpmcRingBuffer<Integer>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+
+        var offeredWhenFull = buffer.offer(4);
+        var polled = buffer.poll();
+        var offeredAfterPoll = buffer.offer(4);
+        var drained = new ArrayList<Integer>();
+        buffer.drainTo(drained, 10);
+
+        assertAll(
+                () -> assertFalse(offeredWhenFull),
+                () -> assertEquals(0, polled),
+                () -> assertTrue(offeredAfterPoll),
+                () -> assertEquals(java.util.List.of(1, 2, 3, 4), drained),
+                () -> assertNull(buffer.poll()),
+                () -> assertTrue(buffer.isEmpty())
+        );
+    }
+
+    @Test
+    void givenConcurrentProducersAndConsumers_whenAllElementsPass_thenEachIsConsumedExactlyOnce() throws InterruptedException {
+        var buffer = new MpmcRingBuffer<Integer>(64);
+        int producers = 4;
+        int perProducer = 20_000;
+        var consumed = ConcurrentHashMap.<Integer>newKeySet();
+        var duplicates = new AtomicInteger();
+        var remaining = new CountDownLatch(producers * perProducer);
+        var executor = Executors.newFixedThreadPool(producers + 2);
+        for (int producer = 0; producer < producers; producer++) {
+            var base = producer * perProducer;
+            executor.execute(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(base + i)) {
+                        Thread.yield();
+                    }
+                }
+            });
+        }
+        for (int consumer = 0; consumer < 2; consumer++) {
+            executor.execute(() -> {
+                while (remaining.getCount() > 0) {
+                    var element = buffer.poll();
+                    if (element == null) {
+                        Thread.yield();
+                    } else {
+                        if (!consumed.add(element)) {
+                            duplicates.incrementAndGet();
+                        }
+                        remaining.countDown();
+                    }
+                }
+            });
+        }
+
+        var completed = remaining.await(30, TimeUnit.SECONDS);
+        executor.shutdownNow();
+
+        assertAll(
+                () -> assertTrue(completed),
+                () -> assertEquals(producers * perProducer, consumed.size()),
+                () -> assertEquals(0, duplicates.get())
+        );
+    }
+}
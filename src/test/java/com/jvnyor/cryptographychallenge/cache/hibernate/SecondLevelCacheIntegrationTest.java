@@ -0,0 +1,86 @@
+package com.jvnyor.cryptographychallenge.cache.hibernate;
+
+import com.jvnyor.cryptographychallenge.dtos.TransactionRequestDTO;
+import com.jvnyor.cryptographychallenge.entities.Transaction;
+import com.jvnyor.cryptographychallenge.repositories.TransactionRepository;
+import com.jvnyor.cryptographychallenge.services.TransactionService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class SecondLevelCacheIntegrationTest {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private CaffeineRegionFactory caffeineRegionFactory;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void givenCachedTransaction_whenReadUpdatedAndDeleted_thenLookupsSkipSqlAndFollowWrites() {
+        var transaction = transactionService.createTransaction(new TransactionRequestDTO("l2-user", "4111111111111111", 10));
+        transactionRepository.findById(transaction.id());
+        statistics.clear();
+
+        var cached = transactionRepository.findById(transaction.id()).orElseThrow();
+        var exists = transactionRepository.existsById(transaction.id());
+        var statementsForCachedReads = statistics.getPrepareStatementCount();
+
+        transactionService.updateTransaction(transaction.id(), new TransactionRequestDTO("l2-user", "4111111111111111", 25));
+        statistics.clear();
+        var updated = transactionRepository.findById(transaction.id()).map(Transaction::getValue).orElseThrow();
+        var statementsAfterUpdate = statistics.getPrepareStatementCount();
+
+        transactionService.deleteTransaction(transaction.id());
+
+        assertAll("Entity lookups are served from the second-level cache",
+                () -> assertEquals(10, cached.getValue()),
+                () -> assertTrue(exists),
+                () -> assertEquals(0, statementsForCachedReads),
+                () -> assertEquals(25, updated),
+                () -> assertEquals(0, statementsAfterUpdate),
+                () -> assertTrue(transactionRepository.findById(transaction.id()).isEmpty()),
+                () -> assertTrue(caffeineRegionFactory.getStatistics().stream()
+                        .anyMatch(region -> region.regionName().endsWith(Transaction.class.getName()) && region.hitCount() > 0))
+        );
+    }
+
+    @Test
+    void givenCachedMaskedPage_whenTransactionIsCreated_thenQueryCacheIsInvalidated() {
+        transactionService.createTransaction(new TransactionRequestDTO("l2-masked", "4111111111111111", 10));
+        var pageable = PageRequest.of(0, 1000);
+        var first = transactionRepository.findAllMaskedBy(pageable).getTotalElements();
+        statistics.clear();
+
+        transactionRepository.findAllMaskedBy(pageable);
+        var queryCacheHits = statistics.getQueryCacheHitCount();
+        transactionService.createTransaction(new TransactionRequestDTO("l2-masked", "4111111111111111", 20));
+        var afterWrite = transactionRepository.findAllMaskedBy(pageable).getTotalElements();
+
+        assertAll("Query results are cached until the table changes",
+                () -> assertTrue(queryCacheHits > 0),
+                () -> assertEquals(first + 1, afterWrite)
+        );
+    }
+}
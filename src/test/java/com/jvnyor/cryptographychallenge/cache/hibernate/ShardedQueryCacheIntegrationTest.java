@@ -0,0 +1,69 @@
+package com.jvnyor.cryptographychallenge.cache.hibernate;
+
+import com.jvnyor.cryptographychallenge.datasource.ShardTemplate;
+import com.jvnyor.cryptographychallenge.dtos.MaskedTransactionResponseDTO;
+import com.jvnyor.cryptographychallenge.dtos.TransactionRequestDTO;
+import com.jvnyor.cryptographychallenge.dtos.TransactionResponseDTO;
+import com.jvnyor.cryptographychallenge.services.TransactionService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "app.cache.hibernate.enabled=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.datasource.sharding.enabled=true",
+        "app.datasource.sharding.shards[0].url=jdbc:h2:mem:query-cache-shard-0",
+        "app.datasource.sharding.shards[0].username=sa",
+        "app.datasource.sharding.shards[1].url=jdbc:h2:mem:query-cache-shard-1",
+        "app.datasource.sharding.shards[1].username=sa"
+})
+@DirtiesContext
+class ShardedQueryCacheIntegrationTest {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private ShardTemplate shardTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void givenTransactionsOnTwoShards_whenMaskedListingIsServedFromQueryCache_thenEveryShardKeepsItsOwnRows() {
+        var created = IntStream.range(0, 8)
+                .mapToObj(index -> transactionService.createTransaction(
+                        new TransactionRequestDTO("query-cache-user-" + index, "4111111111111" + (200 + index), index)))
+                .map(TransactionResponseDTO::id)
+                .sorted()
+                .toList();
+        var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        var pageable = PageRequest.of(0, 1000);
+
+        var first = ids(transactionService.getMaskedTransactions(pageable).getContent());
+        statistics.clear();
+        var cached = ids(transactionService.getMaskedTransactions(pageable).getContent());
+        var queryCacheHits = statistics.getQueryCacheHitCount();
+
+        assertAll("Each shard's cached page holds that shard's rows only",
+                () -> assertEquals(2, created.stream().map(shardTemplate::shardForId).distinct().count()),
+                () -> assertEquals(created, first),
+                () -> assertEquals(created, cached),
+                () -> assertEquals(2, queryCacheHits)
+        );
+    }
+
+    private static List<Long> ids(List<MaskedTransactionResponseDTO> transactions) {
+        return transactions.stream().map(MaskedTransactionResponseDTO::id).sorted().toList();
+    }
+}
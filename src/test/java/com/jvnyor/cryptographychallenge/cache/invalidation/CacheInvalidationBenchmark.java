@@ -0,0 +1,82 @@
+package com.jvnyor.cryptographychallenge.cache.invalidation;
+
+import com.jvnyor.cryptographychallenge.CryptographyChallengeApplication;
+import com.jvnyor.cryptographychallenge.dtos.TransactionRequestDTO;
+import com.jvnyor.cryptographychallenge.services.TransactionService;
+import com.jvnyor.cryptographychallenge.tenant.TenantResolver;
+import com.jvnyor.cryptographychallenge.util.CacheConstants;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Objects;
+
+import static com.jvnyor.cryptographychallenge.config.CacheConfig.tenantCacheKey;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Starts two application contexts sharing a loopback channel and, for many writes on node A, measures how long
+ * node B keeps serving the entry after the write committed. Each write lands at a random point of the bus flush
+ * interval, so the spread of the convergence times matters more than any single one.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark -Dtest=CacheInvalidationBenchmark}; {@code -Dbenchmark.writes} sizes the run.
+ */
+@Tag("benchmark")
+class CacheInvalidationBenchmark {
+
+    private static final int WRITES = Integer.getInteger("benchmark.writes", 200);
+
+    private static final Duration CONVERGENCE_TIMEOUT = Duration.ofSeconds(5);
+
+    @Test
+    void givenWritesOnNodeA_whenNodeBCachesTheEntries_thenNodeBConvergesWithinTheFlushInterval() throws InterruptedException {
+        try (var nodeA = startNode("benchmark-node-a"); var nodeB = startNode("benchmark-node-b")) {
+            var flushInterval = nodeA.getEnvironment().getRequiredProperty("app.cache.invalidation.flush-interval", Duration.class);
+            var transactionService = nodeA.getBean(TransactionService.class);
+            var nodeBCache = Objects.requireNonNull(nodeB.getBean(CacheManager.class).getCache(CacheConstants.GET_TRANSACTION));
+            var transaction = transactionService.createTransaction(new TransactionRequestDTO("userDocument", "creditCardToken", 0));
+            var key = tenantCacheKey(TenantResolver.DEFAULT_TENANT, transaction.id());
+            var convergenceMicros = new long[WRITES];
+            for (var write = 0; write < WRITES; write++) {
+                nodeBCache.put(key, transaction);
+                transactionService.updateTransaction(transaction.id(), new TransactionRequestDTO("userDocument", "creditCardToken", write + 1));
+                var start = System.nanoTime();
+                while (nodeBCache.get(key) != null && System.nanoTime() - start < CONVERGENCE_TIMEOUT.toNanos()) {
+                    Thread.onSpinWait();
+                }
+                convergenceMicros[write] = (System.nanoTime() - start) / 1000;
+            }
+
+            Arrays.sort(convergenceMicros);
+            var median = percentile(convergenceMicros, 0.5);
+            var p99 = percentile(convergenceMicros, 0.99);
+            var max = convergenceMicros[WRITES - 1];
+            System.out.printf("%d writes, flush interval %d ms: node B converged min %.1f ms, median %.1f ms, p99 %.1f ms, max %.1f ms%n",
+                    WRITES, flushInterval.toMillis(), convergenceMicros[0] / 1000.0, median / 1000.0, p99 / 1000.0, max / 1000.0);
+            // One flush interval plus scheduling slack bounds every write
+            assertAll("Node B converges within a flush interval of each write",
+                    () -> assertTrue(median <= flushInterval.toNanos() / 1000, median + " us"),
+                    () -> assertTrue(max < flushInterval.multipliedBy(2).toNanos() / 1000, max + " us")
+            );
+        }
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.round(percentile * (sorted.length - 1)))];
+    }
+
+    private static ConfigurableApplicationContext startNode(String name) {
+        return new SpringApplicationBuilder(CryptographyChallengeApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:" + name,
+                        "--app.cache.invalidation.transport=loopback",
+                        "--app.cache.invalidation.loopback.channel=benchmark");
+    }
+}
@@ -0,0 +1,81 @@
+package com.jvnyor.cryptographychallenge.cache.invalidation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheInvalidationBusTest {
+
+    private static final Duration MANUAL_FLUSH = Duration.ofHours(1);
+
+    private final List<CacheInvalidationBus> buses = new CopyOnWriteArrayList<>();
+
+    @Test
+    void givenRepeatedEvictionsAndClear_whenFlush_thenRemoteNodeReceivesOneCoalescedClear() {
+        var sender = createBus("coalescing", 1400);
+        var receiver = createBus("coalescing", 1400);
+        var received = new CopyOnWriteArrayList<CacheInvalidation>();
+        receiver.subscribe(received::add);
+
+        sender.publish(new CacheInvalidation("cache", "[1]"));
+        sender.publish(new CacheInvalidation("cache", "[1]"));
+        sender.publish(CacheInvalidation.clear("cache"));
+        sender.publish(new CacheInvalidation("cache", "[2]"));
+        sender.publish(new CacheInvalidation("other", "[3]"));
+        sender.flush();
+
+        assertAll("Invalidations are coalesced into one payload",
+                () -> assertEquals(List.of(CacheInvalidation.clear("cache"), new CacheInvalidation("other", "[3]")), received),
+                () -> assertEquals(5, sender.getPublishedInvalidations()),
+                () -> assertEquals(2, sender.getSentInvalidations()),
+                () -> assertEquals(1, sender.getSentPayloads())
+        );
+    }
+
+    @Test
+    void givenInvalidationsLargerThanOnePayload_whenFlush_thenTheyAreSplitAcrossPayloads() {
+        var sender = createBus("splitting", 100);
+        var receiver = createBus("splitting", 100);
+        var received = new CopyOnWriteArrayList<CacheInvalidation>();
+        receiver.subscribe(received::add);
+
+        for (int id = 0; id < 20; id++) {
+            sender.publish(new CacheInvalidation("cache", "[" + id + "]"));
+        }
+        sender.flush();
+
+        assertAll("Every invalidation is delivered in several payloads",
+                () -> assertEquals(20, received.size()),
+                () -> assertTrue(sender.getSentPayloads() > 1)
+        );
+    }
+
+    @Test
+    void givenOwnInvalidation_whenFlush_thenItIsNotAppliedLocally() {
+        var bus = createBus("own", 1400);
+        var received = new CopyOnWriteArrayList<CacheInvalidation>();
+        bus.subscribe(received::add);
+
+        bus.publish(CacheInvalidation.clear("cache"));
+        bus.flush();
+
+        assertTrue(received.isEmpty());
+    }
+
+    private CacheInvalidationBus createBus(String channel, int maxPayloadBytes) {
+        var bus = new CacheInvalidationBus(new LoopbackInvalidationTransport(channel), MANUAL_FLUSH, maxPayloadBytes);
+        bus.start();
+        buses.add(bus);
+        return bus;
+    }
+
+    @AfterEach
+    void tearDown() {
+        buses.forEach(CacheInvalidationBus::close);
+    }
+}
@@ -0,0 +1,78 @@
+package com.jvnyor.cryptographychallenge.cache.invalidation;
+
+import com.jvnyor.cryptographychallenge.CryptographyChallengeApplication;
+import com.jvnyor.cryptographychallenge.dtos.TransactionRequestDTO;
+import com.jvnyor.cryptographychallenge.services.TransactionService;
+import com.jvnyor.cryptographychallenge.tenant.TenantResolver;
+import com.jvnyor.cryptographychallenge.util.CacheConstants;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+import java.util.Objects;
+
+import static com.jvnyor.cryptographychallenge.config.CacheConfig.tenantCacheKey;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Starts two application contexts sharing a loopback channel, as two replicas would share a multicast group,
+ * and measures how long a write on one node takes to invalidate the other node's cache.
+ */
+class CacheInvalidationIntegrationTest {
+
+    private static final Duration CONVERGENCE_TIMEOUT = Duration.ofSeconds(5);
+
+    private final Logger log = LoggerFactory.getLogger(CacheInvalidationIntegrationTest.class);
+
+    private ConfigurableApplicationContext nodeA;
+
+    private ConfigurableApplicationContext nodeB;
+
+    @BeforeEach
+    void setUp() {
+        nodeA = startNode("node-a");
+        nodeB = startNode("node-b");
+    }
+
+    @Test
+    void givenCachedEntryOnNodeB_whenTransactionIsUpdatedOnNodeA_thenNodeBCacheConverges() throws InterruptedException {
+        var transactionService = nodeA.getBean(TransactionService.class);
+        var transaction = transactionService.createTransaction(new TransactionRequestDTO("userDocument", "creditCardToken", 1));
+        var nodeBCache = Objects.requireNonNull(nodeB.getBean(CacheManager.class).getCache(CacheConstants.GET_TRANSACTION));
+        nodeBCache.put(tenantCacheKey(TenantResolver.DEFAULT_TENANT, transaction.id()), transaction);
+        assertNotNull(nodeBCache.get(tenantCacheKey(TenantResolver.DEFAULT_TENANT, transaction.id())));
+
+        transactionService.updateTransaction(transaction.id(), new TransactionRequestDTO("userDocument", "creditCardToken", 2));
+        long start = System.nanoTime();
+        while (nodeBCache.get(tenantCacheKey(TenantResolver.DEFAULT_TENANT, transaction.id())) != null && System.nanoTime() - start < CONVERGENCE_TIMEOUT.toNanos()) {
+            Thread.sleep(1);
+        }
+        var convergence = Duration.ofNanos(System.nanoTime() - start);
+
+        log.info("Node B cache converged {} us after the write on node A committed", convergence.toNanos() / 1000);
+        assertTrue(convergence.compareTo(CONVERGENCE_TIMEOUT) < 0, "Node B cache did not converge within " + CONVERGENCE_TIMEOUT);
+    }
+
+    private ConfigurableApplicationContext startNode(String name) {
+        return new SpringApplicationBuilder(CryptographyChallengeApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:" + name,
+                        "--app.cache.invalidation.transport=loopback",
+                        "--app.cache.invalidation.loopback.channel=integration-test");
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodeA.close();
+        nodeB.close();
+    }
+}
@@ -0,0 +1,60 @@
+package com.jvnyor.cryptographychallenge.cache.refresh;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccessTrackerTest {
+
+    private static final String CACHE_NAME = "CacheGetTransaction";
+
+    private final AccessTracker accessTracker = new AccessTracker(Set.of(CACHE_NAME), 3);
+
+    @Test
+    void givenAccesses_whenTopKeys_thenMostAccessedKeysComeFirst() {
+        record("[1]", 1);
+        record("[2]", 5);
+        record("[3]", 3);
+        accessTracker.record("CacheCardToken", "[4]", invocation(4));
+
+        var topKeys = accessTracker.topKeys(CACHE_NAME, 2);
+
+        assertAll(
+                () -> assertEquals(2, topKeys.size()),
+                () -> assertEquals("[2]", topKeys.get(0).key()),
+                () -> assertEquals(5, topKeys.get(0).count()),
+                () -> assertEquals("[3]", topKeys.get(1).key()),
+                () -> assertTrue(accessTracker.topKeys("CacheCardToken", 2).isEmpty()),
+                () -> assertArrayEquals(new Object[]{2L}, accessTracker.find(CACHE_NAME, "[2]").orElseThrow().args())
+        );
+    }
+
+    @Test
+    void givenMoreKeysThanTracked_whenRecord_thenCountsAreHalvedAndRareKeysForgotten() {
+        record("[1]", 8);
+        record("[2]", 4);
+        record("[3]", 1);
+        record("[4]", 1);
+
+        var topKeys = accessTracker.topKeys(CACHE_NAME, 10);
+
+        assertAll(
+                () -> assertEquals(2, topKeys.size()),
+                () -> assertEquals(4, topKeys.get(0).count()),
+                () -> assertEquals(2, topKeys.get(1).count()),
+                () -> assertTrue(accessTracker.find(CACHE_NAME, "[4]").isEmpty())
+        );
+    }
+
+    private void record(String key, int times) {
+        for (int i = 0; i < times; i++) {
+            accessTracker.record(CACHE_NAME, key, invocation(Long.parseLong(key.substring(1, key.length() - 1))));
+        }
+    }
+
+    private static CacheInvocation invocation(long id) {
+        return new CacheInvocation(new Object(), null, new Object[]{id});
+    }
+}
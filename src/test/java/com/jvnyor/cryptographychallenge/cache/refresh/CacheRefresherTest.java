@@ -0,0 +1,120 @@
+package com.jvnyor.cryptographychallenge.cache.refresh;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.jvnyor.cryptographychallenge.cache.singleflight.SingleFlightCache;
+import com.jvnyor.cryptographychallenge.cache.singleflight.SingleFlightCacheManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class CacheRefresherTest {
+
+    private static final String CACHE_NAME = "CacheGetTransaction";
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private final Map<Long, String> store = new ConcurrentHashMap<>();
+
+    private final AccessTracker accessTracker = new AccessTracker(Set.of(CACHE_NAME), 100);
+
+    private SingleFlightCache cache;
+
+    private CacheRefresher cacheRefresher;
+
+    @BeforeEach
+    void setUp() {
+        var caffeineCacheManager = new CaffeineCacheManager();
+        caffeineCacheManager.registerCustomCache(CACHE_NAME, Caffeine.newBuilder()
+                .ticker((Ticker) nanos::get)
+                .expireAfterWrite(Duration.ofMinutes(10))
+                .build());
+        var cacheManager = new SingleFlightCacheManager(caffeineCacheManager);
+        cache = (SingleFlightCache) cacheManager.getCache(CACHE_NAME);
+        cacheRefresher = new CacheRefresher(cacheManager, accessTracker, mock(PlatformTransactionManager.class),
+                Duration.ofMinutes(8), 1, 10, 2, Duration.ZERO);
+        cacheRefresher.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cacheRefresher.close();
+    }
+
+    @Test
+    void givenEntryOlderThanRefreshAfterWrite_whenHit_thenStaleValueIsServedAndReloadedInBackground() throws Exception {
+        store.put(1L, "v1");
+        assertEquals("v1", get(1L));
+        store.put(1L, "v2");
+
+        nanos.addAndGet(Duration.ofMinutes(7).toNanos());
+        assertEquals("v1", get(1L));
+        nanos.addAndGet(Duration.ofMinutes(2).toNanos());
+        var stale = get(1L);
+        await(() -> cacheRefresher.getStatistics().refreshed() == 1);
+
+        assertAll(
+                () -> assertEquals("v1", stale),
+                () -> assertEquals("v2", cache.get("[1]", String.class)),
+                () -> assertEquals(0, cacheRefresher.getStatistics().failed())
+        );
+    }
+
+    @Test
+    void givenInvalidation_whenWarm_thenMostAccessedMissingKeysAreReloaded() throws Exception {
+        store.put(1L, "one");
+        store.put(2L, "two");
+        store.put(3L, "three");
+        for (int i = 0; i < 3; i++) {
+            get(1L);
+            get(2L);
+        }
+        get(3L);
+
+        cache.clear();
+        await(() -> cacheRefresher.getStatistics().warmed() == 2);
+
+        assertAll(
+                () -> assertEquals("one", cache.get("[1]", String.class)),
+                () -> assertEquals("two", cache.get("[2]", String.class)),
+                () -> assertFalse(cache.isCached("[3]"))
+        );
+    }
+
+    private String get(long id) {
+        var key = "[" + id + "]";
+        accessTracker.record(CACHE_NAME, key, new CacheInvocation(this, lookup(), new Object[]{id}));
+        return cache.get(key, () -> load(id));
+    }
+
+    public String load(Long id) {
+        return store.get(id);
+    }
+
+    private static java.lang.reflect.Method lookup() {
+        try {
+            return CacheRefresherTest.class.getMethod("load", Long.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        var deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
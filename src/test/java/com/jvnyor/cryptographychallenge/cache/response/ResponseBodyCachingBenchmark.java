@@ -0,0 +1,169 @@
+package com.jvnyor.cryptographychallenge.cache.response;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jvnyor.cryptographychallenge.CryptographyChallengeApplication;
+import com.jvnyor.cryptographychallenge.dtos.TransactionResponseDTO;
+import com.sun.management.ThreadMXBean;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.web.PagedModel;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Measures what a response bytes cache hit saves. First the per-call cost of rendering a single transaction and a
+ * 50-item page with the application's {@link ObjectMapper}, and of gzipping the page; then CPU time and allocation per
+ * request of the same two reads through MockMvc, with the response cache disabled and enabled. Both configurations
+ * share the JVM, so each round starts one application of each and the cheapest iteration is kept. The saving is bounded
+ * by the rendering cost, which is small next to the rest of the request, so the benchmark asserts that hot reads hit
+ * the cache and only reports what they cost.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark -Dtest=ResponseBodyCachingBenchmark}; {@code -Dbenchmark.rounds} and
+ * {@code -Dbenchmark.requests} size the run.
+ */
+@Tag("benchmark")
+class ResponseBodyCachingBenchmark {
+
+    private static final int ROUNDS = Integer.getInteger("benchmark.rounds", 2);
+
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 20_000);
+
+    private static final int CALLS = 200_000;
+
+    private static final int PAGE_SIZE = 50;
+
+    private static final String PAGE_URI = "/v1/transactions?page=0&size=" + PAGE_SIZE + "&sort=value,desc";
+
+    private final ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private double hitRate;
+
+    @Test
+    void givenHotReads_whenResponseCacheEnabled_thenBodiesAreNotRenderedAgain() throws Exception {
+        var uncached = Cost.NONE;
+        var cached = Cost.NONE;
+        var uncachedSingle = Cost.NONE;
+        var cachedSingle = Cost.NONE;
+        for (var round = 0; round < ROUNDS; round++) {
+            var off = run(false);
+            var on = run(true);
+            uncachedSingle = uncachedSingle.cheapest(off[0]);
+            uncached = uncached.cheapest(off[1]);
+            cachedSingle = cachedSingle.cheapest(on[0]);
+            cached = cached.cheapest(on[1]);
+        }
+
+        System.out.println("response-cache=off get by id " + uncachedSingle + ", page of " + PAGE_SIZE + " " + uncached);
+        System.out.println("response-cache=on  get by id " + cachedSingle + ", page of " + PAGE_SIZE + " " + cached
+                + String.format(", hit rate %.4f", hitRate));
+        // Rendering is a small share of a request, so only the hits are asserted; the costs are reported
+        assertTrue(hitRate > 0.99, () -> "hit rate " + hitRate);
+    }
+
+    /**
+     * @return the cost of a get by id and of a page request
+     */
+    private Cost[] run(boolean responseCacheEnabled) throws Exception {
+        try (var context = new SpringApplicationBuilder(CryptographyChallengeApplication.class)
+                .run("--server.port=0",
+                        "--logging.level.root=WARN",
+                        "--spring.datasource.url=jdbc:h2:mem:response-cache-" + responseCacheEnabled,
+                        "--app.cache.response.enabled=" + responseCacheEnabled)) {
+            if (!responseCacheEnabled) {
+                renderingCost(context.getBean(ObjectMapper.class));
+            }
+            var mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+            for (var i = 0; i < PAGE_SIZE; i++) {
+                mockMvc.perform(post("/v1/transactions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userDocument\":\"user" + i + "\",\"creditCardToken\":\"4111111111" + (100000 + i) + "\",\"value\":" + (i + 1) + "}"));
+            }
+            var costs = new Cost[]{requestCost(mockMvc, "/v1/transactions/" + PAGE_SIZE), requestCost(mockMvc, PAGE_URI)};
+            if (responseCacheEnabled) {
+                hitRate = context.getBean(ResponseBodyCachingConverter.class).getStatistics().hitRate();
+            }
+            return costs;
+        }
+    }
+
+    private void renderingCost(ObjectMapper objectMapper) throws Exception {
+        var transactions = IntStream.range(0, PAGE_SIZE)
+                .mapToObj(i -> new TransactionResponseDTO(i, "1234567890" + i, "41111111111111" + i, i * 1.5))
+                .toList();
+        var page = new PagedModel<>(new PageImpl<>(transactions, PageRequest.of(0, PAGE_SIZE), 500));
+        for (var body : new Object[]{transactions.get(0), page}) {
+            var bytes = objectMapper.writeValueAsBytes(body);
+            var jackson = measure(CALLS, () -> objectMapper.writeValueAsBytes(body));
+            System.out.println("render " + body.getClass().getSimpleName() + " (" + bytes.length + " B) with Jackson " + jackson);
+            if (body == page) {
+                var gzipped = gzip(bytes).length;
+                var gzip = measure(CALLS / 10, () -> gzip(bytes));
+                System.out.println("gzip " + bytes.length + " B to " + gzipped + " B " + gzip);
+            }
+        }
+    }
+
+    private Cost requestCost(MockMvc mockMvc, String uri) throws Exception {
+        for (var i = 0; i < REQUESTS; i++) {
+            mockMvc.perform(get(uri));
+        }
+        return measure(REQUESTS, () -> assertEquals(200, mockMvc.perform(get(uri)).andReturn().getResponse().getStatus()));
+    }
+
+    private Cost measure(int calls, Call call) throws Exception {
+        for (var i = 0; i < calls; i++) {
+            call.run();
+        }
+        var thread = Thread.currentThread().getId();
+        var cpu = threads.getCurrentThreadCpuTime();
+        var allocated = threads.getThreadAllocatedBytes(thread);
+        for (var i = 0; i < calls; i++) {
+            call.run();
+        }
+        return new Cost((threads.getCurrentThreadCpuTime() - cpu) / 1e3 / calls,
+                (threads.getThreadAllocatedBytes(thread) - allocated) / (double) calls);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        var output = new ByteArrayOutputStream();
+        try (var gzip = new GZIPOutputStream(output)) {
+            gzip.write(bytes);
+        }
+        return output.toByteArray();
+    }
+
+    @FunctionalInterface
+    private interface Call {
+        void run() throws Exception;
+    }
+
+    private record Cost(double cpuMicros, double allocatedBytes) {
+
+        static final Cost NONE = new Cost(Double.MAX_VALUE, Double.MAX_VALUE);
+
+        Cost cheapest(Cost other) {
+            return cpuMicros <= other.cpuMicros ? this : other;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.1f us CPU, %.1f KB allocated per call", cpuMicros, allocatedBytes / 1024);
+        }
+    }
+}
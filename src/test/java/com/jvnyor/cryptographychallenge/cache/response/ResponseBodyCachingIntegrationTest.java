@@ -0,0 +1,107 @@
+package com.jvnyor.cryptographychallenge.cache.response;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jvnyor.cryptographychallenge.dtos.TransactionRequestDTO;
+import com.jvnyor.cryptographychallenge.dtos.TransactionResponseDTO;
+import com.jvnyor.cryptographychallenge.services.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest(properties = "app.cache.response.enabled=true")
+@AutoConfigureMockMvc
+class ResponseBodyCachingIntegrationTest {
+
+    private static final String URL_TEMPLATE = "/v1/transactions";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private ResponseBodyCachingConverter responseBodyCachingConverter;
+
+    @Test
+    void givenCachedTransaction_whenGetTransactionRepeatedlyAndUpdated_thenBytesAreReusedUntilTheDataChanges() throws Exception {
+        var transaction = transactionService.createTransaction(new TransactionRequestDTO("bytes-user", "4111111111111111", 10));
+        var hitsBefore = responseBodyCachingConverter.getStatistics().hitCount();
+
+        var first = getBody(URL_TEMPLATE + "/" + transaction.id());
+        var second = getBody(URL_TEMPLATE + "/" + transaction.id());
+        var hits = responseBodyCachingConverter.getStatistics().hitCount() - hitsBefore;
+        transactionService.updateTransaction(transaction.id(), new TransactionRequestDTO("bytes-user", "4111111111111111", 25));
+        var afterUpdate = objectMapper.readValue(getBody(URL_TEMPLATE + "/" + transaction.id()), TransactionResponseDTO.class);
+        var notFound = mockMvc.perform(get(URL_TEMPLATE + "/" + Long.MAX_VALUE)).andReturn().getResponse();
+
+        assertAll("Bytes follow the cached transaction",
+                () -> assertEquals(transaction, objectMapper.readValue(first, TransactionResponseDTO.class)),
+                () -> assertEquals(first, second),
+                () -> assertEquals(1, hits),
+                () -> assertEquals(25, afterUpdate.value()),
+                () -> assertEquals(404, notFound.getStatus()),
+                () -> assertTrue(notFound.getContentAsString().contains("TransactionNotFoundException"))
+        );
+    }
+
+    @Test
+    void givenLargeListing_whenClientAcceptsGzip_thenPrecompressedBytesAreWritten() throws Exception {
+        IntStream.range(0, 30).forEach(index -> transactionService.createTransaction(
+                new TransactionRequestDTO("gzip-user-" + index, "4111111111111111", index + 1)));
+        var url = URL_TEMPLATE + "?page=0&size=30&sort=id";
+
+        var plain = getBody(url);
+        var gzipped = mockMvc.perform(get(url).header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate")).andReturn().getResponse();
+
+        assertAll("Gzipped listing matches the plain one",
+                () -> assertEquals("gzip", gzipped.getHeader(HttpHeaders.CONTENT_ENCODING)),
+                () -> assertEquals(HttpHeaders.ACCEPT_ENCODING, gzipped.getHeader(HttpHeaders.VARY)),
+                () -> assertTrue(gzipped.getContentAsByteArray().length < plain.length()),
+                () -> assertEquals(plain, gunzip(gzipped.getContentAsByteArray()))
+        );
+    }
+
+    @Test
+    void givenFilteredListing_whenGetRepeatedly_thenBytesAreNotKept() throws Exception {
+        IntStream.range(0, 3).forEach(index -> transactionService.createTransaction(
+                new TransactionRequestDTO("filter-bytes-user-" + index, "4111111111111111", 500 + index)));
+        var url = URL_TEMPLATE + "?minValue=500&maxValue=502&sort=id";
+        var requestsBefore = responseBodyCachingConverter.getStatistics().requestCount();
+
+        var first = getBody(url);
+        var second = getBody(url);
+        var requests = responseBodyCachingConverter.getStatistics().requestCount() - requestsBefore;
+
+        assertAll("Filtered listings are written without going through the bytes cache",
+                () -> assertEquals(first, second),
+                () -> assertEquals(3, objectMapper.readTree(first).path("content").size()),
+                () -> assertEquals(0, requests)
+        );
+    }
+
+    private String getBody(String url) throws Exception {
+        return mockMvc.perform(get(url)).andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+    }
+
+    private static String gunzip(byte[] bytes) throws IOException {
+        try (var input = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.jvnyor.cryptographychallenge.cache.singleflight;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightCacheTest {
+
+    private static final int CALLERS_PER_KEY = 8;
+
+    private final SingleFlightCache cache = new SingleFlightCache(new ConcurrentMapCache("CacheGetTransaction"));
+
+    @Test
+    void givenConcurrentMissesOfTwoKeys_whenGet_thenEachKeyIsLoadedOnceAndShared() throws Exception {
+        var loadsByKey = List.of(new AtomicInteger(), new AtomicInteger());
+        var release = new CountDownLatch(1);
+        var executor = Executors.newFixedThreadPool(CALLERS_PER_KEY * 2);
+        var results = new ArrayList<Future<String>>();
+        try {
+            for (int caller = 0; caller < CALLERS_PER_KEY * 2; caller++) {
+                var key = caller % 2;
+                results.add(executor.submit(() -> cache.get("[" + key + "]", () -> {
+                    loadsByKey.get(key).incrementAndGet();
+                    release.await();
+                    return "transaction " + key;
+                })));
+            }
+            awaitInFlight(2);
+            while (cache.getStatistics().coalesced() < CALLERS_PER_KEY * 2 - 2) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            for (int caller = 0; caller < results.size(); caller++) {
+                assertEquals("transaction " + caller % 2, results.get(caller).get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        var statistics = cache.getStatistics();
+        assertAll(
+                () -> assertEquals(1, loadsByKey.get(0).get()),
+                () -> assertEquals(1, loadsByKey.get(1).get()),
+                () -> assertEquals(2, statistics.loads()),
+                () -> assertEquals(CALLERS_PER_KEY * 2 - 2, statistics.coalesced()),
+                () -> assertEquals(0, statistics.inFlight()),
+                () -> assertEquals("transaction 0", cache.get("[0]", String.class))
+        );
+    }
+
+    @Test
+    void givenFailingLoad_whenGetConcurrently_thenEveryCallerGetsTheFailureAndNothingIsCached() throws Exception {
+        var release = new CountDownLatch(1);
+        var executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Object> loader = executor.submit(() -> cache.get("[1]", () -> {
+                release.await();
+                throw new IllegalStateException("not found");
+            }));
+            awaitInFlight(1);
+            Future<Object> waiter = executor.submit(() -> cache.get("[1]", () -> "unused"));
+            while (cache.getStatistics().coalesced() < 1) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            for (var result : List.of(loader, waiter)) {
+                var exception = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+                assertInstanceOf(Cache.ValueRetrievalException.class, exception.getCause());
+                assertInstanceOf(IllegalStateException.class, exception.getCause().getCause());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertNull(cache.get("[1]"));
+    }
+
+    @Test
+    void givenEvictionDuringLoad_whenLoadCompletes_thenStaleValueIsNotCached() throws Exception {
+        var release = new CountDownLatch(1);
+        var executor = Executors.newSingleThreadExecutor();
+        try {
+            var stale = executor.submit(() -> cache.get("[1]", () -> {
+                release.await();
+                return "stale";
+            }));
+            awaitInFlight(1);
+
+            cache.evict("[1]");
+            release.countDown();
+
+            assertAll(
+                    () -> assertEquals("stale", stale.get(5, TimeUnit.SECONDS)),
+                    () -> assertNull(cache.get("[1]")),
+                    () -> assertEquals("fresh", cache.get("[1]", () -> "fresh"))
+            );
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void givenEvictionDuringBatchLoad_whenGetAll_thenValuesAreReturnedButNotCached() throws Exception {
+        var batchLoads = new AtomicInteger();
+        var release = new CountDownLatch(1);
+        var executor = Executors.newSingleThreadExecutor();
+        try {
+            var batch = executor.submit(() -> cache.getAll(List.of(1L, 2L), id -> "[" + id + "]", ids -> {
+                batchLoads.incrementAndGet();
+                awaitUninterruptibly(release);
+                return Map.of(1L, "stale 1", 2L, "transaction 2");
+            }));
+            awaitInFlight(2);
+            cache.evict("[1]");
+            release.countDown();
+
+            assertAll(
+                    () -> assertEquals(Map.of(1L, "stale 1", 2L, "transaction 2"), batch.get(5, TimeUnit.SECONDS)),
+                    () -> assertNull(cache.get("[1]")),
+                    () -> assertEquals("transaction 2", cache.get("[2]", String.class)),
+                    () -> assertEquals(Map.of(1L, "fresh 1", 2L, "transaction 2"), cache.getAll(List.of(1L, 2L), id -> "[" + id + "]", ids -> {
+                        batchLoads.incrementAndGet();
+                        return Map.of(1L, "fresh 1");
+                    })),
+                    () -> assertEquals(2, batchLoads.get())
+            );
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void givenSingleMissesDuringBatchLoad_whenGet_thenFoundKeyIsSharedAndMissingKeyIsLoadedByTheCaller() throws Exception {
+        var release = new CountDownLatch(1);
+        var executor = Executors.newFixedThreadPool(3);
+        try {
+            var batch = executor.submit(() -> cache.getAll(List.of(1L, 2L), id -> "[" + id + "]", ids -> {
+                awaitUninterruptibly(release);
+                return Map.of(1L, "transaction 1");
+            }));
+            awaitInFlight(2);
+            Future<Object> found = executor.submit(() -> cache.get("[1]", () -> "unused"));
+            Future<Object> missing = executor.submit(() -> cache.get("[2]", () -> "archived 2"));
+            while (cache.getStatistics().coalesced() < 2) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            assertAll(
+                    () -> assertEquals(Map.of(1L, "transaction 1"), batch.get(5, TimeUnit.SECONDS)),
+                    () -> assertEquals("transaction 1", found.get(5, TimeUnit.SECONDS)),
+                    () -> assertEquals("archived 2", missing.get(5, TimeUnit.SECONDS)),
+                    () -> assertEquals(3, cache.getStatistics().loads()),
+                    () -> assertEquals(0, cache.getStatistics().inFlight())
+            );
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void awaitInFlight(int flights) throws InterruptedException {
+        while (cache.getStatistics().loads() < flights) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.jvnyor.cryptographychallenge.cache.singleflight;
+
+import com.jvnyor.cryptographychallenge.audit.AuditLog;
+import com.jvnyor.cryptographychallenge.dtos.TransactionRequestDTO;
+import com.jvnyor.cryptographychallenge.services.TransactionService;
+import com.jvnyor.cryptographychallenge.util.CacheConstants;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest
+class SingleFlightIntegrationTest {
+
+    private static final int CALLERS = 16;
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private SingleFlightCacheManager singleFlightCacheManager;
+
+    @SpyBean
+    private AuditLog auditLog;
+
+    @Test
+    void givenConcurrentMissesOfOneId_whenGetTransaction_thenTransactionIsLoadedAndDecryptedOnce() throws Exception {
+        var transaction = transactionService.createTransaction(new TransactionRequestDTO("single-flight-user", "4111111111111131", 10));
+
+        var round = coalesce(CacheConstants.GET_TRANSACTION, () -> transactionService.getTransaction(transaction.id()));
+
+        assertAll("Every caller gets the instance of the single load",
+                () -> assertEquals(1, round.loads()),
+                () -> assertEquals(CALLERS - 1, round.coalesced()),
+                () -> assertEquals(1, round.decryptions()),
+                () -> assertEquals(1, round.distinctResults())
+        );
+    }
+
+    @Test
+    void givenConcurrentMissesOfOnePage_whenGetTransactions_thenPageIsLoadedAndDecryptedOnce() throws Exception {
+        for (var i = 0; i < 3; i++) {
+            transactionService.createTransaction(new TransactionRequestDTO("single-flight-page-user", "413111111111113" + i, i));
+        }
+        var pageable = PageRequest.of(0, 3);
+
+        var round = coalesce(CacheConstants.GET_TRANSACTIONS, () -> transactionService.getTransactions(pageable));
+
+        assertAll("Every caller gets the page of the single load",
+                () -> assertEquals(1, round.loads()),
+                () -> assertEquals(CALLERS - 1, round.coalesced()),
+                () -> assertEquals(3, round.decryptions()),
+                () -> assertEquals(1, round.distinctResults())
+        );
+    }
+
+    /**
+     * Holds the first decryption of the load until every other caller is waiting on it, then lets it finish.
+     */
+    private Round coalesce(String cacheName, Callable<Object> read) throws Exception {
+        var cache = singleFlightCacheManager.getCache(cacheName);
+        var loadsBefore = cache.getStatistics().loads();
+        var coalescedBefore = cache.getStatistics().coalesced();
+        var decryptions = new AtomicInteger();
+        var held = new AtomicBoolean();
+        var loading = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            decryptions.incrementAndGet();
+            if (held.compareAndSet(false, true)) {
+                loading.countDown();
+                assertTrue(release.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            }
+            return invocation.callRealMethod();
+        }).when(auditLog).recordDecryption(anyLong(), anyString(), anyString(), any());
+        var executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            var results = new ArrayList<Future<Object>>();
+            for (var caller = 0; caller < CALLERS; caller++) {
+                results.add(executor.submit(read));
+            }
+            assertTrue(loading.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+            while (cache.getStatistics().coalesced() - coalescedBefore < CALLERS - 1 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            var distinctResults = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (var result : results) {
+                distinctResults.add(result.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            }
+            return new Round(cache.getStatistics().loads() - loadsBefore,
+                    cache.getStatistics().coalesced() - coalescedBefore, decryptions.get(), distinctResults.size());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private record Round(long loads, long coalesced, int decryptions, int distinctResults) {
+    }
+}
@@ -0,0 +1,116 @@
+package com.jvnyor.cryptographychallenge.changes;
+
+import com.jvnyor.cryptographychallenge.dtos.TransactionChangeResponseDTO;
+import com.jvnyor.cryptographychallenge.dtos.TransactionChangesResponseDTO;
+import com.jvnyor.cryptographychallenge.dtos.TransactionRequestDTO;
+import com.jvnyor.cryptographychallenge.entities.ChangeType;
+import com.jvnyor.cryptographychallenge.repositories.OutboxEventRepository;
+import com.jvnyor.cryptographychallenge.services.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class TransactionChangeFeedIntegrationTest {
+
+    private static final String URL_TEMPLATE = "/v1/transactions/changes";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionChangeStream transactionChangeStream;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Test
+    void givenCreatesUpdateAndDelete_whenGetChangesSinceCheckpoint_thenChangesFollowInOrderWithTombstone() {
+        var checkpoint = head();
+        var kept = transactionService.createTransaction(new TransactionRequestDTO("feed-user", "4111111111111111", 10));
+        var deleted = transactionService.createTransaction(new TransactionRequestDTO("feed-user", "4111111111111112", 20));
+        transactionService.updateTransaction(kept.id(), new TransactionRequestDTO("feed-user", "4111111111111111", 25));
+        transactionService.deleteTransaction(deleted.id());
+
+        var changes = transactionService.getChanges(checkpoint, 3);
+        var rest = transactionService.getChanges(changes.checkpoint(), 3);
+        var all = Stream.concat(changes.changes().stream(), rest.changes().stream()).toList();
+
+        assertAll("Every write is in the feed once, in order, with the current state",
+                () -> assertEquals(List.of(ChangeType.CREATED, ChangeType.CREATED, ChangeType.UPDATED, ChangeType.DELETED),
+                        all.stream().map(TransactionChangeResponseDTO::type).toList()),
+                () -> assertEquals(List.of(kept.id(), deleted.id(), kept.id(), deleted.id()),
+                        all.stream().map(TransactionChangeResponseDTO::transactionId).toList()),
+                () -> assertEquals(all.stream().map(TransactionChangeResponseDTO::sequence).sorted().distinct().toList(),
+                        all.stream().map(TransactionChangeResponseDTO::sequence).toList()),
+                () -> assertEquals(25, all.get(0).transaction().value()),
+                () -> assertNull(all.get(1).transaction()),
+                () -> assertNull(all.get(3).transaction()),
+                () -> assertTrue(changes.hasMore()),
+                () -> assertFalse(rest.hasMore()),
+                () -> assertEquals(all.get(3).sequence(), rest.checkpoint())
+        );
+    }
+
+    @Test
+    void givenSubscriberWithLastEventId_whenTransactionIsCreated_thenOnlyNewChangesAreStreamed() throws Exception {
+        var checkpoint = head();
+        var result = mockMvc.perform(get(URL_TEMPLATE + "/stream")
+                        .header("Last-Event-ID", Long.toString(checkpoint))
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        try {
+            var transaction = transactionService.createTransaction(new TransactionRequestDTO("stream-user", "4111111111111113", 30));
+            transactionChangeStream.poll();
+
+            var body = result.getResponse().getContentAsString();
+            var sequence = transactionService.getChanges(checkpoint, 1).checkpoint();
+            assertAll("The new change is sent with its sequence as event id",
+                    () -> assertTrue(body.contains("id:" + sequence + "\n"), body),
+                    () -> assertTrue(body.contains("event:created\n"), body),
+                    () -> assertTrue(body.contains("\"transactionId\":" + transaction.id()), body),
+                    () -> assertFalse(body.contains("id:" + checkpoint + "\n"), body)
+            );
+        } finally {
+            transactionChangeStream.close();
+        }
+    }
+
+    @Test
+    void givenOutboxDisabled_whenTransactionIsCreated_thenChangeIsRecordedWithoutOutboxEvent() {
+        var checkpoint = head();
+        var transaction = transactionService.createTransaction(new TransactionRequestDTO("no-outbox-user", "4111111111111119", 40));
+
+        var changes = transactionService.getChanges(checkpoint, 10).changes();
+        assertAll("Only the change log is written while nothing relays the outbox",
+                () -> assertEquals(List.of(transaction.id()), changes.stream().map(TransactionChangeResponseDTO::transactionId).toList()),
+                () -> assertTrue(outboxEventRepository.findById(changes.get(0).sequence()).isEmpty())
+        );
+    }
+
+    private long head() {
+        TransactionChangesResponseDTO changes;
+        var checkpoint = 0L;
+        do {
+            changes = Objects.requireNonNull(transactionService.getChanges(checkpoint, TransactionChangesResponseDTO.MAX_CHANGES));
+            checkpoint = changes.checkpoint();
+        } while (changes.hasMore());
+        return checkpoint;
+    }
+}
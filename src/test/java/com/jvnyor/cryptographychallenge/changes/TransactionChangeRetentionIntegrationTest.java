@@ -0,0 +1,97 @@
+package com.jvnyor.cryptographychallenge.changes;
+
+import com.jvnyor.cryptographychallenge.dtos.TransactionChangeResponseDTO;
+import com.jvnyor.cryptographychallenge.dtos.TransactionRequestDTO;
+import com.jvnyor.cryptographychallenge.services.TransactionChangeService;
+import com.jvnyor.cryptographychallenge.services.TransactionService;
+import com.jvnyor.cryptographychallenge.services.exceptions.ChangeCursorExpiredException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:change-retention")
+@AutoConfigureMockMvc
+class TransactionChangeRetentionIntegrationTest {
+
+    private static final String URL_TEMPLATE = "/v1/transactions/changes";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionChangeService transactionChangeService;
+
+    @Autowired
+    private TransactionChangeStream transactionChangeStream;
+
+    @Test
+    void givenChangesOlderThanRetention_whenPruneAndReadFromOldCursor_thenCursorExpiredAndFeedResumesAfterPrunedChanges() throws Exception {
+        var cursor = transactionService.getChanges(pruneAll(), 100).checkpoint();
+        var first = transactionService.createTransaction(new TransactionRequestDTO("retention-user", "4111111111111111", 10));
+        transactionService.updateTransaction(first.id(), new TransactionRequestDTO("retention-user", "4111111111111111", 20));
+
+        var keptWithinRetention = transactionChangeService.pruneChangesBefore(Instant.now().minus(Duration.ofHours(1)));
+        var pruned = transactionChangeService.pruneChangesBefore(Instant.now().plusSeconds(1));
+        var expired = assertThrows(ChangeCursorExpiredException.class, () -> transactionService.getChanges(cursor, 100));
+        var second = transactionService.createTransaction(new TransactionRequestDTO("retention-user", "4111111111111112", 30));
+        var resumed = transactionService.getChanges(expired.getPrunedThrough(), 100).changes();
+
+        assertAll("Only changes older than the cutoff are removed, and cursors before them expire",
+                () -> assertEquals(0, keptWithinRetention),
+                () -> assertEquals(2, pruned),
+                () -> assertEquals(List.of(second.id()), resumed.stream().map(TransactionChangeResponseDTO::transactionId).toList())
+        );
+        mockMvc.perform(get(URL_TEMPLATE).param("since", Long.toString(cursor)))
+                .andExpect(status().isGone())
+                .andExpect(jsonPath("$.exceptionName").value("ChangeCursorExpiredException"))
+                .andExpect(jsonPath("$.message").value("Change cursor " + cursor + " expired: changes up to " + expired.getPrunedThrough() + " were pruned"));
+    }
+
+    @Test
+    void givenSubscriberBehindRetention_whenPoll_thenExpiredEventEndsTheStream() throws Exception {
+        transactionService.createTransaction(new TransactionRequestDTO("retention-stream-user", "4111111111111113", 40));
+        var prunedThrough = pruneAll();
+        var result = mockMvc.perform(get(URL_TEMPLATE + "/stream")
+                        .param("since", Long.toString(prunedThrough - 1))
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        transactionChangeStream.poll();
+
+        var body = result.getResponse().getContentAsString();
+        assertAll("The subscriber is told where to resume and is dropped",
+                () -> assertTrue(body.contains("event:expired\ndata:" + prunedThrough + "\n"), body),
+                () -> assertEquals(0, transactionChangeStream.getSubscriberCount())
+        );
+    }
+
+    /**
+     * @return the highest pruned sequence
+     */
+    private long pruneAll() {
+        transactionChangeService.pruneChangesBefore(Instant.now().plusSeconds(1));
+        try {
+            transactionService.getChanges(0, 1);
+            return 0;
+        } catch (ChangeCursorExpiredException e) {
+            return e.getPrunedThrough();
+        }
+    }
+}
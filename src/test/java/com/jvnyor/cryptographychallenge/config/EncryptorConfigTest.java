@@ -0,0 +1,53 @@
+package com.jvnyor.cryptographychallenge.config;
+
+import com.jvnyor.cryptographychallenge.util.KeyedHasher;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EncryptorConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(PropertyPlaceholderAutoConfiguration.class))
+            .withUserConfiguration(EncryptorConfig.class)
+            .withPropertyValues("jasypt.encryptor.password=password");
+
+    @Test
+    void givenSeparateHashKey_whenContextStarts_thenKeyedHasherIsCreated() {
+        contextRunner.withPropertyValues("app.hash-key=hash-key")
+                .run(context -> assertAll("Start with a hash key of its own",
+                        () -> assertNull(context.getStartupFailure()),
+                        () -> assertNotNull(context.getBean(KeyedHasher.class))
+                ));
+    }
+
+    @Test
+    void givenUnsetHashKeyEnvironmentVariable_whenContextStarts_thenStartupFails() {
+        contextRunner.withPropertyValues("app.hash-key=${APP_HASH_KEY}")
+                .run(context -> assertNotNull(context.getStartupFailure()));
+    }
+
+    @Test
+    void givenBlankHashKey_whenContextStarts_thenStartupFails() {
+        contextRunner.withPropertyValues("app.hash-key=")
+                .run(context -> assertTrue(rootCauseMessage(context.getStartupFailure()).contains("APP_HASH_KEY")));
+    }
+
+    @Test
+    void givenHashKeyEqualToEncryptionPassword_whenContextStarts_thenStartupFails() {
+        contextRunner.withPropertyValues("app.hash-key=password")
+                .run(context -> assertTrue(rootCauseMessage(context.getStartupFailure()).contains("must differ")));
+    }
+
+    private static String rootCauseMessage(Throwable failure) {
+        assertNotNull(failure);
+        var cause = failure;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage();
+    }
+}
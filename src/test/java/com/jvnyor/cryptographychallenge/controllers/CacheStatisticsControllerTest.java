@@ -0,0 +1,93 @@
+package com.jvnyor.cryptographychallenge.controllers;
+
+import com.jvnyor.cryptographychallenge.cache.hibernate.CaffeineRegionFactory;
+import com.jvnyor.cryptographychallenge.cache.hibernate.RegionStatistics;
+import com.jvnyor.cryptographychallenge.cache.refresh.CacheRefreshStatistics;
+import com.jvnyor.cryptographychallenge.cache.refresh.CacheRefresher;
+import com.jvnyor.cryptographychallenge.cache.singleflight.SingleFlightCacheManager;
+import com.jvnyor.cryptographychallenge.cache.singleflight.SingleFlightStatistics;
+import com.jvnyor.cryptographychallenge.tenant.TenantEncryptors;
+import com.jvnyor.cryptographychallenge.tenant.TenantKeyStatistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(CacheStatisticsController.class)
+class CacheStatisticsControllerTest {
+
+    private static final String URL_TEMPLATE = "/v1/cache/regions";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private CaffeineRegionFactory caffeineRegionFactory;
+
+    @MockBean
+    private SingleFlightCacheManager singleFlightCacheManager;
+
+    @MockBean
+    private CacheRefresher cacheRefresher;
+
+    @MockBean
+    private TenantEncryptors tenantEncryptors;
+
+    @Test
+    void givenCacheRegions_whenGetRegionStatistics_thenReturnStatisticsOfEveryRegion() throws Exception {
+        when(caffeineRegionFactory.getStatistics()).thenReturn(List.of(
+                new RegionStatistics("com.jvnyor.cryptographychallenge.entities.Transaction", 2, 8, 2, 0.8, 0)));
+
+        var result = mockMvc.perform(get(URL_TEMPLATE));
+
+        result.andExpect(status().isOk());
+        result.andExpect(jsonPath("$[0].regionName").value("com.jvnyor.cryptographychallenge.entities.Transaction"));
+        result.andExpect(jsonPath("$[0].hitCount").value(8));
+        result.andExpect(jsonPath("$[0].hitRate").value(0.8));
+    }
+
+    @Test
+    void givenCoalescedLoads_whenGetSingleFlightStatistics_thenReturnStatisticsOfEveryCache() throws Exception {
+        when(singleFlightCacheManager.getStatistics()).thenReturn(List.of(
+                new SingleFlightStatistics("CacheGetTransaction", 2, 6, 0, 0.75)));
+
+        var result = mockMvc.perform(get("/v1/cache/single-flight"));
+
+        result.andExpect(status().isOk());
+        result.andExpect(jsonPath("$[0].cacheName").value("CacheGetTransaction"));
+        result.andExpect(jsonPath("$[0].coalesced").value(6));
+        result.andExpect(jsonPath("$[0].coalescingRate").value(0.75));
+    }
+
+    @Test
+    void givenBackgroundReloads_whenGetRefreshStatistics_thenReturnStatistics() throws Exception {
+        when(cacheRefresher.getStatistics()).thenReturn(new CacheRefreshStatistics(5, 3, 1, 0, 2));
+
+        var result = mockMvc.perform(get("/v1/cache/refresh"));
+
+        result.andExpect(status().isOk());
+        result.andExpect(jsonPath("$.refreshed").value(5));
+        result.andExpect(jsonPath("$.warmed").value(3));
+        result.andExpect(jsonPath("$.pending").value(2));
+    }
+
+    @Test
+    void givenDerivedTenantKeys_whenGetTenantKeyStatistics_thenReturnStatistics() throws Exception {
+        when(tenantEncryptors.getStatistics()).thenReturn(new TenantKeyStatistics(3, 97, 3, 0.97, 0, 12.5));
+
+        var result = mockMvc.perform(get("/v1/cache/tenant-keys"));
+
+        result.andExpect(status().isOk());
+        result.andExpect(jsonPath("$.size").value(3));
+        result.andExpect(jsonPath("$.hitRate").value(0.97));
+        result.andExpect(jsonPath("$.averageDerivationMillis").value(12.5));
+    }
+}
@@ -0,0 +1,74 @@
+package com.jvnyor.cryptographychallenge.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jvnyor.cryptographychallenge.dtos.UserAggregateRequestDTO;
+import com.jvnyor.cryptographychallenge.dtos.UserAggregateResponseDTO;
+import com.jvnyor.cryptographychallenge.services.TransactionAggregateService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(TransactionAggregateController.class)
+class TransactionAggregateControllerTest {
+
+    private static final String URL_TEMPLATE = "/v1/transactions/aggregates";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private TransactionAggregateService transactionAggregateService;
+
+    @Test
+    void givenUserAggregateRequestDTO_whenGetUserAggregate_thenReturnUserAggregateResponse() throws Exception {
+        var day = LocalDate.of(2026, 1, 15);
+        var userAggregate = new UserAggregateResponseDTO(2, 30, 10.0, 20.0,
+                List.of(new UserAggregateResponseDTO.DailyAggregate(day, 2, 30)));
+        when(transactionAggregateService.getUserAggregate(any(UserAggregateRequestDTO.class))).thenReturn(userAggregate);
+
+        var result = mockMvc.perform(
+                post(URL_TEMPLATE)
+                        .content(objectMapper.writeValueAsString(new UserAggregateRequestDTO("userDocument", day, day)))
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk());
+        result.andExpect(MockMvcResultMatchers.content().json(objectMapper.writeValueAsString(userAggregate)));
+
+        verify(transactionAggregateService, times(1)).getUserAggregate(any(UserAggregateRequestDTO.class));
+    }
+
+    @Test
+    void givenInvertedDateRange_whenGetUserAggregate_thenExceptionIsThrown() throws Exception {
+        var day = LocalDate.of(2026, 1, 15);
+
+        var result = mockMvc.perform(
+                post(URL_TEMPLATE)
+                        .content(objectMapper.writeValueAsString(new UserAggregateRequestDTO("userDocument", day, day.minusDays(1))))
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isBadRequest());
+        result.andExpect(jsonPath("$.exceptionName").value(MethodArgumentNotValidException.class.getSimpleName()));
+        result.andExpect(jsonPath("$.status").value(400));
+
+        verify(transactionAggregateService, times(0)).getUserAggregate(any(UserAggregateRequestDTO.class));
+    }
+}
@@ -1,9 +1,18 @@
 package com.jvnyor.cryptographychallenge.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jvnyor.cryptographychallenge.changes.TransactionChangeStream;
 import com.jvnyor.cryptographychallenge.controllers.exceptions.dtos.ErrorResponseDTO;
+import com.jvnyor.cryptographychallenge.dtos.MaskedTransactionResponseDTO;
+import com.jvnyor.cryptographychallenge.dtos.TransactionBatchResponseDTO;
+import com.jvnyor.cryptographychallenge.dtos.TransactionChangeResponseDTO;
+import com.jvnyor.cryptographychallenge.dtos.TransactionChangesResponseDTO;
+import com.jvnyor.cryptographychallenge.dtos.TransactionFilterDTO;
+import com.jvnyor.cryptographychallenge.entities.ChangeType;
+import com.jvnyor.cryptographychallenge.dtos.TransactionIdsRequestDTO;
 import com.jvnyor.cryptographychallenge.dtos.TransactionRequestDTO;
 import com.jvnyor.cryptographychallenge.dtos.TransactionResponseDTO;
+import com.jvnyor.cryptographychallenge.limiter.ConcurrencyLimitExceededException;
 import com.jvnyor.cryptographychallenge.services.TransactionService;
 import com.jvnyor.cryptographychallenge.services.exceptions.TransactionDeletionException;
 import com.jvnyor.cryptographychallenge.services.exceptions.TransactionNotFoundException;
@@ -21,13 +30,19 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.List;
 import java.util.stream.Stream;
 
 import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -47,6 +62,9 @@ class TransactionControllerTest {
     @MockBean
     private TransactionService transactionService;
 
+    @MockBean
+    private TransactionChangeStream transactionChangeStream;
+
     private TransactionRequestDTO transactionRequestDTO;
 
     private TransactionResponseDTO transactionResponseDTO;
@@ -180,6 +198,23 @@ class TransactionControllerTest {
         verify(transactionService, times(0)).updateTransaction(anyLong(), any(TransactionRequestDTO.class));
     }
 
+    @Test
+    void givenConcurrencyLimitExceeded_whenGetTransaction_thenReturnServiceUnavailableWithRetryAfter() throws Exception {
+        var concurrencyLimitExceededException = new ConcurrencyLimitExceededException("read", Duration.ofSeconds(2));
+        when(transactionService.getTransaction(anyLong())).thenThrow(concurrencyLimitExceededException);
+
+        var url = URL_TEMPLATE + "/1";
+        var result = mockMvc.perform(get(url).accept(MediaType.APPLICATION_JSON));
+
+        var errorResponseMock = getErrorResponseMock(concurrencyLimitExceededException, url, 503);
+
+        result.andExpect(status().isServiceUnavailable());
+        result.andExpect(header().string("Retry-After", "2"));
+        result.andExpect(jsonPath("$.message").value(errorResponseMock.message()));
+        result.andExpect(jsonPath("$.exceptionName").value(errorResponseMock.exceptionName()));
+        result.andExpect(jsonPath("$.status").value(errorResponseMock.status()));
+    }
+
     @Test
     void givenNonExistentIdAndTransactionRequestDTO_whenUpdateTransaction_thenExceptionIsThrown() throws Exception {
         var transactionNotFoundException = new TransactionNotFoundException(1L);
@@ -384,6 +419,163 @@ class TransactionControllerTest {
         verify(transactionService, times(1)).getTransactions(any(PageRequest.class));
     }
 
+    @Test
+    void givenRangeQueryParameters_whenGetTransactions_thenReturnFilteredPageOfTransactionResponse() throws Exception {
+        var transactionResponsePage = new PageImpl<>(Collections.singletonList(transactionResponseDTO));
+        var filter = new TransactionFilterDTO(10.0, 2000.0, Instant.parse("2024-01-01T00:00:00Z"), null);
+        when(transactionService.getTransactions(eq(filter), any(PageRequest.class))).thenReturn(transactionResponsePage);
+
+        var result = mockMvc.perform(
+                get(URL_TEMPLATE + "?minValue=10&maxValue=2000&createdFrom=2024-01-01T00:00:00Z")
+                        .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk());
+        result.andExpect(MockMvcResultMatchers.content().json(objectMapper.writeValueAsString(transactionResponsePage)));
+
+        verify(transactionService, times(1)).getTransactions(eq(filter), any(PageRequest.class));
+        verify(transactionService, times(0)).getTransactions(any(PageRequest.class));
+    }
+
+    @Test
+    void givenInvertedValueRange_whenGetTransactions_thenExceptionIsThrown() throws Exception {
+        var result = mockMvc.perform(
+                get(URL_TEMPLATE + "?minValue=2000&maxValue=10")
+                        .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isBadRequest());
+        result.andExpect(jsonPath("$.status").value(400));
+
+        verify(transactionService, times(0)).getTransactions(any(TransactionFilterDTO.class), any(PageRequest.class));
+    }
+
+    @Test
+    void givenMaskedViewParameter_whenGetMaskedTransactions_thenReturnPageOfMaskedTransactionResponse() throws Exception {
+        var maskedTransactionPage = new PageImpl<>(Collections.singletonList(new MaskedTransactionResponseDTO(1, "****8901", "****3456", 1)));
+        when(transactionService.getMaskedTransactions(any(PageRequest.class))).thenReturn(maskedTransactionPage);
+
+        var result = mockMvc.perform(
+                get(URL_TEMPLATE + "?view=masked&page=0&size=20")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk());
+        result.andExpect(MockMvcResultMatchers.content().json(objectMapper.writeValueAsString(maskedTransactionPage)));
+
+        verify(transactionService, times(1)).getMaskedTransactions(any(PageRequest.class));
+        verify(transactionService, times(0)).getTransactions(any(PageRequest.class));
+    }
+
+    @Test
+    void givenIdsQueryParameter_whenGetTransactionsByIds_thenReturnBatchResponse() throws Exception {
+        var batchResponse = new TransactionBatchResponseDTO(List.of(transactionResponseDTO), List.of(2L));
+        when(transactionService.getTransactionsByIds(List.of(1L, 2L))).thenReturn(batchResponse);
+
+        var result = mockMvc.perform(
+                get(URL_TEMPLATE + "?ids=1,2")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk());
+        result.andExpect(MockMvcResultMatchers.content().json(objectMapper.writeValueAsString(batchResponse)));
+
+        verify(transactionService, times(1)).getTransactionsByIds(List.of(1L, 2L));
+        verify(transactionService, times(0)).getTransactions(any(PageRequest.class));
+    }
+
+    @Test
+    void givenTooManyIdsQueryParameter_whenGetTransactionsByIds_thenExceptionIsThrown() throws Exception {
+        var ids = String.join(",", Collections.nCopies(TransactionIdsRequestDTO.MAX_QUERY_IDS + 1, "1"));
+
+        var result = mockMvc.perform(
+                get(URL_TEMPLATE + "?ids=" + ids)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isBadRequest());
+        result.andExpect(jsonPath("$.status").value(400));
+
+        verify(transactionService, times(0)).getTransactionsByIds(anyList());
+    }
+
+    @Test
+    void givenTransactionIdsRequestDTO_whenLookupTransactions_thenReturnBatchResponse() throws Exception {
+        var batchResponse = new TransactionBatchResponseDTO(List.of(transactionResponseDTO), List.of());
+        when(transactionService.getTransactionsByIds(List.of(1L))).thenReturn(batchResponse);
+
+        var result = mockMvc.perform(
+                post(URL_TEMPLATE + "/lookup")
+                        .content(objectMapper.writeValueAsString(new TransactionIdsRequestDTO(List.of(1L))))
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk());
+        result.andExpect(MockMvcResultMatchers.content().json(objectMapper.writeValueAsString(batchResponse)));
+
+        verify(transactionService, times(1)).getTransactionsByIds(List.of(1L));
+    }
+
+    @Test
+    void givenEmptyTransactionIdsRequestDTO_whenLookupTransactions_thenExceptionIsThrown() throws Exception {
+
+        var url = URL_TEMPLATE + "/lookup";
+        var result = mockMvc.perform(
+                post(url)
+                        .content(objectMapper.writeValueAsString(new TransactionIdsRequestDTO(List.of())))
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isBadRequest());
+        result.andExpect(jsonPath("$.path").value(url));
+        result.andExpect(jsonPath("$.exceptionName").value(MethodArgumentNotValidException.class.getSimpleName()));
+        result.andExpect(jsonPath("$.status").value(400));
+
+        verify(transactionService, times(0)).getTransactionsByIds(anyList());
+    }
+
+    @Test
+    void givenSinceQueryParameter_whenGetChanges_thenReturnChangesAndCheckpoint() throws Exception {
+        var changes = new TransactionChangesResponseDTO(List.of(
+                new TransactionChangeResponseDTO(6, 1, ChangeType.UPDATED, Instant.parse("2024-01-01T00:00:00Z"), transactionResponseDTO),
+                new TransactionChangeResponseDTO(7, 2, ChangeType.DELETED, Instant.parse("2024-01-01T00:00:01Z"), null)
+        ), 7, false);
+        when(transactionService.getChanges(5, 100)).thenReturn(changes);
+
+        var result = mockMvc.perform(
+                get(URL_TEMPLATE + "/changes?since=5")
+                        .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk());
+        result.andExpect(MockMvcResultMatchers.content().json(objectMapper.writeValueAsString(changes)));
+        result.andExpect(jsonPath("$.changes[1].type").value("DELETED"));
+        result.andExpect(jsonPath("$.checkpoint").value(7));
+    }
+
+    @Test
+    void givenLimitAboveMaximum_whenGetChanges_thenExceptionIsThrown() throws Exception {
+        var result = mockMvc.perform(
+                get(URL_TEMPLATE + "/changes?since=0&limit=" + (TransactionChangesResponseDTO.MAX_CHANGES + 1))
+                        .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isBadRequest());
+        result.andExpect(jsonPath("$.status").value(400));
+
+        verify(transactionService, times(0)).getChanges(anyLong(), anyInt());
+    }
+
+    @Test
+    void givenLastEventIdHeader_whenStreamChanges_thenSubscribeAfterLastEvent() throws Exception {
+        when(transactionChangeStream.subscribe(anyLong())).thenReturn(new SseEmitter());
+
+        var result = mockMvc.perform(
+                get(URL_TEMPLATE + "/changes/stream?since=3")
+                        .header("Last-Event-ID", "42")
+                        .accept(MediaType.TEXT_EVENT_STREAM));
+
+        result.andExpect(request().asyncStarted());
+
+        verify(transactionChangeStream, times(1)).subscribe(42);
+    }
+
     private ErrorResponseDTO getErrorResponseMock(Exception exception, String path, int status) {
         return new ErrorResponseDTO(
                 exception.getMessage(),
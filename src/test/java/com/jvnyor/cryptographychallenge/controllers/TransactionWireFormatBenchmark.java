@@ -0,0 +1,102 @@
+package com.jvnyor.cryptographychallenge.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jvnyor.cryptographychallenge.dtos.TransactionResponseDTO;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.web.PagedModel;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.util.LinkedHashMap;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the size of a single transaction and of a 100-item page in JSON, CBOR and Smile, and how fast the mappers
+ * behind the application's converters write the page and parse it back into a tree, on one thread.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark -Dtest=TransactionWireFormatBenchmark}; {@code -Dbenchmark.rounds} and
+ * {@code -Dbenchmark.calls} size the run. Every format is measured once per round and its fastest round is kept.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "logging.level.root=WARN")
+class TransactionWireFormatBenchmark {
+
+    private static final int ROUNDS = Integer.getInteger("benchmark.rounds", 3);
+
+    private static final int CALLS = Integer.getInteger("benchmark.calls", 30_000);
+
+    private static final int PAGE_SIZE = 100;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborHttpMessageConverter;
+
+    @Autowired
+    private MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter;
+
+    @Test
+    void givenPage_whenWrittenInEveryFormat_thenSmileIsTheSmallest() throws Exception {
+        var transactions = IntStream.range(0, PAGE_SIZE)
+                .mapToObj(i -> new TransactionResponseDTO(1000 + i, "123456789" + i, "41111111111111" + (10 + i), i * 12.34))
+                .toList();
+        var page = new PagedModel<>(new PageImpl<>(transactions, PageRequest.of(0, PAGE_SIZE), 5000));
+        var mappers = new LinkedHashMap<String, ObjectMapper>();
+        mappers.put("json", objectMapper);
+        mappers.put("cbor", cborHttpMessageConverter.getObjectMapper());
+        mappers.put("smile", smileHttpMessageConverter.getObjectMapper());
+
+        var results = new LinkedHashMap<String, Result>();
+        for (var round = 0; round < ROUNDS; round++) {
+            for (var format : mappers.entrySet()) {
+                var result = measure(format.getValue(), transactions.get(0), page);
+                results.merge(format.getKey(), result, Result::best);
+            }
+        }
+
+        results.forEach((format, result) -> System.out.printf("%-5s single %d B, page of %d %d B, write %.1fk/s, parse %.1fk/s%n",
+                format, result.singleBytes(), PAGE_SIZE, result.pageBytes(), result.writesPerSecond() / 1e3, result.parsesPerSecond() / 1e3));
+        var json = results.get("json");
+        var smile = results.get("smile");
+        assertTrue(smile.pageBytes() < results.get("cbor").pageBytes() && smile.pageBytes() < json.pageBytes(), results::toString);
+    }
+
+    private static Result measure(ObjectMapper mapper, Object single, Object page) throws Exception {
+        var bytes = mapper.writeValueAsBytes(page);
+        for (var i = 0; i < CALLS; i++) {
+            mapper.writeValueAsBytes(page);
+            mapper.readTree(bytes);
+        }
+        var start = System.nanoTime();
+        for (var i = 0; i < CALLS; i++) {
+            mapper.writeValueAsBytes(page);
+        }
+        var writes = CALLS / seconds(start);
+        start = System.nanoTime();
+        for (var i = 0; i < CALLS; i++) {
+            mapper.readTree(bytes);
+        }
+        var parses = CALLS / seconds(start);
+        return new Result(mapper.writeValueAsBytes(single).length, bytes.length, writes, parses);
+    }
+
+    private static double seconds(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1e9;
+    }
+
+    private record Result(int singleBytes, int pageBytes, double writesPerSecond, double parsesPerSecond) {
+
+        Result best(Result other) {
+            return new Result(singleBytes, pageBytes,
+                    Math.max(writesPerSecond, other.writesPerSecond), Math.max(parsesPerSecond, other.parsesPerSecond));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.jvnyor.cryptographychallenge.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.jvnyor.cryptographychallenge.dtos.TransactionRequestDTO;
+import com.jvnyor.cryptographychallenge.dtos.TransactionResponseDTO;
+import com.jvnyor.cryptographychallenge.services.TransactionService;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class TransactionWireFormatIntegrationTest {
+
+    private static final String URL_TEMPLATE = "/v1/transactions";
+
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    static Stream<Arguments> binaryFormats() {
+        return Stream.of(
+                Arguments.of(MediaType.APPLICATION_CBOR, new CBORMapper()),
+                Arguments.of(SMILE, new SmileMapper())
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("binaryFormats")
+    void givenBinaryContentTypeAndAccept_whenCreateTransaction_thenRequestAndResponseUseTheFormat(MediaType mediaType, ObjectMapper formatMapper) throws Exception {
+        var request = new TransactionRequestDTO("wire-user", "4111111111111111", 12.5);
+
+        var response = mockMvc.perform(post(URL_TEMPLATE)
+                        .contentType(mediaType)
+                        .accept(mediaType)
+                        .content(formatMapper.writeValueAsBytes(request)))
+                .andReturn().getResponse();
+        var transaction = formatMapper.readValue(response.getContentAsByteArray(), TransactionResponseDTO.class);
+
+        assertAll("The transaction round-trips through the binary format",
+                () -> assertEquals(201, response.getStatus()),
+                () -> assertTrue(mediaType.isCompatibleWith(MediaType.parseMediaType(response.getContentType()))),
+                () -> assertEquals("wire-user", transaction.userDocument()),
+                () -> assertEquals(12.5, transaction.value()),
+                () -> assertEquals(transaction, transactionService.getTransaction(transaction.id()))
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("binaryFormats")
+    void givenBinaryAccept_whenGetTransactions_thenPageIsSmallerThanJsonWithTheSameContent(MediaType mediaType, ObjectMapper formatMapper) throws Exception {
+        IntStream.range(0, 20).forEach(index -> transactionService.createTransaction(
+                new TransactionRequestDTO("page-user-" + index, "4111111111111" + (200 + index), index * 1.5)));
+        var url = URL_TEMPLATE + "?page=0&size=20&sort=id";
+
+        var json = mockMvc.perform(get(url)).andReturn().getResponse();
+        var binary = mockMvc.perform(get(url).accept(mediaType)).andReturn().getResponse();
+
+        assertAll("JSON stays the default and the binary page carries the same tree",
+                () -> assertTrue(MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(json.getContentType()))),
+                () -> assertTrue(mediaType.isCompatibleWith(MediaType.parseMediaType(binary.getContentType()))),
+                () -> assertEquals(objectMapper.readTree(json.getContentAsByteArray()), formatMapper.readTree(binary.getContentAsByteArray())),
+                () -> assertTrue(binary.getContentAsByteArray().length < json.getContentAsByteArray().length)
+        );
+    }
+}
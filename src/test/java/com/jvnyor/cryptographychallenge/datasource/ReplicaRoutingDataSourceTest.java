@@ -0,0 +1,170 @@
+package com.jvnyor.cryptographychallenge.datasource;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReplicaRoutingDataSourceTest {
+
+    private static final Duration LAG_TOLERANCE = Duration.ofSeconds(1);
+
+    private static final String LAST_WRITE_COOKIE = "last-write";
+
+    private final Clock clock = mock(Clock.class);
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void givenReadWriteTransaction_whenGetConnection_thenPrimaryIsUsed() throws SQLException {
+        var routingDataSource = createRoutingDataSource(ReplicaBalancing.ROUND_ROBIN, h2("replica1"), h2("replica2"));
+
+        assertEquals("jdbc:h2:mem:primary", connectionUrl(routingDataSource));
+    }
+
+    @Test
+    void givenReadOnlyTransactions_whenRoundRobin_thenReplicasAreUsedInTurn() throws SQLException {
+        var routingDataSource = createRoutingDataSource(ReplicaBalancing.ROUND_ROBIN, h2("replica1"), h2("replica2"));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertAll("Reads alternate between replicas",
+                () -> assertEquals("jdbc:h2:mem:replica1", connectionUrl(routingDataSource)),
+                () -> assertEquals("jdbc:h2:mem:replica2", connectionUrl(routingDataSource)),
+                () -> assertEquals("jdbc:h2:mem:replica1", connectionUrl(routingDataSource))
+        );
+    }
+
+    @Test
+    void givenBusyReplica_whenLeastConnections_thenIdleReplicaIsUsed() throws SQLException {
+        var routingDataSource = createRoutingDataSource(ReplicaBalancing.LEAST_CONNECTIONS, h2("replica1"), h2("replica2"));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        try (var busy = routingDataSource.getConnection()) {
+            assertAll("The idle replica gets the next read",
+                    () -> assertEquals("jdbc:h2:mem:replica1", busy.getMetaData().getURL()),
+                    () -> assertEquals(1, routingDataSource.getActiveConnections(0)),
+                    () -> assertEquals("jdbc:h2:mem:replica2", connectionUrl(routingDataSource))
+            );
+        }
+        assertEquals(0, routingDataSource.getActiveConnections(0));
+    }
+
+    @Test
+    void givenClientWriteCommitted_whenSameClientReadsWithinLagTolerance_thenPrimaryIsUsed() throws SQLException {
+        var routingDataSource = createRoutingDataSource(ReplicaBalancing.ROUND_ROBIN, h2("replica1"));
+        when(clock.millis()).thenReturn(10_000L);
+        var lastWrite = write(routingDataSource, new MockHttpServletRequest(), TransactionSynchronization::afterCommit);
+
+        when(clock.millis()).thenReturn(10_000L + LAG_TOLERANCE.toMillis() - 1);
+        var readWithinTolerance = read(routingDataSource, requestWith(lastWrite));
+        when(clock.millis()).thenReturn(10_000L + LAG_TOLERANCE.toMillis());
+        var readAfterTolerance = read(routingDataSource, requestWith(lastWrite));
+
+        assertAll("The writer reads from the primary until replicas caught up",
+                () -> assertEquals("10000", lastWrite.getValue()),
+                () -> assertEquals("jdbc:h2:mem:primary", readWithinTolerance),
+                () -> assertEquals("jdbc:h2:mem:replica1", readAfterTolerance)
+        );
+    }
+
+    @Test
+    void givenOtherClientWrote_whenReadOnlyTransaction_thenReplicaIsUsed() throws SQLException {
+        var routingDataSource = createRoutingDataSource(ReplicaBalancing.ROUND_ROBIN, h2("replica1"));
+        when(clock.millis()).thenReturn(10_000L);
+        var clientAWrite = write(routingDataSource, new MockHttpServletRequest(), TransactionSynchronization::afterCommit);
+        var rolledBackWrite = write(routingDataSource, new MockHttpServletRequest(), synchronization ->
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        var clientBRead = read(routingDataSource, new MockHttpServletRequest());
+
+        assertAll("Only the writer's own reads are kept on the primary",
+                () -> assertNotNull(clientAWrite),
+                () -> assertNull(rolledBackWrite),
+                () -> assertEquals("jdbc:h2:mem:replica1", clientBRead)
+        );
+    }
+
+    @Test
+    void givenUnavailableReplica_whenReadOnlyTransaction_thenPrimaryIsUsed() throws SQLException {
+        var unavailable = mock(DataSource.class);
+        when(unavailable.getConnection()).thenThrow(new SQLException("Connection refused"));
+        var routingDataSource = createRoutingDataSource(ReplicaBalancing.ROUND_ROBIN, unavailable);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals("jdbc:h2:mem:primary", connectionUrl(routingDataSource));
+    }
+
+    private ReplicaRoutingDataSource createRoutingDataSource(ReplicaBalancing balancing, DataSource... replicas) {
+        var routingDataSource = new ReplicaRoutingDataSource(h2("primary"), List.of(replicas), balancing, LAG_TOLERANCE,
+                new ReadYourWrites(LAST_WRITE_COOKIE, LAG_TOLERANCE), clock);
+        routingDataSource.afterPropertiesSet();
+        return routingDataSource;
+    }
+
+    private static DataSource h2(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name, "sa", "");
+    }
+
+    private static String connectionUrl(DataSource dataSource) throws SQLException {
+        try (var connection = dataSource.getConnection()) {
+            return connection.getMetaData().getURL();
+        }
+    }
+
+    /**
+     * Runs a write transaction of a client and completes it with the given callback.
+     *
+     * @return the last write cookie handed to the client, if any
+     */
+    private static Cookie write(DataSource dataSource, MockHttpServletRequest request, Consumer<TransactionSynchronization> completion) throws SQLException {
+        var response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            connectionUrl(dataSource);
+            TransactionSynchronizationManager.getSynchronizations().forEach(completion);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+            RequestContextHolder.resetRequestAttributes();
+        }
+        return response.getCookie(LAST_WRITE_COOKIE);
+    }
+
+    private static String read(DataSource dataSource, MockHttpServletRequest request) throws SQLException {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, new MockHttpServletResponse()));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try {
+            return connectionUrl(dataSource);
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    private static MockHttpServletRequest requestWith(Cookie cookie) {
+        var request = new MockHttpServletRequest();
+        request.setCookies(cookie);
+        return request;
+    }
+}
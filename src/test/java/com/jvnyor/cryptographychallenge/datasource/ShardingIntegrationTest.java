@@ -0,0 +1,134 @@
+package com.jvnyor.cryptographychallenge.datasource;
+
+import com.jvnyor.cryptographychallenge.dtos.TransactionChangeResponseDTO;
+import com.jvnyor.cryptographychallenge.dtos.TransactionChangesResponseDTO;
+import com.jvnyor.cryptographychallenge.dtos.TransactionRequestDTO;
+import com.jvnyor.cryptographychallenge.dtos.TransactionResponseDTO;
+import com.jvnyor.cryptographychallenge.dtos.UserAggregateRequestDTO;
+import com.jvnyor.cryptographychallenge.services.TransactionAggregateService;
+import com.jvnyor.cryptographychallenge.services.TransactionService;
+import com.jvnyor.cryptographychallenge.services.exceptions.TransactionNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "app.datasource.sharding.enabled=true",
+        "app.datasource.sharding.shards[0].url=jdbc:h2:mem:sharding-test-0",
+        "app.datasource.sharding.shards[0].username=sa",
+        "app.datasource.sharding.shards[1].url=jdbc:h2:mem:sharding-test-1",
+        "app.datasource.sharding.shards[1].username=sa",
+        "app.datasource.sharding.shards[2].url=jdbc:h2:mem:sharding-test-2",
+        "app.datasource.sharding.shards[2].username=sa"
+})
+@DirtiesContext
+class ShardingIntegrationTest {
+
+    private static final int SHARD_COUNT = 3;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionAggregateService transactionAggregateService;
+
+    @Autowired
+    private ShardTemplate shardTemplate;
+
+    @Test
+    void givenTransactionsOfSeveralUsers_whenCreated_thenEachIsStoredOnlyOnTheShardEncodedInItsId() {
+        var transactions = createTransactions(12);
+
+        var shardsPerTransaction = transactions.stream()
+                .map(transaction -> IntStream.range(0, SHARD_COUNT)
+                        .filter(shard -> shardJdbcTemplate(shard).queryForObject(
+                                "select count(*) from \"transaction\" where \"id\" = ?", Integer.class, transaction.id()) == 1)
+                        .boxed()
+                        .toList())
+                .toList();
+
+        assertAll("Transactions are spread over shards and ids encode their shard",
+                () -> IntStream.range(0, transactions.size()).forEach(index -> assertEquals(
+                        List.of(shardTemplate.shardForId(transactions.get(index).id())), shardsPerTransaction.get(index))),
+                () -> assertTrue(shardsPerTransaction.stream().distinct().count() > 1),
+                () -> transactions.forEach(transaction ->
+                        assertEquals(transaction, transactionService.getTransaction(transaction.id())))
+        );
+    }
+
+    @Test
+    void givenTransactionsOnAllShards_whenGetTransactionsSortedByValue_thenPagesAreMergedInOrder() {
+        var transactions = createTransactions(12);
+        var allPages = transactionService.getTransactions(PageRequest.of(0, 1000, Sort.by(Sort.Direction.DESC, "value")));
+        var expected = allPages.getContent().stream()
+                .sorted(Comparator.comparingDouble(TransactionResponseDTO::value).reversed())
+                .toList();
+
+        var page = transactionService.getTransactions(PageRequest.of(1, 4, Sort.by(Sort.Direction.DESC, "value")));
+
+        assertAll("The second page of the merged listing is returned",
+                () -> assertTrue(allPages.getTotalElements() >= transactions.size()),
+                () -> assertEquals(allPages.getTotalElements(), page.getTotalElements()),
+                () -> assertEquals(expected.subList(4, 8), page.getContent()),
+                () -> assertEquals(transactions.size(), transactionService.getTransactionsByIds(
+                        transactions.stream().map(TransactionResponseDTO::id).toList()).transactions().size())
+        );
+    }
+
+    @Test
+    void givenShardedTransaction_whenUpdatedAndDeleted_thenCachedEntryAndAggregatesFollow() {
+        var transaction = transactionService.createTransaction(new TransactionRequestDTO("shard-user", "4111111111111111", 10));
+        assertEquals(transaction, transactionService.getTransaction(transaction.id()));
+
+        var updated = transactionService.updateTransaction(transaction.id(), new TransactionRequestDTO("shard-user", "4111111111111111", 25));
+        var cached = transactionService.getTransaction(transaction.id());
+        var aggregate = transactionAggregateService.getUserAggregate(new UserAggregateRequestDTO("shard-user", null, null));
+        transactionService.deleteTransaction(transaction.id());
+
+        assertAll("Updates and deletes reach the shard of the id",
+                () -> assertEquals(updated, cached),
+                () -> assertEquals(1, aggregate.transactionCount()),
+                () -> assertEquals(25, aggregate.totalValue()),
+                () -> assertThrows(TransactionNotFoundException.class, () -> transactionService.getTransaction(transaction.id()))
+        );
+    }
+
+    @Test
+    void givenWritesOnSeveralShards_whenGetChanges_thenEveryChangeIsReturnedOnceInSequenceOrder() {
+        var checkpoint = transactionService.getChanges(0, TransactionChangesResponseDTO.MAX_CHANGES).checkpoint();
+        var transactions = createTransactions(6);
+
+        var changes = transactionService.getChanges(checkpoint, 100).changes();
+        var sequences = changes.stream().map(TransactionChangeResponseDTO::sequence).toList();
+
+        assertAll("Sequences are unique across shards and encode the shard of the change",
+                () -> assertEquals(transactions.stream().map(TransactionResponseDTO::id).sorted().toList(),
+                        changes.stream().map(TransactionChangeResponseDTO::transactionId).sorted().toList()),
+                () -> assertEquals(sequences.stream().sorted().distinct().toList(), sequences),
+                () -> changes.forEach(change -> assertEquals(shardTemplate.shardForId(change.transactionId()),
+                        (int) (change.sequence() % SHARD_COUNT)))
+        );
+    }
+
+    private List<TransactionResponseDTO> createTransactions(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(index -> transactionService.createTransaction(
+                        new TransactionRequestDTO("user-" + index, "4111111111111" + (100 + index), index * 10.0)))
+                .toList();
+    }
+
+    private static JdbcTemplate shardJdbcTemplate(int shard) {
+        return new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:sharding-test-" + shard, "sa", ""));
+    }
+}
@@ -0,0 +1,128 @@
+package com.jvnyor.cryptographychallenge.entities.converters;
+
+import org.jasypt.util.text.AES256TextEncryptor;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Stores the same rows of real {@link AES256TextEncryptor} ciphertext in a file-based H2 database twice, once as Base64
+ * text columns and once as binary columns written through {@link CiphertextConverter}, then compares the ciphertext
+ * bytes per row, the compacted database file and the time to scan both columns back into Base64 text.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark -Dtest=CiphertextStorageBenchmark}; {@code -Dbenchmark.rows} and
+ * {@code -Dbenchmark.scans} size the run. The fastest scan is kept.
+ */
+@Tag("benchmark")
+class CiphertextStorageBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 200_000);
+
+    private static final int SCANS = Integer.getInteger("benchmark.scans", 7);
+
+    private static final int DISTINCT_VALUES = 1000;
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final CiphertextConverter converter = new CiphertextConverter();
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void givenSameCiphertext_whenStoredAsBinary_thenTableIsSmallerAndScansFaster() throws Exception {
+        var encryptor = new AES256TextEncryptor();
+        encryptor.setPassword("password");
+        var userDocuments = new ArrayList<String>();
+        var cardTokens = new ArrayList<String>();
+        for (var i = 0; i < DISTINCT_VALUES; i++) {
+            userDocuments.add(encryptor.encrypt("1234567890" + i));
+            cardTokens.add(encryptor.encrypt("41111111111" + (10000 + i)));
+        }
+
+        var text = run(false, userDocuments, cardTokens);
+        var binary = run(true, userDocuments, cardTokens);
+
+        System.out.println("text   " + text);
+        System.out.println("binary " + binary);
+        assertTrue(binary.fileKilobytes() < text.fileKilobytes() && binary.scanMillis() < text.scanMillis(),
+                () -> binary + " vs " + text);
+    }
+
+    private Result run(boolean binary, List<String> userDocuments, List<String> cardTokens) throws Exception {
+        var database = directory.resolve(binary ? "binary" : "text");
+        var columnType = binary ? "varbinary(" + CiphertextConverter.MAX_LENGTH + ")" : "varchar(" + CiphertextConverter.MAX_LENGTH + ")";
+        try (var connection = DriverManager.getConnection("jdbc:h2:file:" + database, "sa", "")) {
+            connection.createStatement().execute("create table transaction_row(id bigint primary key, user_document " + columnType
+                    + " not null, credit_card_token " + columnType + " not null, transaction_value double not null)");
+            insert(connection, binary, userDocuments, cardTokens);
+            var resultSet = connection.createStatement().executeQuery(
+                    "select octet_length(user_document) + octet_length(credit_card_token) from transaction_row limit 1");
+            resultSet.next();
+            var bytesPerRow = resultSet.getInt(1);
+            var scanMillis = Long.MAX_VALUE;
+            for (var scan = 0; scan < SCANS; scan++) {
+                scanMillis = Math.min(scanMillis, scan(connection, binary));
+            }
+            connection.createStatement().execute("shutdown compact");
+            return new Result(bytesPerRow, Files.size(Path.of(database + ".mv.db")) / 1024, scanMillis);
+        }
+    }
+
+    private void insert(Connection connection, boolean binary, List<String> userDocuments, List<String> cardTokens) throws Exception {
+        connection.setAutoCommit(false);
+        var statement = connection.prepareStatement("insert into transaction_row values (?, ?, ?, ?)");
+        for (var i = 0; i < ROWS; i++) {
+            var userDocument = userDocuments.get(i % DISTINCT_VALUES);
+            var cardToken = cardTokens.get(i % DISTINCT_VALUES);
+            statement.setLong(1, i);
+            if (binary) {
+                statement.setBytes(2, converter.convertToDatabaseColumn(userDocument));
+                statement.setBytes(3, converter.convertToDatabaseColumn(cardToken));
+            } else {
+                statement.setString(2, userDocument);
+                statement.setString(3, cardToken);
+            }
+            statement.setDouble(4, i);
+            statement.addBatch();
+            if (i % BATCH_SIZE == BATCH_SIZE - 1) {
+                statement.executeBatch();
+            }
+        }
+        statement.executeBatch();
+        connection.commit();
+        connection.createStatement().execute("checkpoint sync");
+    }
+
+    private long scan(Connection connection, boolean binary) throws Exception {
+        var start = System.nanoTime();
+        var length = 0L;
+        try (var resultSet = connection.createStatement().executeQuery("select user_document, credit_card_token from transaction_row")) {
+            while (resultSet.next()) {
+                length += binary
+                        ? converter.convertToEntityAttribute(resultSet.getBytes(1)).length() + converter.convertToEntityAttribute(resultSet.getBytes(2)).length()
+                        : resultSet.getString(1).length() + resultSet.getString(2).length();
+            }
+        }
+        assertTrue(length > 0);
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private record Result(int bytesPerRow, long fileKilobytes, long scanMillis) {
+
+        @Override
+        public String toString() {
+            return String.format("%d B ciphertext per row, database file %d KB, full scan back to Base64 %d ms",
+                    bytesPerRow, fileKilobytes, scanMillis);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.jvnyor.cryptographychallenge.idfilter;
+
+import com.jvnyor.cryptographychallenge.CryptographyChallengeApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Measures {@code GET /v1/transactions/{id}} for ids that do not exist, once without and once with the id filter,
+ * through MockMvc against in-memory H2. {@code GET /v1/limiter}, which does no work, gives the cost of the MVC stack
+ * alone.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark -Dtest=TransactionIdFilterBenchmark}; {@code -Dbenchmark.rounds},
+ * {@code -Dbenchmark.iterations} and {@code -Dbenchmark.requests} size the run. Both configurations share the JVM, so
+ * each round starts one application of each and the fastest iteration of every kind is kept, the one least disturbed
+ * by JIT compilation and garbage collection.
+ */
+@Tag("benchmark")
+class TransactionIdFilterBenchmark {
+
+    private static final int ROUNDS = Integer.getInteger("benchmark.rounds", 2);
+
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 3);
+
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 20_000);
+
+    private static final int STORED = 200;
+
+    @Test
+    void givenUnknownIds_whenFilterEnabled_thenNotFoundIsCheaper() throws Exception {
+        var unfiltered = Result.NONE;
+        var filtered = Result.NONE;
+        for (var round = 0; round < ROUNDS; round++) {
+            unfiltered = unfiltered.best(run(false));
+            filtered = filtered.best(run(true));
+        }
+
+        System.out.printf("id-filter=off not found %.1f us/req, empty endpoint %.1f us/req%n", unfiltered.notFoundMicros(), unfiltered.emptyMicros());
+        System.out.printf("id-filter=on  not found %.1f us/req, empty endpoint %.1f us/req%n", filtered.notFoundMicros(), filtered.emptyMicros());
+        var off = unfiltered;
+        var on = filtered;
+        assertTrue(on.notFoundMicros() < off.notFoundMicros(), () -> on + " vs " + off);
+    }
+
+    private Result run(boolean filterEnabled) throws Exception {
+        try (var context = new SpringApplicationBuilder(CryptographyChallengeApplication.class)
+                .run("--server.port=0",
+                        "--logging.level.root=WARN",
+                        "--spring.datasource.url=jdbc:h2:mem:id-filter-" + filterEnabled,
+                        "--app.id-filter.enabled=" + filterEnabled)) {
+            var mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+            for (var i = 0; i < STORED; i++) {
+                mockMvc.perform(post("/v1/transactions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userDocument\":\"user" + i + "\",\"creditCardToken\":\"4111111111" + (100000 + i) + "\",\"value\":" + (i + 1) + "}"));
+            }
+            var best = Result.NONE;
+            for (var iteration = 0; iteration < ITERATIONS; iteration++) {
+                best = best.best(new Result(
+                        microsPerRequest(mockMvc, "/v1/transactions/", 1_000_000, 404),
+                        microsPerRequest(mockMvc, "/v1/limiter", -1, 200)));
+            }
+            return best;
+        }
+    }
+
+    private static double microsPerRequest(MockMvc mockMvc, String path, long firstId, int expectedStatus) throws Exception {
+        var start = System.nanoTime();
+        for (var i = 0; i < REQUESTS; i++) {
+            var uri = firstId < 0 ? path : path + (firstId + i);
+            assertEquals(expectedStatus, mockMvc.perform(get(uri)).andReturn().getResponse().getStatus());
+        }
+        return (System.nanoTime() - start) / 1e3 / REQUESTS;
+    }
+
+    private record Result(double notFoundMicros, double emptyMicros) {
+
+        static final Result NONE = new Result(Double.MAX_VALUE, Double.MAX_VALUE);
+
+        Result best(Result other) {
+            return new Result(Math.min(notFoundMicros, other.notFoundMicros), Math.min(emptyMicros, other.emptyMicros));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.jvnyor.cryptographychallenge.idfilter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionIdFilterTest {
+
+    private final TransactionIdFilter filter = new TransactionIdFilter(1_000, 0.01, 0.25);
+
+    @Test
+    void givenFilterNotBuilt_whenMightContain_thenEveryIdPasses() {
+        assertAll(
+                () -> assertTrue(filter.mightContain(1L)),
+                () -> assertTrue(filter.needsRebuild())
+        );
+    }
+
+    @Test
+    void givenBuiltFilter_whenMightContain_thenAddedIdsPassAndFewUnknownIdsDo() {
+        filter.rebuild(ids -> LongStream.rangeClosed(1, 500).forEach(ids));
+        filter.add(501L);
+
+        var falsePositives = LongStream.rangeClosed(1_001, 11_000).filter(filter::mightContain).count();
+
+        assertAll(
+                () -> assertTrue(LongStream.rangeClosed(1, 501).allMatch(filter::mightContain)),
+                () -> assertTrue(falsePositives < 200, "false positives: " + falsePositives),
+                () -> assertFalse(filter.needsRebuild())
+        );
+    }
+
+    @Test
+    void givenIdAddedDuringRebuild_whenRebuildCompletes_thenIdIsKept() {
+        filter.rebuild(ids -> ids.accept(1L));
+
+        filter.rebuild(ids -> {
+            ids.accept(2L);
+            filter.add(3L);
+        });
+
+        assertAll(
+                () -> assertTrue(filter.mightContain(2L)),
+                () -> assertTrue(filter.mightContain(3L))
+        );
+    }
+
+    @Test
+    void givenInsertionsDuringRebuildOverCapacity_whenRebuildCompletes_thenAnotherRebuildIsRequested() {
+        filter.rebuild(ids -> {
+            LongStream.rangeClosed(1, 10).forEach(ids);
+            LongStream.rangeClosed(11, 1_010).forEach(filter::add);
+        });
+
+        assertAll(
+                () -> assertTrue(LongStream.rangeClosed(1, 1_010).allMatch(filter::mightContain)),
+                () -> assertTrue(filter.needsRebuild())
+        );
+    }
+
+    @Test
+    void givenDeletionsDuringRebuildOverStaleRatio_whenRebuildCompletes_thenAnotherRebuildIsRequested() {
+        filter.rebuild(ids -> LongStream.rangeClosed(1, 8).forEach(ids));
+        filter.remove(1L);
+
+        filter.rebuild(ids -> {
+            LongStream.rangeClosed(2, 8).forEach(ids);
+            filter.remove(2L);
+            filter.remove(3L);
+        });
+
+        assertTrue(filter.needsRebuild());
+    }
+
+    @Test
+    void givenDeletionsOverStaleRatio_whenNeedsRebuild_thenRebuildIsRequested() {
+        filter.rebuild(ids -> LongStream.rangeClosed(1, 8).forEach(ids));
+
+        filter.remove(1L);
+        filter.remove(2L);
+        var afterTwo = filter.needsRebuild();
+        filter.remove(3L);
+
+        assertAll(
+                () -> assertFalse(afterTwo),
+                () -> assertTrue(filter.needsRebuild())
+        );
+    }
+
+    @Test
+    void givenDisabledFilter_whenRebuild_thenEveryIdStillPasses() {
+        var disabled = TransactionIdFilter.disabled();
+
+        disabled.rebuild(ids -> ids.accept(1L));
+
+        assertAll(
+                () -> assertTrue(disabled.mightContain(2L)),
+                () -> assertFalse(disabled.needsRebuild())
+        );
+    }
+}
@@ -0,0 +1,53 @@
+package com.jvnyor.cryptographychallenge.limiter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitInterceptorTest {
+
+    private final GradientLimiter readLimiter = new GradientLimiter("read", 1, 1, 1, 0.5, 2.0);
+
+    private final GradientLimiter writeLimiter = new GradientLimiter("write", 1, 1, 1, 0.5, 2.0);
+
+    private final ConcurrencyLimitInterceptor interceptor = new ConcurrencyLimitInterceptor(readLimiter, writeLimiter, Duration.ofSeconds(2));
+
+    @Test
+    void givenReadSlotTaken_whenPreHandleLookup_thenRequestIsShedAndWritesStillAdmitted() {
+        var response = new MockHttpServletResponse();
+        interceptor.preHandle(new MockHttpServletRequest("GET", "/v1/transactions/1"), response, new Object());
+
+        var exception = assertThrows(ConcurrencyLimitExceededException.class,
+                () -> interceptor.preHandle(new MockHttpServletRequest("POST", "/v1/transactions/lookup"), response, new Object()));
+        var writeAdmitted = interceptor.preHandle(new MockHttpServletRequest("POST", "/v1/transactions"), response, new Object());
+
+        assertAll(
+                () -> assertEquals(Duration.ofSeconds(2), exception.getRetryAfter()),
+                () -> assertEquals(0, exception.getStackTrace().length),
+                () -> assertTrue(writeAdmitted),
+                () -> assertEquals(1, readLimiter.getStatistics().rejected()),
+                () -> assertEquals(1, writeLimiter.getStatistics().inFlight())
+        );
+    }
+
+    @Test
+    void givenAdmittedRequest_whenAfterCompletion_thenSlotIsReleased() {
+        var request = new MockHttpServletRequest("DELETE", "/v1/transactions/1");
+        var response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, new Object());
+
+        interceptor.afterCompletion(request, response, new Object(), null);
+        interceptor.afterCompletion(request, response, new Object(), null);
+
+        var statistics = writeLimiter.getStatistics();
+        assertAll(
+                () -> assertEquals(0, statistics.inFlight()),
+                () -> assertEquals(0, statistics.dropped()),
+                () -> assertTrue(interceptor.preHandle(request, response, new Object()))
+        );
+    }
+}
@@ -0,0 +1,132 @@
+package com.jvnyor.cryptographychallenge.limiter;
+
+import com.jvnyor.cryptographychallenge.CryptographyChallengeApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Overloads {@code POST /v1/transactions} with closed-loop clients that honor {@code Retry-After}, once without and
+ * once with the concurrency limiter, and compares goodput (created transactions per second) and latency.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark -Dtest=ConcurrencyLimitOverloadBenchmark}; {@code -Dbenchmark.clients},
+ * {@code -Dbenchmark.rounds}, {@code -Dbenchmark.warm-up} and {@code -Dbenchmark.duration} (seconds) size the load.
+ */
+@Tag("benchmark")
+class ConcurrencyLimitOverloadBenchmark {
+
+    private static final int CLIENTS = Integer.getInteger("benchmark.clients", 32);
+
+    private static final Duration WARM_UP = Duration.ofSeconds(Long.getLong("benchmark.warm-up", 5));
+
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("benchmark.duration", 20));
+
+    private static final int ROUNDS = Integer.getInteger("benchmark.rounds", 3);
+
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    @Test
+    void givenOverload_whenLimiterEnabled_thenGoodputHolds() throws Exception {
+        Result unlimited = null;
+        Result limited = null;
+        // Both configurations share the JVM, so only the last round compares them with equally warm JIT
+        for (var round = 1; round <= ROUNDS; round++) {
+            unlimited = run(false);
+            limited = run(true);
+            System.out.println("round " + round + " limiter=off " + unlimited);
+            System.out.println("round " + round + " limiter=on  " + limited);
+        }
+
+        // Allows for run-to-run noise; shedding must not cost throughput
+        var off = unlimited;
+        var on = limited;
+        assertTrue(on.goodput() >= off.goodput() * 0.9, () -> on + " vs " + off);
+    }
+
+    private Result run(boolean limiterEnabled) throws Exception {
+        try (var context = new SpringApplicationBuilder(CryptographyChallengeApplication.class)
+                .run("--server.port=0",
+                        "--logging.level.root=WARN",
+                        "--spring.datasource.url=jdbc:h2:mem:overload-" + limiterEnabled,
+                        "--app.limiter.enabled=" + limiterEnabled)) {
+            var port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            var uri = URI.create("http://localhost:" + port + "/v1/transactions");
+            load(uri, WARM_UP);
+            return load(uri, DURATION);
+        }
+    }
+
+    private Result load(URI uri, Duration duration) throws InterruptedException {
+        var created = new AtomicLong();
+        var shed = new AtomicLong();
+        var failed = new AtomicLong();
+        var latencies = new ConcurrentLinkedQueue<Long>();
+        var deadline = System.nanoTime() + duration.toNanos();
+        var clients = Executors.newFixedThreadPool(CLIENTS);
+        var http = HttpClient.newHttpClient();
+        for (var c = 0; c < CLIENTS; c++) {
+            clients.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    var i = sequence.incrementAndGet();
+                    var request = HttpRequest.newBuilder(uri)
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString("{\"userDocument\":\"user" + i % 50
+                                    + "\",\"creditCardToken\":\"4111" + (100000 + i) + "\",\"value\":" + (i + 1) + "}"))
+                            .build();
+                    var start = System.nanoTime();
+                    HttpResponse<Void> response;
+                    try {
+                        response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                    } catch (IOException e) {
+                        failed.incrementAndGet();
+                        continue;
+                    }
+                    if (response.statusCode() == 201) {
+                        created.incrementAndGet();
+                        latencies.add(System.nanoTime() - start);
+                    } else if (response.statusCode() == 503) {
+                        shed.incrementAndGet();
+                        var retryAfter = response.headers().firstValueAsLong("Retry-After").orElse(1);
+                        Thread.sleep(TimeUnit.SECONDS.toMillis(retryAfter));
+                    } else {
+                        failed.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        clients.shutdown();
+        clients.awaitTermination(duration.toSeconds() + 60, TimeUnit.SECONDS);
+        var sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        return new Result(created.get() / (double) duration.toSeconds(), shed.get(), failed.get(),
+                percentileMillis(sorted, 0.5), percentileMillis(sorted, 0.99));
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        return sorted.length == 0 ? 0 : sorted[(int) (sorted.length * percentile)] / 1e6;
+    }
+
+    private record Result(double goodput, long shed, long failed, double p50Millis, double p99Millis) {
+
+        @Override
+        public String toString() {
+            return String.format("goodput %.1f/s, shed %d, failed %d, p50 %.0f ms, p99 %.0f ms",
+                    goodput, shed, failed, p50Millis, p99Millis);
+        }
+    }
+}
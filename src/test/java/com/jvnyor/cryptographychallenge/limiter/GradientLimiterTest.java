@@ -0,0 +1,166 @@
+package com.jvnyor.cryptographychallenge.limiter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GradientLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private static final long WITHIN_TOLERANCE = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private static final long QUEUED = TimeUnit.MILLISECONDS.toNanos(200);
+
+    private final GradientLimiter limiter = new GradientLimiter("read", 8, 2, 16, 0.5, 2.0);
+
+    @Test
+    void givenNoBaseline_whenTryAcquire_thenOnlyOneRequestRunsUntilItCompletes() {
+        var first = limiter.tryAcquire();
+        var second = limiter.tryAcquire();
+        limiter.release(FAST, false);
+        var afterBaseline = limiter.tryAcquire() && limiter.tryAcquire();
+
+        var statistics = limiter.getStatistics();
+        assertAll(
+                () -> assertTrue(first),
+                () -> assertFalse(second),
+                () -> assertTrue(afterBaseline),
+                () -> assertEquals(10.0, statistics.baselineMillis(), 0.001)
+        );
+    }
+
+    @Test
+    void givenLimitReached_whenTryAcquire_thenRequestIsRejected() {
+        seedBaseline();
+        for (var i = 0; i < 8; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+
+        var acquired = limiter.tryAcquire();
+
+        var statistics = limiter.getStatistics();
+        assertAll(
+                () -> assertFalse(acquired),
+                () -> assertEquals(8, statistics.inFlight()),
+                () -> assertEquals(9, statistics.accepted()),
+                () -> assertEquals(1, statistics.rejected())
+        );
+    }
+
+    @Test
+    void givenFailedRequests_whenRelease_thenLimitBacksOffDownToMinimum() {
+        seedBaseline();
+        for (var i = 0; i < 3; i++) {
+            limiter.tryAcquire();
+            limiter.release(FAST, true);
+        }
+
+        var statistics = limiter.getStatistics();
+        assertAll(
+                () -> assertEquals(2, statistics.limit()),
+                () -> assertEquals(3, statistics.dropped()),
+                () -> assertEquals(0, statistics.inFlight())
+        );
+    }
+
+    @Test
+    void givenLatencyQueuedFarAboveBaseline_whenRelease_thenLimitShrinksWithoutMovingBaseline() {
+        seedBaseline();
+        limiter.tryAcquire();
+
+        for (var round = 0; round < 10; round++) {
+            fillAndRelease(QUEUED);
+        }
+
+        var statistics = limiter.getStatistics();
+        assertAll(
+                () -> assertTrue(statistics.limit() <= 4, "limit " + statistics.limit() + " above the queueing floor"),
+                () -> assertTrue(statistics.dropped() > 0),
+                () -> assertEquals(10.0, statistics.baselineMillis(), 0.001)
+        );
+    }
+
+    @Test
+    void givenBusyRequestsWithinTolerance_whenRelease_thenLimitGrowsUpToMaximum() {
+        seedBaseline();
+        limiter.tryAcquire();
+
+        for (var round = 0; round < 10; round++) {
+            fillAndRelease(WITHIN_TOLERANCE);
+        }
+
+        var statistics = limiter.getStatistics();
+        assertAll(
+                () -> assertEquals(16, statistics.limit()),
+                () -> assertEquals(0, statistics.dropped()),
+                () -> assertEquals(10.0, statistics.baselineMillis(), 0.001)
+        );
+    }
+
+    @Test
+    void givenSlowerRequestsWithoutLoad_whenRelease_thenBaselineFollows() {
+        seedBaseline();
+        for (var i = 0; i < 50; i++) {
+            limiter.tryAcquire();
+            limiter.release(WITHIN_TOLERANCE, false);
+        }
+
+        var statistics = limiter.getStatistics();
+        assertAll(
+                () -> assertEquals(20.0, statistics.baselineMillis(), 0.1),
+                () -> assertEquals(8, statistics.limit())
+        );
+    }
+
+    @Test
+    void givenNoRequestRanAloneForLong_whenTryAcquire_thenLimiterDrainsAndProbesAlone() {
+        seedBaseline();
+        limiter.tryAcquire();
+        for (var round = 0; round < 200; round++) {
+            fillAndRelease(WITHIN_TOLERANCE);
+        }
+
+        var admittedWhileDraining = limiter.tryAcquire();
+        limiter.release(WITHIN_TOLERANCE, false);
+        var probe = limiter.tryAcquire();
+        var admittedBesideProbe = limiter.tryAcquire();
+        limiter.release(TimeUnit.MILLISECONDS.toNanos(30), false);
+        var admittedAfterProbe = limiter.tryAcquire() && limiter.tryAcquire();
+
+        var statistics = limiter.getStatistics();
+        assertAll(
+                () -> assertFalse(admittedWhileDraining),
+                () -> assertTrue(probe),
+                () -> assertFalse(admittedBesideProbe),
+                () -> assertTrue(admittedAfterProbe),
+                () -> assertEquals(12.0, statistics.baselineMillis(), 0.001)
+        );
+    }
+
+    @Test
+    void givenIdleFastRequests_whenRelease_thenLimitIsKept() {
+        seedBaseline();
+        limiter.tryAcquire();
+        limiter.release(FAST, false);
+
+        assertEquals(8, limiter.getStatistics().limit());
+    }
+
+    private void seedBaseline() {
+        limiter.tryAcquire();
+        limiter.release(FAST, false);
+    }
+
+    private void fillAndRelease(long latencyNanos) {
+        var acquired = 0;
+        while (limiter.tryAcquire()) {
+            acquired++;
+        }
+        for (var i = 0; i < acquired; i++) {
+            limiter.release(latencyNanos, false);
+        }
+    }
+}
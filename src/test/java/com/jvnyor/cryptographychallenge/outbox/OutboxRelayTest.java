@@ -0,0 +1,91 @@
+package com.jvnyor.cryptographychallenge.outbox;
+
+import com.jvnyor.cryptographychallenge.datasource.ShardTemplate;
+import com.jvnyor.cryptographychallenge.entities.ChangeType;
+import com.jvnyor.cryptographychallenge.entities.OutboxEvent;
+import com.jvnyor.cryptographychallenge.repositories.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class OutboxRelayTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2024-01-01T12:00:00Z"), ZoneOffset.UTC);
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        LongStream.rangeClosed(1, 3).forEach(sequence -> outboxEventRepository.save(
+                new OutboxEvent(sequence, 100 + sequence, ChangeType.CREATED, CLOCK.instant().minusSeconds(5))));
+        testEntityManager.flush();
+    }
+
+    @Test
+    void givenUnsentEvents_whenRelay_thenEventsArePublishedInBatchesAndMarkedSent() {
+        var sink = new InMemoryOutboxSink(10);
+        var relay = relay(sink);
+
+        var relayed = relay.relay();
+        var again = relay.relay();
+        var statistics = relay.getStatistics();
+        testEntityManager.clear();
+
+        assertAll("Publish every event once, in sequence order, and mark it sent",
+                () -> assertEquals(3, relayed),
+                () -> assertEquals(0, again),
+                () -> assertEquals(List.of(1L, 2L, 3L), sink.getEvents().stream().map(TransactionEvent::sequence).toList()),
+                () -> assertEquals(List.of(101L, 102L, 103L), sink.getEvents().stream().map(TransactionEvent::transactionId).toList()),
+                () -> assertEquals(3, statistics.published()),
+                () -> assertEquals(2, statistics.batches()),
+                () -> assertEquals(0, statistics.pending()),
+                () -> assertEquals(0, statistics.lagMillis()),
+                () -> assertTrue(outboxEventRepository.findAll().stream().allMatch(event -> CLOCK.instant().equals(event.getSentAt())))
+        );
+    }
+
+    @Test
+    void givenFailingSink_whenRelay_thenEventsStayUnsentUntilTheSinkRecovers() {
+        var failingRelay = relay(events -> {
+            throw new IllegalStateException("Broker unavailable");
+        });
+
+        var relayed = failingRelay.relay();
+        var statistics = failingRelay.getStatistics();
+        var sink = new InMemoryOutboxSink(10);
+        var retried = relay(sink).relay();
+
+        assertAll("Keep the events in the outbox and deliver them on the next relay",
+                () -> assertEquals(0, relayed),
+                () -> assertEquals(1, statistics.failed()),
+                () -> assertEquals(3, statistics.pending()),
+                () -> assertEquals(5000, statistics.lagMillis()),
+                () -> assertEquals(3, retried),
+                () -> assertEquals(3, sink.getEvents().size())
+        );
+    }
+
+    private OutboxRelay relay(OutboxSink sink) {
+        return new OutboxRelay(outboxEventRepository, sink, ShardTemplate.single(), transactionManager, CLOCK, 2, Duration.ofDays(1));
+    }
+}
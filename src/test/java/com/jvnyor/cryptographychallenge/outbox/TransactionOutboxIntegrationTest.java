@@ -0,0 +1,73 @@
+package com.jvnyor.cryptographychallenge.outbox;
+
+import com.jvnyor.cryptographychallenge.dtos.TransactionChangeResponseDTO;
+import com.jvnyor.cryptographychallenge.dtos.TransactionChangesResponseDTO;
+import com.jvnyor.cryptographychallenge.dtos.TransactionRequestDTO;
+import com.jvnyor.cryptographychallenge.entities.ChangeType;
+import com.jvnyor.cryptographychallenge.services.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"app.outbox.enabled=true", "app.outbox.poll-interval=1h"})
+@AutoConfigureMockMvc
+class TransactionOutboxIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private InMemoryOutboxSink inMemoryOutboxSink;
+
+    @Test
+    void givenTransactionWrites_whenRelay_thenEveryWriteIsPublishedWithItsChangeSequence() throws Exception {
+        var checkpoint = head();
+        var transaction = transactionService.createTransaction(new TransactionRequestDTO("outbox-user", "4111111111111114", 10));
+        transactionService.updateTransaction(transaction.id(), new TransactionRequestDTO("outbox-user", "4111111111111114", 15));
+        transactionService.deleteTransaction(transaction.id());
+
+        outboxRelay.relay();
+
+        var events = inMemoryOutboxSink.getEvents().stream()
+                .filter(event -> event.transactionId() == transaction.id())
+                .toList();
+        var changes = transactionService.getChanges(checkpoint, 10).changes();
+        assertAll("Publish the create, update and delete once each, keyed by the change sequence",
+                () -> assertEquals(List.of(ChangeType.CREATED, ChangeType.UPDATED, ChangeType.DELETED),
+                        events.stream().map(TransactionEvent::type).toList()),
+                () -> assertEquals(changes.stream().map(TransactionChangeResponseDTO::sequence).toList(),
+                        events.stream().map(TransactionEvent::sequence).toList()),
+                () -> assertEquals(0, outboxRelay.getStatistics().pending())
+        );
+        mockMvc.perform(get("/v1/outbox"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.pending").value(0))
+                .andExpect(jsonPath("$.published").isNumber());
+    }
+
+    private long head() {
+        TransactionChangesResponseDTO changes;
+        var checkpoint = 0L;
+        do {
+            changes = Objects.requireNonNull(transactionService.getChanges(checkpoint, TransactionChangesResponseDTO.MAX_CHANGES));
+            checkpoint = changes.checkpoint();
+        } while (changes.hasMore());
+        return checkpoint;
+    }
+}
@@ -0,0 +1,117 @@
+package com.jvnyor.cryptographychallenge.purge;
+
+import com.jvnyor.cryptographychallenge.datasource.ShardTemplate;
+import com.jvnyor.cryptographychallenge.repositories.CardTokenRepository;
+import com.jvnyor.cryptographychallenge.repositories.TransactionRepository;
+import com.jvnyor.cryptographychallenge.util.TransactionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class TransactionPurgerTest {
+
+    private static final Clock NIGHT = Clock.fixed(Instant.parse("2024-01-01T02:00:00Z"), ZoneOffset.UTC);
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private CardTokenRepository cardTokenRepository;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private List<Long> ids;
+
+    @BeforeEach
+    void setUp() {
+        var cardToken = cardTokenRepository.save(TransactionFactory.createCardToken());
+        this.ids = IntStream.range(0, 3)
+                .mapToObj(i -> transactionRepository.save(TransactionFactory.createTransaction(cardToken)).getId())
+                .toList();
+        transactionRepository.deleteByID(ids.get(0));
+        transactionRepository.deleteByID(ids.get(1));
+        testEntityManager.flush();
+    }
+
+    @Test
+    void givenTombstones_whenPurgeInsideWindow_thenOneBatchIsRemovedPerCall() {
+        var purger = purger(new PurgeWindow(LocalTime.of(1, 0), LocalTime.of(5, 0)));
+
+        var first = purger.purge();
+        var afterFirst = purger.getStatistics();
+        var second = purger.purge();
+        var third = purger.purge();
+        var statistics = purger.getStatistics();
+
+        assertAll("Remove tombstones batch by batch and keep live transactions",
+                () -> assertEquals(List.of(1, 1, 0), List.of(first, second, third)),
+                () -> assertEquals(1, afterFirst.pending()),
+                () -> assertEquals(0, statistics.pending()),
+                () -> assertEquals(2, statistics.purged()),
+                () -> assertEquals(2, statistics.batches()),
+                () -> assertEquals(NIGHT.instant(), statistics.lastPurgedAt()),
+                () -> assertEquals(1, countRows()),
+                () -> assertTrue(transactionRepository.findById(ids.get(2)).isPresent())
+        );
+    }
+
+    @Test
+    void givenTombstones_whenPurgeOutsideWindow_thenNothingIsRemoved() {
+        var purger = purger(new PurgeWindow(LocalTime.of(3, 0), LocalTime.of(5, 0)));
+
+        var purged = purger.purge();
+        var statistics = purger.getStatistics();
+
+        assertAll("Leave tombstones in place until the window opens",
+                () -> assertEquals(0, purged),
+                () -> assertEquals(1, statistics.skippedOutsideWindow()),
+                () -> assertEquals(2, statistics.pending()),
+                () -> assertEquals(3, countRows())
+        );
+    }
+
+    @Test
+    void givenWindowSpanningMidnight_whenContains_thenTimesOnBothSidesOfMidnightAreInside() {
+        var window = new PurgeWindow(LocalTime.of(22, 0), LocalTime.of(4, 0));
+
+        assertAll("Treat an end before the start as the next day",
+                () -> assertTrue(window.contains(LocalTime.of(23, 30))),
+                () -> assertTrue(window.contains(LocalTime.of(3, 59))),
+                () -> assertFalse(window.contains(LocalTime.of(4, 0))),
+                () -> assertFalse(window.contains(LocalTime.NOON)),
+                () -> assertTrue(new PurgeWindow(LocalTime.MIDNIGHT, LocalTime.MIDNIGHT).contains(LocalTime.NOON))
+        );
+    }
+
+    private TransactionPurger purger(PurgeWindow window) {
+        return new TransactionPurger(new JdbcTemplate(dataSource), ShardTemplate.single(), transactionManager, window, NIGHT, 1);
+    }
+
+    private long countRows() {
+        return ((Number) testEntityManager.getEntityManager()
+                .createNativeQuery("select count(*) from \"transaction\"")
+                .getSingleResult()).longValue();
+    }
+}
@@ -1,13 +1,22 @@
 package com.jvnyor.cryptographychallenge.repositories;
 
+import com.jvnyor.cryptographychallenge.dtos.TransactionFilterDTO;
+import com.jvnyor.cryptographychallenge.entities.Transaction;
 import com.jvnyor.cryptographychallenge.util.TransactionFactory;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 @DataJpaTest
 class TransactionRepositoryTest {
@@ -15,11 +24,18 @@ class TransactionRepositoryTest {
     @Autowired
     private TransactionRepository transactionRepository;
 
+    @Autowired
+    private CardTokenRepository cardTokenRepository;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
     private long existingID;
 
     @BeforeEach
     void setUp() {
-        this.existingID = transactionRepository.save(TransactionFactory.createTransaction()).getId();
+        var cardToken = cardTokenRepository.save(TransactionFactory.createCardToken());
+        this.existingID = transactionRepository.save(TransactionFactory.createTransaction(cardToken)).getId();
     }
 
     @Test
@@ -38,8 +54,109 @@ class TransactionRepositoryTest {
         assertEquals(0, deleteByID);
     }
 
+    @Test
+    void givenExistingID_whenDeleteByID_thenRowIsTombstonedAndHiddenFromReads() {
+        transactionRepository.deleteByID(existingID);
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        var deleted = testEntityManager.getEntityManager()
+                .createNativeQuery("select t.\"deleted\" from \"transaction\" t where t.\"id\" = ?1")
+                .setParameter(1, existingID)
+                .getSingleResult();
+
+        assertAll("Keep the row as a tombstone that no read returns",
+                () -> assertEquals(Boolean.TRUE, deleted),
+                () -> assertTrue(transactionRepository.findById(existingID).isEmpty()),
+                () -> assertTrue(transactionRepository.findAll(PageRequest.of(0, 20)).isEmpty()),
+                () -> assertTrue(transactionRepository.findAllMaskedBy(PageRequest.of(0, 20)).isEmpty()),
+                () -> assertTrue(transactionRepository.findIdsAfter(0, Limit.of(10)).isEmpty())
+        );
+    }
+
+    @Test
+    void givenSavedTransaction_whenReadingEncryptedColumns_thenCiphertextIsStoredAsRawBytes() {
+        testEntityManager.flush();
+
+        var row = (Object[]) testEntityManager.getEntityManager()
+                .createNativeQuery("""
+                        select t."user_document", c."token" from "transaction" t
+                        join "card_token" c on c."id" = t."card_token_id"
+                        where t."id" = ?1""")
+                .setParameter(1, existingID)
+                .getSingleResult();
+
+        assertArrayEquals(Base64.getDecoder().decode(TransactionFactory.USER_DOCUMENT_CIPHERTEXT), (byte[]) row[0]);
+        assertArrayEquals(Base64.getDecoder().decode(TransactionFactory.CREDIT_CARD_TOKEN_CIPHERTEXT), (byte[]) row[1]);
+    }
+
+    @Test
+    void givenSavedTransaction_whenFindAllMaskedBy_thenReturnMaskedDerivativesOnly() {
+        var page = transactionRepository.findAllMaskedBy(PageRequest.of(0, 20));
+        var maskedTransaction = page.getContent().get(0);
+
+        assertAll("Return masked derivatives of the saved transaction",
+                () -> assertEquals(1, page.getTotalElements()),
+                () -> assertEquals(existingID, maskedTransaction.getId()),
+                () -> assertEquals("8901", maskedTransaction.getUserDocumentSuffix()),
+                () -> assertEquals("3456", maskedTransaction.getCreditCardTokenLastFour()),
+                () -> assertEquals(1000.0, maskedTransaction.getValue())
+        );
+    }
+
     @AfterEach
     void tearDown() {
         transactionRepository.deleteAll();
+        cardTokenRepository.deleteAll();
+    }
+
+    @Test
+    void givenSavedTransaction_whenFindArchivable_thenOnlyTransactionsCreatedBeforeCutoffAreReturned() {
+        var createdAt = transactionRepository.findById(existingID).orElseThrow().getCreatedAt();
+
+        var archivable = transactionRepository.findArchivable(createdAt.plusSeconds(1), Limit.of(10));
+
+        assertAll("Return transactions created before the cutoff with their card token",
+                () -> assertEquals(List.of(existingID), archivable.stream().map(Transaction::getId).toList()),
+                () -> assertEquals(TransactionFactory.CREDIT_CARD_TOKEN_CIPHERTEXT, archivable.get(0).getCardToken().getToken()),
+                () -> assertTrue(transactionRepository.findArchivable(createdAt.minusSeconds(1), Limit.of(10)).isEmpty())
+        );
+    }
+
+    @Test
+    void givenSavedTransaction_whenFindAllMatching_thenOnlyTransactionsInsideTheRangesAreReturned() {
+        var createdAt = transactionRepository.findById(existingID).orElseThrow().getCreatedAt();
+        var pageable = PageRequest.of(0, 20);
+
+        assertAll("Return transactions inside the value and creation time ranges",
+                () -> assertEquals(List.of(existingID), transactionRepository.findAllMatching(new TransactionFilterDTO(1000.0, 1000.0, createdAt.minusSeconds(1), createdAt.plusSeconds(1)), pageable)
+                        .map(Transaction::getId).getContent()),
+                () -> assertTrue(transactionRepository.findAllMatching(new TransactionFilterDTO(1000.01, null, null, null), pageable).isEmpty()),
+                () -> assertTrue(transactionRepository.findAllMatching(new TransactionFilterDTO(null, null, null, createdAt.minusSeconds(1)), pageable).isEmpty())
+        );
+    }
+
+    @Test
+    void givenRangeQueries_whenExplained_thenCompositeIndexesAreUsed() {
+        var now = Instant.now();
+        var byCreatedAt = explain("""
+                select t."id" from "transaction" t
+                where t."created_at" >= ?1 and t."created_at" < ?2 and t."value" >= ?3""", now.minusSeconds(60), now, 1000.0);
+        var byValue = explain("""
+                select t."id" from "transaction" t
+                where t."value" >= ?1 and t."value" <= ?2 and t."created_at" >= ?3""", 1000.0, 1000.0, now.minusSeconds(60));
+
+        assertAll("Resolve range filters through the composite indexes",
+                () -> assertTrue(byCreatedAt.contains(Transaction.CREATED_AT_VALUE_INDEX.toUpperCase()), byCreatedAt),
+                () -> assertTrue(byValue.contains(Transaction.VALUE_CREATED_AT_INDEX.toUpperCase()), byValue)
+        );
+    }
+
+    private String explain(String query, Object... parameters) {
+        var nativeQuery = testEntityManager.getEntityManager().createNativeQuery("explain " + query);
+        for (int i = 0; i < parameters.length; i++) {
+            nativeQuery.setParameter(i + 1, parameters[i]);
+        }
+        return String.valueOf(nativeQuery.getSingleResult()).toUpperCase();
     }
-}
\ No newline at end of file
+}
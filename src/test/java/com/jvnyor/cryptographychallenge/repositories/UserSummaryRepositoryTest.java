@@ -0,0 +1,120 @@
+package com.jvnyor.cryptographychallenge.repositories;
+
+import com.jvnyor.cryptographychallenge.entities.UserSummary;
+import com.jvnyor.cryptographychallenge.util.TransactionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import static com.jvnyor.cryptographychallenge.util.TransactionFactory.USER_DOCUMENT_HASH;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class UserSummaryRepositoryTest {
+
+    @Autowired
+    private UserSummaryRepository userSummaryRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private CardTokenRepository cardTokenRepository;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @BeforeEach
+    void setUp() {
+        userSummaryRepository.save(new UserSummary(USER_DOCUMENT_HASH, 1, 10, 10, 10));
+    }
+
+    @Test
+    void givenExistingSummary_whenAddValue_thenCountTotalAndBoundsAreUpdated() {
+        int addValue = userSummaryRepository.addValue(USER_DOCUMENT_HASH, 25);
+
+        testEntityManager.clear();
+        var summary = userSummaryRepository.findById(USER_DOCUMENT_HASH).orElseThrow();
+
+        assertAll("Summary includes the added value",
+                () -> assertEquals(1, addValue),
+                () -> assertEquals(2, summary.getTransactionCount()),
+                () -> assertEquals(35, summary.getTotalValue()),
+                () -> assertEquals(10, summary.getMinValue()),
+                () -> assertEquals(25, summary.getMaxValue())
+        );
+    }
+
+    @Test
+    void givenNonExistentSummary_whenAddValue_thenZeroRowsAffected() {
+        int addValue = userSummaryRepository.addValue("b".repeat(64), 25);
+
+        assertEquals(0, addValue);
+    }
+
+    @Test
+    void givenRemovedBoundValue_whenSetBoundsFromRemainingTransactions_thenBoundsComeFromRemainingTransactions() {
+        var transaction = TransactionFactory.createTransaction(cardTokenRepository.save(TransactionFactory.createCardToken()));
+        transaction.setValue(40);
+        transactionRepository.save(transaction);
+        userSummaryRepository.addValue(USER_DOCUMENT_HASH, 40);
+
+        userSummaryRepository.subtractValue(USER_DOCUMENT_HASH, 10);
+        var bounds = transactionRepository.findValueBounds(USER_DOCUMENT_HASH);
+        userSummaryRepository.setBounds(USER_DOCUMENT_HASH, bounds.minValue(), bounds.maxValue());
+
+        testEntityManager.clear();
+        var summary = userSummaryRepository.findById(USER_DOCUMENT_HASH).orElseThrow();
+
+        assertAll("Summary bounds match the remaining transaction",
+                () -> assertEquals(1, summary.getTransactionCount()),
+                () -> assertEquals(40, summary.getTotalValue()),
+                () -> assertEquals(40, summary.getMinValue()),
+                () -> assertEquals(40, summary.getMaxValue())
+        );
+    }
+
+    @Test
+    void givenArchivedBounds_whenSetBoundsFromRemainingTransactions_thenArchivedBoundsAreKept() {
+        userSummaryRepository.addValue(USER_DOCUMENT_HASH, 40);
+        userSummaryRepository.addValue(USER_DOCUMENT_HASH, 5);
+        userSummaryRepository.addArchivedBounds(USER_DOCUMENT_HASH, 10, 10);
+        userSummaryRepository.addArchivedBounds(USER_DOCUMENT_HASH, 5, 5);
+
+        userSummaryRepository.subtractValue(USER_DOCUMENT_HASH, 40);
+        userSummaryRepository.setBounds(USER_DOCUMENT_HASH, null, null);
+
+        testEntityManager.clear();
+        var summary = userSummaryRepository.findById(USER_DOCUMENT_HASH).orElseThrow();
+
+        assertAll("Summary bounds come from the archived transactions once no stored one is left",
+                () -> assertEquals(5, summary.getArchivedMinValue()),
+                () -> assertEquals(10, summary.getArchivedMaxValue()),
+                () -> assertEquals(5, summary.getMinValue()),
+                () -> assertEquals(10, summary.getMaxValue())
+        );
+    }
+
+    @Test
+    void givenLastValueSubtracted_whenDeleteIfEmpty_thenSummaryIsRemoved() {
+        userSummaryRepository.subtractValue(USER_DOCUMENT_HASH, 10);
+
+        int deleteIfEmpty = userSummaryRepository.deleteIfEmpty(USER_DOCUMENT_HASH);
+        testEntityManager.clear();
+
+        assertAll("Empty summary is removed",
+                () -> assertEquals(1, deleteIfEmpty),
+                () -> assertTrue(userSummaryRepository.findById(USER_DOCUMENT_HASH).isEmpty())
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionRepository.deleteAll();
+        cardTokenRepository.deleteAll();
+        userSummaryRepository.deleteAll();
+    }
+}
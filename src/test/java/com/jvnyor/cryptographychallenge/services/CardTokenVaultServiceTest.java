@@ -0,0 +1,97 @@
+package com.jvnyor.cryptographychallenge.services;
+
+import com.jvnyor.cryptographychallenge.datasource.ShardTemplate;
+import com.jvnyor.cryptographychallenge.entities.CardToken;
+import com.jvnyor.cryptographychallenge.repositories.CardTokenRepository;
+import com.jvnyor.cryptographychallenge.services.impl.CardTokenVaultServiceImpl;
+import com.jvnyor.cryptographychallenge.tenant.TenantEncryptors;
+import com.jvnyor.cryptographychallenge.util.KeyedHasher;
+import org.jasypt.util.text.AES256TextEncryptor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CardTokenVaultServiceTest {
+
+    private static final String CREDIT_CARD_TOKEN = "creditCardToken";
+
+    private static final String TOKEN_HASH = "tokenHash";
+
+    private static final String TENANT_ID = "merchant-a";
+
+    private static final String ENCRYPTED_MESSAGE = "encrypted";
+
+    @Mock
+    private CardTokenRepository cardTokenRepository;
+
+    @Mock
+    private TenantEncryptors tenantEncryptors;
+
+    @Mock
+    private AES256TextEncryptor textEncryptor;
+
+    @Mock
+    private KeyedHasher keyedHasher;
+
+    @Spy
+    private ShardTemplate shardTemplate = ShardTemplate.single();
+
+    @InjectMocks
+    private CardTokenVaultServiceImpl cardTokenVaultService;
+
+    @Test
+    void givenKnownCreditCardToken_whenStore_thenExistingVaultEntryIsReused() {
+        var cardToken = new CardToken(1L, TENANT_ID, TOKEN_HASH, ENCRYPTED_MESSAGE);
+        when(keyedHasher.hash(CREDIT_CARD_TOKEN)).thenReturn(TOKEN_HASH);
+        when(cardTokenRepository.findByTenantIdAndTokenHash(TENANT_ID, TOKEN_HASH)).thenReturn(Optional.of(cardToken));
+
+        assertSame(cardToken, cardTokenVaultService.store(TENANT_ID, CREDIT_CARD_TOKEN));
+
+        verify(textEncryptor, times(0)).encrypt(anyString());
+        verify(cardTokenRepository, times(0)).save(any(CardToken.class));
+    }
+
+    @Test
+    void givenNewCreditCardToken_whenStore_thenTokenIsEncryptedOnceWithTheTenantKey() {
+        var cardToken = new CardToken(1L, TENANT_ID, TOKEN_HASH, ENCRYPTED_MESSAGE);
+        when(keyedHasher.hash(CREDIT_CARD_TOKEN)).thenReturn(TOKEN_HASH);
+        when(cardTokenRepository.findByTenantIdAndTokenHash(TENANT_ID, TOKEN_HASH)).thenReturn(Optional.empty());
+        when(tenantEncryptors.forTenant(TENANT_ID)).thenReturn(textEncryptor);
+        when(textEncryptor.encrypt(CREDIT_CARD_TOKEN)).thenReturn(ENCRYPTED_MESSAGE);
+        when(cardTokenRepository.save(any(CardToken.class))).thenReturn(cardToken);
+
+        assertSame(cardToken, cardTokenVaultService.store(TENANT_ID, CREDIT_CARD_TOKEN));
+
+        verify(textEncryptor, times(1)).encrypt(CREDIT_CARD_TOKEN);
+        verify(cardTokenRepository, times(1)).save(any(CardToken.class));
+    }
+
+    @Test
+    void givenExistingCardTokenId_whenReveal_thenReturnDecryptedToken() {
+        when(cardTokenRepository.findById(1L)).thenReturn(Optional.of(new CardToken(1L, TENANT_ID, TOKEN_HASH, ENCRYPTED_MESSAGE)));
+        when(tenantEncryptors.forTenant(TENANT_ID)).thenReturn(textEncryptor);
+        when(textEncryptor.decrypt(ENCRYPTED_MESSAGE)).thenReturn(CREDIT_CARD_TOKEN);
+
+        assertEquals(CREDIT_CARD_TOKEN, cardTokenVaultService.reveal(1L));
+    }
+
+    @Test
+    void givenNonExistentCardTokenId_whenReveal_thenExceptionIsThrown() {
+        when(cardTokenRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(IllegalStateException.class, () -> cardTokenVaultService.reveal(1L));
+
+        verify(textEncryptor, times(0)).decrypt(anyString());
+    }
+}
@@ -0,0 +1,62 @@
+package com.jvnyor.cryptographychallenge.services;
+
+import com.jvnyor.cryptographychallenge.dtos.TransactionRequestDTO;
+import com.jvnyor.cryptographychallenge.dtos.UserAggregateRequestDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class TransactionAggregateConcurrencyIntegrationTest {
+
+    private static final int CALLERS = 8;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionAggregateService transactionAggregateService;
+
+    @Test
+    void givenNewUser_whenFirstTransactionsAreCreatedConcurrently_thenEveryCreateSucceedsAndIsCounted() throws Exception {
+        var userDocument = "concurrent-" + UUID.randomUUID();
+        var release = new CountDownLatch(1);
+        var executor = Executors.newFixedThreadPool(CALLERS);
+        var creates = new ArrayList<Future<?>>();
+        try {
+            for (int caller = 0; caller < CALLERS; caller++) {
+                var creditCard = "41111111111" + (10000 + caller);
+                creates.add(executor.submit(() -> {
+                    release.await();
+                    return transactionService.createTransaction(new TransactionRequestDTO(userDocument, creditCard, 10));
+                }));
+            }
+            release.countDown();
+            for (var create : creates) {
+                create.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        var aggregate = transactionAggregateService.getUserAggregate(new UserAggregateRequestDTO(userDocument, null, null));
+
+        assertAll("The first writes of a user all land in one summary row",
+                () -> assertEquals(CALLERS, aggregate.transactionCount()),
+                () -> assertEquals(CALLERS * 10.0, aggregate.totalValue()),
+                () -> assertEquals(10, aggregate.minValue()),
+                () -> assertEquals(10, aggregate.maxValue()),
+                () -> assertEquals(1, aggregate.daily().size()),
+                () -> assertEquals(CALLERS, aggregate.daily().get(0).transactionCount())
+        );
+    }
+}
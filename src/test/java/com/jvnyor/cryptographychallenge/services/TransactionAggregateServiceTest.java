@@ -0,0 +1,140 @@
+package com.jvnyor.cryptographychallenge.services;
+
+import com.jvnyor.cryptographychallenge.datasource.ShardTemplate;
+import com.jvnyor.cryptographychallenge.dtos.UserAggregateRequestDTO;
+import com.jvnyor.cryptographychallenge.entities.UserDailySummary;
+import com.jvnyor.cryptographychallenge.entities.UserDailySummaryId;
+import com.jvnyor.cryptographychallenge.entities.UserSummary;
+import com.jvnyor.cryptographychallenge.repositories.TransactionStore;
+import com.jvnyor.cryptographychallenge.repositories.UserDailySummaryRepository;
+import com.jvnyor.cryptographychallenge.repositories.UserSummaryRepository;
+import com.jvnyor.cryptographychallenge.repositories.projections.ValueBounds;
+import com.jvnyor.cryptographychallenge.services.impl.TransactionAggregateServiceImpl;
+import com.jvnyor.cryptographychallenge.util.KeyedHasher;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionAggregateServiceTest {
+
+    private static final String USER_DOCUMENT_HASH = "hash";
+
+    private static final Instant CREATED_AT = Instant.parse("2026-01-15T10:00:00Z");
+
+    private static final LocalDate DAY = LocalDate.of(2026, 1, 15);
+
+    @Mock
+    private UserSummaryRepository userSummaryRepository;
+
+    @Mock
+    private UserDailySummaryRepository userDailySummaryRepository;
+
+    @Mock
+    private KeyedHasher keyedHasher;
+
+    @Mock
+    private TransactionStore transactionStore;
+
+    @Spy
+    private ShardTemplate shardTemplate = ShardTemplate.single();
+
+    @InjectMocks
+    private TransactionAggregateServiceImpl transactionAggregateService;
+
+    @Test
+    void givenNewUser_whenAddTransaction_thenSummariesAreInserted() {
+        when(userSummaryRepository.addValue(USER_DOCUMENT_HASH, 10)).thenReturn(0);
+        when(userSummaryRepository.insertIfAbsent(USER_DOCUMENT_HASH, 10)).thenReturn(true);
+        when(userDailySummaryRepository.addValue(USER_DOCUMENT_HASH, DAY, 10)).thenReturn(0);
+        when(userDailySummaryRepository.insertIfAbsent(USER_DOCUMENT_HASH, DAY, 10)).thenReturn(true);
+
+        transactionAggregateService.addTransaction(USER_DOCUMENT_HASH, 10, CREATED_AT);
+
+        verify(userSummaryRepository, times(1)).addValue(USER_DOCUMENT_HASH, 10);
+        verify(userDailySummaryRepository, times(1)).addValue(USER_DOCUMENT_HASH, DAY, 10);
+    }
+
+    @Test
+    void givenSummariesCreatedConcurrently_whenAddTransaction_thenIncrementIsRetried() {
+        when(userSummaryRepository.addValue(USER_DOCUMENT_HASH, 10)).thenReturn(0, 1);
+        when(userSummaryRepository.insertIfAbsent(USER_DOCUMENT_HASH, 10)).thenReturn(false);
+        when(userDailySummaryRepository.addValue(USER_DOCUMENT_HASH, DAY, 10)).thenReturn(0, 1);
+        when(userDailySummaryRepository.insertIfAbsent(USER_DOCUMENT_HASH, DAY, 10)).thenReturn(false);
+
+        transactionAggregateService.addTransaction(USER_DOCUMENT_HASH, 10, CREATED_AT);
+
+        verify(userSummaryRepository, times(2)).addValue(USER_DOCUMENT_HASH, 10);
+        verify(userDailySummaryRepository, times(2)).addValue(USER_DOCUMENT_HASH, DAY, 10);
+    }
+
+    @Test
+    void givenExistingUser_whenAddTransaction_thenSummariesAreIncrementedInPlace() {
+        when(userSummaryRepository.addValue(USER_DOCUMENT_HASH, 10)).thenReturn(1);
+        when(userDailySummaryRepository.addValue(USER_DOCUMENT_HASH, DAY, 10)).thenReturn(1);
+
+        transactionAggregateService.addTransaction(USER_DOCUMENT_HASH, 10, CREATED_AT);
+
+        verify(userSummaryRepository, times(0)).insertIfAbsent(anyString(), anyDouble());
+        verify(userDailySummaryRepository, times(0)).insertIfAbsent(anyString(), any(), anyDouble());
+    }
+
+    @Test
+    void givenRemainingTransactions_whenRemoveTransaction_thenBoundsAreRecomputed() {
+        when(userSummaryRepository.subtractValue(USER_DOCUMENT_HASH, 10)).thenReturn(1);
+        when(userSummaryRepository.deleteIfEmpty(USER_DOCUMENT_HASH)).thenReturn(0);
+        when(transactionStore.findValueBounds(USER_DOCUMENT_HASH)).thenReturn(new ValueBounds(20.0, 30.0));
+
+        transactionAggregateService.removeTransaction(USER_DOCUMENT_HASH, 10, CREATED_AT);
+
+        verify(userSummaryRepository, times(1)).setBounds(USER_DOCUMENT_HASH, 20.0, 30.0);
+        verify(userDailySummaryRepository, times(1)).subtractValue(USER_DOCUMENT_HASH, DAY, 10);
+        verify(userDailySummaryRepository, times(1)).deleteIfEmpty(USER_DOCUMENT_HASH, DAY);
+    }
+
+    @Test
+    void givenUserDocument_whenGetUserAggregate_thenReturnSummaryAndDailyBuckets() {
+        when(keyedHasher.hash("userDocument")).thenReturn(USER_DOCUMENT_HASH);
+        when(userDailySummaryRepository.findDays(USER_DOCUMENT_HASH, DAY, DAY))
+                .thenReturn(List.of(new UserDailySummary(new UserDailySummaryId(USER_DOCUMENT_HASH, DAY), 2, 30)));
+        when(userSummaryRepository.findById(USER_DOCUMENT_HASH))
+                .thenReturn(Optional.of(new UserSummary(USER_DOCUMENT_HASH, 2, 30, 10, 20)));
+
+        var userAggregate = transactionAggregateService.getUserAggregate(new UserAggregateRequestDTO(" userDocument ", DAY, DAY));
+
+        assertAll("Return user aggregate without touching transactions",
+                () -> assertEquals(2, userAggregate.transactionCount()),
+                () -> assertEquals(30, userAggregate.totalValue()),
+                () -> assertEquals(10, userAggregate.minValue()),
+                () -> assertEquals(20, userAggregate.maxValue()),
+                () -> assertEquals(1, userAggregate.daily().size()),
+                () -> assertEquals(DAY, userAggregate.daily().get(0).day())
+        );
+    }
+
+    @Test
+    void givenUnknownUserDocument_whenGetUserAggregate_thenReturnEmptyAggregate() {
+        when(keyedHasher.hash("userDocument")).thenReturn(USER_DOCUMENT_HASH);
+        when(userSummaryRepository.findById(USER_DOCUMENT_HASH)).thenReturn(Optional.empty());
+
+        var userAggregate = transactionAggregateService.getUserAggregate(new UserAggregateRequestDTO("userDocument", null, null));
+
+        assertAll("Return empty aggregate",
+                () -> assertEquals(0, userAggregate.transactionCount()),
+                () -> assertNull(userAggregate.minValue()),
+                () -> assertTrue(userAggregate.daily().isEmpty())
+        );
+    }
+}
@@ -0,0 +1,64 @@
+package com.jvnyor.cryptographychallenge.services;
+
+import com.jvnyor.cryptographychallenge.audit.AuditLog;
+import com.jvnyor.cryptographychallenge.dtos.TransactionRequestDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest
+class TransactionBatchCacheConcurrencyIntegrationTest {
+
+    private static final String BATCH_THREAD = "batch-reader";
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @SpyBean
+    private AuditLog auditLog;
+
+    @Test
+    void givenUpdateWhileGetTransactionsByIdsIsLoading_whenLoadCompletes_thenStaleTransactionIsNotCached() throws Exception {
+        var transaction = transactionService.createTransaction(new TransactionRequestDTO("batch-race-user", "4111111111111111", 10));
+        var loading = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            if (Thread.currentThread().getName().equals(BATCH_THREAD)) {
+                loading.countDown();
+                assertTrue(release.await(10, TimeUnit.SECONDS));
+            }
+            return invocation.callRealMethod();
+        }).when(auditLog).recordDecryption(anyLong(), anyString(), anyString(), any());
+        var executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, BATCH_THREAD));
+        try {
+            var batch = executor.submit(() -> transactionService.getTransactionsByIds(List.of(transaction.id())));
+            assertTrue(loading.await(10, TimeUnit.SECONDS));
+            transactionService.updateTransaction(transaction.id(), new TransactionRequestDTO("batch-race-user", "4111111111111111", 25));
+            release.countDown();
+            var loaded = batch.get(10, TimeUnit.SECONDS);
+
+            var afterUpdate = transactionService.getTransaction(transaction.id());
+            var batchAfterUpdate = transactionService.getTransactionsByIds(List.of(transaction.id()));
+            assertAll("The value read before the update is returned to its caller only",
+                    () -> assertEquals(10, loaded.transactions().get(0).value()),
+                    () -> assertEquals(25, afterUpdate.value()),
+                    () -> assertEquals(25, batchAfterUpdate.transactions().get(0).value())
+            );
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+}
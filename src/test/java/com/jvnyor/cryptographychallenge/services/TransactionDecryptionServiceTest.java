@@ -0,0 +1,79 @@
+package com.jvnyor.cryptographychallenge.services;
+
+import com.jvnyor.cryptographychallenge.archive.ArchivedTransaction;
+import com.jvnyor.cryptographychallenge.audit.AuditContext;
+import com.jvnyor.cryptographychallenge.audit.AuditLog;
+import com.jvnyor.cryptographychallenge.dtos.TransactionResponseDTO;
+import com.jvnyor.cryptographychallenge.entities.CardToken;
+import com.jvnyor.cryptographychallenge.entities.Transaction;
+import com.jvnyor.cryptographychallenge.services.impl.TransactionDecryptionServiceImpl;
+import com.jvnyor.cryptographychallenge.tenant.TenantEncryptors;
+import org.jasypt.util.text.AES256TextEncryptor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionDecryptionServiceTest {
+
+    private static final String TENANT_ID = "merchant-a";
+
+    private static final String DECRYPTED_FIELDS = "userDocument,creditCardToken";
+
+    private static final AuditContext SYSTEM_CONTEXT = new AuditContext("system", Thread.currentThread().getName());
+
+    @Mock
+    private TenantEncryptors tenantEncryptors;
+
+    @Mock
+    private AES256TextEncryptor textEncryptor;
+
+    @Mock
+    private CardTokenVaultService cardTokenVaultService;
+
+    @Mock
+    private AuditLog auditLog;
+
+    @InjectMocks
+    private TransactionDecryptionServiceImpl transactionDecryptionService;
+
+    @BeforeEach
+    void setUp() {
+        when(tenantEncryptors.forTenant(TENANT_ID)).thenReturn(textEncryptor);
+    }
+
+    @Test
+    void givenLiveTransaction_whenDecrypt_thenCardTokenIsRevealedFromTheVaultAndDecryptionIsAudited() {
+        var transaction = new Transaction(1L, "encryptedDocument", new CardToken(7L, TENANT_ID, "tokenHash", "encryptedToken"), 10);
+        transaction.setTenantId(TENANT_ID);
+        when(textEncryptor.decrypt("encryptedDocument")).thenReturn("userDocument");
+        when(cardTokenVaultService.reveal(7L)).thenReturn("creditCardToken");
+
+        var transactionResponse = transactionDecryptionService.decrypt(transaction);
+
+        assertEquals(new TransactionResponseDTO(1L, "userDocument", "creditCardToken", 10), transactionResponse);
+        verify(auditLog, times(1)).recordDecryption(1L, TENANT_ID, DECRYPTED_FIELDS, SYSTEM_CONTEXT);
+    }
+
+    @Test
+    void givenArchivedTransaction_whenDecrypt_thenBothFieldsAreDecryptedWithTheTenantKeyAndDecryptionIsAudited() {
+        var transaction = new ArchivedTransaction(2L, TENANT_ID, "encryptedDocument", "hash", "1234",
+                "encryptedToken", "1111", 20, Instant.EPOCH);
+        when(textEncryptor.decrypt("encryptedDocument")).thenReturn("userDocument");
+        when(textEncryptor.decrypt("encryptedToken")).thenReturn("creditCardToken");
+
+        var transactionResponse = transactionDecryptionService.decrypt(transaction);
+
+        assertEquals(new TransactionResponseDTO(2L, "userDocument", "creditCardToken", 20), transactionResponse);
+        verify(auditLog, times(1)).recordDecryption(2L, TENANT_ID, DECRYPTED_FIELDS, SYSTEM_CONTEXT);
+        verifyNoInteractions(cardTokenVaultService);
+    }
+}
@@ -1,27 +1,60 @@
 package com.jvnyor.cryptographychallenge.services;
 
+import com.jvnyor.cryptographychallenge.archive.ArchivedTransaction;
+import com.jvnyor.cryptographychallenge.archive.TransactionArchive;
+import com.jvnyor.cryptographychallenge.audit.AuditContext;
+import com.jvnyor.cryptographychallenge.audit.AuditLog;
+import com.jvnyor.cryptographychallenge.cache.singleflight.SingleFlightCache;
+import com.jvnyor.cryptographychallenge.cache.singleflight.SingleFlightCacheManager;
+import com.jvnyor.cryptographychallenge.datasource.ShardTemplate;
+import com.jvnyor.cryptographychallenge.dtos.TransactionChangeResponseDTO;
+import com.jvnyor.cryptographychallenge.dtos.TransactionFilterDTO;
 import com.jvnyor.cryptographychallenge.dtos.TransactionRequestDTO;
+import com.jvnyor.cryptographychallenge.dtos.TransactionResponseDTO;
+import com.jvnyor.cryptographychallenge.entities.CardToken;
+import com.jvnyor.cryptographychallenge.entities.ChangeType;
 import com.jvnyor.cryptographychallenge.entities.Transaction;
+import com.jvnyor.cryptographychallenge.entities.TransactionChange;
+import com.jvnyor.cryptographychallenge.idfilter.TransactionIdFilter;
 import com.jvnyor.cryptographychallenge.repositories.TransactionRepository;
+import com.jvnyor.cryptographychallenge.repositories.projections.MaskedTransactionView;
 import com.jvnyor.cryptographychallenge.services.exceptions.TransactionDeletionException;
 import com.jvnyor.cryptographychallenge.services.exceptions.TransactionNotFoundException;
+import com.jvnyor.cryptographychallenge.services.impl.TransactionDecryptionServiceImpl;
 import com.jvnyor.cryptographychallenge.services.impl.TransactionServiceImpl;
+import com.jvnyor.cryptographychallenge.services.impl.TransactionWriteServiceImpl;
+import com.jvnyor.cryptographychallenge.tenant.TenantEncryptors;
+import com.jvnyor.cryptographychallenge.tenant.TenantResolver;
+import com.jvnyor.cryptographychallenge.util.CacheConstants;
+import com.jvnyor.cryptographychallenge.util.KeyedHasher;
 import org.jasypt.util.text.AES256TextEncryptor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
+import java.time.Instant;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.LongStream;
 
+import static com.jvnyor.cryptographychallenge.config.CacheConfig.tenantCacheKey;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -36,6 +69,14 @@ class TransactionServiceTest {
 
     private static final String TRANSACTION_WITH_ID_1_NOT_FOUND = "Transaction with id 1 not found";
 
+    private static final String PREVIOUS_USER_DOCUMENT_HASH = "previousHash";
+
+    private static final String USER_DOCUMENT_HASH = "hash";
+
+    private static final String TENANT_HEADER = "X-Tenant-Id";
+
+    private static final String TENANT_ID = "merchant-a";
+
     private static final String TRANSACTION_DELETE_ERROR_WITH_ID_1 = "Failed to delete transaction with id: 1";
 
     @Mock
@@ -44,11 +85,48 @@ class TransactionServiceTest {
     @Mock
     private AES256TextEncryptor textEncryptor;
 
-    @InjectMocks
+    @Mock
+    private TenantEncryptors tenantEncryptors;
+
+    @Spy
+    private TenantResolver tenantResolver = new TenantResolver(TENANT_HEADER, Set.of(TENANT_ID));
+
+    @Mock
+    private SingleFlightCacheManager cacheManager;
+
+    @Spy
+    private SingleFlightCache cache = new SingleFlightCache(new ConcurrentMapCache(CacheConstants.GET_TRANSACTION));
+
+    @Mock
+    private KeyedHasher keyedHasher;
+
+    @Mock
+    private TransactionAggregateService transactionAggregateService;
+
+    @Mock
+    private CardTokenVaultService cardTokenVaultService;
+
+    @Mock
+    private TransactionArchive transactionArchive;
+
+    @Mock
+    private AuditLog auditLog;
+
+    @Mock
+    private TransactionChangeService transactionChangeService;
+
+    @Spy
+    private ShardTemplate shardTemplate = ShardTemplate.single();
+
+    @Spy
+    private TransactionIdFilter transactionIdFilter = new TransactionIdFilter(100, 0.01, 0.25);
+
     private TransactionServiceImpl transactionService;
 
     private TransactionRequestDTO transactionRequestDTO;
 
+    private CardToken cardToken;
+
     private Transaction transaction;
 
     @BeforeEach
@@ -58,19 +136,29 @@ class TransactionServiceTest {
                 "creditCardToken",
                 1
         );
+        this.cardToken = new CardToken(1L, TenantResolver.DEFAULT_TENANT, "tokenHash", ENCRYPTED_MESSAGE_NOT_UPDATED);
         this.transaction = new Transaction(
                 1L,
                 ENCRYPTED_MESSAGE_NOT_UPDATED,
-                ENCRYPTED_MESSAGE_NOT_UPDATED,
+                cardToken,
                 1
         );
+        this.transaction.setTenantId(TenantResolver.DEFAULT_TENANT);
+        lenient().when(tenantEncryptors.forTenant(TenantResolver.DEFAULT_TENANT)).thenReturn(textEncryptor);
+        this.transactionService = new TransactionServiceImpl(transactionRepository, tenantResolver, cacheManager, shardTemplate,
+                transactionArchive, transactionIdFilter, transactionChangeService,
+                new TransactionWriteServiceImpl(transactionRepository, tenantEncryptors, tenantResolver, keyedHasher,
+                        cardTokenVaultService, shardTemplate, transactionIdFilter, transactionAggregateService, transactionChangeService),
+                new TransactionDecryptionServiceImpl(tenantEncryptors, cardTokenVaultService, auditLog));
     }
 
     @Test
     void givenTransactionRequestDTO_whenCreateTransaction_thenReturnTransactionResponse() {
         when(textEncryptor.encrypt(anyString())).thenReturn(ENCRYPTED_MESSAGE_NOT_UPDATED);
+        when(cardTokenVaultService.store(anyString(), anyString())).thenReturn(cardToken);
         when(transactionRepository.save(any(Transaction.class))).thenReturn(transaction);
         when(textEncryptor.decrypt(anyString())).thenReturn(DECRYPTED_MESSAGE);
+        when(cardTokenVaultService.reveal(anyLong())).thenReturn(DECRYPTED_MESSAGE);
 
         var transactionResponse = transactionService.createTransaction(transactionRequestDTO);
 
@@ -81,27 +169,68 @@ class TransactionServiceTest {
                 () -> assertEquals(transaction.getValue(), transactionResponse.value())
         );
 
-        verify(textEncryptor, times(2)).encrypt(anyString());
+        verify(textEncryptor, times(1)).encrypt(anyString());
+        verify(keyedHasher, times(1)).hash("userDocument");
         verify(transactionRepository, times(1)).save(any(Transaction.class));
-        verify(textEncryptor, times(2)).decrypt(anyString());
+        verify(transactionAggregateService, times(1)).addTransaction(transaction.getUserDocumentHash(), transaction.getValue(), transaction.getCreatedAt());
+        verify(transactionChangeService, times(1)).recordChange(transaction.getId(), ChangeType.CREATED);
+        verify(textEncryptor, times(1)).decrypt(anyString());
+        verify(cardTokenVaultService, times(1)).reveal(anyLong());
+    }
+
+    @Test
+    void givenTenantHeader_whenCreateTransaction_thenTransactionIsEncryptedWithTheTenantKey() {
+        var request = new MockHttpServletRequest();
+        request.addHeader(TENANT_HEADER, TENANT_ID);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            var tenantEncryptor = mock(AES256TextEncryptor.class);
+            when(tenantEncryptors.forTenant(TENANT_ID)).thenReturn(tenantEncryptor);
+            when(tenantEncryptor.encrypt(anyString())).thenReturn(ENCRYPTED_MESSAGE_NOT_UPDATED);
+            when(cardTokenVaultService.store(TENANT_ID, "creditCardToken")).thenReturn(cardToken);
+            when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> {
+                Transaction saved = invocation.getArgument(0);
+                saved.setId(1L);
+                return saved;
+            });
+            when(cardTokenVaultService.reveal(anyLong())).thenReturn(DECRYPTED_MESSAGE);
+            when(tenantEncryptor.decrypt(anyString())).thenReturn(DECRYPTED_MESSAGE);
+
+            transactionService.createTransaction(transactionRequestDTO);
+
+            var saved = ArgumentCaptor.forClass(Transaction.class);
+            verify(transactionRepository).save(saved.capture());
+            assertEquals(TENANT_ID, saved.getValue().getTenantId());
+            verify(tenantEncryptor, times(1)).encrypt("userDocument");
+            verify(textEncryptor, times(0)).encrypt(anyString());
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
     }
 
     @Test
     void givenDatabaseRejection_whenCreateTransaction_thenExceptionIsThrown() {
         when(textEncryptor.encrypt(anyString())).thenReturn(ENCRYPTED_MESSAGE_NOT_UPDATED);
+        when(cardTokenVaultService.store(anyString(), anyString())).thenReturn(cardToken);
         when(transactionRepository.save(any(Transaction.class))).thenThrow(DataIntegrityViolationException.class);
 
         assertThrows(DataIntegrityViolationException.class, () -> transactionService.createTransaction(transactionRequestDTO));
-        verify(textEncryptor, times(2)).encrypt(anyString());
+        verify(textEncryptor, times(1)).encrypt(anyString());
         verify(transactionRepository, times(1)).save(any(Transaction.class));
+        verify(transactionAggregateService, times(0)).addTransaction(any(), anyDouble(), any());
+        verify(transactionChangeService, times(0)).recordChange(anyLong(), any());
     }
 
     @Test
     void givenExistingIdAndTransactionRequestDTO_whenUpdateTransaction_thenReturnTransactionResponse() {
+        transaction.setUserDocumentHash(PREVIOUS_USER_DOCUMENT_HASH);
         when(transactionRepository.findById(anyLong())).thenReturn(Optional.of(transaction));
+        when(keyedHasher.hash(anyString())).thenReturn(USER_DOCUMENT_HASH);
         when(textEncryptor.encrypt(anyString())).thenReturn(ENCRYPTED_MESSAGE_UPDATED);
+        when(cardTokenVaultService.store(anyString(), anyString())).thenReturn(cardToken);
         when(transactionRepository.save(any(Transaction.class))).thenReturn(transaction);
         when(textEncryptor.decrypt(anyString())).thenReturn(DECRYPTED_MESSAGE);
+        when(cardTokenVaultService.reveal(anyLong())).thenReturn(DECRYPTED_MESSAGE);
 
         var transactionResponse = transactionService.updateTransaction(1L, transactionRequestDTO);
 
@@ -113,9 +242,13 @@ class TransactionServiceTest {
         );
 
         verify(transactionRepository, times(1)).findById(anyLong());
-        verify(textEncryptor, times(2)).encrypt(anyString());
+        verify(textEncryptor, times(1)).encrypt(anyString());
         verify(transactionRepository, times(1)).save(any(Transaction.class));
-        verify(textEncryptor, times(2)).decrypt(anyString());
+        verify(transactionAggregateService, times(1)).removeTransaction(PREVIOUS_USER_DOCUMENT_HASH, 1, transaction.getCreatedAt());
+        verify(transactionAggregateService, times(1)).addTransaction(USER_DOCUMENT_HASH, transactionRequestDTO.value(), transaction.getCreatedAt());
+        verify(transactionChangeService, times(1)).recordChange(transaction.getId(), ChangeType.UPDATED);
+        verify(textEncryptor, times(1)).decrypt(anyString());
+        verify(cardTokenVaultService, times(1)).reveal(anyLong());
     }
 
     @Test
@@ -128,57 +261,90 @@ class TransactionServiceTest {
         verify(textEncryptor, times(0)).encrypt(anyString());
         verify(transactionRepository, times(0)).save(any(Transaction.class));
         verify(textEncryptor, times(0)).decrypt(anyString());
+        verify(cardTokenVaultService, times(0)).reveal(anyLong());
     }
 
     @Test
     void givenDatabaseRejection_whenUpdateTransaction_thenExceptionIsThrown() {
         when(transactionRepository.findById(any(Long.class))).thenReturn(Optional.of(transaction));
         when(textEncryptor.encrypt(any(String.class))).thenReturn(ENCRYPTED_MESSAGE_UPDATED);
+        when(cardTokenVaultService.store(anyString(), anyString())).thenReturn(cardToken);
         when(transactionRepository.save(any(Transaction.class))).thenThrow(DataIntegrityViolationException.class);
 
         assertThrows(DataIntegrityViolationException.class, () -> transactionService.updateTransaction(1L, transactionRequestDTO));
 
         verify(transactionRepository, times(1)).findById(anyLong());
-        verify(textEncryptor, times(2)).encrypt(any(String.class));
+        verify(textEncryptor, times(1)).encrypt(any(String.class));
         verify(transactionRepository, times(1)).save(any(Transaction.class));
     }
 
     @Test
     void givenExistingId_whenDeleteTransaction_thenNoExceptionIsThrown() {
-        when(transactionRepository.existsById(anyLong())).thenReturn(true);
+        when(transactionRepository.findById(anyLong())).thenReturn(Optional.of(transaction));
         when(transactionRepository.deleteByID(anyLong())).thenReturn(1);
 
         assertDoesNotThrow(() -> transactionService.deleteTransaction(1L));
 
-        verify(transactionRepository, times(1)).existsById(anyLong());
+        verify(transactionRepository, times(1)).findById(anyLong());
         verify(transactionRepository, times(1)).deleteByID(anyLong());
+        verify(transactionAggregateService, times(1)).removeTransaction(transaction.getUserDocumentHash(), transaction.getValue(), transaction.getCreatedAt());
+        verify(transactionChangeService, times(1)).recordChange(1L, ChangeType.DELETED);
     }
 
     @Test
     void givenNonExistentId_whenDeleteTransaction_thenExceptionIsThrown() {
-        when(transactionRepository.existsById(anyLong())).thenReturn(false);
+        when(transactionRepository.findById(anyLong())).thenReturn(Optional.empty());
 
         assertThrows(TransactionNotFoundException.class, () -> transactionService.deleteTransaction(1L), TRANSACTION_WITH_ID_1_NOT_FOUND);
 
-        verify(transactionRepository, times(1)).existsById(anyLong());
+        verify(transactionRepository, times(1)).findById(anyLong());
         verify(transactionRepository, times(0)).deleteByID(anyLong());
     }
 
     @Test
     void givenExistingId_whenDeleteTransaction_butZeroRowsAffected_thenExceptionIsThrown() {
-        when(transactionRepository.existsById(anyLong())).thenReturn(true);
+        when(transactionRepository.findById(anyLong())).thenReturn(Optional.of(transaction));
         when(transactionRepository.deleteByID(anyLong())).thenReturn(0);
 
         assertThrows(TransactionDeletionException.class, () -> transactionService.deleteTransaction(1L), TRANSACTION_DELETE_ERROR_WITH_ID_1);
 
-        verify(transactionRepository, times(1)).existsById(anyLong());
+        verify(transactionRepository, times(1)).findById(anyLong());
         verify(transactionRepository, times(1)).deleteByID(anyLong());
+        verify(transactionAggregateService, times(0)).removeTransaction(any(), anyDouble(), any());
+        verify(transactionChangeService, times(0)).recordChange(anyLong(), any());
+    }
+
+    @Test
+    void givenChangesSinceCheckpoint_whenGetChanges_thenReturnCurrentStateAndTombstones() {
+        var changedAt = Instant.parse("2024-01-01T00:00:00Z");
+        when(transactionChangeService.findChangesAfter(4, 3)).thenReturn(List.of(
+                new TransactionChange(5, 1, ChangeType.CREATED, changedAt),
+                new TransactionChange(6, 1, ChangeType.UPDATED, changedAt),
+                new TransactionChange(7, 2, ChangeType.DELETED, changedAt)));
+        when(cacheManager.getCache(CacheConstants.GET_TRANSACTION)).thenReturn(cache);
+        when(transactionRepository.findAllById(List.of(1L))).thenReturn(List.of(transaction));
+        when(textEncryptor.decrypt(anyString())).thenReturn(DECRYPTED_MESSAGE);
+        when(cardTokenVaultService.reveal(anyLong())).thenReturn(DECRYPTED_MESSAGE);
+
+        var changes = transactionService.getChanges(4, 3);
+
+        assertAll("Changed transactions are resolved once and deletes are tombstones",
+                () -> assertEquals(List.of(5L, 6L, 7L), changes.changes().stream().map(TransactionChangeResponseDTO::sequence).toList()),
+                () -> assertEquals(DECRYPTED_MESSAGE, changes.changes().get(0).transaction().userDocument()),
+                () -> assertEquals(changes.changes().get(0).transaction(), changes.changes().get(1).transaction()),
+                () -> assertEquals(ChangeType.DELETED, changes.changes().get(2).type()),
+                () -> assertNull(changes.changes().get(2).transaction()),
+                () -> assertEquals(7, changes.checkpoint()),
+                () -> assertTrue(changes.hasMore())
+        );
+        verify(textEncryptor, times(1)).decrypt(anyString());
     }
 
     @Test
     void givenExistingId_whenGetTransaction_thenReturnTransactionResponse() {
         when(transactionRepository.findById(anyLong())).thenReturn(Optional.of(transaction));
         when(textEncryptor.decrypt(anyString())).thenReturn(DECRYPTED_MESSAGE);
+        when(cardTokenVaultService.reveal(anyLong())).thenReturn(DECRYPTED_MESSAGE);
 
         var transactionResponse = transactionService.getTransaction(1L);
 
@@ -190,7 +356,9 @@ class TransactionServiceTest {
         );
 
         verify(transactionRepository, times(1)).findById(anyLong());
-        verify(textEncryptor, times(2)).decrypt(any(String.class));
+        verify(textEncryptor, times(1)).decrypt(any(String.class));
+        verify(cardTokenVaultService, times(1)).reveal(anyLong());
+        verify(auditLog, times(1)).recordDecryption(1L, TenantResolver.DEFAULT_TENANT, "userDocument,creditCardToken", new AuditContext("system", Thread.currentThread().getName()));
     }
 
     @Test
@@ -201,12 +369,67 @@ class TransactionServiceTest {
 
         verify(transactionRepository, times(1)).findById(anyLong());
         verify(textEncryptor, times(0)).decrypt(any(String.class));
+        verify(cardTokenVaultService, times(0)).reveal(anyLong());
+    }
+
+    @Test
+    void givenIdUnknownToIdFilter_whenGetTransaction_thenExceptionIsThrownWithoutStorageLookup() {
+        transactionIdFilter.rebuild(ids -> ids.accept(2L));
+
+        var exception = assertThrows(TransactionNotFoundException.class, () -> transactionService.getTransaction(1L));
+
+        assertAll("Reject unknown id with a stackless exception",
+                () -> assertEquals(TRANSACTION_WITH_ID_1_NOT_FOUND, exception.getMessage()),
+                () -> assertEquals(0, exception.getStackTrace().length)
+        );
+
+        verifyNoInteractions(transactionRepository, transactionArchive);
+    }
+
+    @Test
+    void givenIdUnknownToIdFilter_whenGetTransactionsByIds_thenIdIsReportedMissingWithoutLookup() {
+        transactionIdFilter.rebuild(ids -> ids.accept(1L));
+        when(cacheManager.getCache(CacheConstants.GET_TRANSACTION)).thenReturn(cache);
+        when(transactionRepository.findAllById(List.of(1L))).thenReturn(List.of(transaction));
+        when(textEncryptor.decrypt(anyString())).thenReturn(DECRYPTED_MESSAGE);
+        when(cardTokenVaultService.reveal(anyLong())).thenReturn(DECRYPTED_MESSAGE);
+
+        var batchResponse = transactionService.getTransactionsByIds(List.of(1L, 3L));
+
+        assertAll("Return known transaction and report unknown id as missing",
+                () -> assertEquals(List.of(1L), batchResponse.transactions().stream().map(TransactionResponseDTO::id).toList()),
+                () -> assertEquals(List.of(3L), batchResponse.missingIds())
+        );
+
+        verify(cache, never()).get(tenantCacheKey(TenantResolver.DEFAULT_TENANT, 3L));
+        verify(transactionArchive, never()).find(anyLong());
+    }
+
+    @Test
+    void givenArchivedId_whenGetTransaction_thenReturnTransactionFromArchive() {
+        when(transactionRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(transactionArchive.find(1L)).thenReturn(Optional.of(new ArchivedTransaction(
+                1L, TenantResolver.DEFAULT_TENANT, ENCRYPTED_MESSAGE_NOT_UPDATED, USER_DOCUMENT_HASH, "ment", ENCRYPTED_MESSAGE_UPDATED, "oken", 1, Instant.EPOCH)));
+        when(textEncryptor.decrypt(anyString())).thenReturn(DECRYPTED_MESSAGE);
+
+        var transactionResponse = transactionService.getTransaction(1L);
+
+        assertAll("Return archived transaction with decrypted fields",
+                () -> assertEquals(1L, transactionResponse.id()),
+                () -> assertEquals(DECRYPTED_MESSAGE, transactionResponse.userDocument()),
+                () -> assertEquals(DECRYPTED_MESSAGE, transactionResponse.creditCardToken())
+        );
+
+        verify(textEncryptor, times(1)).decrypt(ENCRYPTED_MESSAGE_NOT_UPDATED);
+        verify(textEncryptor, times(1)).decrypt(ENCRYPTED_MESSAGE_UPDATED);
+        verify(cardTokenVaultService, times(0)).reveal(anyLong());
     }
 
     @Test
     void givenParameterObjectPageable_whenGetTransactions_thenReturnTransactionsPaginated() {
         when(transactionRepository.findAll(any(PageRequest.class))).thenReturn(new PageImpl<>(Collections.singletonList(transaction)));
         when(textEncryptor.decrypt(any(String.class))).thenReturn(DECRYPTED_MESSAGE);
+        when(cardTokenVaultService.reveal(anyLong())).thenReturn(DECRYPTED_MESSAGE);
 
         var transactions = transactionService.getTransactions(PageRequest.of(0, 20));
         var transactionResponse = transactions.getContent().get(0);
@@ -220,7 +443,8 @@ class TransactionServiceTest {
         );
 
         verify(transactionRepository, times(1)).findAll(any(PageRequest.class));
-        verify(textEncryptor, times(2)).decrypt(any(String.class));
+        verify(textEncryptor, times(1)).decrypt(any(String.class));
+        verify(cardTokenVaultService, times(1)).reveal(anyLong());
     }
 
     @Test
@@ -233,5 +457,118 @@ class TransactionServiceTest {
 
         verify(transactionRepository, times(1)).findAll(any(PageRequest.class));
         verify(textEncryptor, times(0)).decrypt(any(String.class));
+        verify(cardTokenVaultService, times(0)).reveal(anyLong());
+    }
+
+    @Test
+    void givenFilter_whenGetTransactions_thenOnlyMatchedPageIsDecrypted() {
+        var filter = new TransactionFilterDTO(500.0, null, null, null);
+        when(transactionRepository.findAllMatching(eq(filter), any(PageRequest.class))).thenReturn(new PageImpl<>(Collections.singletonList(transaction)));
+        when(textEncryptor.decrypt(any(String.class))).thenReturn(DECRYPTED_MESSAGE);
+        when(cardTokenVaultService.reveal(anyLong())).thenReturn(DECRYPTED_MESSAGE);
+
+        var transactions = transactionService.getTransactions(filter, PageRequest.of(0, 20));
+
+        assertAll("Return matching transactions with decrypted fields",
+                () -> assertEquals(List.of(transaction.getId()), transactions.map(TransactionResponseDTO::id).getContent()),
+                () -> assertEquals(DECRYPTED_MESSAGE, transactions.getContent().get(0).userDocument())
+        );
+
+        verify(transactionRepository, times(0)).findAll(any(PageRequest.class));
+        verify(textEncryptor, times(1)).decrypt(any(String.class));
+        verify(cardTokenVaultService, times(1)).reveal(anyLong());
+    }
+
+    @Test
+    void givenCachedAndUncachedIds_whenGetTransactionsByIds_thenOnlyUncachedIdsAreQueriedInRequestOrder() {
+        var cachedResponse = new TransactionResponseDTO(2L, DECRYPTED_MESSAGE, DECRYPTED_MESSAGE, 2);
+        when(cacheManager.getCache(CacheConstants.GET_TRANSACTION)).thenReturn(cache);
+        cache.put(tenantCacheKey(TenantResolver.DEFAULT_TENANT, 2L), cachedResponse);
+        when(transactionRepository.findAllById(List.of(3L, 1L))).thenReturn(List.of(transaction));
+        when(textEncryptor.decrypt(anyString())).thenReturn(DECRYPTED_MESSAGE);
+        when(cardTokenVaultService.reveal(anyLong())).thenReturn(DECRYPTED_MESSAGE);
+
+        var batchResponse = transactionService.getTransactionsByIds(List.of(3L, 2L, 1L, 2L));
+
+        assertAll("Return cached and loaded transactions in request order with missing ids reported",
+                () -> assertEquals(List.of(2L, 1L), batchResponse.transactions().stream().map(TransactionResponseDTO::id).toList()),
+                () -> assertSame(cachedResponse, batchResponse.transactions().get(0)),
+                () -> assertEquals(List.of(3L), batchResponse.missingIds()),
+                () -> assertSame(batchResponse.transactions().get(1), cache.get(tenantCacheKey(TenantResolver.DEFAULT_TENANT, 1L), TransactionResponseDTO.class)),
+                () -> assertNull(cache.get(tenantCacheKey(TenantResolver.DEFAULT_TENANT, 3L)))
+        );
+
+        verify(transactionRepository, times(1)).findAllById(List.of(3L, 1L));
+        verify(textEncryptor, times(1)).decrypt(anyString());
+        verify(cardTokenVaultService, times(1)).reveal(anyLong());
+    }
+
+    @Test
+    void givenManyUncachedIds_whenGetTransactionsByIds_thenTransactionsAreDecryptedOnTheCallingThread() {
+        var ids = LongStream.rangeClosed(1, 200).boxed().toList();
+        var transactions = ids.stream()
+                .map(id -> {
+                    var loadedTransaction = new Transaction(id, ENCRYPTED_MESSAGE_NOT_UPDATED, cardToken, id);
+                    loadedTransaction.setTenantId(TenantResolver.DEFAULT_TENANT);
+                    return loadedTransaction;
+                })
+                .toList();
+        var decryptingThreads = ConcurrentHashMap.<Thread>newKeySet();
+        when(cacheManager.getCache(CacheConstants.GET_TRANSACTION)).thenReturn(cache);
+        when(transactionRepository.findAllById(ids)).thenReturn(transactions);
+        when(textEncryptor.decrypt(anyString())).thenAnswer(invocation -> {
+            decryptingThreads.add(Thread.currentThread());
+            return DECRYPTED_MESSAGE;
+        });
+        when(cardTokenVaultService.reveal(anyLong())).thenReturn(DECRYPTED_MESSAGE);
+
+        var batchResponse = transactionService.getTransactionsByIds(ids);
+
+        assertAll("Decryption stays on the thread holding the shard, tenant and audit context",
+                () -> assertEquals(ids, batchResponse.transactions().stream().map(TransactionResponseDTO::id).toList()),
+                () -> assertEquals(Set.of(Thread.currentThread()), decryptingThreads)
+        );
+    }
+
+    @Test
+    void givenAllIdsCached_whenGetTransactionsByIds_thenDatabaseIsNotQueried() {
+        var cachedResponse = new TransactionResponseDTO(1L, DECRYPTED_MESSAGE, DECRYPTED_MESSAGE, 1);
+        when(cacheManager.getCache(CacheConstants.GET_TRANSACTION)).thenReturn(cache);
+        cache.put(tenantCacheKey(TenantResolver.DEFAULT_TENANT, 1L), cachedResponse);
+
+        var batchResponse = transactionService.getTransactionsByIds(List.of(1L));
+
+        assertAll("Return cached transaction without missing ids",
+                () -> assertEquals(List.of(cachedResponse), batchResponse.transactions()),
+                () -> assertTrue(batchResponse.missingIds().isEmpty())
+        );
+
+        verify(transactionRepository, times(0)).findAllById(any());
+        verify(textEncryptor, times(0)).decrypt(anyString());
+        verify(cardTokenVaultService, times(0)).reveal(anyLong());
+    }
+
+    @Test
+    void givenParameterObjectPageable_whenGetMaskedTransactions_thenReturnMaskedValuesWithoutDecryption() {
+        var maskedTransactionView = mock(MaskedTransactionView.class);
+        when(maskedTransactionView.getId()).thenReturn(1L);
+        when(maskedTransactionView.getUserDocumentSuffix()).thenReturn("8901");
+        when(maskedTransactionView.getCreditCardTokenLastFour()).thenReturn("3456");
+        when(maskedTransactionView.getValue()).thenReturn(1.0);
+        when(transactionRepository.findAllMaskedBy(any(PageRequest.class))).thenReturn(new PageImpl<>(Collections.singletonList(maskedTransactionView)));
+
+        var transactions = transactionService.getMaskedTransactions(PageRequest.of(0, 20));
+        var transactionResponse = transactions.getContent().get(0);
+
+        assertAll("Return transactions with masked fields",
+                () -> assertEquals(1L, transactionResponse.id()),
+                () -> assertEquals("****8901", transactionResponse.userDocument()),
+                () -> assertEquals("****3456", transactionResponse.creditCardToken()),
+                () -> assertEquals(1.0, transactionResponse.value())
+        );
+
+        verify(transactionRepository, times(1)).findAllMaskedBy(any(PageRequest.class));
+        verify(textEncryptor, times(0)).decrypt(anyString());
+        verify(cardTokenVaultService, times(0)).reveal(anyLong());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,118 @@
+package com.jvnyor.cryptographychallenge.storage;
+
+import com.jvnyor.cryptographychallenge.entities.CardToken;
+import com.jvnyor.cryptographychallenge.repositories.CardTokenRepository;
+import com.jvnyor.cryptographychallenge.repositories.TransactionRepository;
+import com.jvnyor.cryptographychallenge.util.TransactionFactory;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares inserts and random point reads of the JPA repository on in-memory H2 with the log-structured store
+ * without fsync, and times replaying the log on reopen.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark -Dtest=LogStructuredTransactionStoreBenchmark}; {@code -Dbenchmark.rounds},
+ * {@code -Dbenchmark.inserts} and {@code -Dbenchmark.reads} size the run. The first round mostly warms up the JIT.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "logging.level.root=WARN",
+        "spring.datasource.url=jdbc:h2:mem:storage-benchmark"
+})
+class LogStructuredTransactionStoreBenchmark {
+
+    private static final int ROUNDS = Integer.getInteger("benchmark.rounds", 2);
+
+    private static final int INSERTS = Integer.getInteger("benchmark.inserts", 50_000);
+
+    private static final int READS = Integer.getInteger("benchmark.reads", 200_000);
+
+    @TempDir
+    private Path directory;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private CardTokenRepository cardTokenRepository;
+
+    @Test
+    void givenSameWorkload_whenRunOnBothEngines_thenLogStoreIsFaster() throws Exception {
+        var cardToken = cardTokenRepository.save(TransactionFactory.createCardToken());
+        Result jpa = null;
+        Result log = null;
+        for (var round = 1; round <= ROUNDS; round++) {
+            jpa = runJpa(cardToken);
+            log = runLog(new CardToken(cardToken.getId(), null, null, null), directory.resolve("round-" + round + ".log"));
+            System.out.println("round " + round + " jpa " + jpa);
+            System.out.println("round " + round + " log " + log);
+        }
+
+        var lastJpa = jpa;
+        var lastLog = log;
+        assertTrue(lastLog.insertsPerSecond() > lastJpa.insertsPerSecond() && lastLog.readsPerSecond() > lastJpa.readsPerSecond(),
+                () -> lastLog + " vs " + lastJpa);
+    }
+
+    private Result runJpa(CardToken cardToken) {
+        var start = System.nanoTime();
+        var ids = new long[INSERTS];
+        for (var i = 0; i < INSERTS; i++) {
+            ids[i] = transactionRepository.save(TransactionFactory.createTransaction(cardToken)).getId();
+        }
+        var inserts = INSERTS / seconds(start);
+
+        var random = new Random(1);
+        start = System.nanoTime();
+        for (var i = 0; i < READS; i++) {
+            transactionRepository.findById(ids[random.nextInt(INSERTS)]);
+        }
+        var reads = READS / seconds(start);
+        transactionRepository.deleteAllInBatch();
+        return new Result(inserts, reads, Double.NaN);
+    }
+
+    private Result runLog(CardToken cardToken, Path path) throws Exception {
+        var ids = new long[INSERTS];
+        double inserts;
+        double reads;
+        try (var store = new LogStructuredTransactionStore(path, false, 0.5)) {
+            var start = System.nanoTime();
+            for (var i = 0; i < INSERTS; i++) {
+                ids[i] = store.save(TransactionFactory.createTransaction(cardToken)).getId();
+            }
+            inserts = INSERTS / seconds(start);
+
+            var random = new Random(1);
+            start = System.nanoTime();
+            for (var i = 0; i < READS; i++) {
+                store.findById(ids[random.nextInt(INSERTS)]);
+            }
+            reads = READS / seconds(start);
+        }
+        var start = System.nanoTime();
+        new LogStructuredTransactionStore(path, false, 0.5).close();
+        return new Result(inserts, reads, (System.nanoTime() - start) / 1e6);
+    }
+
+    private static double seconds(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1e9;
+    }
+
+    private record Result(double insertsPerSecond, double readsPerSecond, double replayMillis) {
+
+        @Override
+        public String toString() {
+            var replay = Double.isNaN(replayMillis) ? "" : String.format(", replay %.0f ms", replayMillis);
+            return String.format("inserts %.0f/s, reads %.0f/s", insertsPerSecond, readsPerSecond) + replay;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.jvnyor.cryptographychallenge.storage;
+
+import com.jvnyor.cryptographychallenge.dtos.TransactionFilterDTO;
+import com.jvnyor.cryptographychallenge.entities.CardToken;
+import com.jvnyor.cryptographychallenge.entities.Transaction;
+import com.jvnyor.cryptographychallenge.repositories.projections.MaskedTransactionView;
+import com.jvnyor.cryptographychallenge.repositories.projections.ValueBounds;
+import com.jvnyor.cryptographychallenge.util.TransactionFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogStructuredTransactionStoreTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void givenSavedTransactions_whenReadUpdatedAndDeleted_thenStoreReflectsLatestRecords() throws IOException {
+        try (var store = openStore()) {
+            var first = store.save(transaction(10));
+            var second = store.save(transaction(30));
+            second.setValue(20);
+            store.save(second);
+            var deleted = store.deleteByID(first.getId());
+
+            assertAll("Latest record of every id is served",
+                    () -> assertEquals(1, deleted),
+                    () -> assertEquals(0, store.deleteByID(first.getId())),
+                    () -> assertTrue(store.findById(first.getId()).isEmpty()),
+                    () -> assertEquals(20, store.findById(second.getId()).orElseThrow().getValue()),
+                    () -> assertEquals(TransactionFactory.USER_DOCUMENT_CIPHERTEXT, store.findById(second.getId()).orElseThrow().getUserDocument()),
+                    () -> assertEquals(7L, store.findById(second.getId()).orElseThrow().getCardToken().getId()),
+                    () -> assertEquals(new ValueBounds(20.0, 20.0), store.findValueBounds(TransactionFactory.USER_DOCUMENT_HASH)),
+                    () -> assertEquals(new ValueBounds(null, null), store.findValueBounds("unknown"))
+            );
+        }
+    }
+
+    @Test
+    void givenTransactions_whenFindAllPaged_thenPagesFollowTheRequestedOrder() throws IOException {
+        try (var store = openStore()) {
+            IntStream.of(50, 10, 40, 20, 30).forEach(value -> store.save(transaction(value)));
+
+            var byIdDescending = store.findAll(PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "id")));
+            var byValue = store.findAll(PageRequest.of(1, 2, Sort.by("value")));
+
+            assertAll("Pages are sliced after sorting",
+                    () -> assertEquals(5, byIdDescending.getTotalElements()),
+                    () -> assertEquals(List.of(5L, 4L), byIdDescending.map(Transaction::getId).getContent()),
+                    () -> assertEquals(List.of(30.0, 40.0), byValue.map(Transaction::getValue).getContent()),
+                    () -> assertEquals(List.of(2L, 4L), store.findAllMaskedBy(PageRequest.of(0, 2, Sort.by("value"))).map(MaskedTransactionView::getId).getContent()),
+                    () -> assertEquals(List.of(3L, 4L), store.findIdsAfter(2L, Limit.of(2))),
+                    () -> assertEquals(List.of(), store.findIdsAfter(5L, Limit.of(2))),
+                    () -> assertEquals(List.of(4L, 5L), store.findAllMatching(new TransactionFilterDTO(20.0, 30.0, null, null), PageRequest.of(0, 2)).map(Transaction::getId).getContent()),
+                    () -> assertEquals(0, store.findAllMatching(new TransactionFilterDTO(null, null, null, Instant.EPOCH), PageRequest.of(0, 2)).getTotalElements())
+            );
+        }
+    }
+
+    @Test
+    void givenTornTailAfterCrash_whenReopened_thenCompleteRecordsAreReplayedAndTailIsTruncated() throws IOException {
+        var store = openStore();
+        store.save(transaction(10));
+        store.save(transaction(20));
+        var validSize = store.getFileSize();
+        store.close();
+        try (var channel = FileChannel.open(logPath(), StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.allocate(12).putInt(200).putInt(0).putInt(42).flip());
+        }
+
+        try (var reopened = openStore()) {
+            var recoveredSize = Files.size(logPath());
+            var next = reopened.save(transaction(30));
+
+            assertAll("Torn record is dropped and ids continue",
+                    () -> assertEquals(validSize, recoveredSize),
+                    () -> assertEquals(20, reopened.findById(2L).orElseThrow().getValue()),
+                    () -> assertEquals(3L, next.getId())
+            );
+        }
+    }
+
+    @Test
+    void givenMostlyGarbage_whenCompactIfNeeded_thenLogShrinksAndSurvivesReopen() throws IOException {
+        var store = openStore();
+        var kept = store.save(transaction(10));
+        IntStream.range(0, 20).forEach(index -> {
+            kept.setValue(index);
+            store.save(kept);
+        });
+        var last = store.save(transaction(99));
+        store.deleteByID(last.getId());
+        var sizeBeforeCompaction = store.getFileSize();
+
+        store.compactIfNeeded();
+        var sizeAfterCompaction = store.getFileSize();
+        store.close();
+
+        try (var reopened = openStore()) {
+            assertAll("Only the live record and the id high-water mark remain",
+                    () -> assertTrue(sizeAfterCompaction < sizeBeforeCompaction / 10),
+                    () -> assertEquals(19, reopened.findById(kept.getId()).orElseThrow().getValue()),
+                    () -> assertFalse(reopened.existsById(last.getId())),
+                    () -> assertEquals(last.getId() + 1, reopened.save(transaction(1)).getId())
+            );
+        }
+    }
+
+    private LogStructuredTransactionStore openStore() {
+        return new LogStructuredTransactionStore(logPath(), false, 0.5);
+    }
+
+    private Path logPath() {
+        return directory.resolve("transactions.log");
+    }
+
+    private static Transaction transaction(double value) {
+        var transaction = TransactionFactory.createTransaction(new CardToken(7L, null, null, null));
+        transaction.setValue(value);
+        return transaction;
+    }
+}
@@ -0,0 +1,129 @@
+package com.jvnyor.cryptographychallenge.tenant;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jvnyor.cryptographychallenge.dtos.TransactionRequestDTO;
+import com.jvnyor.cryptographychallenge.dtos.TransactionResponseDTO;
+import com.jvnyor.cryptographychallenge.repositories.TransactionRepository;
+import com.jvnyor.cryptographychallenge.services.exceptions.TransactionNotFoundException;
+import org.jasypt.exceptions.EncryptionOperationNotPossibleException;
+import org.jasypt.util.text.AES256TextEncryptor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class TenantEncryptionIntegrationTest {
+
+    private static final String URL_TEMPLATE = "/v1/transactions";
+
+    private static final String TENANT_HEADER = "X-Tenant-Id";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private AES256TextEncryptor textEncryptor;
+
+    @Autowired
+    private TenantEncryptors tenantEncryptors;
+
+    @Test
+    void givenTenantHeader_whenCreateAndGetTransaction_thenTransactionIsStoredUnderTheTenantKey() throws Exception {
+        var request = new TransactionRequestDTO("tenant-user-1", "4111111111111121", 15);
+        var body = mockMvc.perform(post(URL_TEMPLATE)
+                        .header(TENANT_HEADER, "merchant-a")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        var created = objectMapper.readValue(body, TransactionResponseDTO.class);
+
+        var stored = transactionRepository.findById(created.id()).orElseThrow();
+
+        mockMvc.perform(get(URL_TEMPLATE + "/" + created.id()).header(TENANT_HEADER, "merchant-a"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userDocument").value("tenant-user-1"))
+                .andExpect(jsonPath("$.creditCardToken").value("4111111111111121"));
+        assertAll("Store the tenant with a ciphertext the master key cannot read",
+                () -> assertEquals("merchant-a", stored.getTenantId()),
+                () -> assertThrows(EncryptionOperationNotPossibleException.class, () -> textEncryptor.decrypt(stored.getUserDocument()))
+        );
+    }
+
+    @Test
+    void givenTransactionOfAnotherTenant_whenReadOrWrittenById_thenItIsNotFound() throws Exception {
+        var request = new TransactionRequestDTO("tenant-user-4", "4111111111111124", 15);
+        var body = mockMvc.perform(post(URL_TEMPLATE)
+                        .header(TENANT_HEADER, "merchant-a")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        var id = objectMapper.readValue(body, TransactionResponseDTO.class).id();
+        mockMvc.perform(get(URL_TEMPLATE + "/" + id).header(TENANT_HEADER, "merchant-a"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get(URL_TEMPLATE + "/" + id).header(TENANT_HEADER, "merchant-b"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.exceptionName").value(TransactionNotFoundException.class.getSimpleName()));
+        mockMvc.perform(get(URL_TEMPLATE + "/" + id))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get(URL_TEMPLATE).param("ids", Long.toString(id)).header(TENANT_HEADER, "merchant-b"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transactions").isEmpty())
+                .andExpect(jsonPath("$.missingIds[0]").value(id));
+        mockMvc.perform(put(URL_TEMPLATE + "/" + id)
+                        .header(TENANT_HEADER, "merchant-b")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TransactionRequestDTO("tenant-user-4", "4111111111111124", 99))))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get(URL_TEMPLATE).param("ids", Long.toString(id)).header(TENANT_HEADER, "merchant-a"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transactions[0].value").value(15))
+                .andExpect(jsonPath("$.missingIds").isEmpty());
+    }
+
+    @Test
+    void givenInvalidTenantHeader_whenCreateTransaction_thenExceptionIsThrown() throws Exception {
+        var request = new TransactionRequestDTO("tenant-user-2", "4111111111111122", 15);
+
+        mockMvc.perform(post(URL_TEMPLATE)
+                        .header(TENANT_HEADER, "merchant a/../b")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.exceptionName").value(InvalidTenantException.class.getSimpleName()));
+    }
+
+    @Test
+    void givenUnregisteredTenantHeader_whenCreateTransaction_thenRequestIsForbiddenWithoutDerivingAKey() throws Exception {
+        var request = new TransactionRequestDTO("tenant-user-3", "4111111111111123", 15);
+        var missesBefore = tenantEncryptors.getStatistics().missCount();
+
+        mockMvc.perform(post(URL_TEMPLATE)
+                        .header(TENANT_HEADER, "merchant-unknown")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.exceptionName").value(UnknownTenantException.class.getSimpleName()));
+
+        assertEquals(missesBefore, tenantEncryptors.getStatistics().missCount());
+    }
+}
@@ -0,0 +1,78 @@
+package com.jvnyor.cryptographychallenge.tenant;
+
+import org.jasypt.util.text.AES256TextEncryptor;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Times deriving the keys of many tenants at the configured number of PBKDF2 iterations, then compares parallel
+ * encrypt and decrypt throughput when every operation uses one tenant's key with when operations are spread over all
+ * the warm tenants.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark -Dtest=TenantEncryptorsBenchmark}; {@code -Dbenchmark.tenants},
+ * {@code -Dbenchmark.iterations}, {@code -Dbenchmark.rounds} and {@code -Dbenchmark.operations} size the run. The
+ * fastest round of each kind is kept.
+ */
+@Tag("benchmark")
+class TenantEncryptorsBenchmark {
+
+    private static final int TENANTS = Integer.getInteger("benchmark.tenants", 1000);
+
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 210_000);
+
+    private static final int ROUNDS = Integer.getInteger("benchmark.rounds", 3);
+
+    private static final int OPERATIONS = Integer.getInteger("benchmark.operations", 5000);
+
+    private static final String PASSWORD = "password";
+
+    private static final String MESSAGE = "12345678901";
+
+    @Test
+    void givenWarmTenants_whenSpreadingOperations_thenThroughputMatchesSingleTenant() {
+        var masterEncryptor = new AES256TextEncryptor();
+        masterEncryptor.setPassword(PASSWORD);
+        var tenantEncryptors = new TenantEncryptors(masterEncryptor, PASSWORD, ITERATIONS, TENANTS * 10L, Duration.ofHours(1));
+        var tenants = IntStream.range(0, TENANTS).mapToObj(i -> "tenant-" + i).toArray(String[]::new);
+        var start = System.nanoTime();
+        for (var tenant : tenants) {
+            tenantEncryptors.forTenant(tenant);
+        }
+        var deriveSeconds = (System.nanoTime() - start) / 1e9;
+
+        var single = 0.0;
+        var spread = 0.0;
+        for (var round = 0; round < ROUNDS; round++) {
+            single = Math.max(single, operationsPerSecond(tenantEncryptors, new String[]{tenants[0]}));
+            spread = Math.max(spread, operationsPerSecond(tenantEncryptors, tenants));
+        }
+        var statistics = tenantEncryptors.getStatistics();
+
+        System.out.printf("derived %d tenants at %d iterations in %.1f s, %.1f ms per derivation%n",
+                TENANTS, ITERATIONS, deriveSeconds, statistics.averageDerivationMillis());
+        System.out.printf("encrypt+decrypt one tenant %.0f/s, %d tenants %.0f/s%n", single, TENANTS, spread);
+        var oneTenant = single;
+        var allTenants = spread;
+        // Allows for run-to-run noise; warm tenants must not cost throughput
+        assertAll("Warm tenants are served from the cache",
+                () -> assertEquals(TENANTS, statistics.missCount()),
+                () -> assertTrue(allTenants >= oneTenant * 0.9, () -> allTenants + "/s vs " + oneTenant + "/s")
+        );
+    }
+
+    private static double operationsPerSecond(TenantEncryptors tenantEncryptors, String[] tenants) {
+        var start = System.nanoTime();
+        IntStream.range(0, OPERATIONS).parallel().forEach(i -> {
+            var encryptor = tenantEncryptors.forTenant(tenants[i % tenants.length]);
+            encryptor.decrypt(encryptor.encrypt(MESSAGE));
+        });
+        return OPERATIONS / ((System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,60 @@
+package com.jvnyor.cryptographychallenge.tenant;
+
+import org.jasypt.exceptions.EncryptionOperationNotPossibleException;
+import org.jasypt.util.text.AES256TextEncryptor;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TenantEncryptorsTest {
+
+    private static final String PASSWORD = "password";
+
+    private static final String MESSAGE = "12345678901";
+
+    @Test
+    void givenTenants_whenForTenant_thenEveryTenantEncryptsWithItsOwnReproducibleKey() {
+        var masterEncryptor = masterEncryptor();
+        var tenantEncryptors = tenantEncryptors(masterEncryptor);
+        var ciphertext = tenantEncryptors.forTenant("merchant-a").encrypt(MESSAGE);
+
+        assertAll("Derive a distinct key per tenant and the master key for the default tenant",
+                () -> assertSame(masterEncryptor, tenantEncryptors.forTenant(TenantResolver.DEFAULT_TENANT)),
+                () -> assertEquals(MESSAGE, tenantEncryptors(masterEncryptor()).forTenant("merchant-a").decrypt(ciphertext)),
+                () -> assertThrows(EncryptionOperationNotPossibleException.class, () -> tenantEncryptors.forTenant("merchant-b").decrypt(ciphertext)),
+                () -> assertThrows(EncryptionOperationNotPossibleException.class, () -> masterEncryptor.decrypt(ciphertext))
+        );
+    }
+
+    @Test
+    void givenRepeatedRequests_whenForTenant_thenKeyIsDerivedOncePerTenant() {
+        var tenantEncryptors = tenantEncryptors(masterEncryptor());
+
+        var first = tenantEncryptors.forTenant("merchant-a");
+        var second = tenantEncryptors.forTenant("merchant-a");
+        tenantEncryptors.forTenant("merchant-a");
+        tenantEncryptors.forTenant("merchant-b");
+        tenantEncryptors.forTenant(TenantResolver.DEFAULT_TENANT);
+        var statistics = tenantEncryptors.getStatistics();
+
+        assertAll("Serve derived encryptors from the cache",
+                () -> assertSame(first, second),
+                () -> assertEquals(2, statistics.size()),
+                () -> assertEquals(2, statistics.missCount()),
+                () -> assertEquals(2, statistics.hitCount()),
+                () -> assertEquals(0.5, statistics.hitRate())
+        );
+    }
+
+    private static AES256TextEncryptor masterEncryptor() {
+        var masterEncryptor = new AES256TextEncryptor();
+        masterEncryptor.setPassword(PASSWORD);
+        return masterEncryptor;
+    }
+
+    private static TenantEncryptors tenantEncryptors(AES256TextEncryptor masterEncryptor) {
+        return new TenantEncryptors(masterEncryptor, PASSWORD, 1000, 100, Duration.ofHours(1));
+    }
+}
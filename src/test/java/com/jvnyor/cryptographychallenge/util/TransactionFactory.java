@@ -1,12 +1,32 @@
 package com.jvnyor.cryptographychallenge.util;
 
+import com.jvnyor.cryptographychallenge.entities.CardToken;
 import com.jvnyor.cryptographychallenge.entities.Transaction;
+import com.jvnyor.cryptographychallenge.tenant.TenantResolver;
 
 public class TransactionFactory {
+
+    public static final String USER_DOCUMENT_CIPHERTEXT = "MTIzNDU2Nzg5MDE=";
+
+    public static final String CREDIT_CARD_TOKEN_CIPHERTEXT = "MTIzNDU2Nzg5MDEyMzQ1Ng==";
+
+    public static final String USER_DOCUMENT_HASH = "a".repeat(64);
+
+    public static final String CREDIT_CARD_TOKEN_HASH = "b".repeat(64);
+
     private TransactionFactory() {
     }
 
-    public static Transaction createTransaction() {
-        return new Transaction(null, "12345678901", "1234567890123456", 1000.0);
+    public static CardToken createCardToken() {
+        return new CardToken(null, TenantResolver.DEFAULT_TENANT, CREDIT_CARD_TOKEN_HASH, CREDIT_CARD_TOKEN_CIPHERTEXT);
+    }
+
+    public static Transaction createTransaction(CardToken cardToken) {
+        var transaction = new Transaction(null, USER_DOCUMENT_CIPHERTEXT, cardToken, 1000.0);
+        transaction.setTenantId(TenantResolver.DEFAULT_TENANT);
+        transaction.setUserDocumentHash(USER_DOCUMENT_HASH);
+        transaction.setUserDocumentSuffix("8901");
+        transaction.setCreditCardTokenLastFour("3456");
+        return transaction;
     }
 }
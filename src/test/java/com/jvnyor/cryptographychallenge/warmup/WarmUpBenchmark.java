@@ -0,0 +1,127 @@
+package com.jvnyor.cryptographychallenge.warmup;
+
+import com.jvnyor.cryptographychallenge.CryptographyChallengeApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Times the first requests an application serves once it reports ready, with warm-up disabled and enabled. Warm-up
+ * only pays off in a cold JVM, so every run starts the application in a JVM of its own and waits for its readiness
+ * state to become {@code ACCEPTING_TRAFFIC} before sending creates, gets by id and sorted listings in turn.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark -Dtest=WarmUpBenchmark}; {@code -Dbenchmark.rounds} and
+ * {@code -Dbenchmark.requests} size the run.
+ */
+@Tag("benchmark")
+class WarmUpBenchmark {
+
+    private static final int ROUNDS = Integer.getInteger("benchmark.rounds", 3);
+
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 1000);
+
+    private static final String READY = "ACCEPTING_TRAFFIC";
+
+    @Test
+    void givenColdJvm_whenWarmUpEnabled_thenFirstRequestsAreFaster() throws Exception {
+        var cold = new Run[ROUNDS];
+        var warm = new Run[ROUNDS];
+        for (var round = 0; round < ROUNDS; round++) {
+            cold[round] = run(false);
+            warm[round] = run(true);
+        }
+
+        var coldFirst100 = meanMillis(cold, 0, 100);
+        var warmFirst100 = meanMillis(warm, 0, 100);
+        System.out.printf("warm-up=off first 10 %.1f ms, first 100 %.1f ms, 100-%d %.1f ms mean per request, ready after %.1f s%n",
+                meanMillis(cold, 0, 10), coldFirst100, REQUESTS, meanMillis(cold, 100, REQUESTS), readySeconds(cold));
+        System.out.printf("warm-up=on  first 10 %.1f ms, first 100 %.1f ms, 100-%d %.1f ms mean per request, ready after %.1f s%n",
+                meanMillis(warm, 0, 10), warmFirst100, REQUESTS, meanMillis(warm, 100, REQUESTS), readySeconds(warm));
+        assertTrue(warmFirst100 < coldFirst100, () -> warmFirst100 + " ms vs " + coldFirst100 + " ms");
+    }
+
+    private Run run(boolean warmUpEnabled) throws Exception {
+        int port;
+        try (var socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        var java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        var start = System.nanoTime();
+        var process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), CryptographyChallengeApplication.class.getName(),
+                "--server.port=" + port,
+                "--logging.level.root=WARN",
+                "--logging.level.org.springframework.boot.availability=DEBUG",
+                "--app.warm-up.enabled=" + warmUpEnabled)
+                .redirectErrorStream(true)
+                .start();
+        try {
+            var output = new BufferedReader(new InputStreamReader(process.getInputStream()));
+            String line;
+            while ((line = output.readLine()) != null && !line.contains(READY)) {
+                // Skips startup output until the application is ready
+            }
+            if (line == null) {
+                throw new IllegalStateException("Application exited before it was ready");
+            }
+            var readyNanos = System.nanoTime() - start;
+            var drain = new Thread(() -> output.lines().forEach(ignored -> {
+            }));
+            drain.setDaemon(true);
+            drain.start();
+            return new Run(readyNanos, send(port));
+        } finally {
+            process.destroy();
+            process.waitFor(30, TimeUnit.SECONDS);
+        }
+    }
+
+    private static long[] send(int port) throws Exception {
+        var http = HttpClient.newHttpClient();
+        var baseUri = "http://localhost:" + port + "/v1/transactions";
+        var latencies = new long[REQUESTS];
+        for (var i = 0; i < REQUESTS; i++) {
+            var request = switch (i % 4) {
+                case 0, 2 -> HttpRequest.newBuilder(URI.create(baseUri))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"userDocument\":\"user" + i % 50
+                                + "\",\"creditCardToken\":\"41111111111" + (10000 + i) + "\",\"value\":" + (i + 1) + "}"))
+                        .build();
+                case 1 -> HttpRequest.newBuilder(URI.create(baseUri + "/" + (i / 2 + 1))).build();
+                default -> HttpRequest.newBuilder(URI.create(baseUri + "?page=0&size=20&sort=value,desc")).build();
+            };
+            var start = System.nanoTime();
+            var response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            latencies[i] = System.nanoTime() - start;
+            if (response.statusCode() >= 400) {
+                throw new IllegalStateException("Request " + i + " failed with " + response.statusCode() + ": " + response.body());
+            }
+        }
+        return latencies;
+    }
+
+    private static double meanMillis(Run[] runs, int from, int to) {
+        return Arrays.stream(runs)
+                .flatMapToLong(run -> Arrays.stream(run.latencies(), from, to))
+                .average()
+                .orElseThrow() / 1e6;
+    }
+
+    private static double readySeconds(Run[] runs) {
+        return Arrays.stream(runs).mapToLong(Run::readyNanos).average().orElseThrow() / 1e9;
+    }
+
+    private record Run(long readyNanos, long[] latencies) {
+    }
+}
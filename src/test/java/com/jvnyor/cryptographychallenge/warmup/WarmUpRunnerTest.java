@@ -0,0 +1,95 @@
+package com.jvnyor.cryptographychallenge.warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jvnyor.cryptographychallenge.datasource.ShardTemplate;
+import com.jvnyor.cryptographychallenge.dtos.TransactionBatchResponseDTO;
+import com.jvnyor.cryptographychallenge.entities.Transaction;
+import com.jvnyor.cryptographychallenge.repositories.TransactionStore;
+import com.jvnyor.cryptographychallenge.services.TransactionAggregateService;
+import com.jvnyor.cryptographychallenge.services.TransactionService;
+import com.jvnyor.cryptographychallenge.util.KeyedHasher;
+import org.jasypt.util.text.AES256TextEncryptor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WarmUpRunnerTest {
+
+    private static final int ITERATIONS = 3;
+
+    @Mock
+    private AES256TextEncryptor textEncryptor;
+
+    @Mock
+    private KeyedHasher keyedHasher;
+
+    @Mock
+    private TransactionStore transactionStore;
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private TransactionAggregateService transactionAggregateService;
+
+    @Spy
+    private ShardTemplate shardTemplate = ShardTemplate.single();
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private WarmUpRunner warmUpRunner;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(warmUpRunner, "iterations", ITERATIONS);
+        ReflectionTestUtils.setField(warmUpRunner, "prepopulateCache", 2);
+    }
+
+    @Test
+    void givenRecentTransactions_whenRun_thenHotPathsAreExercisedAndRecentTransactionsAreCached() {
+        when(transactionStore.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(transaction(3), transaction(2))));
+        when(transactionService.getTransactionsByIds(List.of(3L, 2L))).thenReturn(new TransactionBatchResponseDTO(List.of(), List.of()));
+
+        warmUpRunner.run(new DefaultApplicationArguments());
+
+        verify(textEncryptor, times(ITERATIONS)).encrypt(anyString());
+        verify(transactionStore, times(ITERATIONS)).findById(0L);
+        verify(transactionAggregateService, times(ITERATIONS)).getUserAggregate(any());
+        verify(transactionService, times(1)).getTransactionsByIds(List.of(3L, 2L));
+    }
+
+    @Test
+    void givenFailingRepositories_whenRun_thenRemainingPhasesStillRun() throws Exception {
+        when(transactionStore.findById(0L)).thenThrow(new IllegalStateException("database unavailable"));
+        when(transactionStore.findAll(any(Pageable.class))).thenReturn(Page.empty());
+        when(transactionService.getTransactionsByIds(List.of())).thenReturn(new TransactionBatchResponseDTO(List.of(), List.of()));
+
+        warmUpRunner.run(new DefaultApplicationArguments());
+
+        verify(textEncryptor, times(ITERATIONS)).encrypt(anyString());
+        verify(objectMapper, atLeastOnce()).writeValueAsBytes(any());
+        verify(transactionStore, times(1)).findAll(any(Pageable.class));
+    }
+
+    private static Transaction transaction(long id) {
+        return new Transaction(id, null, null, id);
+    }
+}